@@ -168,6 +168,10 @@ Composite jjjj_uceChild = jjjj_uceCreate(getPageContainer());
 
 Composite cgcg_chaChild = cgcg_chaCreate(getPageContainer());
 
+Composite cgcg_rtaChild = cgcg_rtaCreate(getPageContainer());
+
+Composite cgcg_vtaChild = cgcg_vtaCreate(getPageContainer());
+
 Composite cgcg_sparkChild = cgcg_sparkCreate(getPageContainer());
 
 Composite cgcg_paddleChild = cgcg_paddleCreate(getPageContainer());
@@ -336,6 +340,30 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		}
 
 			
+		if (isEnableButton("enabled")) {
+			buttonList.add(getcgcg_rtaenabled_widget());	
+			getcgcg_rtaenabled_widget().getButton().addSelectionListener(this);
+		}
+
+			
+		if (isEnableButton("verbose")) {
+			buttonList.add(getcgcg_rtaverbose_widget());	
+			getcgcg_rtaverbose_widget().getButton().addSelectionListener(this);
+		}
+
+			
+		if (isEnableButton("enabled")) {
+			buttonList.add(getcgcg_vtaenabled_widget());	
+			getcgcg_vtaenabled_widget().getButton().addSelectionListener(this);
+		}
+
+			
+		if (isEnableButton("verbose")) {
+			buttonList.add(getcgcg_vtaverbose_widget());	
+			getcgcg_vtaverbose_widget().getButton().addSelectionListener(this);
+		}
+
+			
 		if (isEnableButton("enabled")) {
 			buttonList.add(getcgcg_sparkenabled_widget());	
 			getcgcg_sparkenabled_widget().getButton().addSelectionListener(this);
@@ -738,6 +766,30 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		getcgcg_chaverbose_widget().getButton().addSelectionListener(this);
 		
 		
+		makeNewEnableGroup("cg", "cg.rta");
+		
+		
+		addToEnableGroup("cg", "cg.rta", getcgcg_rtaenabled_widget(), "enabled");
+		
+		addToEnableGroup("cg", "cg.rta", getcgcg_rtaverbose_widget(), "verbose");
+		
+		getcgcg_rtaenabled_widget().getButton().addSelectionListener(this);
+		
+		getcgcg_rtaverbose_widget().getButton().addSelectionListener(this);
+		
+		
+		makeNewEnableGroup("cg", "cg.vta");
+		
+		
+		addToEnableGroup("cg", "cg.vta", getcgcg_vtaenabled_widget(), "enabled");
+		
+		addToEnableGroup("cg", "cg.vta", getcgcg_vtaverbose_widget(), "verbose");
+		
+		getcgcg_vtaenabled_widget().getButton().addSelectionListener(this);
+		
+		getcgcg_vtaverbose_widget().getButton().addSelectionListener(this);
+		
+		
 		makeNewEnableGroup("cg", "cg.spark");
 		
 		
@@ -799,6 +851,9 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		addToEnableGroup("cg", "cg.spark", getcgcg_sparkpropagator_widget(), "propagator");
 
 		
+		addToEnableGroup("cg", "cg.spark", getcgcg_sparkworklist_order_widget(), "worklist-order");
+
+		
 		addToEnableGroup("cg", "cg.spark", getcgcg_sparkset_impl_widget(), "set-impl");
 
 		
@@ -871,6 +926,9 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		addToEnableGroup("cg", "cg.spark", getcgcg_sparkgeom_runs_widget(), "geom-runs");
 
 		
+		addToEnableGroup("cg", "cg.spark", getcgcg_sparkgeom_threads_widget(), "geom-threads");
+
+		
 		
 		makeNewEnableGroup("cg", "cg.paddle");
 		
@@ -1180,6 +1238,8 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		addToEnableGroup("wjap", "wjap.purity", getwjapwjap_purityverbose_widget(), "verbose");
 		
+		addToEnableGroup("wjap", "wjap.purity", getwjapwjap_puritythreads_widget(), "threads");
+		
 		getwjapwjap_purityenabled_widget().getButton().addSelectionListener(this);
 		
 		getwjapwjap_puritydump_summaries_widget().getButton().addSelectionListener(this);
@@ -2934,6 +2994,46 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 			getConfig().put(getcgcg_chaverbose_widget().getAlias(), new Boolean(boolRes));
 		}
 		
+		boolRes = getcgcg_rtaenabled_widget().getButton().getSelection();
+		
+		
+		defBoolRes = false;
+		
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getcgcg_rtaenabled_widget().getAlias(), new Boolean(boolRes));
+		}
+		
+		boolRes = getcgcg_rtaverbose_widget().getButton().getSelection();
+		
+		
+		defBoolRes = false;
+		
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getcgcg_rtaverbose_widget().getAlias(), new Boolean(boolRes));
+		}
+		
+		boolRes = getcgcg_vtaenabled_widget().getButton().getSelection();
+		
+		
+		defBoolRes = false;
+		
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getcgcg_vtaenabled_widget().getAlias(), new Boolean(boolRes));
+		}
+		
+		boolRes = getcgcg_vtaverbose_widget().getButton().getSelection();
+		
+		
+		defBoolRes = false;
+		
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getcgcg_vtaverbose_widget().getAlias(), new Boolean(boolRes));
+		}
+		
 		boolRes = getcgcg_sparkenabled_widget().getButton().getSelection();
 		
 		
@@ -3124,6 +3224,16 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 			getConfig().put(getcgcg_sparkpropagator_widget().getAlias(), stringRes);
 		}
 		 
+		stringRes = getcgcg_sparkworklist_order_widget().getSelectedAlias();
+
+		
+		defStringRes = "topo";
+		
+
+		if (!stringRes.equals(defStringRes)) {
+			getConfig().put(getcgcg_sparkworklist_order_widget().getAlias(), stringRes);
+		}
+		 
 		stringRes = getcgcg_sparkset_impl_widget().getSelectedAlias();
 
 		
@@ -3356,6 +3466,15 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 	        if ( (!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
 			getConfig().put(getcgcg_sparkgeom_runs_widget().getAlias(), stringRes);
 		}
+		
+		stringRes = getcgcg_sparkgeom_threads_widget().getText().getText();
+		
+		defStringRes = "1";
+		
+
+	        if ( (!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getcgcg_sparkgeom_threads_widget().getAlias(), stringRes);
+		}
 		 
 		stringRes = getcgcg_sparkgeom_encoding_widget().getSelectedAlias();
 
@@ -4121,6 +4240,24 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 			getConfig().put(getwjapwjap_purityverbose_widget().getAlias(), new Boolean(boolRes));
 		}
 		
+		stringRes = getwjapwjap_puritythreads_widget().getText().getText();
+		
+		defStringRes = "1";
+		
+
+	        if ( (!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getwjapwjap_puritythreads_widget().getAlias(), stringRes);
+		}
+		
+		stringRes = getwjapwjap_puritysummaries_file_widget().getText().getText();
+		
+		defStringRes = "";
+		
+
+	        if ( (!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getwjapwjap_puritysummaries_file_widget().getAlias(), stringRes);
+		}
+		
 		boolRes = getshimpleenabled_widget().getButton().getSelection();
 		
 		
@@ -5591,6 +5728,26 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 			subSectParent = cg_cg_cha_branch;
 			
 			
+			SootOption cg_cg_rta_branch = new SootOption("Rapid Type Analysis", "cgcg_rta");
+			subParent.addChild(cg_cg_rta_branch);
+
+
+			
+
+			
+			subSectParent = cg_cg_rta_branch;
+			
+			
+			SootOption cg_cg_vta_branch = new SootOption("Variable Type Analysis", "cgcg_vta");
+			subParent.addChild(cg_cg_vta_branch);
+
+
+			
+
+			
+			subSectParent = cg_cg_vta_branch;
+			
+			
 			SootOption cg_cg_spark_branch = new SootOption("Spark", "cgcg_spark");
 			subParent.addChild(cg_cg_spark_branch);
 
@@ -7473,6 +7630,46 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		return cgcg_chaverbose_widget;
 	}	
 	
+	private BooleanOptionWidget cgcg_rtaenabled_widget;
+	
+	private void setcgcg_rtaenabled_widget(BooleanOptionWidget widget) {
+		cgcg_rtaenabled_widget = widget;
+	}
+	
+	public BooleanOptionWidget getcgcg_rtaenabled_widget() {
+		return cgcg_rtaenabled_widget;
+	}	
+	
+	private BooleanOptionWidget cgcg_rtaverbose_widget;
+	
+	private void setcgcg_rtaverbose_widget(BooleanOptionWidget widget) {
+		cgcg_rtaverbose_widget = widget;
+	}
+	
+	public BooleanOptionWidget getcgcg_rtaverbose_widget() {
+		return cgcg_rtaverbose_widget;
+	}	
+	
+	private BooleanOptionWidget cgcg_vtaenabled_widget;
+	
+	private void setcgcg_vtaenabled_widget(BooleanOptionWidget widget) {
+		cgcg_vtaenabled_widget = widget;
+	}
+	
+	public BooleanOptionWidget getcgcg_vtaenabled_widget() {
+		return cgcg_vtaenabled_widget;
+	}	
+	
+	private BooleanOptionWidget cgcg_vtaverbose_widget;
+	
+	private void setcgcg_vtaverbose_widget(BooleanOptionWidget widget) {
+		cgcg_vtaverbose_widget = widget;
+	}
+	
+	public BooleanOptionWidget getcgcg_vtaverbose_widget() {
+		return cgcg_vtaverbose_widget;
+	}	
+	
 	private BooleanOptionWidget cgcg_sparkenabled_widget;
 	
 	private void setcgcg_sparkenabled_widget(BooleanOptionWidget widget) {
@@ -7666,6 +7863,18 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 	
 	
 	
+	private MultiOptionWidget cgcg_sparkworklist_order_widget;
+	
+	private void setcgcg_sparkworklist_order_widget(MultiOptionWidget widget) {
+		cgcg_sparkworklist_order_widget = widget;
+	}
+	
+	public MultiOptionWidget getcgcg_sparkworklist_order_widget() {
+		return cgcg_sparkworklist_order_widget;
+	}	
+	
+	
+	
 	private MultiOptionWidget cgcg_sparkset_impl_widget;
 	
 	private void setcgcg_sparkset_impl_widget(MultiOptionWidget widget) {
@@ -7926,6 +8135,18 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 	
 	
 	
+	private StringOptionWidget cgcg_sparkgeom_threads_widget;
+	
+	private void setcgcg_sparkgeom_threads_widget(StringOptionWidget widget) {
+		cgcg_sparkgeom_threads_widget = widget;
+	}
+	
+	public StringOptionWidget getcgcg_sparkgeom_threads_widget() {
+		return cgcg_sparkgeom_threads_widget;
+	}
+	
+	
+	
 	private MultiOptionWidget cgcg_sparkgeom_encoding_widget;
 	
 	private void setcgcg_sparkgeom_encoding_widget(MultiOptionWidget widget) {
@@ -8733,6 +8954,30 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		return wjapwjap_purityverbose_widget;
 	}	
 	
+	
+	private StringOptionWidget wjapwjap_puritythreads_widget;
+	
+	private void setwjapwjap_puritythreads_widget(StringOptionWidget widget) {
+		wjapwjap_puritythreads_widget = widget;
+	}
+	
+	public StringOptionWidget getwjapwjap_puritythreads_widget() {
+		return wjapwjap_puritythreads_widget;
+	}
+	
+	
+	
+	private StringOptionWidget wjapwjap_puritysummaries_file_widget;
+	
+	private void setwjapwjap_puritysummaries_file_widget(StringOptionWidget widget) {
+		wjapwjap_puritysummaries_file_widget = widget;
+	}
+	
+	public StringOptionWidget getwjapwjap_puritysummaries_file_widget() {
+		return wjapwjap_puritysummaries_file_widget;
+	}
+	
+	
 	private BooleanOptionWidget shimpleenabled_widget;
 	
 	private void setshimpleenabled_widget(BooleanOptionWidget widget) {
@@ -10301,6 +10546,12 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		false),
 		
+		new OptionData("Binary Jimple File",
+		"jbin",
+		"\nTry to resolve classes first from .jbin files found in the Soot \nclasspath, as written by the jbin output format. Fall back to \n.class, .jimple or .java files only when unable to find a .jbin \nfile. ",
+		
+		false),
+		
 		};
 		
 										
@@ -10626,6 +10877,12 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		false),
 		
+		new OptionData("Binary Jimple File",
+		"jbin",
+		"\nProduce .jbin files, a compact binary form of Jimple that Soot \nreads back with -src-prec jbin much faster than .jimple files. \nEach method body can be decoded on its own, without decoding the \nrest of the file. Of the tags, only line numbers of statements \nare kept. ",
+		
+		false),
+		
 		};
 		
 										
@@ -12698,7 +12955,7 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 			
 		}
 
-		setcgreflection_log_widget(new StringOptionWidget(editGroupcg, SWT.NONE, new OptionData("Reflection Log",  "p", "cg","reflection-log", "\nLoad a reflection log from the given file and use this log to \nresolve reflective call sites. Note that when a log is given, \nthe following other options have no effect: safe-forname, \nsafe-newinstance. ", defaultString)));
+		setcgreflection_log_widget(new StringOptionWidget(editGroupcg, SWT.NONE, new OptionData("Reflection Log",  "p", "cg","reflection-log", "\nLoad a reflection log from the given file and use this log to \nresolve reflective call sites. Several logs can be given, \nseparated by the path separator of the platform. Note that when \na log is given, the following other options have no effect: \nsafe-forname, safe-newinstance. \n", defaultString)));
 		
 		
 		defKey = "p"+" "+"cg"+" "+"guards";
@@ -12784,6 +13041,130 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 
 
 
+	private Composite cgcg_rtaCreate(Composite parent) {
+		String defKey;
+		String defaultString;
+		boolean defaultBool = false;
+	    String defaultArray;
+       
+		Group editGroupcgcg_rta = new Group(parent, SWT.NONE);
+		GridLayout layout = new GridLayout();
+		editGroupcgcg_rta.setLayout(layout);
+	
+	 	editGroupcgcg_rta.setText("Rapid Type Analysis");
+	 	
+		editGroupcgcg_rta.setData("id", "cgcg_rta");
+		
+		String desccgcg_rta = "Builds call graph using Rapid Type Analysis";	
+		if (desccgcg_rta.length() > 0) {
+			Label descLabelcgcg_rta = new Label(editGroupcgcg_rta, SWT.WRAP);
+			descLabelcgcg_rta.setText(desccgcg_rta);
+		}
+		OptionData [] data;	
+		
+		
+		
+		
+		defKey = "p"+" "+"cg.rta"+" "+"enabled";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		}
+		else {
+			
+			defaultBool = false;
+			
+		}
+
+		setcgcg_rtaenabled_widget(new BooleanOptionWidget(editGroupcgcg_rta, SWT.NONE, new OptionData("Enabled", "p", "cg.rta","enabled", "\n", defaultBool)));
+		
+		
+		
+		defKey = "p"+" "+"cg.rta"+" "+"verbose";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		}
+		else {
+			
+			defaultBool = false;
+			
+		}
+
+		setcgcg_rtaverbose_widget(new BooleanOptionWidget(editGroupcgcg_rta, SWT.NONE, new OptionData("Verbose", "p", "cg.rta","verbose", "\nSetting this option to true causes Soot to print out statistics \nabout the call graph computed by this phase, such as the number \nof methods determined to be reachable.", defaultBool)));
+		
+		
+
+		
+		return editGroupcgcg_rta;
+	}
+
+
+
+	private Composite cgcg_vtaCreate(Composite parent) {
+		String defKey;
+		String defaultString;
+		boolean defaultBool = false;
+	    String defaultArray;
+       
+		Group editGroupcgcg_vta = new Group(parent, SWT.NONE);
+		GridLayout layout = new GridLayout();
+		editGroupcgcg_vta.setLayout(layout);
+	
+	 	editGroupcgcg_vta.setText("Variable Type Analysis");
+	 	
+		editGroupcgcg_vta.setData("id", "cgcg_vta");
+		
+		String desccgcg_vta = "Builds call graph using Variable Type Analysis";	
+		if (desccgcg_vta.length() > 0) {
+			Label descLabelcgcg_vta = new Label(editGroupcgcg_vta, SWT.WRAP);
+			descLabelcgcg_vta.setText(desccgcg_vta);
+		}
+		OptionData [] data;	
+		
+		
+		
+		
+		defKey = "p"+" "+"cg.vta"+" "+"enabled";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		}
+		else {
+			
+			defaultBool = false;
+			
+		}
+
+		setcgcg_vtaenabled_widget(new BooleanOptionWidget(editGroupcgcg_vta, SWT.NONE, new OptionData("Enabled", "p", "cg.vta","enabled", "\n", defaultBool)));
+		
+		
+		
+		defKey = "p"+" "+"cg.vta"+" "+"verbose";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		}
+		else {
+			
+			defaultBool = false;
+			
+		}
+
+		setcgcg_vtaverbose_widget(new BooleanOptionWidget(editGroupcgcg_vta, SWT.NONE, new OptionData("Verbose", "p", "cg.vta","verbose", "\nSetting this option to true causes Soot to print out statistics \nabout the call graph computed by this phase, such as the number \nof methods determined to be reachable.", defaultBool)));
+		
+		
+
+		
+		return editGroupcgcg_vta;
+	}
+
+
+
 	private Composite cgcg_sparkCreate(Composite parent) {
 		String defKey;
 		String defaultString;
@@ -13270,6 +13651,42 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		
 		
+		data = new OptionData [] {
+		
+		new OptionData("Topological",
+		"topo",
+		"\nNodes are propagated in the order of the finishing numbers \ncomputed by the topological sort of the PAG, so that a node is \nusually handled after the nodes flowing into it. This is the \norder Spark has always used. ",
+		
+		true),
+		
+		new OptionData("FIFO",
+		"fifo",
+		"\nNodes are propagated in the order in which they were added to \nthe worklist. ",
+		
+		false),
+		
+		new OptionData("LRF",
+		"lrf",
+		"\nThe node whose points-to set was propagated longest ago is \npropagated first, so that nodes get time to accumulate changes. \nNodes never propagated come first, in topological order. ",
+		
+		false),
+		
+		};
+		
+										
+		setcgcg_sparkworklist_order_widget(new MultiOptionWidget(editGroupcgSpark_Points_To_Set_Flowing_Options, SWT.NONE, data, new OptionData("Worklist Order", "p", "cg.spark","worklist-order", "\nThis option tells the Worklist and Alias propagators in which \norder to take variable nodes off their worklist. In verbose \nmode, the Worklist propagator prints after each iteration how \nmany nodes it fired, how many new points-to facts they carried \nand how many set unions it performed, which helps pick the \nfastest order for a given program. ")));
+		
+		defKey = "p"+" "+"cg.spark"+" "+"worklist-order";
+		defKey = defKey.trim();
+		
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);
+		
+			getcgcg_sparkworklist_order_widget().setDef(defaultString);
+		}
+		
+		
+		
 		data = new OptionData [] {
 		
 		new OptionData("Hash set",
@@ -13922,6 +14339,21 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 
 		setcgcg_sparkgeom_runs_widget(new StringOptionWidget(editGroupcgGeometric_context_sensitive_analysis_from_ISSTA_2011, SWT.NONE, new OptionData("Iterations",  "p", "cg.spark","geom-runs", "\n						 We can run multiple times of the geometric analysis \nto continuously improve the analysis precision. 						 ", defaultString)));
 		
+		
+		defKey = "p"+" "+"cg.spark"+" "+"geom-threads";
+		defKey = defKey.trim();
+		
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		}
+		else {
+			
+			defaultString = "1";
+			
+		}
+
+		setcgcg_sparkgeom_threads_widget(new StringOptionWidget(editGroupcgGeometric_context_sensitive_analysis_from_ISSTA_2011, SWT.NONE, new OptionData("Solver threads",  "p", "cg.spark","geom-threads", "\n						 If the value is larger than 1, the solver propagates \nthe pointers in rounds: all the pointers in the worklist are \npropagated on this many threads, and the new figures they \nproduce are inserted at the end of the round. With the value 1, \nthe pointers are propagated one by one on the calling thread. \n						 ", defaultString)));
+		
 
 		
 		return editGroupcgGeometric_context_sensitive_analysis_from_ISSTA_2011;
@@ -16122,6 +16554,36 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		setwjapwjap_purityverbose_widget(new BooleanOptionWidget(editGroupwjapwjap_purity, SWT.NONE, new OptionData("Be (quite) verbose", "p", "wjap.purity","verbose", "\n", defaultBool)));
 		
 		
+		
+		defKey = "p"+" "+"wjap.purity"+" "+"threads";
+		defKey = defKey.trim();
+		
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		}
+		else {
+			
+			defaultString = "1";
+			
+		}
+
+		setwjapwjap_puritythreads_widget(new StringOptionWidget(editGroupwjapwjap_purity, SWT.NONE, new OptionData("Analysis threads",  "p", "wjap.purity","threads", "\nIf the value is larger than 1, the strongly connected \ncomponents of the call graph are analysed in parallel on this \nmany threads, each one as soon as the components it calls are \ndone. 		 ", defaultString)));
+		
+		
+		defKey = "p"+" "+"wjap.purity"+" "+"summaries-file";
+		defKey = defKey.trim();
+		
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		}
+		else {
+			
+			defaultString = "";
+			
+		}
+
+		setwjapwjap_puritysummaries_file_widget(new StringOptionWidget(editGroupwjapwjap_purity, SWT.NONE, new OptionData("Library summaries file",  "p", "wjap.purity","summaries-file", "\nIf set, the summaries of library methods that only call library \nmethods are read from this file, when their bodies and call \nedges are unchanged, instead of being computed again, and the \nsummaries computed in this run are written back to it. 		 ", defaultString)));
+		
 
 		
 		return editGroupwjapwjap_purity;
@@ -213,6 +213,7 @@ public class AntTask extends MatchingTask {
                 || arg.equals( "jimple" )
                 || arg.equals( "java" )
                 || arg.equals( "apk" )
+                || arg.equals( "jbin" )
                 ) {
                 addArg("-src-prec");
                 addArg(arg);
@@ -281,6 +282,7 @@ public class AntTask extends MatchingTask {
                 || arg.equals( "dava" )
                 || arg.equals( "t" )
                 || arg.equals( "template" )
+                || arg.equals( "jbin" )
                 ) {
                 addArg("-output-format");
                 addArg(arg);
@@ -1133,6 +1135,48 @@ public class AntTask extends MatchingTask {
       
         }
     
+        public Object createp_cg_rta() {
+            Object ret = new PhaseOptcg_rta();
+            phaseopts.add(ret);
+            return ret;
+        }
+        public class PhaseOptcg_rta {
+      
+          public void setenabled(boolean arg) {
+            addArg("-p");
+            addArg("cg.rta");
+            addArg("enabled:"+(arg?"true":"false"));
+          }
+      
+          public void setverbose(boolean arg) {
+            addArg("-p");
+            addArg("cg.rta");
+            addArg("verbose:"+(arg?"true":"false"));
+          }
+      
+        }
+    
+        public Object createp_cg_vta() {
+            Object ret = new PhaseOptcg_vta();
+            phaseopts.add(ret);
+            return ret;
+        }
+        public class PhaseOptcg_vta {
+      
+          public void setenabled(boolean arg) {
+            addArg("-p");
+            addArg("cg.vta");
+            addArg("enabled:"+(arg?"true":"false"));
+          }
+      
+          public void setverbose(boolean arg) {
+            addArg("-p");
+            addArg("cg.vta");
+            addArg("verbose:"+(arg?"true":"false"));
+          }
+      
+        }
+    
         public Object createp_cg_spark() {
             Object ret = new PhaseOptcg_spark();
             phaseopts.add(ret);
@@ -1338,6 +1382,12 @@ public class AntTask extends MatchingTask {
             addArg("propagator:"+arg);
           }
       
+          public void setworklist_order(String arg) {
+            addArg("-p");
+            addArg("cg.spark");
+            addArg("worklist-order:"+arg);
+          }
+      
           public void setset_impl(String arg) {
             addArg("-p");
             addArg("cg.spark");
@@ -1410,6 +1460,12 @@ public class AntTask extends MatchingTask {
             addArg("geom-runs:"+arg);
           }
       
+          public void setgeom_threads(String arg) {
+            addArg("-p");
+            addArg("cg.spark");
+            addArg("geom-threads:"+arg);
+          }
+      
         }
     
         public Object createp_cg_paddle() {
@@ -2004,6 +2060,18 @@ public class AntTask extends MatchingTask {
             addArg("verbose:"+(arg?"true":"false"));
           }
       
+          public void setthreads(String arg) {
+            addArg("-p");
+            addArg("wjap.purity");
+            addArg("threads:"+arg);
+          }
+      
+          public void setsummaries_file(String arg) {
+            addArg("-p");
+            addArg("wjap.purity");
+            addArg("summaries-file:"+arg);
+          }
+      
         }
     
         public Object createp_shimple() {
@@ -160,9 +160,11 @@ public class CGOptions
      * Uses a reflection log to resolve reflective calls..
     
      * Load a reflection log from the given file and use this log to 
-     * resolve reflective call sites. Note that when a log is given, 
-     * the following other options have no effect: safe-forname, 
-     * safe-newinstance. 
+     * resolve reflective call sites. Several logs can be given, 
+     * separated by the path separator of the platform. Note that when 
+     * a log is given, the following other options have no effect: 
+     * safe-forname, safe-newinstance. 
+     * 
      */
     public String reflection_log() {
         return soot.PhaseOptions.getString( options, "reflection-log" );
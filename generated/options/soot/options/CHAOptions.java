@@ -54,5 +54,19 @@ public class CHAOptions
         return soot.PhaseOptions.getBoolean( options, "verbose" );
     }
     
+    /** Threads --
+    
+     * Number of threads building the call graph.
+    
+     * If the value is larger than 1, the bodies of newly reachable 
+     * methods are scanned for call sites, and their virtual calls 
+     * resolved, on this many threads, in waves. The bodies themselves 
+     * are still built one at a time, so the speedup is limited, and 
+     * the call graph is the same as with one thread.
+     */
+    public int threads() {
+        return soot.PhaseOptions.getInt( options, "threads" );
+    }
+    
 }
         
\ No newline at end of file
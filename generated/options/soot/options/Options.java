@@ -41,6 +41,7 @@ public class Options extends OptionsBase {
     public static final int src_prec_jimple = 3;
     public static final int src_prec_java = 4;
     public static final int src_prec_apk = 5;
+    public static final int src_prec_jbin = 6;
     public static final int output_format_J = 1;
     public static final int output_format_jimple = 1;
     public static final int output_format_j = 2;
@@ -68,6 +69,7 @@ public class Options extends OptionsBase {
     public static final int output_format_dava = 14;
     public static final int output_format_t = 15;
     public static final int output_format_template = 15;
+    public static final int output_format_jbin = 16;
     public static final int throw_analysis_pedantic = 1;
     public static final int throw_analysis_unit = 2;
 
@@ -322,6 +324,17 @@ public class Options extends OptionsBase {
                     src_prec = src_prec_apk;
                 }
     
+                else if( false
+                || value.equals( "jbin" )
+                ) {
+                    if( src_prec != 0
+                    && src_prec != src_prec_jbin ) {
+                        G.v().out.println( "Multiple values given for option "+option );
+                        return false;
+                    }
+                    src_prec = src_prec_jbin;
+                }
+    
                 else {
                     G.v().out.println( "Invalid value "+value+" given for option -"+option );
                     return false;
@@ -577,6 +590,17 @@ public class Options extends OptionsBase {
                     output_format = output_format_template;
                 }
     
+                else if( false
+                || value.equals( "jbin" )
+                ) {
+                    if( output_format != 0
+                    && output_format != output_format_jbin ) {
+                        G.v().out.println( "Multiple values given for option "+option );
+                        return false;
+                    }
+                    output_format = output_format_jbin;
+                }
+    
                 else {
                     G.v().out.println( "Invalid value "+value+" given for option -"+option );
                     return false;
@@ -1257,6 +1281,7 @@ public class Options extends OptionsBase {
 +padVal(" J jimple", "Favour Jimple files as Soot source" )
 +padVal(" java", "Favour Java files as Soot source" )
 +padVal(" apk", "Favour APK files as Soot source" )
++padVal(" jbin", "Favour binary Jimple files as Soot source" )
 +padOpt(" -full-resolver", "Force transitive resolving of referenced classes" )
 +padOpt(" -allow-phantom-refs", "Allow unresolved classes; may cause errors" )
 +padOpt(" -no-bodies-for-excluded", "Do not load bodies for excluded classes" )
@@ -1282,6 +1307,7 @@ public class Options extends OptionsBase {
 +padVal(" c class (default)", "Produce .class Files" )
 +padVal(" d dava", "Produce dava-decompiled .java files" )
 +padVal(" t template", "Produce .java files with Jimple templates." )
++padVal(" jbin", "Produce .jbin (binary Jimple) files" )
 +padOpt(" -outjar -output-jar", "Make output dir a Jar file instead of dir" )
 +padOpt(" -xml-attributes", "Save tags to XML attributes for Eclipse" )
 +padOpt(" -print-tags -print-tags-in-output", "Print tags in output files after stmt" )
@@ -1364,6 +1390,8 @@ public class Options extends OptionsBase {
         +padOpt("wspp", "Whole Shimple Pre-processing Pack")
         +padOpt("cg", "Call graph constructor")
         +padVal("cg.cha", "Builds call graph using Class Hierarchy Analysis")
+        +padVal("cg.rta", "Builds call graph using Rapid Type Analysis")
+        +padVal("cg.vta", "Builds call graph using Variable Type Analysis")
         +padVal("cg.spark", "Spark points-to analysis framework")
         +padVal("cg.paddle", "Paddle points-to analysis framework")
         +padOpt("wstp", "Whole-shimple transformation pack")
@@ -1658,6 +1686,21 @@ public class Options extends OptionsBase {
                 "\nThis phase uses Class Hierarchy Analysis to generate a call \ngraph."
                 +"\n\nRecognized options (with default values):\n"
                 +padOpt( "enabled (true)", "" )
+                +padOpt( "verbose (false)", "Print statistics about the resulting call graph" )
+                +padOpt( "threads (1)", "Number of threads building the call graph" );
+    
+        if( phaseName.equals( "cg.rta" ) )
+            return "Phase "+phaseName+":\n"+
+                "\nThis phase uses Rapid Type Analysis to generate a call graph. A \nvirtual call is resolved against every type instantiated in a \nreachable method that is compatible with the declared type of \nits receiver. The resulting call graph is much smaller than the \none built by cg.cha, at a small fraction of the cost of \ncg.spark."
+                +"\n\nRecognized options (with default values):\n"
+                +padOpt( "enabled (false)", "" )
+                +padOpt( "verbose (false)", "Print statistics about the resulting call graph" );
+    
+        if( phaseName.equals( "cg.vta" ) )
+            return "Phase "+phaseName+":\n"+
+                "\nThis phase uses Variable Type Analysis to generate a call graph. \nThe types of allocated objects are propagated along the \nassignments, field accesses and calls of reachable methods, with \none node per local, field, parameter and return value, and a \nvirtual call is resolved against the types that reach its \nreceiver. It is more precise than cg.rta and does not build a \npointer assignment graph like cg.spark."
+                +"\n\nRecognized options (with default values):\n"
+                +padOpt( "enabled (false)", "" )
                 +padOpt( "verbose (false)", "Print statistics about the resulting call graph" );
     
         if( phaseName.equals( "cg.spark" ) )
@@ -1695,6 +1738,13 @@ public class Options extends OptionsBase {
                 
                 +padVal( "none", "Disable propagation" )
                 
+                +padOpt( "worklist-order", "Select order of the propagation worklist" )
+                +padVal( "topo (default)", "Finishing order of the topological sort" )
+                
+                +padVal( "fifo", "First in, first out" )
+                
+                +padVal( "lrf", "Least recently fired first" )
+                
                 +padOpt( "set-impl", "Select points-to set implementation" )
                 +padVal( "hash", "Use Java HashSet" )
                 
@@ -1768,7 +1818,8 @@ public class Options extends OptionsBase {
                 +padOpt( "geom-trans (false)", "Transform to context-insensitive result" )
                 +padOpt( "geom-frac-base (40)", "Fractional parameter for precision/performance trade-off" )
                 +padOpt( "geom-blocking (true)", "Enable blocking strategy for recursive calls" )
-                +padOpt( "geom-runs (1)", "Iterations of analysis" );
+                +padOpt( "geom-runs (1)", "Iterations of analysis" )
+                +padOpt( "geom-threads (1)", "Number of threads propagating the constraints" );
     
         if( phaseName.equals( "cg.paddle" ) )
             return "Phase "+phaseName+":\n"+
@@ -2041,7 +2092,9 @@ public class Options extends OptionsBase {
                 +padOpt( "dump-intra (false)", "" )
                 +padOpt( "print (true)", "" )
                 +padOpt( "annotate (true)", "Marks pure methods with a purity bytecode attribute" )
-                +padOpt( "verbose (false)", "" );
+                +padOpt( "verbose (false)", "" )
+                +padOpt( "threads (1)", "Number of threads computing method summaries" )
+                +padOpt( "summaries-file ()", "Keep library method summaries in file across runs" );
     
         if( phaseName.equals( "shimple" ) )
             return "Phase "+phaseName+":\n"+
@@ -2357,7 +2410,7 @@ public class Options extends OptionsBase {
     
         if( phaseName.equals( "bb.pho" ) )
             return "Phase "+phaseName+":\n"+
-                "\nApplies peephole optimizations to the Baf intermediate \nrepresentation. Individual optimizations must be implemented by \nclasses implementing the Peephole interface. The Peephole \nOptimizer reads the names of the Peephole classes at runtime \nfrom the file peephole.dat and loads them dynamically. Then it \ncontinues to apply the Peepholes repeatedly until none of them \nare able to perform any further optimizations. Soot provides \nonly one Peephole, named ExamplePeephole, which is not enabled \nby the delivered peephole.dat file. ExamplePeephole removes all \ncheckcast instructions."
+                "\nApplies peephole optimizations to the Baf intermediate \nrepresentation. Individual optimizations must be implemented by \nclasses implementing the Peephole or the PeepholePattern \ninterface. The Peephole Optimizer reads the names of these \nclasses at runtime from the file peephole.dat and loads them \ndynamically. All PeepholePatterns are matched together in a \nsingle pass over the body. Then it continues to apply the \nPeepholes repeatedly until none of them are able to perform any \nfurther optimizations. Soot provides one PeepholePattern, named \nPushPopPeephole, which removes a load or push whose value is \nimmediately popped, and one Peephole, named ExamplePeephole. \nNeither is enabled by the delivered peephole.dat file. \nExamplePeephole removes all checkcast instructions."
                 +"\n\nRecognized options (with default values):\n"
                 +padOpt( "enabled (true)", "" );
     
@@ -2598,6 +2651,17 @@ public class Options extends OptionsBase {
                 +"guards ";
     
         if( phaseName.equals( "cg.cha" ) )
+            return ""
+                +"enabled "
+                +"verbose "
+                +"threads ";
+    
+        if( phaseName.equals( "cg.rta" ) )
+            return ""
+                +"enabled "
+                +"verbose ";
+    
+        if( phaseName.equals( "cg.vta" ) )
             return ""
                 +"enabled "
                 +"verbose ";
@@ -2623,6 +2687,7 @@ public class Options extends OptionsBase {
                 +"simplify-sccs "
                 +"ignore-types-for-sccs "
                 +"propagator "
+                +"worklist-order "
                 +"set-impl "
                 +"double-set-old "
                 +"double-set-new "
@@ -2648,7 +2713,8 @@ public class Options extends OptionsBase {
                 +"geom-trans "
                 +"geom-frac-base "
                 +"geom-blocking "
-                +"geom-runs ";
+                +"geom-runs "
+                +"geom-threads ";
     
         if( phaseName.equals( "cg.paddle" ) )
             return ""
@@ -2771,7 +2837,9 @@ public class Options extends OptionsBase {
                 +"dump-intra "
                 +"print "
                 +"annotate "
-                +"verbose ";
+                +"verbose "
+                +"threads "
+                +"summaries-file ";
     
         if( phaseName.equals( "shimple" ) )
             return ""
@@ -3203,6 +3271,17 @@ public class Options extends OptionsBase {
         if( phaseName.equals( "cg.cha" ) )
             return ""
               +"enabled:true "
+              +"verbose:false "
+              +"threads:1 ";
+    
+        if( phaseName.equals( "cg.rta" ) )
+            return ""
+              +"enabled:false "
+              +"verbose:false ";
+    
+        if( phaseName.equals( "cg.vta" ) )
+            return ""
+              +"enabled:false "
               +"verbose:false ";
     
         if( phaseName.equals( "cg.spark" ) )
@@ -3226,6 +3305,7 @@ public class Options extends OptionsBase {
               +"simplify-sccs:false "
               +"ignore-types-for-sccs:false "
               +"propagator:worklist "
+              +"worklist-order:topo "
               +"set-impl:double "
               +"double-set-old:hybrid "
               +"double-set-new:hybrid "
@@ -3253,7 +3333,8 @@ public class Options extends OptionsBase {
               +"geom-trans:false "
               +"geom-frac-base:40 "
               +"geom-blocking:true "
-              +"geom-runs:1 ";
+              +"geom-runs:1 "
+              +"geom-threads:1 ";
     
         if( phaseName.equals( "cg.paddle" ) )
             return ""
@@ -3375,7 +3456,9 @@ public class Options extends OptionsBase {
               +"dump-intra:false "
               +"print:true "
               +"annotate:true "
-              +"verbose:false ";
+              +"verbose:false "
+              +"threads:1 "
+              +"summaries-file: ";
     
         if( phaseName.equals( "shimple" ) )
             return ""
@@ -3686,6 +3769,8 @@ public class Options extends OptionsBase {
         if( phaseName.equals( "wspp" ) ) return;
         if( phaseName.equals( "cg" ) ) return;
         if( phaseName.equals( "cg.cha" ) ) return;
+        if( phaseName.equals( "cg.rta" ) ) return;
+        if( phaseName.equals( "cg.vta" ) ) return;
         if( phaseName.equals( "cg.spark" ) ) return;
         if( phaseName.equals( "cg.paddle" ) ) return;
         if( phaseName.equals( "wstp" ) ) return;
@@ -3828,6 +3913,10 @@ public class Options extends OptionsBase {
             G.v().out.println( "Warning: Options exist for non-existent phase cg" );
         if( !PackManager.v().hasPhase( "cg.cha" ) )
             G.v().out.println( "Warning: Options exist for non-existent phase cg.cha" );
+        if( !PackManager.v().hasPhase( "cg.rta" ) )
+            G.v().out.println( "Warning: Options exist for non-existent phase cg.rta" );
+        if( !PackManager.v().hasPhase( "cg.vta" ) )
+            G.v().out.println( "Warning: Options exist for non-existent phase cg.vta" );
         if( !PackManager.v().hasPhase( "cg.spark" ) )
             G.v().out.println( "Warning: Options exist for non-existent phase cg.spark" );
         if( !PackManager.v().hasPhase( "cg.paddle" ) )
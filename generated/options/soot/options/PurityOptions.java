@@ -102,5 +102,31 @@ public class PurityOptions
         return soot.PhaseOptions.getBoolean( options, "verbose" );
     }
     
+    /** Analysis threads --
+    
+     * Number of threads computing method summaries.
+    
+     * If the value is larger than 1, the strongly connected 
+     * components of the call graph are analysed in parallel on this 
+     * many threads, each one as soon as the components it calls are 
+     * done. 		 
+     */
+    public int threads() {
+        return soot.PhaseOptions.getInt( options, "threads" );
+    }
+    
+    /** Library summaries file --
+    
+     * Keep library method summaries in file across runs.
+    
+     * If set, the summaries of library methods that only call library 
+     * methods are read from this file, when their bodies and call 
+     * edges are unchanged, instead of being computed again, and the 
+     * summaries computed in this run are written back to it. 		 
+     */
+    public String summaries_file() {
+        return soot.PhaseOptions.getString( options, "summaries-file" );
+    }
+    
 }
         
\ No newline at end of file
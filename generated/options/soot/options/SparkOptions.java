@@ -518,6 +518,21 @@ public class SparkOptions
         return soot.PhaseOptions.getInt( options, "geom-runs" );
     }
     
+    /** Solver threads --
+    
+     * Number of threads propagating the constraints.
+    
+     * 						 If the value is larger than 1, the solver propagates 
+     * the pointers in rounds: all the pointers in the worklist are 
+     * propagated on this many threads, and the new figures they 
+     * produce are inserted at the end of the round. With the value 1, 
+     * the pointers are propagated one by one on the calling thread. 
+     * 						 
+     */
+    public int geom_threads() {
+        return soot.PhaseOptions.getInt( options, "geom-threads" );
+    }
+    
     /** Verbose dump file --
     
      * Filename for detailed execution log.
@@ -582,6 +597,35 @@ public class SparkOptions
         throw new RuntimeException( "Invalid value "+s+" of phase option propagator" );
     }
     
+    public static final int worklist_order_topo = 1;
+    public static final int worklist_order_fifo = 2;
+    public static final int worklist_order_lrf = 3;
+    /** Worklist Order --
+    
+     * Select order of the propagation worklist.
+    
+     * This option tells the Worklist and Alias propagators in which 
+     * order to take variable nodes off their worklist. In verbose 
+     * mode, both propagators print after each iteration how many 
+     * nodes they fired, how many new points-to facts they carried and 
+     * how many set unions they performed, which helps pick the fastest 
+     * order for a given program. 
+     */
+    public int worklist_order() {
+        String s = soot.PhaseOptions.getString( options, "worklist-order" );
+        
+        if( s.equalsIgnoreCase( "topo" ) )
+            return worklist_order_topo;
+        
+        if( s.equalsIgnoreCase( "fifo" ) )
+            return worklist_order_fifo;
+        
+        if( s.equalsIgnoreCase( "lrf" ) )
+            return worklist_order_lrf;
+        
+        throw new RuntimeException( "Invalid value "+s+" of phase option worklist-order" );
+    }
+    
     public static final int set_impl_hash = 1;
     public static final int set_impl_bit = 2;
     public static final int set_impl_hybrid = 3;
@@ -0,0 +1,58 @@
+
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2003 Ondrej Lhotak
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+/* THIS FILE IS AUTO-GENERATED FROM soot_options.xml. DO NOT MODIFY. */
+
+package soot.options;
+import java.util.*;
+
+/** Option parser for Variable Type Analysis. */
+public class VTAOptions
+{
+    private Map options;
+
+    public VTAOptions( Map options ) {
+        this.options = options;
+    }
+    
+    /** Enabled --
+    
+     * .
+    
+     * 
+     */
+    public boolean enabled() {
+        return soot.PhaseOptions.getBoolean( options, "enabled" );
+    }
+    
+    /** Verbose --
+    
+     * Print statistics about the resulting call graph.
+    
+     * Setting this option to true causes Soot to print out statistics 
+     * about the call graph computed by this phase, such as the number 
+     * of methods determined to be reachable.
+     */
+    public boolean verbose() {
+        return soot.PhaseOptions.getBoolean( options, "verbose" );
+    }
+    
+}
+        
\ No newline at end of file
@@ -64,6 +64,18 @@ public class Singletons {
         return instance_soot_jimple_toolkits_callgraph_CHATransformer;
     }
 
+    private soot.jimple.toolkits.callgraph.RTATransformer instance_soot_jimple_toolkits_callgraph_RTATransformer;
+    public soot.jimple.toolkits.callgraph.RTATransformer soot_jimple_toolkits_callgraph_RTATransformer() {
+        if( instance_soot_jimple_toolkits_callgraph_RTATransformer == null ) instance_soot_jimple_toolkits_callgraph_RTATransformer = new soot.jimple.toolkits.callgraph.RTATransformer( g );
+        return instance_soot_jimple_toolkits_callgraph_RTATransformer;
+    }
+
+    private soot.jimple.toolkits.callgraph.VTATransformer instance_soot_jimple_toolkits_callgraph_VTATransformer;
+    public soot.jimple.toolkits.callgraph.VTATransformer soot_jimple_toolkits_callgraph_VTATransformer() {
+        if( instance_soot_jimple_toolkits_callgraph_VTATransformer == null ) instance_soot_jimple_toolkits_callgraph_VTATransformer = new soot.jimple.toolkits.callgraph.VTATransformer( g );
+        return instance_soot_jimple_toolkits_callgraph_VTATransformer;
+    }
+
     private soot.toolkits.graph.SlowPseudoTopologicalOrderer instance_soot_toolkits_graph_SlowPseudoTopologicalOrderer;
     public soot.toolkits.graph.SlowPseudoTopologicalOrderer soot_toolkits_graph_SlowPseudoTopologicalOrderer() {
         if( instance_soot_toolkits_graph_SlowPseudoTopologicalOrderer == null ) instance_soot_toolkits_graph_SlowPseudoTopologicalOrderer = new soot.toolkits.graph.SlowPseudoTopologicalOrderer( g );
@@ -886,4 +898,153 @@ public class Singletons {
         return instance_soot_sootify_TemplatePrinter;
     }
 
+    /** Hands the instances of the given classes over from old, instead of
+     * creating new ones when they are first used. */
+    protected void keepSingletons( Singletons old, java.util.Set<String> classes ) {
+        if( classes.contains( "soot.PhaseOptions" ) ) instance_soot_PhaseOptions = old.instance_soot_PhaseOptions;
+        if( classes.contains( "soot.jimple.toolkits.callgraph.VirtualCalls" ) ) instance_soot_jimple_toolkits_callgraph_VirtualCalls = old.instance_soot_jimple_toolkits_callgraph_VirtualCalls;
+        if( classes.contains( "soot.jimple.spark.fieldrw.FieldTagger" ) ) instance_soot_jimple_spark_fieldrw_FieldTagger = old.instance_soot_jimple_spark_fieldrw_FieldTagger;
+        if( classes.contains( "soot.util.SharedBitSetCache" ) ) instance_soot_util_SharedBitSetCache = old.instance_soot_util_SharedBitSetCache;
+        if( classes.contains( "soot.options.Options" ) ) instance_soot_options_Options = old.instance_soot_options_Options;
+        if( classes.contains( "soot.jimple.toolkits.callgraph.CHATransformer" ) ) instance_soot_jimple_toolkits_callgraph_CHATransformer = old.instance_soot_jimple_toolkits_callgraph_CHATransformer;
+        if( classes.contains( "soot.jimple.toolkits.callgraph.RTATransformer" ) ) instance_soot_jimple_toolkits_callgraph_RTATransformer = old.instance_soot_jimple_toolkits_callgraph_RTATransformer;
+        if( classes.contains( "soot.jimple.toolkits.callgraph.VTATransformer" ) ) instance_soot_jimple_toolkits_callgraph_VTATransformer = old.instance_soot_jimple_toolkits_callgraph_VTATransformer;
+        if( classes.contains( "soot.toolkits.graph.SlowPseudoTopologicalOrderer" ) ) instance_soot_toolkits_graph_SlowPseudoTopologicalOrderer = old.instance_soot_toolkits_graph_SlowPseudoTopologicalOrderer;
+        if( classes.contains( "soot.jimple.toolkits.invoke.SynchronizerManager" ) ) instance_soot_jimple_toolkits_invoke_SynchronizerManager = old.instance_soot_jimple_toolkits_invoke_SynchronizerManager;
+        if( classes.contains( "soot.jimple.toolkits.typing.integer.ClassHierarchy" ) ) instance_soot_jimple_toolkits_typing_integer_ClassHierarchy = old.instance_soot_jimple_toolkits_typing_integer_ClassHierarchy;
+        if( classes.contains( "soot.Main" ) ) instance_soot_Main = old.instance_soot_Main;
+        if( classes.contains( "soot.tagkit.TagManager" ) ) instance_soot_tagkit_TagManager = old.instance_soot_tagkit_TagManager;
+        if( classes.contains( "soot.jimple.toolkits.pointer.representations.Environment" ) ) instance_soot_jimple_toolkits_pointer_representations_Environment = old.instance_soot_jimple_toolkits_pointer_representations_Environment;
+        if( classes.contains( "soot.jimple.toolkits.pointer.representations.TypeConstants" ) ) instance_soot_jimple_toolkits_pointer_representations_TypeConstants = old.instance_soot_jimple_toolkits_pointer_representations_TypeConstants;
+        if( classes.contains( "soot.coffi.Util" ) ) instance_soot_coffi_Util = old.instance_soot_coffi_Util;
+        if( classes.contains( "soot.SourceLocator" ) ) instance_soot_SourceLocator = old.instance_soot_SourceLocator;
+        if( classes.contains( "soot.coffi.CONSTANT_Utf8_collector" ) ) instance_soot_coffi_CONSTANT_Utf8_collector = old.instance_soot_coffi_CONSTANT_Utf8_collector;
+        if( classes.contains( "soot.dava.toolkits.base.finders.AbruptEdgeFinder" ) ) instance_soot_dava_toolkits_base_finders_AbruptEdgeFinder = old.instance_soot_dava_toolkits_base_finders_AbruptEdgeFinder;
+        if( classes.contains( "soot.jimple.toolkits.base.Aggregator" ) ) instance_soot_jimple_toolkits_base_Aggregator = old.instance_soot_jimple_toolkits_base_Aggregator;
+        if( classes.contains( "soot.jimple.toolkits.annotation.arraycheck.ArrayBoundsChecker" ) ) instance_soot_jimple_toolkits_annotation_arraycheck_ArrayBoundsChecker = old.instance_soot_jimple_toolkits_annotation_arraycheck_ArrayBoundsChecker;
+        if( classes.contains( "soot.jimple.spark.pag.ArrayElement" ) ) instance_soot_jimple_spark_pag_ArrayElement = old.instance_soot_jimple_spark_pag_ArrayElement;
+        if( classes.contains( "soot.jimple.toolkits.annotation.tags.ArrayNullTagAggregator" ) ) instance_soot_jimple_toolkits_annotation_tags_ArrayNullTagAggregator = old.instance_soot_jimple_toolkits_annotation_tags_ArrayNullTagAggregator;
+        if( classes.contains( "soot.dava.toolkits.base.AST.ASTWalker" ) ) instance_soot_dava_toolkits_base_AST_ASTWalker = old.instance_soot_dava_toolkits_base_AST_ASTWalker;
+        if( classes.contains( "soot.baf.Baf" ) ) instance_soot_baf_Baf = old.instance_soot_baf_Baf;
+        if( classes.contains( "soot.BooleanType" ) ) instance_soot_BooleanType = old.instance_soot_BooleanType;
+        if( classes.contains( "soot.jimple.toolkits.scalar.pre.BusyCodeMotion" ) ) instance_soot_jimple_toolkits_scalar_pre_BusyCodeMotion = old.instance_soot_jimple_toolkits_scalar_pre_BusyCodeMotion;
+        if( classes.contains( "soot.ByteType" ) ) instance_soot_ByteType = old.instance_soot_ByteType;
+        if( classes.contains( "soot.jimple.toolkits.pointer.CastCheckEliminatorDumper" ) ) instance_soot_jimple_toolkits_pointer_CastCheckEliminatorDumper = old.instance_soot_jimple_toolkits_pointer_CastCheckEliminatorDumper;
+        if( classes.contains( "soot.CharType" ) ) instance_soot_CharType = old.instance_soot_CharType;
+        if( classes.contains( "soot.jimple.toolkits.annotation.arraycheck.ClassFieldAnalysis" ) ) instance_soot_jimple_toolkits_annotation_arraycheck_ClassFieldAnalysis = old.instance_soot_jimple_toolkits_annotation_arraycheck_ClassFieldAnalysis;
+        if( classes.contains( "soot.jimple.toolkits.scalar.CommonSubexpressionEliminator" ) ) instance_soot_jimple_toolkits_scalar_CommonSubexpressionEliminator = old.instance_soot_jimple_toolkits_scalar_CommonSubexpressionEliminator;
+        if( classes.contains( "soot.jimple.toolkits.scalar.ConditionalBranchFolder" ) ) instance_soot_jimple_toolkits_scalar_ConditionalBranchFolder = old.instance_soot_jimple_toolkits_scalar_ConditionalBranchFolder;
+        if( classes.contains( "soot.jimple.toolkits.scalar.ConstantPropagatorAndFolder" ) ) instance_soot_jimple_toolkits_scalar_ConstantPropagatorAndFolder = old.instance_soot_jimple_toolkits_scalar_ConstantPropagatorAndFolder;
+        if( classes.contains( "soot.grimp.toolkits.base.ConstructorFolder" ) ) instance_soot_grimp_toolkits_base_ConstructorFolder = old.instance_soot_grimp_toolkits_base_ConstructorFolder;
+        if( classes.contains( "soot.jimple.toolkits.scalar.CopyPropagator" ) ) instance_soot_jimple_toolkits_scalar_CopyPropagator = old.instance_soot_jimple_toolkits_scalar_CopyPropagator;
+        if( classes.contains( "soot.jimple.toolkits.graph.CriticalEdgeRemover" ) ) instance_soot_jimple_toolkits_graph_CriticalEdgeRemover = old.instance_soot_jimple_toolkits_graph_CriticalEdgeRemover;
+        if( classes.contains( "soot.dava.toolkits.base.finders.CycleFinder" ) ) instance_soot_dava_toolkits_base_finders_CycleFinder = old.instance_soot_dava_toolkits_base_finders_CycleFinder;
+        if( classes.contains( "soot.dava.Dava" ) ) instance_soot_dava_Dava = old.instance_soot_dava_Dava;
+        if( classes.contains( "soot.dava.DavaPrinter" ) ) instance_soot_dava_DavaPrinter = old.instance_soot_dava_DavaPrinter;
+        if( classes.contains( "soot.xml.XMLPrinter" ) ) instance_soot_xml_XMLPrinter = old.instance_soot_xml_XMLPrinter;
+        if( classes.contains( "soot.Printer" ) ) instance_soot_Printer = old.instance_soot_Printer;
+        if( classes.contains( "soot.jimple.toolkits.scalar.DeadAssignmentEliminator" ) ) instance_soot_jimple_toolkits_scalar_DeadAssignmentEliminator = old.instance_soot_jimple_toolkits_scalar_DeadAssignmentEliminator;
+        if( classes.contains( "soot.jimple.toolkits.pointer.DependenceTagAggregator" ) ) instance_soot_jimple_toolkits_pointer_DependenceTagAggregator = old.instance_soot_jimple_toolkits_pointer_DependenceTagAggregator;
+        if( classes.contains( "soot.coffi.Double2ndHalfType" ) ) instance_soot_coffi_Double2ndHalfType = old.instance_soot_coffi_Double2ndHalfType;
+        if( classes.contains( "soot.DoubleType" ) ) instance_soot_DoubleType = old.instance_soot_DoubleType;
+        if( classes.contains( "soot.baf.DoubleWordType" ) ) instance_soot_baf_DoubleWordType = old.instance_soot_baf_DoubleWordType;
+        if( classes.contains( "soot.jimple.toolkits.pointer.DumbPointerAnalysis" ) ) instance_soot_jimple_toolkits_pointer_DumbPointerAnalysis = old.instance_soot_jimple_toolkits_pointer_DumbPointerAnalysis;
+        if( classes.contains( "soot.jimple.spark.sets.EmptyPointsToSet" ) ) instance_soot_jimple_spark_sets_EmptyPointsToSet = old.instance_soot_jimple_spark_sets_EmptyPointsToSet;
+        if( classes.contains( "soot.ErroneousType" ) ) instance_soot_ErroneousType = old.instance_soot_ErroneousType;
+        if( classes.contains( "soot.dava.toolkits.base.finders.ExceptionFinder" ) ) instance_soot_dava_toolkits_base_finders_ExceptionFinder = old.instance_soot_dava_toolkits_base_finders_ExceptionFinder;
+        if( classes.contains( "soot.jimple.toolkits.pointer.FieldRWTagger" ) ) instance_soot_jimple_toolkits_pointer_FieldRWTagger = old.instance_soot_jimple_toolkits_pointer_FieldRWTagger;
+        if( classes.contains( "soot.FloatType" ) ) instance_soot_FloatType = old.instance_soot_FloatType;
+        if( classes.contains( "soot.jimple.toolkits.pointer.FullObjectSet" ) ) instance_soot_jimple_toolkits_pointer_FullObjectSet = old.instance_soot_jimple_toolkits_pointer_FullObjectSet;
+        if( classes.contains( "soot.grimp.Grimp" ) ) instance_soot_grimp_Grimp = old.instance_soot_grimp_Grimp;
+        if( classes.contains( "soot.dava.toolkits.base.finders.IfFinder" ) ) instance_soot_dava_toolkits_base_finders_IfFinder = old.instance_soot_dava_toolkits_base_finders_IfFinder;
+        if( classes.contains( "soot.IntType" ) ) instance_soot_IntType = old.instance_soot_IntType;
+        if( classes.contains( "soot.jimple.Jimple" ) ) instance_soot_jimple_Jimple = old.instance_soot_jimple_Jimple;
+        if( classes.contains( "soot.dava.toolkits.base.finders.LabeledBlockFinder" ) ) instance_soot_dava_toolkits_base_finders_LabeledBlockFinder = old.instance_soot_dava_toolkits_base_finders_LabeledBlockFinder;
+        if( classes.contains( "soot.jimple.toolkits.scalar.pre.LazyCodeMotion" ) ) instance_soot_jimple_toolkits_scalar_pre_LazyCodeMotion = old.instance_soot_jimple_toolkits_scalar_pre_LazyCodeMotion;
+        if( classes.contains( "soot.tagkit.LineNumberTagAggregator" ) ) instance_soot_tagkit_LineNumberTagAggregator = old.instance_soot_tagkit_LineNumberTagAggregator;
+        if( classes.contains( "soot.tagkit.InnerClassTagAggregator" ) ) instance_soot_tagkit_InnerClassTagAggregator = old.instance_soot_tagkit_InnerClassTagAggregator;
+        if( classes.contains( "soot.jimple.toolkits.annotation.LineNumberAdder" ) ) instance_soot_jimple_toolkits_annotation_LineNumberAdder = old.instance_soot_jimple_toolkits_annotation_LineNumberAdder;
+        if( classes.contains( "soot.baf.toolkits.base.LoadStoreOptimizer" ) ) instance_soot_baf_toolkits_base_LoadStoreOptimizer = old.instance_soot_baf_toolkits_base_LoadStoreOptimizer;
+        if( classes.contains( "soot.jimple.toolkits.scalar.LocalNameStandardizer" ) ) instance_soot_jimple_toolkits_scalar_LocalNameStandardizer = old.instance_soot_jimple_toolkits_scalar_LocalNameStandardizer;
+        if( classes.contains( "soot.toolkits.scalar.LocalPacker" ) ) instance_soot_toolkits_scalar_LocalPacker = old.instance_soot_toolkits_scalar_LocalPacker;
+        if( classes.contains( "soot.toolkits.scalar.LocalSplitter" ) ) instance_soot_toolkits_scalar_LocalSplitter = old.instance_soot_toolkits_scalar_LocalSplitter;
+        if( classes.contains( "soot.coffi.Long2ndHalfType" ) ) instance_soot_coffi_Long2ndHalfType = old.instance_soot_coffi_Long2ndHalfType;
+        if( classes.contains( "soot.LongType" ) ) instance_soot_LongType = old.instance_soot_LongType;
+        if( classes.contains( "soot.dava.toolkits.base.misc.MonitorConverter" ) ) instance_soot_dava_toolkits_base_misc_MonitorConverter = old.instance_soot_dava_toolkits_base_misc_MonitorConverter;
+        if( classes.contains( "soot.jimple.toolkits.scalar.NopEliminator" ) ) instance_soot_jimple_toolkits_scalar_NopEliminator = old.instance_soot_jimple_toolkits_scalar_NopEliminator;
+        if( classes.contains( "soot.jimple.NullConstant" ) ) instance_soot_jimple_NullConstant = old.instance_soot_jimple_NullConstant;
+        if( classes.contains( "soot.jimple.toolkits.annotation.nullcheck.NullPointerChecker" ) ) instance_soot_jimple_toolkits_annotation_nullcheck_NullPointerChecker = old.instance_soot_jimple_toolkits_annotation_nullcheck_NullPointerChecker;
+        if( classes.contains( "soot.NullType" ) ) instance_soot_NullType = old.instance_soot_NullType;
+        if( classes.contains( "soot.dava.toolkits.base.misc.PackageNamer" ) ) instance_soot_dava_toolkits_base_misc_PackageNamer = old.instance_soot_dava_toolkits_base_misc_PackageNamer;
+        if( classes.contains( "soot.PackManager" ) ) instance_soot_PackManager = old.instance_soot_PackManager;
+        if( classes.contains( "soot.baf.toolkits.base.PeepholeOptimizer" ) ) instance_soot_baf_toolkits_base_PeepholeOptimizer = old.instance_soot_baf_toolkits_base_PeepholeOptimizer;
+        if( classes.contains( "soot.jimple.toolkits.annotation.profiling.ProfilingGenerator" ) ) instance_soot_jimple_toolkits_annotation_profiling_ProfilingGenerator = old.instance_soot_jimple_toolkits_annotation_profiling_ProfilingGenerator;
+        if( classes.contains( "soot.jimple.toolkits.annotation.arraycheck.RectangularArrayFinder" ) ) instance_soot_jimple_toolkits_annotation_arraycheck_RectangularArrayFinder = old.instance_soot_jimple_toolkits_annotation_arraycheck_RectangularArrayFinder;
+        if( classes.contains( "soot.RefType" ) ) instance_soot_RefType = old.instance_soot_RefType;
+        if( classes.contains( "soot.Scene" ) ) instance_soot_Scene = old.instance_soot_Scene;
+        if( classes.contains( "soot.dava.toolkits.base.finders.SequenceFinder" ) ) instance_soot_dava_toolkits_base_finders_SequenceFinder = old.instance_soot_dava_toolkits_base_finders_SequenceFinder;
+        if( classes.contains( "soot.shimple.Shimple" ) ) instance_soot_shimple_Shimple = old.instance_soot_shimple_Shimple;
+        if( classes.contains( "soot.shimple.ShimpleTransformer" ) ) instance_soot_shimple_ShimpleTransformer = old.instance_soot_shimple_ShimpleTransformer;
+        if( classes.contains( "soot.shimple.toolkits.scalar.SConstantPropagatorAndFolder" ) ) instance_soot_shimple_toolkits_scalar_SConstantPropagatorAndFolder = old.instance_soot_shimple_toolkits_scalar_SConstantPropagatorAndFolder;
+        if( classes.contains( "soot.ShortType" ) ) instance_soot_ShortType = old.instance_soot_ShortType;
+        if( classes.contains( "soot.jimple.toolkits.pointer.SideEffectTagger" ) ) instance_soot_jimple_toolkits_pointer_SideEffectTagger = old.instance_soot_jimple_toolkits_pointer_SideEffectTagger;
+        if( classes.contains( "soot.jimple.spark.SparkTransformer" ) ) instance_soot_jimple_spark_SparkTransformer = old.instance_soot_jimple_spark_SparkTransformer;
+        if( classes.contains( "soot.jimple.toolkits.invoke.StaticInliner" ) ) instance_soot_jimple_toolkits_invoke_StaticInliner = old.instance_soot_jimple_toolkits_invoke_StaticInliner;
+        if( classes.contains( "soot.jimple.toolkits.invoke.StaticMethodBinder" ) ) instance_soot_jimple_toolkits_invoke_StaticMethodBinder = old.instance_soot_jimple_toolkits_invoke_StaticMethodBinder;
+        if( classes.contains( "soot.StmtAddressType" ) ) instance_soot_StmtAddressType = old.instance_soot_StmtAddressType;
+        if( classes.contains( "soot.dava.toolkits.base.finders.SwitchFinder" ) ) instance_soot_dava_toolkits_base_finders_SwitchFinder = old.instance_soot_dava_toolkits_base_finders_SwitchFinder;
+        if( classes.contains( "soot.dava.toolkits.base.finders.SynchronizedBlockFinder" ) ) instance_soot_dava_toolkits_base_finders_SynchronizedBlockFinder = old.instance_soot_dava_toolkits_base_finders_SynchronizedBlockFinder;
+        if( classes.contains( "soot.dava.toolkits.base.misc.ThrowFinder" ) ) instance_soot_dava_toolkits_base_misc_ThrowFinder = old.instance_soot_dava_toolkits_base_misc_ThrowFinder;
+        if( classes.contains( "soot.dava.toolkits.base.misc.ThrowNullConverter" ) ) instance_soot_dava_toolkits_base_misc_ThrowNullConverter = old.instance_soot_dava_toolkits_base_misc_ThrowNullConverter;
+        if( classes.contains( "soot.Timers" ) ) instance_soot_Timers = old.instance_soot_Timers;
+        if( classes.contains( "soot.dava.toolkits.base.AST.TryContentsFinder" ) ) instance_soot_dava_toolkits_base_AST_TryContentsFinder = old.instance_soot_dava_toolkits_base_AST_TryContentsFinder;
+        if( classes.contains( "soot.jimple.toolkits.typing.TypeAssigner" ) ) instance_soot_jimple_toolkits_typing_TypeAssigner = old.instance_soot_jimple_toolkits_typing_TypeAssigner;
+        if( classes.contains( "soot.jimple.toolkits.scalar.UnconditionalBranchFolder" ) ) instance_soot_jimple_toolkits_scalar_UnconditionalBranchFolder = old.instance_soot_jimple_toolkits_scalar_UnconditionalBranchFolder;
+        if( classes.contains( "soot.UnknownType" ) ) instance_soot_UnknownType = old.instance_soot_UnknownType;
+        if( classes.contains( "soot.jimple.toolkits.scalar.UnreachableCodeEliminator" ) ) instance_soot_jimple_toolkits_scalar_UnreachableCodeEliminator = old.instance_soot_jimple_toolkits_scalar_UnreachableCodeEliminator;
+        if( classes.contains( "soot.toolkits.scalar.UnusedLocalEliminator" ) ) instance_soot_toolkits_scalar_UnusedLocalEliminator = old.instance_soot_toolkits_scalar_UnusedLocalEliminator;
+        if( classes.contains( "soot.coffi.UnusuableType" ) ) instance_soot_coffi_UnusuableType = old.instance_soot_coffi_UnusuableType;
+        if( classes.contains( "soot.dava.toolkits.base.AST.UselessTryRemover" ) ) instance_soot_dava_toolkits_base_AST_UselessTryRemover = old.instance_soot_dava_toolkits_base_AST_UselessTryRemover;
+        if( classes.contains( "soot.VoidType" ) ) instance_soot_VoidType = old.instance_soot_VoidType;
+        if( classes.contains( "soot.baf.WordType" ) ) instance_soot_baf_WordType = old.instance_soot_baf_WordType;
+        if( classes.contains( "soot.jimple.spark.fieldrw.FieldReadTagAggregator" ) ) instance_soot_jimple_spark_fieldrw_FieldReadTagAggregator = old.instance_soot_jimple_spark_fieldrw_FieldReadTagAggregator;
+        if( classes.contains( "soot.jimple.spark.fieldrw.FieldWriteTagAggregator" ) ) instance_soot_jimple_spark_fieldrw_FieldWriteTagAggregator = old.instance_soot_jimple_spark_fieldrw_FieldWriteTagAggregator;
+        if( classes.contains( "soot.jimple.spark.fieldrw.FieldTagAggregator" ) ) instance_soot_jimple_spark_fieldrw_FieldTagAggregator = old.instance_soot_jimple_spark_fieldrw_FieldTagAggregator;
+        if( classes.contains( "soot.EntryPoints" ) ) instance_soot_EntryPoints = old.instance_soot_EntryPoints;
+        if( classes.contains( "soot.jimple.toolkits.annotation.callgraph.CallGraphTagger" ) ) instance_soot_jimple_toolkits_annotation_callgraph_CallGraphTagger = old.instance_soot_jimple_toolkits_annotation_callgraph_CallGraphTagger;
+        if( classes.contains( "soot.jimple.toolkits.annotation.nullcheck.NullPointerColorer" ) ) instance_soot_jimple_toolkits_annotation_nullcheck_NullPointerColorer = old.instance_soot_jimple_toolkits_annotation_nullcheck_NullPointerColorer;
+        if( classes.contains( "soot.jimple.toolkits.annotation.parity.ParityTagger" ) ) instance_soot_jimple_toolkits_annotation_parity_ParityTagger = old.instance_soot_jimple_toolkits_annotation_parity_ParityTagger;
+        if( classes.contains( "soot.jimple.toolkits.annotation.methods.UnreachableMethodsTagger" ) ) instance_soot_jimple_toolkits_annotation_methods_UnreachableMethodsTagger = old.instance_soot_jimple_toolkits_annotation_methods_UnreachableMethodsTagger;
+        if( classes.contains( "soot.jimple.toolkits.annotation.fields.UnreachableFieldsTagger" ) ) instance_soot_jimple_toolkits_annotation_fields_UnreachableFieldsTagger = old.instance_soot_jimple_toolkits_annotation_fields_UnreachableFieldsTagger;
+        if( classes.contains( "soot.jimple.toolkits.annotation.qualifiers.TightestQualifiersTagger" ) ) instance_soot_jimple_toolkits_annotation_qualifiers_TightestQualifiersTagger = old.instance_soot_jimple_toolkits_annotation_qualifiers_TightestQualifiersTagger;
+        if( classes.contains( "soot.jimple.toolkits.pointer.ParameterAliasTagger" ) ) instance_soot_jimple_toolkits_pointer_ParameterAliasTagger = old.instance_soot_jimple_toolkits_pointer_ParameterAliasTagger;
+        if( classes.contains( "soot.jimple.toolkits.annotation.defs.ReachingDefsTagger" ) ) instance_soot_jimple_toolkits_annotation_defs_ReachingDefsTagger = old.instance_soot_jimple_toolkits_annotation_defs_ReachingDefsTagger;
+        if( classes.contains( "soot.jimple.toolkits.annotation.liveness.LiveVarsTagger" ) ) instance_soot_jimple_toolkits_annotation_liveness_LiveVarsTagger = old.instance_soot_jimple_toolkits_annotation_liveness_LiveVarsTagger;
+        if( classes.contains( "soot.toolkits.graph.interaction.InteractionHandler" ) ) instance_soot_toolkits_graph_interaction_InteractionHandler = old.instance_soot_toolkits_graph_interaction_InteractionHandler;
+        if( classes.contains( "soot.jimple.toolkits.annotation.logic.LoopInvariantFinder" ) ) instance_soot_jimple_toolkits_annotation_logic_LoopInvariantFinder = old.instance_soot_jimple_toolkits_annotation_logic_LoopInvariantFinder;
+        if( classes.contains( "soot.jimple.toolkits.annotation.AvailExprTagger" ) ) instance_soot_jimple_toolkits_annotation_AvailExprTagger = old.instance_soot_jimple_toolkits_annotation_AvailExprTagger;
+        if( classes.contains( "soot.util.PhaseDumper" ) ) instance_soot_util_PhaseDumper = old.instance_soot_util_PhaseDumper;
+        if( classes.contains( "soot.util.cfgcmd.AltClassLoader" ) ) instance_soot_util_cfgcmd_AltClassLoader = old.instance_soot_util_cfgcmd_AltClassLoader;
+        if( classes.contains( "soot.toolkits.exceptions.ThrowableSet.Manager" ) ) instance_soot_toolkits_exceptions_ThrowableSet_Manager = old.instance_soot_toolkits_exceptions_ThrowableSet_Manager;
+        if( classes.contains( "soot.toolkits.exceptions.UnitThrowAnalysis" ) ) instance_soot_toolkits_exceptions_UnitThrowAnalysis = old.instance_soot_toolkits_exceptions_UnitThrowAnalysis;
+        if( classes.contains( "soot.toolkits.exceptions.PedanticThrowAnalysis" ) ) instance_soot_toolkits_exceptions_PedanticThrowAnalysis = old.instance_soot_toolkits_exceptions_PedanticThrowAnalysis;
+        if( classes.contains( "soot.toolkits.exceptions.TrapTightener" ) ) instance_soot_toolkits_exceptions_TrapTightener = old.instance_soot_toolkits_exceptions_TrapTightener;
+        if( classes.contains( "soot.jimple.toolkits.annotation.callgraph.CallGraphGrapher" ) ) instance_soot_jimple_toolkits_annotation_callgraph_CallGraphGrapher = old.instance_soot_jimple_toolkits_annotation_callgraph_CallGraphGrapher;
+        if( classes.contains( "soot.SootResolver" ) ) instance_soot_SootResolver = old.instance_soot_SootResolver;
+        if( classes.contains( "soot.javaToJimple.InitialResolver" ) ) instance_soot_javaToJimple_InitialResolver = old.instance_soot_javaToJimple_InitialResolver;
+        if( classes.contains( "soot.jimple.paddle.PaddleHook" ) ) instance_soot_jimple_paddle_PaddleHook = old.instance_soot_jimple_paddle_PaddleHook;
+        if( classes.contains( "soot.jimple.toolkits.annotation.DominatorsTagger" ) ) instance_soot_jimple_toolkits_annotation_DominatorsTagger = old.instance_soot_jimple_toolkits_annotation_DominatorsTagger;
+        if( classes.contains( "soot.jimple.toolkits.annotation.purity.PurityAnalysis" ) ) instance_soot_jimple_toolkits_annotation_purity_PurityAnalysis = old.instance_soot_jimple_toolkits_annotation_purity_PurityAnalysis;
+        if( classes.contains( "soot.javaToJimple.toolkits.CondTransformer" ) ) instance_soot_javaToJimple_toolkits_CondTransformer = old.instance_soot_javaToJimple_toolkits_CondTransformer;
+        if( classes.contains( "soot.dava.toolkits.base.AST.transformations.UselessLabelFinder" ) ) instance_soot_dava_toolkits_base_AST_transformations_UselessLabelFinder = old.instance_soot_dava_toolkits_base_AST_transformations_UselessLabelFinder;
+        if( classes.contains( "soot.dava.DavaStaticBlockCleaner" ) ) instance_soot_dava_DavaStaticBlockCleaner = old.instance_soot_dava_DavaStaticBlockCleaner;
+        if( classes.contains( "soot.dava.toolkits.base.AST.traversals.ClosestAbruptTargetFinder" ) ) instance_soot_dava_toolkits_base_AST_traversals_ClosestAbruptTargetFinder = old.instance_soot_dava_toolkits_base_AST_traversals_ClosestAbruptTargetFinder;
+        if( classes.contains( "soot.jimple.spark.sets.AllSharedListNodes" ) ) instance_soot_jimple_spark_sets_AllSharedListNodes = old.instance_soot_jimple_spark_sets_AllSharedListNodes;
+        if( classes.contains( "soot.jimple.spark.sets.AllSharedHybridNodes" ) ) instance_soot_jimple_spark_sets_AllSharedHybridNodes = old.instance_soot_jimple_spark_sets_AllSharedHybridNodes;
+        if( classes.contains( "soot.jimple.toolkits.thread.synchronization.LockAllocator" ) ) instance_soot_jimple_toolkits_thread_synchronization_LockAllocator = old.instance_soot_jimple_toolkits_thread_synchronization_LockAllocator;
+        if( classes.contains( "soot.jimple.toolkits.thread.mhp.MhpTransformer" ) ) instance_soot_jimple_toolkits_thread_mhp_MhpTransformer = old.instance_soot_jimple_toolkits_thread_mhp_MhpTransformer;
+        if( classes.contains( "soot.JastAddInitialResolver" ) ) instance_soot_JastAddInitialResolver = old.instance_soot_JastAddInitialResolver;
+        if( classes.contains( "soot.jimple.toolkits.annotation.j5anno.AnnotationGenerator" ) ) instance_soot_jimple_toolkits_annotation_j5anno_AnnotationGenerator = old.instance_soot_jimple_toolkits_annotation_j5anno_AnnotationGenerator;
+        if( classes.contains( "soot.sootify.TemplatePrinter" ) ) instance_soot_sootify_TemplatePrinter = old.instance_soot_sootify_TemplatePrinter;
+    }
 }
@@ -97,8 +97,7 @@ public abstract class AbstractUnitPrinter implements UnitPrinter {
     }
 
     protected void initializeQuotableLocals() {
-        quotableLocals = new HashSet<String>();
-        quotableLocals.addAll (Jimple.jimpleKeywordList());
+        quotableLocals = Jimple.v().jimpleKeywordSet();
     }
 
     protected boolean startOfLine = true;
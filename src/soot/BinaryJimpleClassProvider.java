@@ -0,0 +1,35 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot;
+
+/** A class provider that looks for a binary Jimple (.jbin) file for the
+ * class, as written with the jbin output format. */
+public class BinaryJimpleClassProvider implements ClassProvider
+{
+    /** Look for the specified class. Return a ClassSource for it if found,
+     * or null if it was not found. */
+    public ClassSource find( String className ) {
+        String fileName = className + ".jbin";
+        SourceLocator.FoundFile file =
+            SourceLocator.v().lookupInClassPath(fileName);
+        if( file == null ) return null;
+        return new BinaryJimpleClassSource(className, file.inputStream());
+    }
+}
@@ -0,0 +1,63 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot;
+import soot.options.*;
+import soot.javaToJimple.IInitialResolver.Dependencies;
+import soot.jimple.binary.BinaryJimpleReader;
+import java.io.*;
+
+/** A class source for resolving from binary Jimple (.jbin) files. Only the
+ * class skeleton is decoded here; method bodies are decoded one at a time
+ * when they are first needed.
+ */
+public class BinaryJimpleClassSource extends ClassSource
+{
+    public BinaryJimpleClassSource( String className, InputStream classFile ) {
+        super( className );
+        this.classFile = classFile;
+    }
+    public Dependencies resolve( SootClass sc ) {
+        if(Options.v().verbose())
+            G.v().out.println("resolving [from .jbin]: " + className );
+
+        BinaryJimpleReader reader;
+        try {
+            reader = new BinaryJimpleReader(readFully(classFile));
+            classFile.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read binary Jimple for " + className, e);
+        }
+        reader.getSkeleton(sc);
+
+        Dependencies deps = new Dependencies();
+        deps.typesToSignature.addAll(reader.getReferencedTypes());
+        return deps;
+    }
+
+    private static byte[] readFully( InputStream in ) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        byte[] buf = new byte[8192];
+        int n;
+        while( (n = in.read(buf)) != -1 ) out.write(buf, 0, n);
+        return out.toByteArray();
+    }
+
+    protected InputStream classFile;
+}
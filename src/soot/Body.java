@@ -54,6 +54,7 @@ import soot.tagkit.Tag;
 import soot.toolkits.exceptions.PedanticThrowAnalysis;
 import soot.toolkits.graph.ExceptionalUnitGraph;
 import soot.toolkits.graph.UnitGraph;
+import soot.toolkits.scalar.BodyAnalysisManager;
 import soot.toolkits.scalar.FlowSet;
 import soot.toolkits.scalar.InitAnalysis;
 import soot.toolkits.scalar.LocalDefs;
@@ -89,6 +90,17 @@ public abstract class Body extends AbstractHost implements Serializable
     /** The chain of units for this Body. */
     protected PatchingChain<Unit> unitChain = new PatchingChain<Unit>(new HashChain<Unit>());
 
+    /** The def-use analyses kept for the transformers of this Body, created on demand. */
+    private transient BodyAnalysisManager analysisManager = null;
+
+    /** Whether analysisManager may be kept after the current transformer;
+     * set by Pack and BodyTransformer. */
+    transient boolean keepAnalyses = false;
+
+    /** Counts the calls to getModificationCount() that found a chain it
+     * cannot ask for its changes. */
+    private transient long unknownChainEdits = 0;
+
     /** Creates a deep copy of this Body. */
     abstract public Object clone();
 
@@ -399,6 +411,49 @@ public abstract class Body extends AbstractHost implements Serializable
         return unitChain;
     }
 
+    /**
+     * Returns the manager of the unit graph and def-use analyses of this
+     * Body. Transformers that get their analyses from it, and edit the
+     * Body through it, share them instead of recomputing them. The manager
+     * is only kept from one transformer to the next while a pack is applied
+     * to this Body, and only across transformers that keep analyses; it is
+     * released after any other transformer and at the end of the pack.
+     *
+     * @see BodyAnalysisManager
+     * @see BodyTransformer#keepsAnalyses()
+     */
+    public BodyAnalysisManager getAnalysisManager()
+    {
+        if(analysisManager == null)
+            analysisManager = new BodyAnalysisManager(this);
+        return analysisManager;
+    }
+
+    /** Drops the manager of the analyses of this Body, and the analyses. */
+    void releaseAnalysisManager()
+    {
+        analysisManager = null;
+    }
+
+    /**
+     * Returns a number that grows whenever units or traps are added to,
+     * removed from or moved in this Body. Edits of the boxes of its units
+     * are not counted.
+     */
+    public long getModificationCount()
+    {
+        return modificationCount(unitChain.getNonPatchingChain())
+            + modificationCount(trapChain);
+    }
+
+    private long modificationCount(Chain c)
+    {
+        if(c instanceof HashChain)
+            return ((HashChain) c).getModificationCount();
+        // a chain that does not count its changes may always have changed
+        return ++unknownChainEdits;
+    }
+
     /**
      * Returns the result of iterating through all Units in this body
      * and querying them for their UnitBoxes.  All UnitBoxes thus
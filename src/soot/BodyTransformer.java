@@ -48,7 +48,17 @@ public abstract class BodyTransformer extends Transformer
         if(!PhaseOptions.getBoolean(options, "enabled"))
             return;
 
-        internalTransform(b, phaseName, options);
+        boolean keep = b.keepAnalyses;
+        b.keepAnalyses = keep && keepsAnalyses();
+        if(!b.keepAnalyses)
+            b.releaseAnalysisManager();
+        try {
+            internalTransform(b, phaseName, options);
+        } finally {
+            if(!b.keepAnalyses)
+                b.releaseAnalysisManager();
+            b.keepAnalyses = keep;
+        }
     }
 
     public final void transform(Body b, String phaseName)
@@ -73,6 +83,19 @@ public abstract class BodyTransformer extends Transformer
      */
     protected abstract void internalTransform(Body b, String phaseName, Map options);
 
+    /**
+     *  Returns true if this transformer only edits the boxes of a Body
+     *  through its BodyAnalysisManager, so that the analyses kept for the
+     *  Body are still valid after it. Within a pack, they are then handed
+     *  on to the next transformer; otherwise they are released, since the
+     *  BodyAnalysisManager cannot see edits of boxes.
+     *  @see Body#getAnalysisManager()
+     */
+    protected boolean keepsAnalyses()
+    {
+        return false;
+    }
+
 }
 
 
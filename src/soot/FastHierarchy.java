@@ -152,8 +152,10 @@ public class FastHierarchy
     }
 
     /** For an interface parent (MUST be an interface), returns set of all
-     * implementers of it but NOT their subclasses. */
-    public Set getAllImplementersOfInterface( SootClass parent ) {
+     * implementers of it but NOT their subclasses. The sets are computed on
+     * demand, under a lock, so that the call graph builder can dispatch on
+     * several threads. */
+    public synchronized Set getAllImplementersOfInterface( SootClass parent ) {
         parent.checkLevel(SootClass.HIERARCHY);
         if( !interfaceToAllImplementers.containsKey( parent ) ) {
             for( Iterator subinterfaceIt = getAllSubinterfaces( parent ).iterator(); subinterfaceIt.hasNext(); ) {
@@ -170,7 +172,7 @@ public class FastHierarchy
 
     /** For an interface parent (MUST be an interface), returns set of all
      * subinterfaces. */
-    protected Set getAllSubinterfaces( SootClass parent ) {
+    protected synchronized Set getAllSubinterfaces( SootClass parent ) {
         parent.checkLevel(SootClass.HIERARCHY);
         if( !interfaceToAllSubinterfaces.containsKey( parent ) ) {
             interfaceToAllSubinterfaces.put( parent, parent );
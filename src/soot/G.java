@@ -44,7 +44,58 @@ public class G extends Singletons
 {
     private static G instance = new G();
     public static G v() { return instance; }
-    public static void reset() { instance = new G(); }
+    public static void reset() {
+        instance.closeArchives();
+        instance = new G();
+    }
+
+    /** The singletons that resetKeepingLibrary() hands over to the next G:
+     * the Scene and the resolver holding the library classes, and the
+     * types and constants their bodies refer to. */
+    private static final Set<String> librarySingletons = new HashSet<String>(Arrays.asList(
+        "soot.Scene", "soot.SootResolver",
+        "soot.BooleanType", "soot.ByteType", "soot.CharType", "soot.ShortType",
+        "soot.IntType", "soot.LongType", "soot.FloatType", "soot.DoubleType",
+        "soot.VoidType", "soot.NullType", "soot.UnknownType", "soot.ErroneousType",
+        "soot.StmtAddressType", "soot.RefType", "soot.baf.WordType",
+        "soot.baf.DoubleWordType", "soot.coffi.Double2ndHalfType",
+        "soot.coffi.Long2ndHalfType", "soot.coffi.UnusuableType",
+        "soot.jimple.NullConstant" ));
+
+    /** Replaces G by a new one that keeps the library classes of the
+     * Scene, with their hierarchy and their bodies, and the open archives.
+     * The application and phantom classes, the library classes referring
+     * to them, the options and all analysis results are dropped. The next
+     * job then only resolves and builds bodies for the library classes it
+     * needs that no previous job has used. If that would keep alive more
+     * numbered methods of dropped classes than of kept ones, this does a
+     * full reset() instead, so the dropped classes can be freed, and
+     * returns false.
+     *
+     * @see Scene#dropApplicationClasses()
+     */
+    public static boolean resetKeepingLibrary() {
+        G old = instance;
+        if( !old.soot_Scene().dropApplicationClasses() ) {
+            reset();
+            return false;
+        }
+        instance = new G();
+        instance.keepSingletons( old, librarySingletons );
+        instance.SourceLocator_openArchives = old.SourceLocator_openArchives;
+        return true;
+    }
+
+    /** Archives opened by SourceLocator, by path. */
+    Map<String, SourceLocator.OpenArchive> SourceLocator_openArchives = new HashMap<String, SourceLocator.OpenArchive>();
+
+    private void closeArchives() {
+        synchronized( SourceLocator_openArchives ) {
+            for( SourceLocator.OpenArchive archive : SourceLocator_openArchives.values() )
+                archive.close();
+            SourceLocator_openArchives.clear();
+        }
+    }
 
     public PrintStream out = System.out;
 
@@ -19,16 +19,26 @@
  */
 package soot;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import soot.javaToJimple.IInitialResolver;
 import soot.JastAddJ.BodyDecl;
 import soot.JastAddJ.CompilationUnit;
 import soot.JastAddJ.ConstructorDecl;
+import soot.JastAddJ.JastAddJavaParser;
 import soot.JastAddJ.MethodDecl;
 import soot.JastAddJ.Program;
 import soot.JastAddJ.TypeDecl;
@@ -48,6 +58,76 @@ public class JastAddInitialResolver implements IInitialResolver {
     }
 	
 	protected Map<String,CompilationUnit> classNameToCU = new HashMap<String, CompilationUnit>();
+
+	/** Compilation units being parsed by {@link #parseAhead(Map)}, by the
+	 * path of their file and by the name of their class. */
+	private final Map<String,ParsedUnit> parsedAhead = new HashMap<String,ParsedUnit>();
+
+	private static final class ParsedUnit {
+		final String path;
+		final String className;
+		final Future<CompilationUnit> unit;
+		ParsedUnit(String path, String className, Future<CompilationUnit> unit) {
+			this.path = path;
+			this.className = className;
+			this.unit = unit;
+		}
+	}
+
+	/** Starts parsing the given source files, keyed by the name of the
+	 * class they declare, on as many threads as there are processors, so
+	 * that {@link #parse(InputStream, String)} can later return them without
+	 * parsing them. Parsing only builds the syntax tree of a file; name
+	 * binding, type checking and jimplification, which go through the
+	 * Program and the Scene, still happen on the resolving thread. */
+	public void parseAhead(Map<String,File> sources) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		if(threads < 2 || sources.size() < 2) return;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			for(Map.Entry<String,File> e : sources.entrySet()) {
+				final String path = e.getValue().getPath();
+				if(parsedAhead.containsKey(path) || parsedAhead.containsKey(e.getKey())) continue;
+				Future<CompilationUnit> unit = executor.submit(new Callable<CompilationUnit>() {
+					public CompilationUnit call() throws Exception {
+						InputStream is = new FileInputStream(path);
+						try {
+							return new JastAddJavaParser().parse(is, path);
+						} finally {
+							is.close();
+						}
+					}
+				});
+				ParsedUnit parsed = new ParsedUnit(path, e.getKey(), unit);
+				parsedAhead.put(path, parsed);
+				parsedAhead.put(e.getKey(), parsed);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/** Parses a .java file for the JastAdd program. fileName is the name
+	 * the program knows the file by, which is either its path or the name of
+	 * the class it declares. */
+	public CompilationUnit parse(InputStream is, String fileName) throws IOException, beaver.Parser.Exception {
+		ParsedUnit parsed = parsedAhead.get(fileName);
+		if(parsed == null)
+			return new JastAddJavaParser().parse(is, fileName);
+		parsedAhead.remove(parsed.path);
+		parsedAhead.remove(parsed.className);
+		try {
+			return parsed.unit.get();
+		} catch(InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch(ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof IOException) throw (IOException) cause;
+			if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if(cause instanceof Error) throw (Error) cause;
+			throw new RuntimeException(cause);
+		}
+	}
 	
 	public void formAst(String fullPath, List<String> locations, String className) {
 	      Program program = SootResolver.v().getProgram();
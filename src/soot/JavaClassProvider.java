@@ -24,6 +24,11 @@
 
 package soot;
 
+import java.io.File;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import soot.options.Options;
 
 /** A class provider looks for a file of a specific format for a specified
@@ -53,24 +58,7 @@ public class JavaClassProvider implements ClassProvider
 			 *						we need to check if it's a real file, 
 			 * 						not just inner class								
 			 */
-	      	boolean checkAgain = className.indexOf('$') >= 0;
-	      	
-	        String javaClassName = SourceLocator.v().getSourceForClass(className);
-	        String fileName = javaClassName.replace('.', '/') + ".java";
-	        SourceLocator.FoundFile file = 
-	            SourceLocator.v().lookupInClassPath(fileName);
-	
-	        /* 04.04.2006 mbatch	if inner class not found,
-		     *						check if it's a real file							
-			 */
-	        if( file == null) {
-	        
-	          if (checkAgain) {
-	            fileName = className.replace('.', '/') + ".java";
-	            file = SourceLocator.v().lookupInClassPath(fileName);
-	          }
-	        }
-	        /* 04.04.2006 mbatch	end */
+	        SourceLocator.FoundFile file = findSourceFile(className);
 	
 	        if (file == null)
 	        	return null;         
@@ -82,4 +70,40 @@ public class JavaClassProvider implements ClassProvider
     	}
 
     }
-}
\ No newline at end of file
+
+    private static SourceLocator.FoundFile findSourceFile( String className ) {
+      	boolean checkAgain = className.indexOf('$') >= 0;
+      	
+        String javaClassName = SourceLocator.v().getSourceForClass(className);
+        String fileName = javaClassName.replace('.', '/') + ".java";
+        SourceLocator.FoundFile file = 
+            SourceLocator.v().lookupInClassPath(fileName);
+
+        /* 04.04.2006 mbatch	if inner class not found,
+	     *						check if it's a real file							
+		 */
+        if( file == null) {
+        
+          if (checkAgain) {
+            fileName = className.replace('.', '/') + ".java";
+            file = SourceLocator.v().lookupInClassPath(fileName);
+          }
+        }
+        /* 04.04.2006 mbatch	end */
+        return file;
+    }
+
+    /** Lets the JastAdd frontend parse the .java files of the given classes
+     * in parallel, ahead of the classes being resolved. Polyglot builds its
+     * ASTs for all source files at once and is not affected. */
+    public void parseAhead( Collection<String> classNames ) {
+        if( Options.v().polyglot() ) return;
+        Map<String, File> sources = new LinkedHashMap<String, File>();
+        for( String className : classNames ) {
+            SourceLocator.FoundFile file = findSourceFile( className );
+            if( file == null || file.file == null ) continue;
+            sources.put( SourceLocator.v().getSourceForClass( className ), file.file );
+        }
+        JastAddInitialResolver.v().parseAhead( sources );
+    }
+}
@@ -19,6 +19,11 @@
 
 package soot;
 
+import java.util.*;
+import java.util.concurrent.*;
+
+import soot.jimple.parser.JimpleAST;
+
 /** A class provider looks for a file of a specific format for a specified
  * class, and returns a ClassSource for it if it finds it.
  */
@@ -27,6 +32,10 @@ public class JimpleClassProvider implements ClassProvider
     /** Look for the specified class. Return a ClassSource for it if found,
      * or null if it was not found. */
     public ClassSource find( String className ) {
+        Future<JimpleAST> parsed = parsedAhead.remove( className );
+        toParse.remove( className );
+        parseMoreAhead();
+        if( parsed != null ) return new JimpleClassSource( className, get( parsed ) );
         //String fileName = className.replace('.', '/') + ".jimple";
         String fileName = className + ".jimple";
         SourceLocator.FoundFile file = 
@@ -34,5 +43,74 @@ public class JimpleClassProvider implements ClassProvider
         if( file == null ) return null;
         return new JimpleClassSource(className, file.inputStream());
     }
-}
 
+    /** Starts parsing the .jimple files of the given classes on as many
+     * threads as there are processors, so that find() can later return them
+     * without parsing them. Parsing only builds the syntax tree of a file
+     * and does not touch the Scene; the Soot objects are still created by
+     * the thread that resolves the class. Each file is opened by the thread
+     * that parses it, and at most twice as many files as there are threads
+     * are parsed but not yet found at any time, so that neither open files
+     * nor syntax trees pile up ahead of the resolver. */
+    public void parseAhead( Collection<String> classNames ) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        if( threads < 2 || classNames.size() < 2 ) return;
+        for( String className : classNames ) {
+            if( parsedAhead.containsKey( className ) ) continue;
+            SourceLocator.FoundFile file =
+                SourceLocator.v().lookupInClassPath( className + ".jimple" );
+            if( file != null ) toParse.put( className, file );
+        }
+        if( executor == null ) {
+            // Idle threads time out, so the pool needs no shutdown even if
+            // some of the files are never asked for.
+            executor = new ThreadPoolExecutor( threads, threads, 1, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>() );
+            executor.allowCoreThreadTimeOut( true );
+            maxParsedAhead = 2 * threads;
+        }
+        parseMoreAhead();
+    }
+
+    /** Submits files from toParse, in order, until maxParsedAhead of them
+     * are being parsed or waiting to be found. */
+    private void parseMoreAhead() {
+        Iterator<Map.Entry<String, SourceLocator.FoundFile>> it =
+            toParse.entrySet().iterator();
+        while( parsedAhead.size() < maxParsedAhead && it.hasNext() ) {
+            Map.Entry<String, SourceLocator.FoundFile> e = it.next();
+            it.remove();
+            final SourceLocator.FoundFile file = e.getValue();
+            parsedAhead.put( e.getKey(), executor.submit( new Callable<JimpleAST>() {
+                public JimpleAST call() throws Exception {
+                    java.io.InputStream classFile = file.inputStream();
+                    try {
+                        return new JimpleAST( classFile );
+                    } finally {
+                        classFile.close();
+                    }
+                }
+            } ) );
+        }
+    }
+
+    private static JimpleAST get( Future<JimpleAST> parsed ) {
+        try {
+            return parsed.get();
+        } catch( InterruptedException e ) {
+            throw new RuntimeException( e );
+        } catch( ExecutionException e ) {
+            if( e.getCause() instanceof RuntimeException )
+                throw (RuntimeException) e.getCause();
+            throw new RuntimeException( e.getCause() );
+        }
+    }
+
+    private final Map<String, Future<JimpleAST>> parsedAhead =
+        new HashMap<String, Future<JimpleAST>>();
+    /** Files passed to parseAhead() that are not being parsed yet. */
+    private final Map<String, SourceLocator.FoundFile> toParse =
+        new LinkedHashMap<String, SourceLocator.FoundFile>();
+    private ThreadPoolExecutor executor;
+    private int maxParsedAhead;
+}
@@ -32,12 +32,20 @@ public class JimpleClassSource extends ClassSource
         super( className );
         this.classFile = classFile;
     }
+    /** Creates a class source for a .jimple file that has already been
+     * parsed, for instance by {@link JimpleClassProvider#parseAhead}. */
+    public JimpleClassSource( String className, soot.jimple.parser.JimpleAST jimpAST ) {
+        super( className );
+        this.jimpAST = jimpAST;
+    }
     public Dependencies resolve( SootClass sc ) {
         if(Options.v().verbose())
             G.v().out.println("resolving [from .jimple]: " + className );
         
-        soot.jimple.parser.JimpleAST jimpAST =
-            new soot.jimple.parser.JimpleAST(classFile);                
+        soot.jimple.parser.JimpleAST jimpAST = this.jimpAST;
+        if( jimpAST == null )
+            jimpAST = new soot.jimple.parser.JimpleAST(classFile);
+        this.jimpAST = null;
         jimpAST.getSkeleton(sc);
         JimpleMethodSource mtdSrc = new JimpleMethodSource(jimpAST);
 
@@ -50,11 +58,14 @@ public class JimpleClassSource extends ClassSource
         Dependencies deps = new Dependencies();
         deps.typesToSignature.addAll(jimpAST.getCstPool());
 
-        try {
-            classFile.close();
-        } catch (IOException e) { throw new RuntimeException("!?"); }
+        if( classFile != null ) {
+            try {
+                classFile.close();
+            } catch (IOException e) { throw new RuntimeException("!?"); }
+        }
         return deps;
     }
     protected InputStream classFile;
+    protected soot.jimple.parser.JimpleAST jimpAST;
 }
 
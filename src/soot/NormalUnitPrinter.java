@@ -19,6 +19,7 @@
 
 package soot;
 import soot.jimple.*;
+import java.util.*;
 
 /**
 * UnitPrinter implementation for normal (full) Jimple, Grimp, and Baf
@@ -28,10 +29,21 @@ public class NormalUnitPrinter extends LabeledUnitPrinter {
         super(body);
     }
 
+    /** Printed names of the types seen so far in this body. */
+    private final Map<Type,String> typeNames = new HashMap<Type,String>();
+
     public void type( Type t ) { 
         handleIndent();
-        String s = t==null ? "<null>"  : t.toString();
-        if( t instanceof RefType ) s = Scene.v().quotedNameOf(s);
+        if( t == null ) {
+            output.append( "<null>" );
+            return;
+        }
+        String s = typeNames.get( t );
+        if( s == null ) {
+            s = t.toString();
+            if( t instanceof RefType ) s = Scene.v().quotedNameOf(s);
+            typeNames.put( t, s );
+        }
         output.append( s );
     }
     public void methodRef( SootMethodRef m ) {
@@ -121,7 +121,17 @@ public abstract class Pack implements HasPhaseOptions
         if( !PhaseOptions.getBoolean( options, "enabled" ) ) return;
 	if (DEBUG)
 	    PhaseDumper.v().dumpBefore(b, getPhaseName());
-        internalApply(b);
+        // the transformers of the pack may share the analyses of b, which
+        // are released once they are done
+        boolean keep = b.keepAnalyses;
+        if( !keep ) b.releaseAnalysisManager();
+        b.keepAnalyses = true;
+        try {
+            internalApply(b);
+        } finally {
+            b.keepAnalyses = keep;
+            if( !keep ) b.releaseAnalysisManager();
+        }
 	if (DEBUG)
 	    PhaseDumper.v().dumpAfter(b, getPhaseName());
     }
@@ -31,6 +31,7 @@ import soot.jimple.toolkits.invoke.*;
 import soot.jimple.toolkits.base.*;
 import soot.shimple.toolkits.scalar.*;
 import soot.sootify.TemplatePrinter;
+import soot.jimple.binary.BinaryJimpleWriter;
 import soot.grimp.toolkits.base.*;
 import soot.baf.toolkits.base.*;
 import soot.jimple.toolkits.typing.*;
@@ -61,6 +62,8 @@ import soot.toolkits.scalar.*;
 import soot.jimple.spark.SparkTransformer;
 import soot.jimple.paddle.PaddleHook;
 import soot.jimple.toolkits.callgraph.CHATransformer;
+import soot.jimple.toolkits.callgraph.RTATransformer;
+import soot.jimple.toolkits.callgraph.VTATransformer;
 import soot.jimple.spark.fieldrw.*;
 import soot.dava.*;
 import soot.dava.toolkits.base.AST.interProcedural.InterProceduralAnalyses;
@@ -133,6 +136,8 @@ public class PackManager {
         addPack(p = new CallGraphPack("cg"));
         {
             p.add(new Transform("cg.cha", CHATransformer.v()));
+            p.add(new Transform("cg.rta", RTATransformer.v()));
+            p.add(new Transform("cg.vta", VTATransformer.v()));
             p.add(new Transform("cg.spark", SparkTransformer.v()));
             p.add(new Transform("cg.paddle", PaddleHook.v()));
         }
@@ -762,6 +767,7 @@ public class PackManager {
             case Options.output_format_jimp :
             case Options.output_format_template :
             case Options.output_format_dex :
+            case Options.output_format_jbin :
                 break;
             case Options.output_format_shimp:
             case Options.output_format_shimple:
@@ -968,13 +974,15 @@ public class PackManager {
             case Options.output_format_grimple :
                 writerOut =
                     new PrintWriter(
-                        new EscapedWriter(new OutputStreamWriter(streamOut)));
+                        new BufferedWriter(
+                            new EscapedWriter(new OutputStreamWriter(streamOut))));
                 Printer.v().printTo(c, writerOut);
                 break;
             case Options.output_format_xml :
                 writerOut =
                     new PrintWriter(
-                        new EscapedWriter(new OutputStreamWriter(streamOut)));
+                        new BufferedWriter(
+                            new EscapedWriter(new OutputStreamWriter(streamOut))));
                 XMLPrinter.v().printJimpleStyleTo(c, writerOut);
                 break;
             case Options.output_format_template :
@@ -983,6 +991,13 @@ public class PackManager {
                         new OutputStreamWriter(streamOut));
                 TemplatePrinter.v().printTo(c, writerOut);
             	break;
+            case Options.output_format_jbin :
+                try {
+                    new BinaryJimpleWriter(c).writeTo(streamOut);
+                } catch (IOException e) {
+                    throw new CompilationDeathException("Cannot output file " + fileName,e);
+                }
+                break;
             default :
                 throw new RuntimeException();
         }
@@ -30,7 +30,6 @@ import soot.tagkit.*;
 import java.util.*;
 
 import soot.util.*;
-import soot.toolkits.graph.*;
 
 /**
 * Prints out a class and all its methods.
@@ -345,8 +344,6 @@ public class Printer {
         out.println("    {");
         incJimpleLnNum();
         
-        UnitGraph unitGraph = new soot.toolkits.graph.BriefUnitGraph(b);
-
         LabeledUnitPrinter up;
         if( isPrecise ) up = new NormalUnitPrinter(b);
         else up = new BriefUnitPrinter(b);
@@ -357,7 +354,7 @@ public class Printer {
 	
         printLocalsInBody(b, up);
 
-        printStatementsInBody(b, out, up, unitGraph);
+        printStatementsInBody(b, out, up);
 
         out.println("    }");
         incJimpleLnNum();
@@ -365,7 +362,7 @@ public class Printer {
     }
 
     /** Prints the given <code>JimpleBody</code> to the specified <code>PrintWriter</code>. */
-    private void printStatementsInBody(Body body, java.io.PrintWriter out, LabeledUnitPrinter up, UnitGraph unitGraph ) {
+    private void printStatementsInBody(Body body, java.io.PrintWriter out, LabeledUnitPrinter up) {
     	Chain units = body.getUnits();
         Iterator unitIt = units.iterator();
         Unit currentStmt = null, previousStmt;
@@ -379,21 +376,15 @@ public class Printer {
             {
                 // Put an empty line if the previous node was a branch node, the current node is a join node
                 //   or the previous statement does not have body statement as a successor, or if
-                //   body statement has a label on it
+                //   body statement has a label on it.
+                // Every branch target has a label, so the current node is a join node only
+                //   if it has a label, and this needs no unit graph.
 
-                if (currentStmt != units.getFirst()) {
-                    if (unitGraph.getSuccsOf(previousStmt).size() != 1
-                        || unitGraph.getPredsOf(currentStmt).size() != 1
+                if (previousStmt != null) {
+                    if (!previousStmt.fallsThrough()
+                        || previousStmt.branches()
                         || up.labels().containsKey(currentStmt)) {
                         up.newline();
-                    } else {
-                        // Or if the previous node does not have body statement as a successor.
-
-                        List succs = unitGraph.getSuccsOf(previousStmt);
-
-                        if (succs.get(0) != currentStmt) {
-                            up.newline();
-                        }
                     }
                 }
 
@@ -442,7 +433,7 @@ public class Printer {
             }
         }
 
-        out.print(up.toString());
+        printBuffer(up.output(), out);
 		if (addJimpleLn()){
 			setJimpleLnNum(up.getPositionTagger().getEndLn());
 		}
@@ -478,6 +469,17 @@ public class Printer {
 
     }
 
+    /** Copies buf to out in chunks, without first turning the whole body
+     * into one String. */
+    private void printBuffer(StringBuffer buf, PrintWriter out) {
+        char[] chunk = new char[Math.min(buf.length(), 8192)];
+        for (int start = 0; start < buf.length(); start += chunk.length) {
+            int end = Math.min(start + chunk.length, buf.length());
+            buf.getChars(start, end, chunk, 0);
+            out.write(chunk, 0, end - start);
+        }
+    }
+
     private int addJimpleLnTags(int lnNum, SootMethod meth) {
     	meth.addTag(new JimpleLineNumberTag(lnNum));
 	lnNum++;
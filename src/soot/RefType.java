@@ -62,11 +62,19 @@ public class RefType extends RefLikeType implements Comparable
      */
     public static RefType v(String className)
     {
-        if(Scene.v().containsType(className)) {
-        	return Scene.v().getRefType( className );
-        } else {
+        Scene scene = Scene.v();
+        if(scene.containsType(className)) {
+        	return scene.getRefType( className );
+        }
+        // The constructor numbers the type, so a RefType that lost a
+        // putIfAbsent() race would leave a stray number behind; only
+        // creating a type is serialized.
+        synchronized(scene) {
+            if(scene.containsType(className)) {
+                return scene.getRefType( className );
+            }
 	        RefType ret = new RefType(className);
-	        Scene.v().addRefType( ret );
+	        scene.addRefType( ret );
 	        return ret;
         }
     }
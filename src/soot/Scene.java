@@ -42,6 +42,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -120,7 +122,8 @@ public class Scene  //extends AbstractHost
     Chain<SootClass> libraryClasses = new HashChain<SootClass>();
     Chain<SootClass> phantomClasses = new HashChain<SootClass>();
     
-    private final Map<String,Type> nameToClass = new HashMap<String,Type>();
+    // looked up without a lock by RefType.v()
+    private final Map<String,Type> nameToClass = new ConcurrentHashMap<String,Type>();
 
     ArrayNumberer kindNumberer = new ArrayNumberer();
     ArrayNumberer typeNumberer = new ArrayNumberer();
@@ -478,6 +481,135 @@ public class Scene  //extends AbstractHost
         modifyHierarchy();
     }
 
+    /** Describes what the library classes kept by dropApplicationClasses()
+     * were loaded from and with which options, or null if this Scene holds
+     * no classes of an earlier job. */
+    private String keptLibraryKey;
+
+    /** Prepares this Scene to be handed over to the next job, in a new G,
+     * keeping the library classes with their hierarchy and bodies. Drops
+     * the application classes, the classes referring to them, directly or
+     * indirectly, and all results of the current job. Phantom classes are
+     * kept as phantoms, so that the library classes referring to them can
+     * be kept too; the next job drops those it finds in its process
+     * directories. Returns false, and drops nothing, if the methods of the
+     * dropped classes would outnumber those of the kept ones, since the
+     * numberers keep them alive.
+     *
+     * @see G#resetKeepingLibrary()
+     */
+    boolean dropApplicationClasses() {
+        List<SootClass> roots = new ArrayList<SootClass>();
+        for( SootClass c : classes ) {
+            if( !c.isPhantom() && !libraryClasses.contains(c) ) roots.add(c);
+        }
+        Set<SootClass> dropped = referringClasses(roots);
+        // methods are numbered when created, whatever the resolving level
+        // of their class, and those no kept class declares stay numbered
+        int droppedMethods = 0;
+        for( Iterator mIt = methodNumberer.iterator(); mIt.hasNext(); ) {
+            final SootMethod m = (SootMethod) mIt.next();
+            if( !m.isDeclared() || dropped.contains(m.getDeclaringClass()) )
+                droppedMethods++;
+        }
+        if( droppedMethods > methodNumberer.size() - droppedMethods ) return false;
+
+        removeClasses(dropped);
+        keptLibraryKey = libraryKey();
+
+        activeCallGraph = null;
+        reachableMethods = null;
+        cscg = null;
+        entryPoints = null;
+        mainClass = null;
+        dynamicClasses = null;
+        pkgList = null;
+        allowsPhantomRefs = false;
+        sootClassPath = System.getProperty("soot.class.path");
+        defaultThrowAnalysis = null;
+        contextNumberer = null;
+        unitNumberer = new MapNumberer();
+        doneResolving = false;
+        incrementalBuild = false;
+        addSootBasicClasses();
+        return true;
+    }
+
+    /** Called by loadNecessaryClasses() in the job after
+     * dropApplicationClasses(). Drops all kept library classes if they
+     * were loaded from a different class path or with different options;
+     * otherwise only those that this job finds in its process directories,
+     * which come first on its class path. */
+    private void checkKeptLibrary() {
+        determineExcludedPackages();
+        List<SootClass> stale = new ArrayList<SootClass>();
+        if( keptLibraryKey.equals(libraryKey()) ) {
+            for( String path : (List<String>) Options.v().process_dir() ) {
+                for( String name : SourceLocator.v().getClassesUnder(path) ) {
+                    if( containsClass(name) ) stale.add(getSootClass(name));
+                }
+            }
+        } else {
+            stale.addAll(classes);
+        }
+        keptLibraryKey = null;
+        removeClasses(referringClasses(stale));
+    }
+
+    /** Returns the given classes and the classes referring to them,
+     * directly or indirectly. */
+    private Set<SootClass> referringClasses(Collection<SootClass> roots) {
+        Map<String, List<SootClass>> referrers = new HashMap<String, List<SootClass>>();
+        for( SootClass c : classes ) {
+            for( String name : SootResolver.v().referencedClassNames(c) ) {
+                List<SootClass> l = referrers.get(name);
+                if( l == null ) referrers.put(name, l = new ArrayList<SootClass>());
+                l.add(c);
+            }
+        }
+        Set<SootClass> ret = new HashSet<SootClass>(roots);
+        LinkedList<SootClass> worklist = new LinkedList<SootClass>(ret);
+        while( !worklist.isEmpty() ) {
+            List<SootClass> l = referrers.get(worklist.removeFirst().getName());
+            if( l == null ) continue;
+            for( SootClass c : l ) {
+                if( ret.add(c) ) worklist.add(c);
+            }
+        }
+        return ret;
+    }
+
+    private void removeClasses(Collection<SootClass> dropped) {
+        for( SootClass c : dropped ) removeClass(c);
+        SootResolver.v().dropClasses(dropped);
+    }
+
+    /** Describes what determines the library classes loaded by the current
+     * job: the class path without the process directories, the size and
+     * time stamp of its entries, and the options of the resolver and of
+     * jb. A directory on the class path is assumed not to change. */
+    private String libraryKey() {
+        StringBuffer ret = new StringBuffer();
+        String cp = Options.v().soot_classpath();
+        if( cp.length() == 0 ) cp = defaultClassPath();
+        else if( Options.v().prepend_classpath() ) cp += File.pathSeparator + defaultClassPath();
+        for( String entry : cp.split(File.pathSeparator) ) {
+            File f = new File(entry);
+            ret.append(entry).append(' ').append(f.length()).append(' ').append(f.lastModified()).append('\n');
+        }
+        ret.append(Options.v().src_prec()).append(' ')
+            .append(Options.v().allow_phantom_refs()).append(' ')
+            .append(Options.v().no_bodies_for_excluded()).append(' ')
+            .append(Options.v().keep_line_number()).append(' ')
+            .append(Options.v().keep_offset()).append('\n');
+        ret.append(new TreeMap(PhaseOptions.v().getPhaseOptions("jb")));
+        for( Iterator<Transform> tIt = PackManager.v().getPack("jb").iterator(); tIt.hasNext(); ) {
+            final Transform t = tIt.next();
+            ret.append(t.getPhaseName()).append(new TreeMap(PhaseOptions.v().getPhaseOptions(t)));
+        }
+        return ret.toString();
+    }
+
     public boolean containsClass(String className)
     {
         RefType type = (RefType) nameToClass.get(className);
@@ -1217,6 +1349,7 @@ public class Scene  //extends AbstractHost
      *  classes soot should use.
      */
     public void loadNecessaryClasses() {
+        if( keptLibraryKey != null ) checkKeptLibrary();
 	loadBasicClasses();
 
         Iterator<String> it = Options.v().classes().iterator();
@@ -1233,12 +1366,18 @@ public class Scene  //extends AbstractHost
         		throw new IllegalArgumentException("If switch -oaat is used, then also -process-dir must be given.");
         	}
         } else {
+	        List<String> processClasses = new ArrayList<String>();
 	        for( Iterator<String> pathIt = Options.v().process_dir().iterator(); pathIt.hasNext(); ) {
 	
 	            final String path = (String) pathIt.next();
-	            for (String cl : SourceLocator.v().getClassesUnder(path)) {
-	                loadClassAndSupport(cl).setApplicationClass();
-	            }
+	            processClasses.addAll(SourceLocator.v().getClassesUnder(path));
+	        }
+	        if( Options.v().src_prec() == Options.src_prec_jimple )
+	            SourceLocator.v().parseJimpleAhead(processClasses);
+	        else if( Options.v().src_prec() == Options.src_prec_java )
+	            SourceLocator.v().parseJavaAhead(processClasses);
+	        for (String cl : processClasses) {
+	            loadClassAndSupport(cl).setApplicationClass();
 	        }
         }
 
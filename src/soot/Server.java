@@ -0,0 +1,165 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Runs many Soot jobs in one Java VM, so that each job does not pay for
+ * starting the VM, loading and compiling Soot, and opening the library
+ * archives on the Soot class path.
+ *
+ * Each job is one line holding the command-line arguments of soot.Main,
+ * separated by white space. An argument holding white space, such as a
+ * class path with a directory name containing a space, is put in double
+ * or single quotes. Outside single quotes, a backslash before a quote,
+ * a backslash or white space takes that character literally. Everything the job prints through G.v().out
+ * is sent back, followed by a line that is either {@link #JOB_SUCCEEDED}
+ * or {@link #JOB_FAILED}. Without arguments, jobs are read from standard
+ * input and answered on standard output; with a port number as argument,
+ * connections to that port on the loopback interface are served one after
+ * the other, each of them for as many jobs as the client sends.
+ *
+ * After a job that succeeded, G is reset with
+ * {@link G#resetKeepingLibrary()}: the next job starts with the library
+ * classes, their hierarchy and the bodies already built, and the open
+ * archives, of the jobs before it, as long as it uses the same class path
+ * and options for them; if they cannot be kept, {@link #LIBRARY_NOT_KEPT}
+ * is sent before the line ending the job. After a job that failed, G is
+ * reset completely.
+ */
+public class Server {
+    public static final String JOB_SUCCEEDED = "soot-job: succeeded";
+    public static final String JOB_FAILED = "soot-job: failed";
+    public static final String LIBRARY_NOT_KEPT = "soot-job: library classes not kept";
+
+    public static void main(String[] args) throws IOException {
+        if( args.length == 0 ) {
+            serve(System.in, System.out);
+        } else if( args.length == 1 ) {
+            ServerSocket server = new ServerSocket(Integer.parseInt(args[0]), 0,
+                    InetAddress.getByName(null));
+            try {
+                while(true) {
+                    Socket client = server.accept();
+                    try {
+                        serve(client.getInputStream(), client.getOutputStream());
+                    } finally {
+                        client.close();
+                    }
+                }
+            } finally {
+                server.close();
+            }
+        } else {
+            System.err.println("Usage: java soot.Server [port]");
+        }
+    }
+
+    /** Runs the jobs read from in until its end, answering them on out. */
+    public static void serve(InputStream in, OutputStream out) throws IOException {
+        BufferedReader jobs = new BufferedReader(new InputStreamReader(in));
+        PrintStream answers = new PrintStream(out, true);
+        String job;
+        while( (job = jobs.readLine()) != null ) {
+            String[] args;
+            try {
+                args = splitArgs(job);
+            } catch( CompilationDeathException e ) {
+                answers.println(e.getMessage());
+                answers.println(JOB_FAILED);
+                continue;
+            }
+            if( args.length == 0 ) continue;
+            answers.println(runJob(args, answers) ? JOB_SUCCEEDED : JOB_FAILED);
+        }
+    }
+
+    /** Runs soot.Main on args, printing to out, and returns whether it
+     * succeeded. The job starts with the library classes kept from the jobs
+     * before it. */
+    public static boolean runJob(String[] args, PrintStream out) {
+        G.v().out = out;
+        boolean succeeded = false;
+        try {
+            Main.v().run(args);
+            succeeded = true;
+        } catch( CompilationDeathException e ) {
+            out.println(e.getMessage());
+        } catch( Throwable e ) {
+            // also errors, such as running out of memory, so that one job
+            // cannot stop the server
+            e.printStackTrace(out);
+        }
+        // free the memory of this job while waiting for the next one
+        if( succeeded ) {
+            try {
+                if( !G.resetKeepingLibrary() ) out.println(LIBRARY_NOT_KEPT);
+            } catch( Throwable e ) {
+                e.printStackTrace(out);
+                out.println(LIBRARY_NOT_KEPT);
+                G.reset();
+            }
+        } else {
+            G.reset();
+        }
+        out.flush();
+        return succeeded;
+    }
+
+    /** Splits a job line into arguments, as described above. */
+    static String[] splitArgs(String line) {
+        List<String> args = new ArrayList<String>();
+        StringBuffer arg = null;
+        char quote = 0;
+        for( int i = 0; i < line.length(); i++ ) {
+            char c = line.charAt(i);
+            if( quote == 0 && Character.isWhitespace(c) ) {
+                if( arg != null ) args.add(arg.toString());
+                arg = null;
+                continue;
+            }
+            if( arg == null ) arg = new StringBuffer();
+            if( c == quote ) {
+                quote = 0;
+            } else if( quote == 0 && ( c == '"' || c == '\'' ) ) {
+                quote = c;
+            } else if( c == '\\' && quote != '\'' && i+1 < line.length()
+                    && "\"'\\ \t".indexOf(line.charAt(i+1)) >= 0 ) {
+                arg.append(line.charAt(++i));
+            } else {
+                arg.append(c);
+            }
+        }
+        if( quote != 0 ) throw new CompilationDeathException(
+                CompilationDeathException.COMPILATION_ABORTED, "Unterminated quote in job: "+line);
+        if( arg != null ) args.add(arg.toString());
+        return args.toArray(new String[args.size()]);
+    }
+}
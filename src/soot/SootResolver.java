@@ -39,7 +39,6 @@ import soot.JastAddJ.ASTNode;
 import soot.JastAddJ.BytecodeParser;
 import soot.JastAddJ.CompilationUnit;
 import soot.JastAddJ.JavaParser;
-import soot.JastAddJ.JastAddJavaParser;
 import soot.JastAddJ.Program;
 
 /** Loads symbols for SootClasses from either class files or jimple files. */
@@ -60,8 +59,11 @@ public class SootResolver
         worklist[SootClass.HIERARCHY] = new LinkedList();
         worklist[SootClass.SIGNATURES] = new LinkedList();
         worklist[SootClass.BODIES] = new LinkedList();
-        
-        
+    }
+
+    /** Creates the JastAdd program for the class path and source precedence
+     * of the current options. */
+    private void initProgram() {
         program = new Program();
 	program.state().reset();
 
@@ -69,7 +71,7 @@ public class SootResolver
         program.initJavaParser(
           new JavaParser() {
             public CompilationUnit parse(InputStream is, String fileName) throws IOException, beaver.Parser.Exception {
-              return new JastAddJavaParser().parse(is, fileName);
+              return JastAddInitialResolver.v().parse(is, fileName);
             }
           }
         );
@@ -325,8 +327,50 @@ public class SootResolver
     }
 
 	public Program getProgram() {
+		if( program == null ) initProgram();
 		return program;
 	}
+
+    /** Returns the names of the classes that the given class refers to.
+     * The hierarchy of a class is only looked at from resolving level
+     * HIERARCHY on, since it cannot be read below it. */
+    Set<String> referencedClassNames(SootClass sc) {
+        Set<String> ret = new HashSet<String>();
+        if(sc.resolvingLevel() >= SootClass.HIERARCHY) {
+            if(sc.hasSuperclass()) ret.add(sc.getSuperclass().getName());
+            if(sc.hasOuterClass()) ret.add(sc.getOuterClass().getName());
+            for( Iterator ifaceIt = sc.getInterfaces().iterator(); ifaceIt.hasNext(); ) {
+                ret.add(((SootClass) ifaceIt.next()).getName());
+            }
+        }
+        addClassNames(ret, classToTypesHierarchy.get(sc));
+        addClassNames(ret, classToTypesSignature.get(sc));
+        return ret;
+    }
+
+    private static void addClassNames(Set<String> names, Collection references) {
+        if( references == null ) return;
+        for( Iterator it = references.iterator(); it.hasNext(); ) {
+            Object o = it.next();
+            if( o instanceof ArrayType ) o = ((ArrayType) o).baseType;
+            if( o instanceof String ) names.add((String) o);
+            else if( o instanceof RefType ) names.add(((RefType) o).getClassName());
+        }
+    }
+
+    /** Forgets the given classes, which have been removed from the Scene,
+     * and the JastAdd program, which is created again for the options of
+     * the next job that needs it.
+     *
+     * @see Scene#dropApplicationClasses()
+     */
+    void dropClasses(Collection<SootClass> classes) {
+        for( SootClass sc : classes ) {
+            classToTypesSignature.remove(sc);
+            classToTypesHierarchy.remove(sc);
+        }
+        program = null;
+    }
 }
 
 
@@ -24,6 +24,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -104,6 +105,36 @@ public class SourceLocator
         return null;
     }
     
+    /** Lets the .jimple class providers parse the files of the given classes
+     * in parallel, ahead of the classes being resolved. */
+    public void parseJimpleAhead(Collection<String> classNames) {
+        if( classPath == null ) {
+            classPath = explodeClassPath(Scene.v().getSootClassPath());
+        }
+        if( classProviders == null ) {
+            setupClassProviders();
+        }
+        for (ClassProvider cp : classProviders) {
+            if( cp instanceof JimpleClassProvider )
+                ((JimpleClassProvider) cp).parseAhead(classNames);
+        }
+    }
+
+    /** Lets the .java class providers parse the files of the given classes
+     * in parallel, ahead of the classes being resolved. */
+    public void parseJavaAhead(Collection<String> classNames) {
+        if( classPath == null ) {
+            classPath = explodeClassPath(Scene.v().getSootClassPath());
+        }
+        if( classProviders == null ) {
+            setupClassProviders();
+        }
+        for (ClassProvider cp : classProviders) {
+            if( cp instanceof JavaClassProvider )
+                ((JavaClassProvider) cp).parseAhead(classNames);
+        }
+    }
+
     public void additionalClassLoader(ClassLoader c) {
     	additionalClassLoaders.add(c);
     }
@@ -129,6 +160,12 @@ public class SourceLocator
                 classProviders.add(new CoffiClassProvider());
                 classProviders.add(new JavaClassProvider());
                 break;
+            case Options.src_prec_jbin:
+                classProviders.add(new BinaryJimpleClassProvider());
+                classProviders.add(new CoffiClassProvider());
+                classProviders.add(new JimpleClassProvider());
+                classProviders.add(new JavaClassProvider());
+                break;
             case Options.src_prec_apk:
                 classProviders.add(dexClassProvider());
 				classProviders.add(new CoffiClassProvider());
@@ -194,9 +231,10 @@ public class SourceLocator
 			inputExtensions.add(".class");
 			inputExtensions.add(".jimple");
 			inputExtensions.add(".java");
+			inputExtensions.add(".jbin");
 
 			try {
-				ZipFile archive = new ZipFile(aPath);
+				ZipFile archive = archive(aPath);
 
 				boolean hasClassesDotDex = false;
 				for (Enumeration entries = archive.entries(); entries.hasMoreElements();) {
@@ -261,6 +299,11 @@ public class SourceLocator
 						classes.add(fileName.substring(0, index));
 					}
 
+					if (fileName.endsWith(".jbin")) {
+						int index = fileName.lastIndexOf(".jbin");
+						classes.add(fileName.substring(0, index));
+					}
+
 					if (fileName.endsWith(".java")) {
 						int index = fileName.lastIndexOf(".java");
 						classes.add(fileName.substring(0, index));
@@ -396,6 +439,7 @@ public class SourceLocator
             case Options.output_format_jasmin:   return ".jasmin";
             case Options.output_format_xml:      return ".xml";
             case Options.output_format_template: return ".java";
+            case Options.output_format_jbin:     return ".jbin";
             default:
                 throw new RuntimeException();
         }
@@ -499,7 +543,7 @@ public class SourceLocator
     }
     private FoundFile lookupInArchive(String archivePath, String fileName) {
         try {
-            ZipFile archive = new ZipFile(archivePath);
+            ZipFile archive = archive(archivePath);
             ZipEntry entry = archive.getEntry(fileName);
             if( entry == null ) return null;
             return new FoundFile(archive, entry);
@@ -507,6 +551,50 @@ public class SourceLocator
             throw new RuntimeException("Caught IOException " + e + " looking in archive file " + archivePath + " for file " + fileName);
         }
     }
+
+    /** Returns the archive at archivePath, opening it unless it was opened
+     * before. Open archives are kept in G, so that a process running many
+     * jobs, such as soot.Server, reads the index of each library archive
+     * only once as long as it keeps the library classes. An archive that
+     * has changed on disk since it was opened is opened again. */
+    private static ZipFile archive(String archivePath) throws IOException {
+        Map<String, OpenArchive> openArchives = G.v().SourceLocator_openArchives;
+        synchronized( openArchives ) {
+            File f = new File(archivePath);
+            long length = f.length();
+            long lastModified = f.lastModified();
+            OpenArchive open = openArchives.get(archivePath);
+            if( open != null ) {
+                if( open.length == length && open.lastModified == lastModified )
+                    return open.zipFile;
+                open.close();
+            }
+            ZipFile ret = new ZipFile(archivePath);
+            openArchives.put(archivePath, new OpenArchive(ret, length, lastModified));
+            return ret;
+        }
+    }
+
+    /** An archive opened by archive(), with the size and time stamp it had
+     * on disk when it was opened. */
+    static final class OpenArchive {
+        final ZipFile zipFile;
+        final long length;
+        final long lastModified;
+        OpenArchive( ZipFile zipFile, long length, long lastModified ) {
+            this.zipFile = zipFile;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+        void close() {
+            try {
+                zipFile.close();
+            } catch( IOException e ) {
+                // the archive is not used any more
+            }
+        }
+    }
+
     private HashMap<String, String> sourceToClassMap;
 
     public HashMap<String, String> getSourceToClassMap(){
@@ -46,7 +46,7 @@ public class XMLAttributesPrinter {
 	private void initFile() {
 		try {
 		  streamOut = new FileOutputStream(getUseFilename());
-		  writerOut = new PrintWriter(new OutputStreamWriter(streamOut));
+		  writerOut = new PrintWriter(new BufferedWriter(new OutputStreamWriter(streamOut)));
 		  writerOut.println("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>");
 		  writerOut.println("<attributes>");
 		}
@@ -69,18 +69,36 @@ public class XMLAttributesPrinter {
 		printAttrs(c, new soot.xml.TagCollector(), true);
 	}
 
-	private void printAttrs(SootClass c, soot.xml.TagCollector tc, boolean includeBodyTags) {
-        tc.collectKeyTags(c);
+	private void printAttrs(SootClass c, soot.xml.TagCollector collected, boolean includeBodyTags) {
+		// Attributes are written out as soon as they are collected rather
+		// than being kept until the whole class has been walked.
+		soot.xml.TagCollector tc = new soot.xml.TagCollector() {
+			protected void attributeCollected(soot.xml.Attribute a) {
+				ensureFile();
+				a.print(writerOut);
+			}
+		};
+		if (!collected.isEmpty()) {
+			ensureFile();
+			collected.printTags(writerOut);
+		}
+		tc.collectKeyTags(c);
 		tc.collectTags(c, includeBodyTags);
 
-	    // If there are no attributes, then the attribute file is not created.
-	    if (tc.isEmpty())
+		// If there are no attributes, then the attribute file is not created.
+		if (!tc.isEmpty())
+			ensureFile();
+		if (writerOut == null)
 			return;
-		initFile();
-        tc.printTags(writerOut);
-        tc.printKeys(writerOut);
+		collected.printKeys(writerOut);
+		tc.printKeys(writerOut);
 		finishFile();
 	}
+
+	private void ensureFile() {
+		if (writerOut == null)
+			initFile();
+	}
 	 
 	FileOutputStream streamOut = null;
 	PrintWriter writerOut = null;
@@ -57,6 +57,16 @@ public class LoadStoreOptimizer extends BodyTransformer
         
     private Map gOptions;
 
+    // number of eliminations over all the bodies optimized so far
+    private int storeLoadEliminations = 0;
+    private int storeLoadLoadEliminations = 0;
+
+    /** Returns the number of store/load pairs eliminated so far. */
+    public int storeLoadEliminations() { return storeLoadEliminations; }
+
+    /** Returns the number of store/load/load trios replaced by a dup so far. */
+    public int storeLoadLoadEliminations() { return storeLoadLoadEliminations; }
+
     /** The method that drives the optimizations. */
     /* This is the public interface to LoadStoreOptimizer */
   
@@ -77,6 +87,13 @@ public class LoadStoreOptimizer extends BodyTransformer
         if(debug) { G.v().out.println("\n\nOptimizing Method: " + body.getMethod().getName());}
         
         instance.go();
+
+        storeLoadEliminations += instance.mStoreLoadEliminations;
+        storeLoadLoadEliminations += instance.mStoreLoadLoadEliminations;
+        if(Options.v().verbose())
+            G.v().out.println("[" + body.getMethod().getName() + "] Eliminated " 
+                              + instance.mStoreLoadEliminations + " store/load pairs and "
+                              + instance.mStoreLoadLoadEliminations + " store/load/load trios");
     }
 class Instance {
     // Instance vars.
@@ -87,6 +104,8 @@ class Instance {
     private LocalUses mLocalUses;
     private Map<Unit, Block> mUnitToBlockMap;     // maps a unit it's containing block
     private boolean mPass2 = false;
+    private int mStoreLoadEliminations = 0;
+    private int mStoreLoadLoadEliminations = 0;
 
 
     void go() {
@@ -145,19 +164,55 @@ class Instance {
     }
 
     
-    // computes a list of all the stores in mUnits in order of their occurence therein.
+    // computes, for each block, the list of the stores in it that may take part in a
+    // store/load or store/load/load elimination, in order of their occurence in mUnits.
+    // Whether a store may take part only depends on the local defs and uses and on the
+    // blocks of its loads, none of which change while stores are being eliminated.
   
-    private  List<Unit>  buildStoreList()
+    private  Map<Block, List<Unit>>  buildStoreLists()
     {
         Iterator it = mUnits.iterator();
-        List<Unit> storeList = new ArrayList<Unit>();
+        Map<Block, List<Unit>> blockToStores = new LinkedHashMap<Block, List<Unit>>();
         
         while(it.hasNext()) {
             Unit unit = (Unit) it.next();
-            if(unit  instanceof StoreInst)
+            if(unit  instanceof StoreInst && isCandidateStore(unit)) {
+                Block block = mUnitToBlockMap.get(unit);
+                List<Unit> storeList = blockToStores.get(block);
+                if(storeList == null) {
+                    storeList = new ArrayList<Unit>();
+                    blockToStores.put(block, storeList);
+                }
                 storeList.add(unit);
+            }
         }     
-        return storeList;
+        return blockToStores;
+    }
+
+    // checks that a store has one or two uses, all of them loads in the same block
+    // that have the store as their only definition.
+
+    private boolean isCandidateStore(Unit unit)
+    {
+        List uses = mLocalUses.getUsesOf(unit);
+        if(uses.size() != 1 && uses.size() != 2)
+            return false;
+
+        Block storeBlock = mUnitToBlockMap.get(unit);
+        Iterator useIt = uses.iterator();
+        while(useIt.hasNext()) {
+            UnitValueBoxPair pair = (UnitValueBoxPair) useIt.next();
+            Unit loadUnit = pair.getUnit();
+            if(!(loadUnit instanceof LoadInst))
+                return false;
+            if(mUnitToBlockMap.get(loadUnit) != storeBlock)
+                return false;
+
+            List<Unit> defs = mLocalDefs.getDefsOfAt((Local) pair.getValueBox().getValue(), loadUnit);
+            if(defs.size() > 1 || defs.get(0) != unit)
+                return false;
+        }
+        return true;
     }
     
 
@@ -176,192 +231,122 @@ class Instance {
     // main optimizing method
     private void optimizeLoadStores() 
     {
-        List<Unit> storeList;
-        
-        
-        // build a list of all store units in mUnits
-        storeList = buildStoreList();        
-        
+        // build, for each block, the list of the stores that may be eliminated
+        Map<Block, List<Unit>> blockToStores = buildStoreLists();
+
+        // all eliminations and reorderings stay within a block, so each block
+        // is optimized on its own until it no longer changes.
+        Iterator<Map.Entry<Block, List<Unit>>> blockIt = blockToStores.entrySet().iterator();
+        while(blockIt.hasNext()) {
+            Map.Entry<Block, List<Unit>> entry = blockIt.next();
+            optimizeLoadStores(entry.getKey(), entry.getValue());
+        }
+    }
 
+    private void optimizeLoadStores(Block block, List<Unit> storeList) 
+    {
         // Eliminate store/load  
-        {
-            
-            boolean hasChanged = true;
+        boolean hasChanged = true;
         
-            boolean hasChangedFlag = false;
-            while(hasChanged) {
+        boolean hasChangedFlag = false;
+        while(hasChanged) {
         
-                hasChanged = false;
-
+            hasChanged = false;
 
-                // Iterate over the storeList 
-                Iterator<Unit> unitIt = storeList.iterator();
+            // Iterate over the storeList 
+            Iterator<Unit> unitIt = storeList.iterator();
                 
-            nextUnit:
-                while(unitIt.hasNext()){
-                    Unit unit = unitIt.next();                
-                    List uses = mLocalUses.getUsesOf(unit);
+            while(unitIt.hasNext()){
+                Unit unit = unitIt.next();                
+                List uses = mLocalUses.getUsesOf(unit);
                   
-
-                    // if uses of a store < 3, attempt some form of store/load elimination
-                    if(uses.size() < 3) {
-                        
-                        // check that all uses have only the current store as their definition
-                        {
-                            Iterator useIt = uses.iterator();
-                            while(useIt.hasNext()) {
-                                UnitValueBoxPair pair = (UnitValueBoxPair) useIt.next();
-                                Unit loadUnit = pair.getUnit();
-                                if(!(loadUnit instanceof LoadInst))
-                                    continue nextUnit;
-                            
-                                List<Unit> defs = mLocalDefs.getDefsOfAt((Local) pair.getValueBox().getValue(), loadUnit);
-                                if(defs.size() > 1) {
-                                    continue nextUnit;
-                                }
-                                else if(defs.get(0) != unit) {
-                                    continue nextUnit; // xxx how can you get here?
-                                }
-                            }
-                        } 
-                        
-                        // Check that all loads are in the same bb as the store
-                        {
-                            Block storeBlock = mUnitToBlockMap.get(unit);
-
-                            Iterator useIt = uses.iterator();
-                            while(useIt.hasNext()) {
-                                UnitValueBoxPair pair = (UnitValueBoxPair) useIt.next();
-                                Block useBlock = mUnitToBlockMap.get(pair.getUnit());
-                                if(useBlock != storeBlock) 
-                                    continue nextUnit;
-                            }                            
-                        }
-                        
-                        // Check for stack independance (automatic reordering may be performed by stackIndependent() fcnt)
-                        {
-                            Block block;
-                            switch(uses.size()) {
-                            case 0:        /*
-                                if(Options.getBoolean(gOptions, "s-elimination")) {
-                                // replace store by a pop and remove store from store list
-                                replaceUnit(unit, Baf.v().newPopInst(((StoreInst)unit).getOpType()));
-                                unitIt.remove();
-                                    
-                                hasChanged = true;        hasChangedFlag = false;
-                                }*/
-                                break;
-                                    
-                            case 1:
-                                if(PhaseOptions.getBoolean(gOptions, "sl")) {
-                                    if(!mPass2 || PhaseOptions.getBoolean(gOptions, "sl2")) {
-                                // try to eliminate store/load pair
-                                        Unit loadUnit = ((UnitValueBoxPair)uses.get(0)).getUnit();
-                                        block =  mUnitToBlockMap.get(unit);
-                                        int test = stackIndependent(unit, loadUnit , block, STORE_LOAD_ELIMINATION);
+                // Check for stack independance (automatic reordering may be performed by stackIndependent() fcnt)
+                switch(uses.size()) {
+                case 1:
+                    if(PhaseOptions.getBoolean(gOptions, "sl")) {
+                        if(!mPass2 || PhaseOptions.getBoolean(gOptions, "sl2")) {
+                            // try to eliminate store/load pair
+                            Unit loadUnit = ((UnitValueBoxPair)uses.get(0)).getUnit();
+                            int test = stackIndependent(unit, loadUnit , block, STORE_LOAD_ELIMINATION);
                                 
-                                //xxx 
-                                //if(block.getIndexInMethod() < 1 ) { // <13
-                                        if(test == SUCCESS || test == SPECIAL_SUCCESS){
+                            if(test == SUCCESS || test == SPECIAL_SUCCESS){
                                     
-                                            block.remove(unit);
-                                            block.remove(loadUnit);
-                                            unitIt.remove();
-                                            hasChanged = true;        hasChangedFlag = false;
+                                block.remove(unit);
+                                block.remove(loadUnit);
+                                unitIt.remove();
+                                hasChanged = true;        hasChangedFlag = false;
+                                mStoreLoadEliminations++;
                                     
-                                            //delme[
-                                            if(debug) { G.v().out.println("Store/Load elimination occurred case1.");}
-                                            //delme]
-                                        } /*else if (test == SPECIAL_SUCCESS2) {
-                                            if(!hasChangedFlag) {
-                                            hasChangedFlag = true;
-                                            hasChanged = true;
-                                            } 
-                                            }*/
-                                    }
-                                }
-                                break;
-                                
-                            case 2:
-                                if(PhaseOptions.getBoolean(gOptions, "sll")) {
-                                    if(!mPass2 || PhaseOptions.getBoolean(gOptions, "sll2")) {
-                                // try to replace store/load/load trio by a flavor of the dup unit
-                                        Unit firstLoad = ((UnitValueBoxPair)uses.get(0)).getUnit();
-                                        Unit secondLoad = ((UnitValueBoxPair)uses.get(1)).getUnit();
-                                        block = mUnitToBlockMap.get(unit);
-
-
+                                if(debug) { G.v().out.println("Store/Load elimination occurred case1.");}
+                            }
+                        }
+                    }
+                    break;
                                 
-                                        Unit temp;  // xxx try to optimize this
-                                        if(mUnits.follows(firstLoad, secondLoad)) {
-                                            temp = secondLoad;
-                                            secondLoad = firstLoad;
-                                            firstLoad = temp;
-                                        }
+                case 2:
+                    if(PhaseOptions.getBoolean(gOptions, "sll")) {
+                        if(!mPass2 || PhaseOptions.getBoolean(gOptions, "sll2")) {
+                            // try to replace store/load/load trio by a flavor of the dup unit
+                            Unit firstLoad = ((UnitValueBoxPair)uses.get(0)).getUnit();
+                            Unit secondLoad = ((UnitValueBoxPair)uses.get(1)).getUnit();
+
+                            if(followsInBlock(firstLoad, secondLoad, block)) {
+                                Unit temp = secondLoad;
+                                secondLoad = firstLoad;
+                                firstLoad = temp;
+                            }
 
-                                        int result = stackIndependent(unit, firstLoad, block, STORE_LOAD_ELIMINATION);                                 
-                                        if(result == SUCCESS){        
+                            int result = stackIndependent(unit, firstLoad, block, STORE_LOAD_ELIMINATION);                                 
+                            if(result == SUCCESS){        
                                   
-                                            // move the first load just after its defining store.
-                                            block.remove(firstLoad);
-                                            block.insertAfter(firstLoad, unit);                                
+                                // move the first load just after its defining store.
+                                block.remove(firstLoad);
+                                block.insertAfter(firstLoad, unit);                                
                                     
-                                 
-                                            int res = stackIndependent(unit, secondLoad, block, STORE_LOAD_LOAD_ELIMINATION);
-                                            if(res == MAKE_DUP) {                                        
-                                                // replace store by dup, drop both loads
-                                                Dup1Inst dup = Baf.v().newDup1Inst(((LoadInst) secondLoad).getOpType());
-                                                dup.addAllTagsOf(unit);
-                                                replaceUnit(unit, dup);
-                                                unitIt.remove(); // remove store from store list
+                                int res = stackIndependent(unit, secondLoad, block, STORE_LOAD_LOAD_ELIMINATION);
+                                if(res == MAKE_DUP) {                                        
+                                    // replace store by dup, drop both loads
+                                    Dup1Inst dup = Baf.v().newDup1Inst(((LoadInst) secondLoad).getOpType());
+                                    dup.addAllTagsOf(unit);
+                                    replaceUnit(unit, dup);
+                                    unitIt.remove(); // remove store from store list
                                         
-                                                block.remove(firstLoad); 
-                                                block.remove(secondLoad);
+                                    block.remove(firstLoad); 
+                                    block.remove(secondLoad);
 
-                                                hasChanged = true;         hasChangedFlag = false;
-                                        
-                                            }  /* else if(res == MAKE_DUP1_X1) {
-                                          
-                                                  // replace store/load/load by a dup1_x1
-                                                  Unit stackUnit = getStackItemAt2(unit, block, -2); 
-                                        
-                                                  if(stackUnit instanceof PushInst)
-                                                  break;
-                                        
-                                                  Type underType = type(stackUnit);
-                                                  if(underType == null) {                                         
-                                                  throw new RuntimeException("this has to be corrected (loadstoroptimiser.java)" + stackUnit);
-                                                  }
-                                        
-                                                  if(debug) { G.v().out.println("stack unit is: " + stackUnit + " stack type is " + underType);}
-                                                  replaceUnit(unit, Baf.v().newDup1_x1Inst(((LoadInst) secondLoad).getOpType(),underType));
-                                                  unitIt.remove();                
-                                        
-                                                  block.remove(firstLoad); 
-                                                  block.remove(secondLoad);
-                                        
-                                                  hasChanged = true;          hasChangedFlag = false;                                      
-                                                  break;                                        
-                                        
-                                                  } */
-                                    
-                                
-                                        } else if(result == SPECIAL_SUCCESS || result == HAS_CHANGED || result == SPECIAL_SUCCESS2){
-                                            if(!hasChangedFlag) {
-                                                hasChangedFlag = true;
-                                                hasChanged = true;
-                                            } 
-                                        }
-                                    }
-                                    
+                                    hasChanged = true;         hasChangedFlag = false;
+                                    mStoreLoadLoadEliminations++;
                                 }
-                            }                   
+                            } else if(result == SPECIAL_SUCCESS || result == HAS_CHANGED || result == SPECIAL_SUCCESS2){
+                                if(!hasChangedFlag) {
+                                    hasChangedFlag = true;
+                                    hasChanged = true;
+                                } 
+                            }
                         }
                     }
+                    break;
                 }
             }
         }                    
     }
+
+    /**
+     * @return true if aUnit comes after aReferenceUnit in aBlock, which
+     * contains both of them.
+     */
+    private boolean followsInBlock(Unit aUnit, Unit aReferenceUnit, Block aBlock)
+    {
+        Unit tail = aBlock.getTail();
+        Unit u = aReferenceUnit;
+        while(u != tail) {
+            u = aBlock.getSuccOf(u);
+            if(u == aUnit)
+                return true;
+        }
+        return false;
+    }
+  
   
     
     
@@ -1218,37 +1203,6 @@ class Instance {
                                 }
                                 }
                                 }
-    
-                                void peephole() {
-                                boolean hasChanged = true;
-       
-                                while(hasChanged) {
-                                hasChanged = false;
-                                List tempList = new ArrayList();
-                                tempList.addAll(mUnits);
-           
-                                Iterator it = tempList.iterator();
-                                while(it.hasNext() ) {
-                                Unit currentUnit = (Unit) it.next();
-                                if(currentUnit instanceof PopInst) {
-                                Block popBlock = (Block) mUnitToBlockMap.get(currentUnit);
-                                Unit prev = (Unit) popBlock.getPredOf(currentUnit);
-                                Unit succ = (Unit) popBlock.getSuccOf(currentUnit);
-                   
-                                if(prev instanceof LoadInst || prev instanceof PushInst) 
-                                if(((AbstractInst)prev).getOutMachineCount() == ((AbstractInst)currentUnit).getInMachineCount()) {
-                                popBlock.remove(prev);
-                                popBlock.remove(currentUnit);
-                                }
-                                else if(succ instanceof ReturnInst) {
-                                popBlock.remove(currentUnit);
-                                popBlock.remove(succ);
-                                }                                   
-                                }
-                                }       
-                                }
-                                }  
-
                 
                                 private boolean propagateStoreForward(Unit aInst, Unit aUnitToReach, Unit aCurrentUnit, int aStackHeight) 
                                 {
@@ -0,0 +1,229 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.baf.toolkits.base;
+
+import java.util.*;
+
+import soot.*;
+import soot.util.*;
+
+/**
+ *   Matches all the {@link PeepholePattern}s of the peephole optimizer
+ *   together. The instruction types of the patterns are kept in a trie,
+ *   from which a deterministic automaton over instruction classes is
+ *   built lazily: a state is the set of trie nodes reached so far, and
+ *   its successor on an instruction class is computed the first time
+ *   that class is met in that state.
+ *
+ *   At each instruction, the longest sequences are tried first, and
+ *   patterns matching the same sequence are tried in the order in which
+ *   they were added.
+ */
+
+final class PeepholeAutomaton
+{
+    /** A node of the trie of instruction types. */
+    private static final class Node
+    {
+        final int id;
+        final Map<Class, Node> children = new LinkedHashMap<Class, Node>();
+        final List<PeepholePattern> patterns = new ArrayList<PeepholePattern>();
+
+        Node(int id)
+        {
+            this.id = id;
+        }
+    }
+
+    /** A state of the automaton, that is a set of trie nodes. */
+    private static final class State
+    {
+        final List<Node> nodes;
+        final List<PeepholePattern> accepted = new ArrayList<PeepholePattern>();
+        final Map<Class, State> successors = new HashMap<Class, State>();
+
+        State(List<Node> nodes)
+        {
+            this.nodes = nodes;
+        }
+    }
+
+    private final List<PeepholePattern> patterns = new ArrayList<PeepholePattern>();
+    private final Node root = new Node(0);
+    private int numNodes = 1;
+    private int maxLength = 0;
+
+    /** Map: set of trie node ids -> State **/
+    private final Map<BitSet, State> states = new HashMap<BitSet, State>();
+    private State start = null;
+
+    /** Adds a pattern, which must match at least one instruction. */
+    void add(PeepholePattern pattern)
+    {
+        Class[] instTypes = pattern.instTypes();
+        if(instTypes.length == 0)
+            throw new RuntimeException("peephole pattern " + pattern.getClass().getName() + " matches no instruction");
+
+        Node node = root;
+        for(int i = 0; i < instTypes.length; i++) {
+            Node child = node.children.get(instTypes[i]);
+            if(child == null) {
+                child = new Node(numNodes++);
+                node.children.put(instTypes[i], child);
+            }
+            node = child;
+        }
+        node.patterns.add(pattern);
+        patterns.add(pattern);
+        maxLength = Math.max(maxLength, instTypes.length);
+
+        // the states built so far do not know the new pattern
+        states.clear();
+        start = null;
+    }
+
+    boolean isEmpty()
+    {
+        return patterns.isEmpty();
+    }
+
+    /**
+     *   Applies the patterns to the units of body in one pass, matching
+     *   again only the instructions that precede a rewrite by less than
+     *   the length of the longest pattern.
+     *
+     *   @return true if any pattern rewrote the body. false otherwise.
+     */
+    boolean apply(Body body)
+    {
+        if(patterns.isEmpty())
+            return false;
+
+        if(start == null) {
+            BitSet ids = new BitSet();
+            ids.set(root.id);
+            start = state(ids, Collections.singletonList(root));
+        }
+
+        Chain<Unit> units = body.getUnits();
+        Unit[] window = new Unit[maxLength];
+        State[] reached = new State[maxLength];
+        boolean changed = false;
+
+        Unit u = units.isEmpty() ? null : units.getFirst();
+        while(u != null) {
+            Unit pred = units.getPredOf(u);
+            if(rewriteAt(units, u, window, reached)) {
+                changed = true;
+
+                // a new match may start up to maxLength - 1 units before the rewrite
+                if(pred == null) {
+                    u = units.isEmpty() ? null : units.getFirst();
+                } else {
+                    u = pred;
+                    for(int i = 2; i < maxLength && units.getPredOf(u) != null; i++)
+                        u = units.getPredOf(u);
+                }
+            } else {
+                u = units.getSuccOf(u);
+            }
+        }
+        return changed;
+    }
+
+    /** Tries the patterns matching the instructions starting at u, until one of them rewrites them. */
+    private boolean rewriteAt(Chain<Unit> units, Unit u, Unit[] window, State[] reached)
+    {
+        State state = start;
+        int length = 0;
+        Unit current = u;
+        while(current != null && length < maxLength) {
+            // do not match across jump targets and trap boundaries
+            if(length > 0 && !current.getBoxesPointingToThis().isEmpty())
+                break;
+
+            state = successor(state, current.getClass());
+            if(state.nodes.isEmpty())
+                break;
+
+            window[length] = current;
+            reached[length] = state;
+            length++;
+            current = units.getSuccOf(current);
+        }
+
+        for(int len = length; len > 0; len--) {
+            List<PeepholePattern> accepted = reached[len - 1].accepted;
+            if(accepted.isEmpty())
+                continue;
+
+            Unit[] matched = new Unit[len];
+            System.arraycopy(window, 0, matched, 0, len);
+            for(Iterator<PeepholePattern> it = accepted.iterator(); it.hasNext(); ) {
+                if(it.next().rewrite(units, matched))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns the state reached from state on an instruction of class instClass. */
+    private State successor(State state, Class instClass)
+    {
+        State succ = state.successors.get(instClass);
+        if(succ == null) {
+            BitSet ids = new BitSet();
+            List<Node> nodes = new ArrayList<Node>();
+            for(Iterator<Node> nodeIt = state.nodes.iterator(); nodeIt.hasNext(); ) {
+                Node node = nodeIt.next();
+                for(Iterator<Map.Entry<Class, Node>> childIt = node.children.entrySet().iterator(); childIt.hasNext(); ) {
+                    Map.Entry<Class, Node> child = childIt.next();
+                    if(child.getKey().isAssignableFrom(instClass) && !ids.get(child.getValue().id)) {
+                        ids.set(child.getValue().id);
+                        nodes.add(child.getValue());
+                    }
+                }
+            }
+            succ = state(ids, nodes);
+            state.successors.put(instClass, succ);
+        }
+        return succ;
+    }
+
+    /** Returns the state for the given set of trie nodes, building it the first time. */
+    private State state(BitSet ids, List<Node> nodes)
+    {
+        State state = states.get(ids);
+        if(state == null) {
+            state = new State(nodes);
+            for(Iterator<PeepholePattern> it = patterns.iterator(); it.hasNext(); ) {
+                PeepholePattern pattern = it.next();
+                for(Iterator<Node> nodeIt = nodes.iterator(); nodeIt.hasNext(); ) {
+                    if(nodeIt.next().patterns.contains(pattern)) {
+                        state.accepted.add(pattern);
+                        break;
+                    }
+                }
+            }
+            states.put(ids, state);
+        }
+        return state;
+    }
+}
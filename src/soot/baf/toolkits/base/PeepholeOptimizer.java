@@ -33,12 +33,19 @@ import soot.*;
 
 /**
  *   Driver class to run peepholes on the Baf IR. The peepholes applied
- *   must implement the Peephole interface. Peepholes are loaded dynamically
- *   by the soot runtime; the runtime reads the file peephole.dat, in order to
- *   determine which peepholes to apply.
+ *   must implement the Peephole or the PeepholePattern interface. Peepholes
+ *   are loaded dynamically by the soot runtime; the runtime reads the file
+ *   peephole.dat once, in order to determine which peepholes to apply.
+ *
+ *   All PeepholePatterns are matched together by one automaton, in a
+ *   single pass over the body. Peepholes are then applied to the whole
+ *   body until none of them changes it, running the patterns again after
+ *   each round that changed the body.
  *  
  *   @see Peephole
+ *   @see PeepholePattern
  *   @see ExamplePeephole
+ *   @see PushPopPeephole
  */
 
 public class PeepholeOptimizer extends BodyTransformer
@@ -46,83 +53,102 @@ public class PeepholeOptimizer extends BodyTransformer
     public PeepholeOptimizer( Singletons.Global g ) {}
     public static PeepholeOptimizer v() { return G.v().soot_baf_toolkits_base_PeepholeOptimizer(); }
 
-    private InputStream peepholeListingStream = null;
     private final String packageName = "soot.baf.toolkits.base";
 
-    private final Map<String, Class> peepholeMap = new HashMap<String, Class>();
+    /** Classes of the Peepholes listed in peephole.dat, or null before it is read. */
+    private List<Class> peepholes = null;
+
+    /** The PeepholePatterns listed in peephole.dat. */
+    private final PeepholeAutomaton patterns = new PeepholeAutomaton();
 
     /** The method that drives the optimizations. */
     /* This is the public interface to PeepholeOptimizer */
   
     protected void internalTransform(Body body, String phaseName, Map options) 
     {           
-        boolean changed = true;
-        BufferedReader reader = null;
-        
-        peepholeListingStream = PeepholeOptimizer.class.getResourceAsStream("peephole.dat");
-	if (peepholeListingStream == null)
-	    throw new RuntimeException("could not open file peephole.dat!");
-        reader = new BufferedReader(new InputStreamReader(peepholeListingStream));        
-
-        String line = null;
-        List<String> peepholes = new LinkedList<String>();
-        try {
-            line = reader.readLine();
-            while(line != null) {
-                if(line.length() > 0)
-                    if(!(line.charAt(0) == '#'))
-                        peepholes.add(line);
-                line = reader.readLine();
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("IO error occured while reading file:  " +
-                                       line + System.getProperty("line.separator") + e);
-        }
+        if(peepholes == null)
+            readPeepholes();
 
+        patterns.apply(body);
         
+        boolean changed = !peepholes.isEmpty();
         while(changed) {
             changed = false;           
 
-            Iterator<String>  it = peepholes.iterator();
+            Iterator<Class>  it = peepholes.iterator();
             while(it.hasNext()) {
                 
                 boolean peepholeWorked = true;
-                String peepholeName = it.next();
+                Class peepholeClass = it.next();
                 
                 while(peepholeWorked) {
                     peepholeWorked = false;
-
-                
-                    Class peepholeClass;
-                    if((peepholeClass = peepholeMap.get(peepholeName)) == null) {
-                        try {
-                            peepholeClass =  Class.forName(packageName + "." + peepholeName);
-                        } catch (ClassNotFoundException e) {
-                            throw new RuntimeException(e.toString());
-                        }
-                        peepholeMap.put(peepholeName, peepholeClass);
-                    }
                     
-                    Peephole p = null;
-                    try {
-                        p = (Peephole) peepholeClass.newInstance();
-                    } catch (IllegalAccessException e) {
-                        throw new RuntimeException(e.toString());
-                    } catch (InstantiationException e) {
-                        throw new RuntimeException(e.toString());
-                    }
+                    Peephole p = (Peephole) newInstance(peepholeClass);
                     if(p.apply(body)) {
                         peepholeWorked = true;
                         changed = true;
                     }
                 }
             }
+
+            if(changed)
+                patterns.apply(body);
         }
-        try
-        {
-            peepholeListingStream.close();
+    }
+
+    /** Reads peephole.dat, loading the Peepholes and PeepholePatterns it lists. */
+    private void readPeepholes()
+    {
+        InputStream peepholeListingStream = PeepholeOptimizer.class.getResourceAsStream("peephole.dat");
+	if (peepholeListingStream == null)
+	    throw new RuntimeException("could not open file peephole.dat!");
+        BufferedReader reader = new BufferedReader(new InputStreamReader(peepholeListingStream));        
+
+        String line = null;
+        List<Class> peepholeList = new ArrayList<Class>();
+        try {
+            line = reader.readLine();
+            while(line != null) {
+                if(line.length() > 0)
+                    if(!(line.charAt(0) == '#')) {
+                        Class peepholeClass;
+                        try {
+                            peepholeClass =  Class.forName(packageName + "." + line);
+                        } catch (ClassNotFoundException e) {
+                            throw new RuntimeException(e.toString());
+                        }
+                        if(PeepholePattern.class.isAssignableFrom(peepholeClass))
+                            patterns.add((PeepholePattern) newInstance(peepholeClass));
+                        else if(Peephole.class.isAssignableFrom(peepholeClass))
+                            peepholeList.add(peepholeClass);
+                        else
+                            throw new RuntimeException(line + " is neither a Peephole nor a PeepholePattern");
+                    }
+                line = reader.readLine();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("IO error occured while reading file:  " +
+                                       line + System.getProperty("line.separator") + e);
+        } finally {
+            try
+            {
+                peepholeListingStream.close();
+            }
+            catch (IOException e)
+                {}
+        }
+        peepholes = peepholeList;
+    }
+
+    private static Object newInstance(Class peepholeClass)
+    {
+        try {
+            return peepholeClass.newInstance();
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e.toString());
+        } catch (InstantiationException e) {
+            throw new RuntimeException(e.toString());
         }
-        catch (IOException e)
-            {}
     }
 }
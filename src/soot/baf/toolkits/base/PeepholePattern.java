@@ -0,0 +1,59 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.baf.toolkits.base;
+
+import soot.*;
+import soot.util.*;
+
+/**
+ *   Interface to be implemented by peepholes that rewrite a fixed
+ *   sequence of consecutive Baf instructions. Unlike a {@link Peephole},
+ *   a pattern does not scan the body itself: the patterns listed in
+ *   peephole.dat are all matched together in one pass over the body,
+ *   and only the instructions around a rewrite are matched again.
+ *
+ *   @see PeepholeOptimizer
+ */
+
+public interface PeepholePattern
+{
+    /**
+     *   Returns the instruction types matched by this pattern, in order.
+     *   Each of them is a Baf instruction class or interface, such as
+     *   <code>PushInst.class</code>; an instruction matches if it is an
+     *   instance of it. Patterns never match across a jump target or
+     *   trap boundary, except at their first instruction.
+     */
+    Class[] instTypes();
+
+    /**
+     *   Rewrites a matched sequence of instructions. The rewrite may only
+     *   remove, replace or insert instructions in place of the window,
+     *   and must leave units unchanged if it returns false. A rewrite
+     *   must not undo itself, otherwise the peephole optimizer never
+     *   terminates.
+     *
+     *   @param units   The units of the body being optimized.
+     *   @param window  The consecutive instructions matched, as many as
+     *                  there are instruction types.
+     *   @return        true if units were changed. false otherwise.
+     */
+    boolean rewrite(Chain<Unit> units, Unit[] window);
+}
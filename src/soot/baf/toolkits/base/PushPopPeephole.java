@@ -0,0 +1,58 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.baf.toolkits.base;
+
+import soot.*;
+import soot.baf.*;
+import soot.util.*;
+
+/**
+ *   Peephole pattern that removes a load or push whose value is
+ *   immediately popped, together with the pop. The pair is left alone
+ *   if the pop does not take exactly the words pushed, or if a jump or
+ *   trap refers to the load or push.
+ */
+
+public class PushPopPeephole implements PeepholePattern
+{
+    private static final Class[] instTypes = new Class[] { Inst.class, PopInst.class };
+
+    public Class[] instTypes()
+    {
+        return instTypes;
+    }
+
+    public boolean rewrite(Chain<Unit> units, Unit[] window)
+    {
+        Inst push = (Inst) window[0];
+        Inst pop = (Inst) window[1];
+
+        if(!(push instanceof LoadInst || push instanceof PushInst))
+            return false;
+        if(push.getOutMachineCount() != pop.getInMachineCount())
+            return false;
+        if(!push.getBoxesPointingToThis().isEmpty())
+            return false;
+
+        units.remove(push);
+        units.remove(pop);
+        return true;
+    }
+}
@@ -138,6 +138,17 @@ public class Jimple
         l.add (CLS); l.add (TRUE); l.add (FALSE);
         return l;
     }
+
+    private HashSet<String> jimpleKeywordSet;
+
+    /** Returns the Jimple keywords as a set, built once and shared by all
+     * callers; it must not be modified. */
+    public HashSet<String> jimpleKeywordSet()
+    {
+        if (jimpleKeywordSet == null)
+            jimpleKeywordSet = new HashSet<String>(jimpleKeywordList());
+        return jimpleKeywordSet;
+    }
   
   public static boolean isJavaKeywordType(Type t)
   {
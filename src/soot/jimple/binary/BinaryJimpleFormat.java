@@ -0,0 +1,141 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.binary;
+
+/** Constants of the binary Jimple format (.jbin files).
+ *
+ * A file holds one class and is laid out as follows; all integers are
+ * unsigned LEB128 varints unless noted, signed ones are zigzag-encoded
+ * first.
+ * <pre>
+ *   magic (4 bytes, big-endian) version
+ *   strings:      count { length char* }
+ *   types:        count { typeTag [string | elementType dims] }
+ *   field refs:   count { class name type isStatic }
+ *   method refs:  count { class name paramCount type* returnType isStatic }
+ *   class:        modifiers name hasSuper [super] count { interface }
+ *   fields:       count { modifiers name type }
+ *   methods:      count { modifiers name paramCount type* returnType
+ *                         count { exception } bodyOffset bodyLength }
+ *   bodies
+ * </pre>
+ * Classes and types are referred to by their index in the type pool, names
+ * by their index in the string pool. A body starts at bodyOffset from the
+ * start of the bodies section; a bodyLength of zero means that the method
+ * has no body. A body is
+ * <pre>
+ *   locals: count { name type }
+ *   units:  count { stmt line }
+ *   traps:  count { exception begin end handler }
+ * </pre>
+ * where units are referred to by their position in the body and line is
+ * the source line number of the statement plus one, or zero if it has none.
+ * Statements and values are written in prefix form, each starting with one
+ * of the opcodes below.
+ */
+interface BinaryJimpleFormat
+{
+    int MAGIC = 0x4A42494E; // "JBIN"
+    int VERSION = 1;
+
+    // type tags
+    int T_BOOLEAN = 1;
+    int T_BYTE = 2;
+    int T_CHAR = 3;
+    int T_SHORT = 4;
+    int T_INT = 5;
+    int T_LONG = 6;
+    int T_FLOAT = 7;
+    int T_DOUBLE = 8;
+    int T_VOID = 9;
+    int T_NULL = 10;
+    int T_UNKNOWN = 11;
+    int T_REF = 12;
+    int T_ARRAY = 13;
+
+    // statements
+    int S_NOP = 1;
+    int S_BREAKPOINT = 2;
+    int S_IDENTITY = 3;
+    int S_ASSIGN = 4;
+    int S_INVOKE = 5;
+    int S_IF = 6;
+    int S_GOTO = 7;
+    int S_RETURN = 8;
+    int S_RETURN_VOID = 9;
+    int S_THROW = 10;
+    int S_ENTER_MONITOR = 11;
+    int S_EXIT_MONITOR = 12;
+    int S_TABLE_SWITCH = 13;
+    int S_LOOKUP_SWITCH = 14;
+    int S_RET = 15;
+
+    // immediates and references
+    int V_LOCAL = 1;
+    int V_INT = 2;
+    int V_LONG = 3;
+    int V_FLOAT = 4;
+    int V_DOUBLE = 5;
+    int V_STRING = 6;
+    int V_CLASS = 7;
+    int V_NULL = 8;
+    int V_THIS_REF = 9;
+    int V_PARAMETER_REF = 10;
+    int V_CAUGHT_EXCEPTION_REF = 11;
+    int V_INSTANCE_FIELD_REF = 12;
+    int V_STATIC_FIELD_REF = 13;
+    int V_ARRAY_REF = 14;
+
+    // binary operators
+    int V_ADD = 20;
+    int V_AND = 21;
+    int V_CMP = 22;
+    int V_CMPG = 23;
+    int V_CMPL = 24;
+    int V_DIV = 25;
+    int V_EQ = 26;
+    int V_GE = 27;
+    int V_GT = 28;
+    int V_LE = 29;
+    int V_LT = 30;
+    int V_MUL = 31;
+    int V_NE = 32;
+    int V_OR = 33;
+    int V_REM = 34;
+    int V_SHL = 35;
+    int V_SHR = 36;
+    int V_SUB = 37;
+    int V_USHR = 38;
+    int V_XOR = 39;
+
+    // other expressions
+    int V_NEG = 40;
+    int V_LENGTH = 41;
+    int V_CAST = 42;
+    int V_INSTANCE_OF = 43;
+    int V_NEW = 44;
+    int V_NEW_ARRAY = 45;
+    int V_NEW_MULTI_ARRAY = 46;
+    int V_STATIC_INVOKE = 47;
+    int V_VIRTUAL_INVOKE = 48;
+    int V_INTERFACE_INVOKE = 49;
+    int V_SPECIAL_INVOKE = 50;
+    int V_DYNAMIC_INVOKE = 51;
+}
@@ -0,0 +1,451 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.binary;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import soot.*;
+import soot.jimple.*;
+import soot.tagkit.LineNumberTag;
+
+/** Reads a class in the binary Jimple format described in
+ * {@link BinaryJimpleFormat}. The constructor only decodes the string and
+ * type pools and finds where the other sections start; field and method
+ * references are decoded the first time a body uses them, and each body is
+ * decoded on its own, straight from its offset, when its method asks for it.
+ */
+public class BinaryJimpleReader implements BinaryJimpleFormat
+{
+    private final byte[] data;
+    private final String[] strings;
+    private final Type[] types;
+    private final int[] fieldRefOffsets;
+    private final SootFieldRef[] fieldRefs;
+    private final int[] methodRefOffsets;
+    private final SootMethodRef[] methodRefs;
+    private final int skeletonOffset;
+    private int bodiesOffset = -1;
+
+    /** Prepares to read the class held in data. */
+    public BinaryJimpleReader( byte[] data ) {
+        this.data = data;
+        VarIntInput in = new VarIntInput( data, 0 );
+        if( data.length < 4 || in.readInt32() != MAGIC )
+            throw new RuntimeException( "Not a binary Jimple file" );
+        int version = in.readVarInt();
+        if( version != VERSION )
+            throw new RuntimeException( "Unsupported binary Jimple version "+version );
+
+        strings = new String[in.readVarInt()];
+        for( int i = 0; i < strings.length; i++ ) strings[i] = in.readChars();
+
+        types = new Type[in.readVarInt()];
+        for( int i = 0; i < types.length; i++ ) types[i] = readPoolType( in );
+
+        fieldRefOffsets = new int[in.readVarInt()];
+        fieldRefs = new SootFieldRef[fieldRefOffsets.length];
+        for( int i = 0; i < fieldRefOffsets.length; i++ ) {
+            fieldRefOffsets[i] = in.position();
+            in.readVarInt();
+            in.readVarInt();
+            in.readVarInt();
+            in.readBoolean();
+        }
+
+        methodRefOffsets = new int[in.readVarInt()];
+        methodRefs = new SootMethodRef[methodRefOffsets.length];
+        for( int i = 0; i < methodRefOffsets.length; i++ ) {
+            methodRefOffsets[i] = in.position();
+            in.readVarInt();
+            in.readVarInt();
+            for( int p = in.readVarInt(); p > 0; p-- ) in.readVarInt();
+            in.readVarInt();
+            in.readBoolean();
+        }
+
+        skeletonOffset = in.position();
+    }
+
+    /** Returns the name of the class held in this file. */
+    public String getClassName() {
+        VarIntInput in = new VarIntInput( data, skeletonOffset );
+        in.readVarInt();
+        return ((RefType) types[in.readVarInt()]).getClassName();
+    }
+
+    /** Returns all class types that this class refers to. */
+    public Set<Type> getReferencedTypes() {
+        Set<Type> ret = new HashSet<Type>();
+        for( int i = 0; i < types.length; i++ ) {
+            if( types[i] instanceof RefType ) ret.add( types[i] );
+        }
+        return ret;
+    }
+
+    /** Fills sc with the modifiers, hierarchy, fields and methods of the
+     * class, giving each method with a body a source that reads it from
+     * this file. */
+    public void getSkeleton( SootClass sc ) {
+        VarIntInput in = new VarIntInput( data, skeletonOffset );
+        int modifiers = in.readVarInt();
+        String name = ((RefType) types[in.readVarInt()]).getClassName();
+        if( !name.equals( sc.getName() ) )
+            throw new RuntimeException( "Invalid SootClass for this binary Jimple file. The SootClass provided is of type: >"
+                    + sc.getName() + "< whereas this file is for type: >" + name + "<" );
+        sc.setModifiers( modifiers );
+        if( in.readBoolean() ) sc.setSuperclass( classRef( in.readVarInt() ) );
+        for( int n = in.readVarInt(); n > 0; n-- ) sc.addInterface( classRef( in.readVarInt() ) );
+
+        for( int n = in.readVarInt(); n > 0; n-- ) {
+            int fieldModifiers = in.readVarInt();
+            String fieldName = strings[in.readVarInt()];
+            Type fieldType = types[in.readVarInt()];
+            sc.addField( new SootField( fieldName, fieldType, fieldModifiers ) );
+        }
+
+        int methodCount = in.readVarInt();
+        List<SootMethod> methods = new ArrayList<SootMethod>( methodCount );
+        int[] bodyOffsets = new int[methodCount];
+        for( int i = 0; i < methodCount; i++ ) {
+            int methodModifiers = in.readVarInt();
+            String methodName = strings[in.readVarInt()];
+            List<Type> parameterTypes = readTypes( in );
+            Type returnType = types[in.readVarInt()];
+            List<SootClass> exceptions = new ArrayList<SootClass>();
+            for( int n = in.readVarInt(); n > 0; n-- ) exceptions.add( classRef( in.readVarInt() ) );
+            SootMethod m = new SootMethod( methodName, parameterTypes, returnType,
+                    methodModifiers, exceptions );
+            sc.addMethod( m );
+            methods.add( m );
+            bodyOffsets[i] = in.readVarInt();
+            if( in.readVarInt() == 0 ) bodyOffsets[i] = -1;
+        }
+        bodiesOffset = in.position();
+
+        for( int i = 0; i < methodCount; i++ ) {
+            if( bodyOffsets[i] >= 0 ) {
+                methods.get( i ).setSource(
+                        new BinaryJimpleMethodSource( this, bodiesOffset + bodyOffsets[i] ) );
+            }
+        }
+    }
+
+    /** Decodes the body of m, which starts at the given position. */
+    JimpleBody readBody( SootMethod m, int position ) {
+        VarIntInput in = new VarIntInput( data, position );
+        JimpleBody b = Jimple.v().newBody( m );
+
+        Local[] locals = new Local[in.readVarInt()];
+        for( int i = 0; i < locals.length; i++ ) {
+            String name = strings[in.readVarInt()];
+            locals[i] = Jimple.v().newLocal( name, types[in.readVarInt()] );
+            b.getLocals().add( locals[i] );
+        }
+
+        Unit[] units = new Unit[in.readVarInt()];
+        BranchFixups fixups = new BranchFixups();
+        for( int i = 0; i < units.length; i++ ) {
+            units[i] = readStmt( in, locals, fixups );
+            int line = in.readVarInt();
+            if( line > 0 ) units[i].addTag( new LineNumberTag( line - 1 ) );
+            b.getUnits().add( units[i] );
+        }
+        fixups.apply( units );
+
+        for( int n = in.readVarInt(); n > 0; n-- ) {
+            SootClass exception = classRef( in.readVarInt() );
+            Unit begin = units[in.readVarInt()];
+            Unit end = units[in.readVarInt()];
+            Unit handler = units[in.readVarInt()];
+            b.getTraps().add( Jimple.v().newTrap( exception, begin, end, handler ) );
+        }
+        return b;
+    }
+
+    /** Branch targets of the statements of a body, set once all statements
+     * of the body exist. */
+    private static class BranchFixups {
+        private final List<UnitBox> boxes = new ArrayList<UnitBox>();
+        private int[] targets = new int[16];
+
+        void add( UnitBox box, int target ) {
+            if( boxes.size() == targets.length ) {
+                int[] bigger = new int[targets.length * 2];
+                System.arraycopy( targets, 0, bigger, 0, targets.length );
+                targets = bigger;
+            }
+            targets[boxes.size()] = target;
+            boxes.add( box );
+        }
+
+        void apply( Unit[] units ) {
+            for( int i = 0; i < boxes.size(); i++ ) boxes.get( i ).setUnit( units[targets[i]] );
+        }
+    }
+
+    private Stmt readStmt( VarIntInput in, Local[] locals, BranchFixups fixups ) {
+        int op = in.readByte();
+        switch( op ) {
+            case S_NOP:
+                return Jimple.v().newNopStmt();
+            case S_BREAKPOINT:
+                return Jimple.v().newBreakpointStmt();
+            case S_IDENTITY: {
+                Value l = readValue( in, locals );
+                return Jimple.v().newIdentityStmt( l, readValue( in, locals ) );
+            }
+            case S_ASSIGN: {
+                Value l = readValue( in, locals );
+                return Jimple.v().newAssignStmt( l, readValue( in, locals ) );
+            }
+            case S_INVOKE:
+                return Jimple.v().newInvokeStmt( readValue( in, locals ) );
+            case S_IF: {
+                IfStmt s = Jimple.v().newIfStmt( readValue( in, locals ), (Unit) null );
+                fixups.add( s.getTargetBox(), in.readVarInt() );
+                return s;
+            }
+            case S_GOTO: {
+                GotoStmt s = Jimple.v().newGotoStmt( (Unit) null );
+                fixups.add( s.getTargetBox(), in.readVarInt() );
+                return s;
+            }
+            case S_RETURN:
+                return Jimple.v().newReturnStmt( readValue( in, locals ) );
+            case S_RETURN_VOID:
+                return Jimple.v().newReturnVoidStmt();
+            case S_THROW:
+                return Jimple.v().newThrowStmt( readValue( in, locals ) );
+            case S_ENTER_MONITOR:
+                return Jimple.v().newEnterMonitorStmt( readValue( in, locals ) );
+            case S_EXIT_MONITOR:
+                return Jimple.v().newExitMonitorStmt( readValue( in, locals ) );
+            case S_TABLE_SWITCH: {
+                Value key = readValue( in, locals );
+                int low = in.readSignedVarInt();
+                int high = in.readSignedVarInt();
+                int n = in.readVarInt();
+                List<Unit> targets = new ArrayList<Unit>( n );
+                for( int i = 0; i < n; i++ ) targets.add( null );
+                TableSwitchStmt s = Jimple.v().newTableSwitchStmt( key, low, high, targets, (Unit) null );
+                for( int i = 0; i < n; i++ ) fixups.add( s.getTargetBox( i ), in.readVarInt() );
+                fixups.add( s.getDefaultTargetBox(), in.readVarInt() );
+                return s;
+            }
+            case S_LOOKUP_SWITCH: {
+                Value key = readValue( in, locals );
+                int n = in.readVarInt();
+                List<IntConstant> values = new ArrayList<IntConstant>( n );
+                List<Unit> targets = new ArrayList<Unit>( n );
+                int[] targetIndices = new int[n];
+                for( int i = 0; i < n; i++ ) {
+                    values.add( IntConstant.v( in.readSignedVarInt() ) );
+                    targets.add( null );
+                    targetIndices[i] = in.readVarInt();
+                }
+                LookupSwitchStmt s = Jimple.v().newLookupSwitchStmt( key, values, targets, (Unit) null );
+                for( int i = 0; i < n; i++ ) fixups.add( s.getTargetBox( i ), targetIndices[i] );
+                fixups.add( s.getDefaultTargetBox(), in.readVarInt() );
+                return s;
+            }
+            case S_RET:
+                return Jimple.v().newRetStmt( readValue( in, locals ) );
+            default:
+                throw new RuntimeException( "Bad statement opcode "+op+" in binary Jimple input" );
+        }
+    }
+
+    private Value readValue( VarIntInput in, Local[] locals ) {
+        int op = in.readByte();
+        switch( op ) {
+            case V_LOCAL: return locals[in.readVarInt()];
+            case V_INT: return IntConstant.v( in.readSignedVarInt() );
+            case V_LONG: return LongConstant.v( in.readSignedVarLong() );
+            case V_FLOAT: return FloatConstant.v( Float.intBitsToFloat( in.readInt32() ) );
+            case V_DOUBLE: return DoubleConstant.v( Double.longBitsToDouble( in.readInt64() ) );
+            case V_STRING: return StringConstant.v( strings[in.readVarInt()] );
+            case V_CLASS: return ClassConstant.v( strings[in.readVarInt()] );
+            case V_NULL: return NullConstant.v();
+            case V_THIS_REF: return Jimple.v().newThisRef( (RefType) types[in.readVarInt()] );
+            case V_PARAMETER_REF: {
+                Type t = types[in.readVarInt()];
+                return Jimple.v().newParameterRef( t, in.readVarInt() );
+            }
+            case V_CAUGHT_EXCEPTION_REF: return Jimple.v().newCaughtExceptionRef();
+            case V_INSTANCE_FIELD_REF: {
+                Value base = readValue( in, locals );
+                return Jimple.v().newInstanceFieldRef( base, fieldRef( in.readVarInt() ) );
+            }
+            case V_STATIC_FIELD_REF: return Jimple.v().newStaticFieldRef( fieldRef( in.readVarInt() ) );
+            case V_ARRAY_REF: {
+                Value base = readValue( in, locals );
+                return Jimple.v().newArrayRef( base, readValue( in, locals ) );
+            }
+            case V_NEG: return Jimple.v().newNegExpr( readValue( in, locals ) );
+            case V_LENGTH: return Jimple.v().newLengthExpr( readValue( in, locals ) );
+            case V_CAST: {
+                Value v = readValue( in, locals );
+                return Jimple.v().newCastExpr( v, types[in.readVarInt()] );
+            }
+            case V_INSTANCE_OF: {
+                Value v = readValue( in, locals );
+                return Jimple.v().newInstanceOfExpr( v, types[in.readVarInt()] );
+            }
+            case V_NEW: return Jimple.v().newNewExpr( (RefType) types[in.readVarInt()] );
+            case V_NEW_ARRAY: {
+                Type t = types[in.readVarInt()];
+                return Jimple.v().newNewArrayExpr( t, readValue( in, locals ) );
+            }
+            case V_NEW_MULTI_ARRAY: {
+                ArrayType t = (ArrayType) types[in.readVarInt()];
+                return Jimple.v().newNewMultiArrayExpr( t, readValues( in, locals ) );
+            }
+            case V_STATIC_INVOKE: {
+                SootMethodRef m = methodRef( in.readVarInt() );
+                return Jimple.v().newStaticInvokeExpr( m, readValues( in, locals ) );
+            }
+            case V_VIRTUAL_INVOKE: {
+                Local base = (Local) readValue( in, locals );
+                SootMethodRef m = methodRef( in.readVarInt() );
+                return Jimple.v().newVirtualInvokeExpr( base, m, readValues( in, locals ) );
+            }
+            case V_INTERFACE_INVOKE: {
+                Local base = (Local) readValue( in, locals );
+                SootMethodRef m = methodRef( in.readVarInt() );
+                return Jimple.v().newInterfaceInvokeExpr( base, m, readValues( in, locals ) );
+            }
+            case V_SPECIAL_INVOKE: {
+                Local base = (Local) readValue( in, locals );
+                SootMethodRef m = methodRef( in.readVarInt() );
+                return Jimple.v().newSpecialInvokeExpr( base, m, readValues( in, locals ) );
+            }
+            case V_DYNAMIC_INVOKE: {
+                SootMethodRef bootstrap = methodRef( in.readVarInt() );
+                List<Value> bootstrapArgs = readValues( in, locals );
+                SootMethodRef m = methodRef( in.readVarInt() );
+                return Jimple.v().newDynamicInvokeExpr( bootstrap, bootstrapArgs, m, readValues( in, locals ) );
+            }
+            default:
+                if( op >= V_ADD && op <= V_XOR ) {
+                    Value op1 = readValue( in, locals );
+                    return newBinop( op, op1, readValue( in, locals ) );
+                }
+                throw new RuntimeException( "Bad value opcode "+op+" in binary Jimple input" );
+        }
+    }
+
+    private List<Value> readValues( VarIntInput in, Local[] locals ) {
+        int n = in.readVarInt();
+        List<Value> ret = new ArrayList<Value>( n );
+        for( int i = 0; i < n; i++ ) ret.add( readValue( in, locals ) );
+        return ret;
+    }
+
+    private static Value newBinop( int op, Value op1, Value op2 ) {
+        Jimple j = Jimple.v();
+        switch( op ) {
+            case V_ADD: return j.newAddExpr( op1, op2 );
+            case V_AND: return j.newAndExpr( op1, op2 );
+            case V_CMP: return j.newCmpExpr( op1, op2 );
+            case V_CMPG: return j.newCmpgExpr( op1, op2 );
+            case V_CMPL: return j.newCmplExpr( op1, op2 );
+            case V_DIV: return j.newDivExpr( op1, op2 );
+            case V_EQ: return j.newEqExpr( op1, op2 );
+            case V_GE: return j.newGeExpr( op1, op2 );
+            case V_GT: return j.newGtExpr( op1, op2 );
+            case V_LE: return j.newLeExpr( op1, op2 );
+            case V_LT: return j.newLtExpr( op1, op2 );
+            case V_MUL: return j.newMulExpr( op1, op2 );
+            case V_NE: return j.newNeExpr( op1, op2 );
+            case V_OR: return j.newOrExpr( op1, op2 );
+            case V_REM: return j.newRemExpr( op1, op2 );
+            case V_SHL: return j.newShlExpr( op1, op2 );
+            case V_SHR: return j.newShrExpr( op1, op2 );
+            case V_SUB: return j.newSubExpr( op1, op2 );
+            case V_USHR: return j.newUshrExpr( op1, op2 );
+            case V_XOR: return j.newXorExpr( op1, op2 );
+            default: throw new RuntimeException( "Bad operator "+op );
+        }
+    }
+
+    private Type readPoolType( VarIntInput in ) {
+        int tag = in.readByte();
+        switch( tag ) {
+            case T_BOOLEAN: return BooleanType.v();
+            case T_BYTE: return ByteType.v();
+            case T_CHAR: return CharType.v();
+            case T_SHORT: return ShortType.v();
+            case T_INT: return IntType.v();
+            case T_LONG: return LongType.v();
+            case T_FLOAT: return FloatType.v();
+            case T_DOUBLE: return DoubleType.v();
+            case T_VOID: return VoidType.v();
+            case T_NULL: return NullType.v();
+            case T_UNKNOWN: return UnknownType.v();
+            case T_REF: return RefType.v( strings[in.readVarInt()] );
+            case T_ARRAY: {
+                Type base = types[in.readVarInt()];
+                return ArrayType.v( base, in.readVarInt() );
+            }
+            default:
+                throw new RuntimeException( "Bad type tag "+tag+" in binary Jimple input" );
+        }
+    }
+
+    private List<Type> readTypes( VarIntInput in ) {
+        int n = in.readVarInt();
+        List<Type> ret = new ArrayList<Type>( n );
+        for( int i = 0; i < n; i++ ) ret.add( types[in.readVarInt()] );
+        return ret;
+    }
+
+    private SootClass classRef( int type ) {
+        return SootResolver.v().makeClassRef( ((RefType) types[type]).getClassName() );
+    }
+
+    private SootFieldRef fieldRef( int i ) {
+        SootFieldRef ret = fieldRefs[i];
+        if( ret == null ) {
+            VarIntInput in = new VarIntInput( data, fieldRefOffsets[i] );
+            SootClass cl = classRef( in.readVarInt() );
+            String name = strings[in.readVarInt()];
+            Type type = types[in.readVarInt()];
+            ret = fieldRefs[i] = Scene.v().makeFieldRef( cl, name, type, in.readBoolean() );
+        }
+        return ret;
+    }
+
+    private SootMethodRef methodRef( int i ) {
+        SootMethodRef ret = methodRefs[i];
+        if( ret == null ) {
+            VarIntInput in = new VarIntInput( data, methodRefOffsets[i] );
+            SootClass cl = classRef( in.readVarInt() );
+            String name = strings[in.readVarInt()];
+            List<Type> parameterTypes = readTypes( in );
+            Type returnType = types[in.readVarInt()];
+            ret = methodRefs[i] = Scene.v().makeMethodRef( cl, name, parameterTypes,
+                    returnType, in.readBoolean() );
+        }
+        return ret;
+    }
+}
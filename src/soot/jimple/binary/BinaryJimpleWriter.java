@@ -0,0 +1,479 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import soot.*;
+import soot.jimple.*;
+import soot.tagkit.LineNumberTag;
+
+/** Writes a SootClass and the JimpleBodies of its methods in the binary
+ * Jimple format described in {@link BinaryJimpleFormat}. The bodies are encoded
+ * first, collecting the constant pools as they go; the pools, the class
+ * skeleton with the offset of each body, and the bodies are then written
+ * out in one go. Of the tags, only line numbers of statements are kept.
+ */
+public class BinaryJimpleWriter implements BinaryJimpleFormat
+{
+    private final SootClass c;
+
+    private final Map<String,Integer> strings = new HashMap<String,Integer>();
+    private final VarIntOutput stringPool = new VarIntOutput();
+    private final Map<Type,Integer> types = new HashMap<Type,Integer>();
+    private final VarIntOutput typePool = new VarIntOutput();
+    private final Map<String,Integer> fieldRefs = new HashMap<String,Integer>();
+    private final VarIntOutput fieldRefPool = new VarIntOutput();
+    private final Map<String,Integer> methodRefs = new HashMap<String,Integer>();
+    private final VarIntOutput methodRefPool = new VarIntOutput();
+
+    private Map<Local,Integer> localIndex;
+    private Map<Unit,Integer> unitIndex;
+
+    public BinaryJimpleWriter( SootClass c ) {
+        this.c = c;
+    }
+
+    /** Writes the class to out, which is not closed. */
+    public void writeTo( OutputStream out ) throws IOException {
+        VarIntOutput bodies = new VarIntOutput();
+        VarIntOutput skeleton = new VarIntOutput();
+
+        skeleton.writeVarInt( c.getModifiers() );
+        skeleton.writeVarInt( type( c.getType() ) );
+        skeleton.writeBoolean( c.hasSuperclass() );
+        if( c.hasSuperclass() ) skeleton.writeVarInt( type( c.getSuperclass().getType() ) );
+        skeleton.writeVarInt( c.getInterfaceCount() );
+        for( Iterator<SootClass> iIt = c.getInterfaces().iterator(); iIt.hasNext(); ) {
+            skeleton.writeVarInt( type( iIt.next().getType() ) );
+        }
+
+        skeleton.writeVarInt( c.getFieldCount() );
+        for( Iterator<SootField> fIt = c.getFields().iterator(); fIt.hasNext(); ) {
+            final SootField f = fIt.next();
+            skeleton.writeVarInt( f.getModifiers() );
+            skeleton.writeVarInt( string( f.getName() ) );
+            skeleton.writeVarInt( type( f.getType() ) );
+        }
+
+        skeleton.writeVarInt( c.getMethodCount() );
+        for( Iterator<SootMethod> mIt = c.getMethods().iterator(); mIt.hasNext(); ) {
+            final SootMethod m = mIt.next();
+            skeleton.writeVarInt( m.getModifiers() );
+            skeleton.writeVarInt( string( m.getName() ) );
+            writeTypes( skeleton, m.getParameterTypes() );
+            skeleton.writeVarInt( type( m.getReturnType() ) );
+            skeleton.writeVarInt( m.getExceptions().size() );
+            for( Iterator<SootClass> eIt = m.getExceptions().iterator(); eIt.hasNext(); ) {
+                skeleton.writeVarInt( type( eIt.next().getType() ) );
+            }
+            int start = bodies.size();
+            if( m.isConcrete() ) {
+                // a length of zero would mean the method has no body, so
+                // build it if need be; a released body cannot be rebuilt
+                if( !m.hasActiveBody() && m.getSource() == null )
+                    throw new RuntimeException( "Cannot write "+m.getSignature()
+                            +" in binary Jimple format: its body was released" );
+                Body b = m.retrieveActiveBody();
+                if( !( b instanceof JimpleBody ) )
+                    throw new RuntimeException( "Cannot write a "+b.getClass().getName()
+                            +" in binary Jimple format: "+m.getSignature() );
+                writeBody( bodies, b );
+            }
+            skeleton.writeVarInt( start );
+            skeleton.writeVarInt( bodies.size() - start );
+        }
+
+        VarIntOutput header = new VarIntOutput();
+        header.writeInt32( MAGIC );
+        header.writeVarInt( VERSION );
+        header.writeVarInt( strings.size() );
+        header.writeTo( out );
+        stringPool.writeTo( out );
+        writeCount( out, types.size() );
+        typePool.writeTo( out );
+        writeCount( out, fieldRefs.size() );
+        fieldRefPool.writeTo( out );
+        writeCount( out, methodRefs.size() );
+        methodRefPool.writeTo( out );
+        skeleton.writeTo( out );
+        bodies.writeTo( out );
+    }
+
+    private static void writeCount( OutputStream out, int count ) throws IOException {
+        VarIntOutput o = new VarIntOutput();
+        o.writeVarInt( count );
+        o.writeTo( out );
+    }
+
+    private void writeBody( VarIntOutput out, Body b ) {
+        localIndex = new HashMap<Local,Integer>( b.getLocalCount() * 2 + 1 );
+        out.writeVarInt( b.getLocalCount() );
+        for( Iterator<Local> lIt = b.getLocals().iterator(); lIt.hasNext(); ) {
+            final Local l = lIt.next();
+            localIndex.put( l, new Integer( localIndex.size() ) );
+            out.writeVarInt( string( l.getName() ) );
+            out.writeVarInt( type( l.getType() ) );
+        }
+
+        unitIndex = new HashMap<Unit,Integer>( b.getUnits().size() * 2 + 1 );
+        for( Iterator<Unit> uIt = b.getUnits().iterator(); uIt.hasNext(); ) {
+            unitIndex.put( uIt.next(), new Integer( unitIndex.size() ) );
+        }
+        out.writeVarInt( unitIndex.size() );
+        for( Iterator<Unit> uIt = b.getUnits().iterator(); uIt.hasNext(); ) {
+            final Unit u = uIt.next();
+            writeStmt( out, (Stmt) u );
+            LineNumberTag line = (LineNumberTag) u.getTag( "LineNumberTag" );
+            out.writeVarInt( line == null ? 0 : line.getLineNumber() + 1 );
+        }
+
+        out.writeVarInt( b.getTraps().size() );
+        for( Iterator<Trap> tIt = b.getTraps().iterator(); tIt.hasNext(); ) {
+            final Trap t = tIt.next();
+            out.writeVarInt( type( t.getException().getType() ) );
+            out.writeVarInt( unit( t.getBeginUnit() ) );
+            out.writeVarInt( unit( t.getEndUnit() ) );
+            out.writeVarInt( unit( t.getHandlerUnit() ) );
+        }
+        localIndex = null;
+        unitIndex = null;
+    }
+
+    private void writeStmt( VarIntOutput out, Stmt s ) {
+        if( s instanceof IdentityStmt ) {
+            IdentityStmt is = (IdentityStmt) s;
+            out.write( S_IDENTITY );
+            writeValue( out, is.getLeftOp() );
+            writeValue( out, is.getRightOp() );
+        } else if( s instanceof AssignStmt ) {
+            AssignStmt as = (AssignStmt) s;
+            out.write( S_ASSIGN );
+            writeValue( out, as.getLeftOp() );
+            writeValue( out, as.getRightOp() );
+        } else if( s instanceof InvokeStmt ) {
+            out.write( S_INVOKE );
+            writeValue( out, s.getInvokeExpr() );
+        } else if( s instanceof IfStmt ) {
+            IfStmt is = (IfStmt) s;
+            out.write( S_IF );
+            writeValue( out, is.getCondition() );
+            out.writeVarInt( unit( is.getTarget() ) );
+        } else if( s instanceof GotoStmt ) {
+            out.write( S_GOTO );
+            out.writeVarInt( unit( ((GotoStmt) s).getTarget() ) );
+        } else if( s instanceof ReturnStmt ) {
+            out.write( S_RETURN );
+            writeValue( out, ((ReturnStmt) s).getOp() );
+        } else if( s instanceof ReturnVoidStmt ) {
+            out.write( S_RETURN_VOID );
+        } else if( s instanceof ThrowStmt ) {
+            out.write( S_THROW );
+            writeValue( out, ((ThrowStmt) s).getOp() );
+        } else if( s instanceof EnterMonitorStmt ) {
+            out.write( S_ENTER_MONITOR );
+            writeValue( out, ((EnterMonitorStmt) s).getOp() );
+        } else if( s instanceof ExitMonitorStmt ) {
+            out.write( S_EXIT_MONITOR );
+            writeValue( out, ((ExitMonitorStmt) s).getOp() );
+        } else if( s instanceof TableSwitchStmt ) {
+            TableSwitchStmt ts = (TableSwitchStmt) s;
+            out.write( S_TABLE_SWITCH );
+            writeValue( out, ts.getKey() );
+            out.writeSignedVarInt( ts.getLowIndex() );
+            out.writeSignedVarInt( ts.getHighIndex() );
+            List targets = ts.getTargets();
+            out.writeVarInt( targets.size() );
+            for( Iterator tIt = targets.iterator(); tIt.hasNext(); ) {
+                out.writeVarInt( unit( (Unit) tIt.next() ) );
+            }
+            out.writeVarInt( unit( ts.getDefaultTarget() ) );
+        } else if( s instanceof LookupSwitchStmt ) {
+            LookupSwitchStmt ls = (LookupSwitchStmt) s;
+            out.write( S_LOOKUP_SWITCH );
+            writeValue( out, ls.getKey() );
+            out.writeVarInt( ls.getTargetCount() );
+            for( int i = 0; i < ls.getTargetCount(); i++ ) {
+                out.writeSignedVarInt( ls.getLookupValue( i ) );
+                out.writeVarInt( unit( ls.getTarget( i ) ) );
+            }
+            out.writeVarInt( unit( ls.getDefaultTarget() ) );
+        } else if( s instanceof NopStmt ) {
+            out.write( S_NOP );
+        } else if( s instanceof BreakpointStmt ) {
+            out.write( S_BREAKPOINT );
+        } else if( s instanceof RetStmt ) {
+            out.write( S_RET );
+            writeValue( out, ((RetStmt) s).getStmtAddress() );
+        } else {
+            throw new RuntimeException( "Cannot write statement in binary Jimple format: "+s );
+        }
+    }
+
+    private void writeValue( VarIntOutput out, Value v ) {
+        if( v instanceof Local ) {
+            Integer i = localIndex.get( v );
+            if( i == null ) throw new RuntimeException( "Local "+v+" is not in the body" );
+            out.write( V_LOCAL );
+            out.writeVarInt( i.intValue() );
+        } else if( v instanceof Constant ) {
+            writeConstant( out, (Constant) v );
+        } else if( v instanceof BinopExpr ) {
+            BinopExpr e = (BinopExpr) v;
+            out.write( binopCode( e ) );
+            writeValue( out, e.getOp1() );
+            writeValue( out, e.getOp2() );
+        } else if( v instanceof InvokeExpr ) {
+            writeInvoke( out, (InvokeExpr) v );
+        } else if( v instanceof InstanceFieldRef ) {
+            InstanceFieldRef r = (InstanceFieldRef) v;
+            out.write( V_INSTANCE_FIELD_REF );
+            writeValue( out, r.getBase() );
+            out.writeVarInt( fieldRef( r.getFieldRef() ) );
+        } else if( v instanceof StaticFieldRef ) {
+            out.write( V_STATIC_FIELD_REF );
+            out.writeVarInt( fieldRef( ((StaticFieldRef) v).getFieldRef() ) );
+        } else if( v instanceof ArrayRef ) {
+            ArrayRef r = (ArrayRef) v;
+            out.write( V_ARRAY_REF );
+            writeValue( out, r.getBase() );
+            writeValue( out, r.getIndex() );
+        } else if( v instanceof ThisRef ) {
+            out.write( V_THIS_REF );
+            out.writeVarInt( type( v.getType() ) );
+        } else if( v instanceof ParameterRef ) {
+            ParameterRef r = (ParameterRef) v;
+            out.write( V_PARAMETER_REF );
+            out.writeVarInt( type( r.getType() ) );
+            out.writeVarInt( r.getIndex() );
+        } else if( v instanceof CaughtExceptionRef ) {
+            out.write( V_CAUGHT_EXCEPTION_REF );
+        } else if( v instanceof NegExpr ) {
+            out.write( V_NEG );
+            writeValue( out, ((NegExpr) v).getOp() );
+        } else if( v instanceof LengthExpr ) {
+            out.write( V_LENGTH );
+            writeValue( out, ((LengthExpr) v).getOp() );
+        } else if( v instanceof CastExpr ) {
+            CastExpr e = (CastExpr) v;
+            out.write( V_CAST );
+            writeValue( out, e.getOp() );
+            out.writeVarInt( type( e.getCastType() ) );
+        } else if( v instanceof InstanceOfExpr ) {
+            InstanceOfExpr e = (InstanceOfExpr) v;
+            out.write( V_INSTANCE_OF );
+            writeValue( out, e.getOp() );
+            out.writeVarInt( type( e.getCheckType() ) );
+        } else if( v instanceof NewExpr ) {
+            out.write( V_NEW );
+            out.writeVarInt( type( ((NewExpr) v).getBaseType() ) );
+        } else if( v instanceof NewArrayExpr ) {
+            NewArrayExpr e = (NewArrayExpr) v;
+            out.write( V_NEW_ARRAY );
+            out.writeVarInt( type( e.getBaseType() ) );
+            writeValue( out, e.getSize() );
+        } else if( v instanceof NewMultiArrayExpr ) {
+            NewMultiArrayExpr e = (NewMultiArrayExpr) v;
+            out.write( V_NEW_MULTI_ARRAY );
+            out.writeVarInt( type( e.getBaseType() ) );
+            out.writeVarInt( e.getSizeCount() );
+            for( int i = 0; i < e.getSizeCount(); i++ ) writeValue( out, e.getSize( i ) );
+        } else {
+            throw new RuntimeException( "Cannot write value in binary Jimple format: "+v );
+        }
+    }
+
+    private void writeConstant( VarIntOutput out, Constant v ) {
+        if( v instanceof IntConstant ) {
+            out.write( V_INT );
+            out.writeSignedVarInt( ((IntConstant) v).value );
+        } else if( v instanceof LongConstant ) {
+            out.write( V_LONG );
+            out.writeSignedVarLong( ((LongConstant) v).value );
+        } else if( v instanceof FloatConstant ) {
+            out.write( V_FLOAT );
+            out.writeInt32( Float.floatToRawIntBits( ((FloatConstant) v).value ) );
+        } else if( v instanceof DoubleConstant ) {
+            out.write( V_DOUBLE );
+            out.writeInt64( Double.doubleToRawLongBits( ((DoubleConstant) v).value ) );
+        } else if( v instanceof StringConstant ) {
+            out.write( V_STRING );
+            out.writeVarInt( string( ((StringConstant) v).value ) );
+        } else if( v instanceof ClassConstant ) {
+            out.write( V_CLASS );
+            out.writeVarInt( string( ((ClassConstant) v).value ) );
+        } else if( v instanceof NullConstant ) {
+            out.write( V_NULL );
+        } else {
+            throw new RuntimeException( "Cannot write constant in binary Jimple format: "+v );
+        }
+    }
+
+    private void writeInvoke( VarIntOutput out, InvokeExpr ie ) {
+        if( ie instanceof StaticInvokeExpr ) {
+            out.write( V_STATIC_INVOKE );
+        } else if( ie instanceof DynamicInvokeExpr ) {
+            DynamicInvokeExpr die = (DynamicInvokeExpr) ie;
+            out.write( V_DYNAMIC_INVOKE );
+            out.writeVarInt( methodRef( die.getBootstrapMethodRef() ) );
+            writeValues( out, die.getBootstrapArgs() );
+        } else {
+            if( ie instanceof VirtualInvokeExpr ) out.write( V_VIRTUAL_INVOKE );
+            else if( ie instanceof InterfaceInvokeExpr ) out.write( V_INTERFACE_INVOKE );
+            else if( ie instanceof SpecialInvokeExpr ) out.write( V_SPECIAL_INVOKE );
+            else throw new RuntimeException( "Cannot write invoke in binary Jimple format: "+ie );
+            writeValue( out, ((InstanceInvokeExpr) ie).getBase() );
+        }
+        out.writeVarInt( methodRef( ie.getMethodRef() ) );
+        writeValues( out, ie.getArgs() );
+    }
+
+    private void writeValues( VarIntOutput out, List values ) {
+        out.writeVarInt( values.size() );
+        for( Iterator vIt = values.iterator(); vIt.hasNext(); ) {
+            writeValue( out, (Value) vIt.next() );
+        }
+    }
+
+    private static int binopCode( BinopExpr e ) {
+        if( e instanceof AddExpr ) return V_ADD;
+        if( e instanceof AndExpr ) return V_AND;
+        if( e instanceof CmpExpr ) return V_CMP;
+        if( e instanceof CmpgExpr ) return V_CMPG;
+        if( e instanceof CmplExpr ) return V_CMPL;
+        if( e instanceof DivExpr ) return V_DIV;
+        if( e instanceof EqExpr ) return V_EQ;
+        if( e instanceof GeExpr ) return V_GE;
+        if( e instanceof GtExpr ) return V_GT;
+        if( e instanceof LeExpr ) return V_LE;
+        if( e instanceof LtExpr ) return V_LT;
+        if( e instanceof MulExpr ) return V_MUL;
+        if( e instanceof NeExpr ) return V_NE;
+        if( e instanceof OrExpr ) return V_OR;
+        if( e instanceof RemExpr ) return V_REM;
+        if( e instanceof ShlExpr ) return V_SHL;
+        if( e instanceof ShrExpr ) return V_SHR;
+        if( e instanceof SubExpr ) return V_SUB;
+        if( e instanceof UshrExpr ) return V_USHR;
+        if( e instanceof XorExpr ) return V_XOR;
+        throw new RuntimeException( "Cannot write expression in binary Jimple format: "+e );
+    }
+
+    private int unit( Unit u ) {
+        Integer i = unitIndex.get( u );
+        if( i == null ) throw new RuntimeException( "Unit "+u+" is not in the body" );
+        return i.intValue();
+    }
+
+    private void writeTypes( VarIntOutput out, List ts ) {
+        out.writeVarInt( ts.size() );
+        for( Iterator tIt = ts.iterator(); tIt.hasNext(); ) {
+            out.writeVarInt( type( (Type) tIt.next() ) );
+        }
+    }
+
+    private int string( String s ) {
+        Integer i = strings.get( s );
+        if( i == null ) {
+            strings.put( s, i = new Integer( strings.size() ) );
+            stringPool.writeChars( s );
+        }
+        return i.intValue();
+    }
+
+    /** Returns the index of t in the type pool, adding it and the types it
+     * is made of first if needed. */
+    private int type( Type t ) {
+        Integer i = types.get( t );
+        if( i != null ) return i.intValue();
+        if( t instanceof RefType ) {
+            int name = string( ((RefType) t).getClassName() );
+            typePool.write( T_REF );
+            typePool.writeVarInt( name );
+        } else if( t instanceof ArrayType ) {
+            ArrayType at = (ArrayType) t;
+            int base = type( at.baseType );
+            typePool.write( T_ARRAY );
+            typePool.writeVarInt( base );
+            typePool.writeVarInt( at.numDimensions );
+        } else {
+            typePool.write( primitiveTag( t ) );
+        }
+        types.put( t, i = new Integer( types.size() ) );
+        return i.intValue();
+    }
+
+    private static int primitiveTag( Type t ) {
+        if( t instanceof BooleanType ) return T_BOOLEAN;
+        if( t instanceof ByteType ) return T_BYTE;
+        if( t instanceof CharType ) return T_CHAR;
+        if( t instanceof ShortType ) return T_SHORT;
+        if( t instanceof IntType ) return T_INT;
+        if( t instanceof LongType ) return T_LONG;
+        if( t instanceof FloatType ) return T_FLOAT;
+        if( t instanceof DoubleType ) return T_DOUBLE;
+        if( t instanceof VoidType ) return T_VOID;
+        if( t instanceof NullType ) return T_NULL;
+        if( t instanceof UnknownType ) return T_UNKNOWN;
+        throw new RuntimeException( "Cannot write type in binary Jimple format: "+t );
+    }
+
+    private int fieldRef( SootFieldRef f ) {
+        String key = f.getSignature() + f.isStatic();
+        Integer i = fieldRefs.get( key );
+        if( i == null ) {
+            int cl = type( f.declaringClass().getType() );
+            int name = string( f.name() );
+            int type = type( f.type() );
+            fieldRefPool.writeVarInt( cl );
+            fieldRefPool.writeVarInt( name );
+            fieldRefPool.writeVarInt( type );
+            fieldRefPool.writeBoolean( f.isStatic() );
+            fieldRefs.put( key, i = new Integer( fieldRefs.size() ) );
+        }
+        return i.intValue();
+    }
+
+    private int methodRef( SootMethodRef m ) {
+        String key = m.getSignature() + m.isStatic();
+        Integer i = methodRefs.get( key );
+        if( i == null ) {
+            int cl = type( m.declaringClass().getType() );
+            int name = string( m.name() );
+            List params = m.parameterTypes();
+            int[] paramTypes = new int[params.size()];
+            for( int p = 0; p < paramTypes.length; p++ ) paramTypes[p] = type( (Type) params.get( p ) );
+            int ret = type( m.returnType() );
+            methodRefPool.writeVarInt( cl );
+            methodRefPool.writeVarInt( name );
+            methodRefPool.writeVarInt( paramTypes.length );
+            for( int p = 0; p < paramTypes.length; p++ ) methodRefPool.writeVarInt( paramTypes[p] );
+            methodRefPool.writeVarInt( ret );
+            methodRefPool.writeBoolean( m.isStatic() );
+            methodRefs.put( key, i = new Integer( methodRefs.size() ) );
+        }
+        return i.intValue();
+    }
+}
@@ -0,0 +1,86 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.binary;
+
+/** Reads the primitive encodings of the binary Jimple format from a byte
+ * array, starting at any position. */
+final class VarIntInput
+{
+    private final byte[] buf;
+    private int pos;
+
+    VarIntInput( byte[] buf, int pos ) {
+        this.buf = buf;
+        this.pos = pos;
+    }
+
+    int position() { return pos; }
+
+    int readByte() {
+        if( pos >= buf.length ) throw new RuntimeException( "Truncated binary Jimple input" );
+        return buf[pos++] & 0xFF;
+    }
+
+    int readVarInt() {
+        int ret = 0;
+        for( int shift = 0; ; shift += 7 ) {
+            int b = readByte();
+            ret |= ( b & 0x7F ) << shift;
+            if( ( b & 0x80 ) == 0 ) return ret;
+        }
+    }
+
+    long readVarLong() {
+        long ret = 0;
+        for( int shift = 0; ; shift += 7 ) {
+            int b = readByte();
+            ret |= (long) ( b & 0x7F ) << shift;
+            if( ( b & 0x80 ) == 0 ) return ret;
+        }
+    }
+
+    int readSignedVarInt() {
+        int v = readVarInt();
+        return ( v >>> 1 ) ^ -( v & 1 );
+    }
+
+    long readSignedVarLong() {
+        long v = readVarLong();
+        return ( v >>> 1 ) ^ -( v & 1 );
+    }
+
+    boolean readBoolean() { return readByte() != 0; }
+
+    int readInt32() {
+        return ( readByte() << 24 ) | ( readByte() << 16 ) | ( readByte() << 8 ) | readByte();
+    }
+
+    long readInt64() {
+        long hi = readInt32();
+        return ( hi << 32 ) | ( readInt32() & 0xFFFFFFFFL );
+    }
+
+    String readChars() {
+        int len = readVarInt();
+        char[] chars = new char[len];
+        for( int i = 0; i < len; i++ ) chars[i] = (char) readVarInt();
+        return new String( chars );
+    }
+}
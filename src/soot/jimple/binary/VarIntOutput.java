@@ -0,0 +1,72 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.binary;
+
+import java.io.ByteArrayOutputStream;
+
+/** A growable byte buffer with the primitive encodings of the binary
+ * Jimple format. */
+final class VarIntOutput extends ByteArrayOutputStream
+{
+    VarIntOutput() { super( 256 ); }
+
+    void writeVarInt( int v ) {
+        while( ( v & ~0x7F ) != 0 ) {
+            write( ( v & 0x7F ) | 0x80 );
+            v >>>= 7;
+        }
+        write( v );
+    }
+
+    void writeVarLong( long v ) {
+        while( ( v & ~0x7FL ) != 0 ) {
+            write( (int) ( v & 0x7F ) | 0x80 );
+            v >>>= 7;
+        }
+        write( (int) v );
+    }
+
+    void writeSignedVarInt( int v ) { writeVarInt( ( v << 1 ) ^ ( v >> 31 ) ); }
+    void writeSignedVarLong( long v ) { writeVarLong( ( v << 1 ) ^ ( v >> 63 ) ); }
+    void writeBoolean( boolean b ) { write( b ? 1 : 0 ); }
+
+    void writeInt32( int v ) {
+        write( v >>> 24 );
+        write( v >>> 16 );
+        write( v >>> 8 );
+        write( v );
+    }
+
+    void writeInt64( long v ) {
+        writeInt32( (int) ( v >>> 32 ) );
+        writeInt32( (int) v );
+    }
+
+    /** Writes each char as a varint, so that ASCII takes one byte per char
+     * and any string, including unpaired surrogates, survives unchanged. */
+    void writeChars( String s ) {
+        int len = s.length();
+        writeVarInt( len );
+        for( int i = 0; i < len; i++ ) writeVarInt( s.charAt( i ) );
+    }
+
+    /** Returns the internal buffer, valid up to size(). */
+    byte[] buffer() { return buf; }
+}
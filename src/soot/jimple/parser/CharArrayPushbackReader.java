@@ -0,0 +1,118 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.parser;
+
+import java.io.*;
+
+/** A PushbackReader over the whole text of a .jimple file held in memory.
+ * The SableCC lexer reads and pushes back one character at a time; unlike
+ * java.io.PushbackReader, this reader takes no lock and makes no virtual
+ * call into an underlying reader per character. Since the whole text is
+ * kept, any number of characters already read can be pushed back.
+ */
+final class CharArrayPushbackReader extends PushbackReader
+{
+    private char[] text;
+    private final int length;
+    private int pos = 0;
+
+    /** Reads all of r into memory; r is not closed. */
+    CharArrayPushbackReader(Reader r) throws IOException
+    {
+        super(new StringReader(""), 1);
+        char[] buf = new char[8192];
+        int len = 0;
+        int n;
+        while((n = r.read(buf, len, buf.length - len)) != -1) {
+            len += n;
+            if(len == buf.length) {
+                char[] bigger = new char[buf.length * 2];
+                System.arraycopy(buf, 0, bigger, 0, len);
+                buf = bigger;
+            }
+        }
+        text = buf;
+        length = len;
+    }
+
+    public int read() throws IOException
+    {
+        ensureOpen();
+        if(pos >= length) return -1;
+        return text[pos++];
+    }
+
+    public int read(char[] cbuf, int off, int len) throws IOException
+    {
+        ensureOpen();
+        if(len == 0) return 0;
+        if(pos >= length) return -1;
+        int n = Math.min(len, length - pos);
+        System.arraycopy(text, pos, cbuf, off, n);
+        pos += n;
+        return n;
+    }
+
+    public void unread(int c) throws IOException
+    {
+        ensureOpen();
+        if(pos == 0) throw new IOException("Pushback buffer overflow");
+        text[--pos] = (char) c;
+    }
+
+    public void unread(char[] cbuf, int off, int len) throws IOException
+    {
+        ensureOpen();
+        if(len > pos) throw new IOException("Pushback buffer overflow");
+        pos -= len;
+        System.arraycopy(cbuf, off, text, pos, len);
+    }
+
+    public void unread(char[] cbuf) throws IOException
+    {
+        unread(cbuf, 0, cbuf.length);
+    }
+
+    public boolean ready() throws IOException
+    {
+        ensureOpen();
+        return pos < length;
+    }
+
+    public long skip(long n) throws IOException
+    {
+        ensureOpen();
+        if(n < 0) throw new IllegalArgumentException("skip value is negative");
+        int skipped = (int) Math.min(n, length - pos);
+        pos += skipped;
+        return skipped;
+    }
+
+    public void close() throws IOException
+    {
+        text = null;
+        super.close();
+    }
+
+    private void ensureOpen() throws IOException
+    {
+        if(text == null) throw new IOException("Stream closed");
+    }
+}
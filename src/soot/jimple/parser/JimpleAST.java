@@ -50,11 +50,10 @@ public class JimpleAST
      */
     public JimpleAST(InputStream aJIS)
     {
-        Parser p =
-            new Parser(new Lexer(
-                    new PushbackReader(new BufferedReader(
-                    new InputStreamReader(aJIS)), 1024)));
         try {
+            Parser p =
+                new Parser(new Lexer(
+                        new CharArrayPushbackReader(new InputStreamReader(aJIS))));
             mTree = p.parse();
         } catch(ParserException e) {
             throw new RuntimeException("Parser exception occurred: " + e);
@@ -90,6 +89,8 @@ public class JimpleAST
 
     /**  Returns a body corresponding to the parsed jimple for m. 
      *   If necessary, applies the BodyExtractorWalker to initialize the bodies map. 
+     *   Once the bodies map is initialized, the parse tree is released, so
+     *   the other methods of this class must not be called anymore.
      *   @param m the method we want to get a body for.
      *   @return the actual body for the given method.
      */
@@ -131,5 +132,9 @@ public class JimpleAST
         Scene.v().setPhantomRefs(true);
         mTree.apply(w);
         Scene.v().setPhantomRefs(oldPhantomValue);
+
+        // All bodies have been extracted; the tree is not needed anymore
+        // and is usually much larger than the bodies built from it.
+        mTree = null;
     }    
 } // Parse
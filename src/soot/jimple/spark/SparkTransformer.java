@@ -164,6 +164,9 @@ public class SparkTransformer extends SceneTransformer
         if( opts.verbose() ) {
             G.v().out.println( "[Spark] Number of reachable methods: "
                     +Scene.v().getReachableMethods().size() );
+            G.v().out.println( "[Spark] Type masks: "
+                    +pag.getTypeManager().numTypeMasks()+" built, "
+                    +pag.getTypeManager().numDistinctTypeMasks()+" distinct" );
         }
 
         if( opts.set_mass() ) findSetMass( pag );
@@ -19,6 +19,7 @@
 package soot.jimple.spark.geom.geomE;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -33,6 +34,7 @@ import soot.SootMethod;
 import soot.Type;
 import soot.jimple.spark.geom.geomPA.CallsiteContextVar;
 import soot.jimple.spark.geom.geomPA.CgEdge;
+import soot.jimple.spark.geom.geomPA.FigureBuffer;
 import soot.jimple.spark.geom.geomPA.GeomPointsTo;
 import soot.jimple.spark.geom.geomPA.IEncodingBroker;
 import soot.jimple.spark.geom.geomPA.IVarAbstraction;
@@ -70,7 +72,7 @@ public class FullSensitiveNode extends IVarAbstraction
 	public Map<AllocNode, GeometricManager> new_pts;
 	
 	// store/load complex constraints
-	public Vector<PlainConstraint> complex_cons;
+	public ArrayList<PlainConstraint> complex_cons;
 	
 	public static String symbols[] = {"/", "[]", "|", "-" };
 	
@@ -227,7 +229,7 @@ public class FullSensitiveNode extends IVarAbstraction
 	public void put_complex_constraint(PlainConstraint cons) 
 	{
 		if ( complex_cons == null )
-			complex_cons = new Vector<PlainConstraint>();
+			complex_cons = new ArrayList<PlainConstraint>();
 		complex_cons.add( cons );
 	}
 
@@ -243,7 +245,7 @@ public class FullSensitiveNode extends IVarAbstraction
 	 * The place where you implement the pointer assignment reasoning.
 	 */
 	@Override
-	public void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist) 
+	public void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist, FigureBuffer buffer) 
 	{
 		int i, j;
 		AllocNode obj;
@@ -279,13 +281,13 @@ public class FullSensitiveNode extends IVarAbstraction
 							switch ( pcons.type ) {
 							case GeomPointsTo.STORE_CONS:
 								// Store, qv -> pv.field
-								if ( instantiateStoreConstraint( qn, objn, pts, (pcons.code<<8) | i ) )
+								if ( instantiateStoreConstraint( qn, objn, pts, (pcons.code<<8) | i, buffer ) )
 									worklist.push( qn );
 								break;
 								
 							case GeomPointsTo.LOAD_CONS:
 								// Load, pv.field -> qv
-								if ( instantiateLoadConstraint( objn, qn, pts, (pcons.code<<8) | i ) )
+								if ( instantiateLoadConstraint( objn, qn, pts, (pcons.code<<8) | i, buffer ) )
 									worklist.push( objn );
 								break;
 								
@@ -339,7 +341,7 @@ public class FullSensitiveNode extends IVarAbstraction
 								while ( pts != null &&
 										( pts.is_new || pe.is_new ) ) {
 									// Propagate this object
-									if ( reasonAndPropagate( qn, obj, pts, pe, (i<<8)|j) )
+									if ( reasonAndPropagate( qn, obj, pts, pe, (i<<8)|j, buffer) )
 										added = true;
 									pts = pts.next;
 								}
@@ -377,7 +379,7 @@ public class FullSensitiveNode extends IVarAbstraction
 								
 								while ( pe != null ) {
 									// Propagate this object
-									if ( reasonAndPropagate( qn, obj, pts, pe, (i<<8)|j) )
+									if ( reasonAndPropagate( qn, obj, pts, pe, (i<<8)|j, buffer) )
 										added = true;
 									pe = pe.next;
 								}
@@ -811,7 +813,8 @@ public class FullSensitiveNode extends IVarAbstraction
 	 * A non-interface public function.
 	 * It adds the points-to tuple to the geometric manager.
 	 */
-	private boolean addPointsTo(int code, AllocNode obj) 
+	@Override
+	protected boolean addPointsTo(int code, AllocNode obj) 
 	{
 		GeometricManager gm = pt_objs.get(obj);
 		
@@ -837,7 +840,8 @@ public class FullSensitiveNode extends IVarAbstraction
 	 * A non-interface public function.
 	 * It adds the flows-to tuple to the geometric manager.
 	 */
-	private boolean addFlowsTo(int code, IVarAbstraction qv) 
+	@Override
+	protected boolean addFlowsTo(int code, IVarAbstraction qv) 
 	{
 		GeometricManager gm = flowto.get(qv);
 		
@@ -880,7 +884,7 @@ public class FullSensitiveNode extends IVarAbstraction
 	/**
 	 * Implement the inference rules when the input points-to figure is a one-to-one mapping.
 	 */
-	private int infer_pts_is_one_to_one( SegmentNode pts, SegmentNode pe, int code )
+	private int infer_pts_is_one_to_one( SegmentNode pts, SegmentNode pe, int code, RectangleNode pres )
 	{
 		long interI, interJ;
 		
@@ -914,7 +918,7 @@ public class FullSensitiveNode extends IVarAbstraction
 	/**
 	 * Implement the inference rules when the input points-to figure is a many-to-many mapping.
 	 */
-	private int infer_pts_is_many_to_many( RectangleNode pts, SegmentNode pe, int code )
+	private int infer_pts_is_many_to_many( RectangleNode pts, SegmentNode pe, int code, RectangleNode pres )
 	{
 		long interI, interJ;
 		
@@ -956,24 +960,25 @@ public class FullSensitiveNode extends IVarAbstraction
 	 * 
 	 * Return value is used to indicate the type of the result
 	 */
-	private boolean reasonAndPropagate( FullSensitiveNode qn, AllocNode obj, SegmentNode pts, SegmentNode pe, int code )
+	private boolean reasonAndPropagate( FullSensitiveNode qn, AllocNode obj, SegmentNode pts, SegmentNode pe, int code, FigureBuffer buffer )
 	{
 		int ret_type = IEncodingBroker.Undefined_Mapping;
+		RectangleNode pres = buffer.pres;
 		
 		switch ( code >> 8 ) {
 		case IEncodingBroker.ONE_TO_ONE:
 			// pts is a 1-1 mapping
-			ret_type = infer_pts_is_one_to_one(pts, pe, code & 255 );
+			ret_type = infer_pts_is_one_to_one(pts, pe, code & 255, pres );
 			break;
 			
 		case IEncodingBroker.MANY_TO_MANY:
 			// pts is a mangy-many mapping
-			ret_type = infer_pts_is_many_to_many((RectangleNode)pts, pe, code & 255 );
+			ret_type = infer_pts_is_many_to_many((RectangleNode)pts, pe, code & 255, pres );
 			break;
 		}
 		
 		if (ret_type != IEncodingBroker.Undefined_Mapping)
-			return qn.addPointsTo( ret_type, obj );
+			return buffer.addPointsTo( qn, ret_type, obj );
 		
 		return false;
 	}
@@ -982,9 +987,10 @@ public class FullSensitiveNode extends IVarAbstraction
 	 * The last parameter code can only be 1-1 and many-1
 	 */
 	private boolean instantiateLoadConstraint(FullSensitiveNode objn,
-			FullSensitiveNode qn, SegmentNode pts, int code ) 
+			FullSensitiveNode qn, SegmentNode pts, int code, FigureBuffer buffer ) 
 	{
 		int ret_type = IEncodingBroker.Undefined_Mapping;
+		RectangleNode pres = buffer.pres;
 		
 		if ( (code>>8) == IEncodingBroker.ONE_TO_ONE ) {
 			// pe is a 1-1 mapping
@@ -1032,14 +1038,15 @@ public class FullSensitiveNode extends IVarAbstraction
 //		if ( !( pres.I1 != 0 && pres.I2 != 0 && pres.L > 0 ) )
 //			assert false;
 		
-		return objn.addFlowsTo(ret_type, qn);
+		return buffer.addFlowsTo(objn, ret_type, qn);
 	}
 
 	// code can only be 1-1 and 1-many
 	private boolean instantiateStoreConstraint(FullSensitiveNode qn,
-			FullSensitiveNode objn, SegmentNode pts, int code) 
+			FullSensitiveNode objn, SegmentNode pts, int code, FigureBuffer buffer) 
 	{
 		int ret_type = IEncodingBroker.Undefined_Mapping;
+		RectangleNode pres = buffer.pres;
 		
 		if ( (code>>8) == IEncodingBroker.ONE_TO_ONE ) {
 			// pe is a 1-1 mapping
@@ -1082,6 +1089,6 @@ public class FullSensitiveNode extends IVarAbstraction
 			}
 		}
 
-		return qn.addFlowsTo(ret_type, objn);
+		return buffer.addFlowsTo(qn, ret_type, objn);
 	}
 }
@@ -18,6 +18,7 @@
  */
 package soot.jimple.spark.geom.geomE;
 
+import soot.jimple.spark.geom.geomPA.FigurePool;
 import soot.jimple.spark.geom.geomPA.RectangleNode;
 import soot.jimple.spark.geom.geomPA.SegmentNode;
 import soot.jimple.spark.geom.geomE.GeometricManager;
@@ -93,9 +94,9 @@ public class GeometricManager implements IFigureManager
 		
 		// Ok, now we generate a copy
 		if ( code == GeometricManager.ONE_TO_ONE )
-			p = new SegmentNode( pnew );
+			p = FigurePool.newSegment( pnew );
 		else
-			p = new RectangleNode( pnew );
+			p = FigurePool.newRectangle( pnew );
 		
 		hasNewFigure = true;
 		p.next = header[code];
@@ -134,7 +135,10 @@ public class GeometricManager implements IFigureManager
 			
 			if ( p != null ) {
 				if ( i == GeometricManager.ONE_TO_ONE ) {
-					if ( checkRedundancy(GeometricManager.MANY_TO_MANY, p) ) continue;
+					if ( checkRedundancy(GeometricManager.MANY_TO_MANY, p) ) {
+						FigurePool.drop(p);
+						continue;
+					}
 					filterOutDuplicates(GeometricManager.MANY_TO_MANY, p);
 				}
 				
@@ -161,6 +165,8 @@ public class GeometricManager implements IFigureManager
 				q = pnew;
 				++countAll;
 			}
+			else
+				FigurePool.drop(pnew);
 			pnew = temp;
 		}
 
@@ -288,6 +294,8 @@ public class GeometricManager implements IFigureManager
 					
 					++countAll;
 				}
+				else
+					FigurePool.drop(pold);
 				
 				pold = pold.next;
 			}
@@ -323,6 +331,7 @@ public class GeometricManager implements IFigureManager
 		p = (RectangleNode)header[GeometricManager.MANY_TO_MANY];
 		header[GeometricManager.MANY_TO_MANY] = null;
 		size[GeometricManager.MANY_TO_MANY] = 0;
+		FigurePool.dropList(p.next);
 		p.I1 = x_min;
 		p.I2 = y_min;
 		p.L = x_max - x_min;
@@ -344,6 +353,7 @@ public class GeometricManager implements IFigureManager
 		SegmentNode p = header[GeometricManager.ONE_TO_ONE];
 		header[GeometricManager.ONE_TO_ONE] = null;
 		size[GeometricManager.ONE_TO_ONE] = 0;
+		FigurePool.dropList(p);
 		
 		while ( p != null ) {
 			if ( p.I1 < x_min ) x_min = p.I1;
@@ -353,7 +363,7 @@ public class GeometricManager implements IFigureManager
 			p = p.next;
 		}
 		
-		RectangleNode q = new RectangleNode();
+		RectangleNode q = FigurePool.newRectangle();
 		q.I1 = x_min;
 		q.I2 = y_min;
 		q.L = x_max - x_min;
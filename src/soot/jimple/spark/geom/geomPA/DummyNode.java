@@ -24,6 +24,7 @@ import java.util.Vector;
 
 import soot.Type;
 import soot.jimple.spark.geom.geomPA.CallsiteContextVar;
+import soot.jimple.spark.geom.geomPA.FigureBuffer;
 import soot.jimple.spark.geom.geomPA.GeomPointsTo;
 import soot.jimple.spark.geom.geomPA.IVarAbstraction;
 import soot.jimple.spark.geom.geomPA.IWorklist;
@@ -97,11 +98,21 @@ public class DummyNode extends IVarAbstraction
 	}
 
 	@Override
-	public void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist) {
+	public void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist, FigureBuffer buffer) {
 		// TODO Auto-generated method stub
 
 	}
 
+	@Override
+	protected boolean addPointsTo(int code, AllocNode obj) {
+		return false;
+	}
+
+	@Override
+	protected boolean addFlowsTo(int code, IVarAbstraction qv) {
+		return false;
+	}
+
 	@Override
 	public void drop_duplicates() {
 		// TODO Auto-generated method stub
@@ -18,8 +18,8 @@
  */
 package soot.jimple.spark.geom.geomPA;
 
+import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.LinkedList;
 
 /**
  * Implement the worklist with FIFO strategy.
@@ -34,18 +34,18 @@ public class FIFO_Worklist implements IWorklist
 	
 	public void initialize( int size )
 	{
-		Q = new LinkedList<IVarAbstraction>();
+		// An array backed deque avoids allocating a list cell for every push
+		Q = new ArrayDeque<IVarAbstraction>( size > 16 ? size / 4 : 16 );
 	}
 	
 	
 	public boolean has_job() {
-		return Q.size() != 0;
+		return !Q.isEmpty();
 	}
 
 	
 	public IVarAbstraction next() {
-		IVarAbstraction t = Q.getFirst();
-		Q.removeFirst();
+		IVarAbstraction t = Q.removeFirst();
 		t.Qpos = 0;
 		return t;
 	}
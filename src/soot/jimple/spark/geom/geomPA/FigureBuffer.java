@@ -0,0 +1,167 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+package soot.jimple.spark.geom.geomPA;
+
+import java.util.ArrayList;
+
+import soot.jimple.spark.pag.AllocNode;
+
+/**
+ * The channel through which IVarAbstraction.propagate hands the inferred figures to the successors.
+ *
+ * A direct buffer inserts every figure immediately, which is what the sequential solver does.
+ * A deferred buffer only records the figures, so that several pointers can be propagated on different threads
+ * without touching each other's figure managers; the recorded figures are inserted later by apply(),
+ * on the solver thread.
+ *
+ * The propagation computes a figure in the rectangle pres of the buffer before handing it over.
+ * For a direct buffer, pres is the temporary rectangle shared by all the pointers.
+ */
+public class FigureBuffer
+{
+	// The kinds of the recorded figures
+	private static final int POINTS_TO = 0;
+	private static final int FLOWS_TO = 1;
+	private static final int SIMPLE_CONSTRAINT_3 = 2;
+
+	// The rectangle the figures are computed in
+	public final RectangleNode pres;
+
+	private final boolean deferred;
+
+	// The recorded figures: the kind and the code, the receiving pointer, the object or the pointer it flows to, and the coordinates
+	private int size = 0;
+	private int kinds[] = new int[64];
+	private long coords[] = new long[64 * 4];
+	private final ArrayList<IVarAbstraction> owners = new ArrayList<IVarAbstraction>();
+	private final ArrayList<Object> targets = new ArrayList<Object>();
+
+	public FigureBuffer( boolean deferred )
+	{
+		this.deferred = deferred;
+		pres = deferred ? new RectangleNode() : IVarAbstraction.pres;
+	}
+
+	public boolean isDeferred()
+	{
+		return deferred;
+	}
+
+	/**
+	 * Add the points-to figure in pres to pn.
+	 * @return true if pn has new points-to information, always false for a deferred buffer
+	 */
+	public boolean addPointsTo( IVarAbstraction pn, int code, AllocNode obj )
+	{
+		if ( !deferred )
+			return pn.addPointsTo(code, obj);
+
+		record( POINTS_TO, code, pn, obj, pres.I1, pres.I2, pres.L, pres.L_prime );
+		return false;
+	}
+
+	/**
+	 * Add the flows-to figure in pres to the edge pn -> qv.
+	 * @return true if the edge has new figures, always false for a deferred buffer
+	 */
+	public boolean addFlowsTo( IVarAbstraction pn, int code, IVarAbstraction qv )
+	{
+		if ( !deferred )
+			return pn.addFlowsTo(code, qv);
+
+		record( FLOWS_TO, code, pn, qv, pres.I1, pres.I2, pres.L, pres.L_prime );
+		return false;
+	}
+
+	/**
+	 * The same as pn.add_simple_constraint_3(qv, I1, I2, L), deferred if the buffer is.
+	 */
+	public boolean add_simple_constraint_3( IVarAbstraction pn, IVarAbstraction qv, long I1, long I2, long L )
+	{
+		if ( !deferred )
+			return pn.add_simple_constraint_3(qv, I1, I2, L);
+
+		record( SIMPLE_CONSTRAINT_3, 0, pn, qv, I1, I2, L, 0 );
+		return false;
+	}
+
+	/**
+	 * Insert the recorded figures in the order they were recorded, and push the pointers that received new figures.
+	 * The buffer is empty afterwards.
+	 */
+	public void apply( IWorklist worklist )
+	{
+		RectangleNode shared = IVarAbstraction.pres;
+
+		for ( int i = 0, k = 0; i < size; ++i, k += 4 ) {
+			IVarAbstraction pn = owners.get(i);
+			Object target = targets.get(i);
+			int code = kinds[i] >> 8;
+			boolean added = false;
+
+			shared.I1 = coords[k];
+			shared.I2 = coords[k+1];
+			shared.L = coords[k+2];
+			shared.L_prime = coords[k+3];
+
+			switch ( kinds[i] & 255 ) {
+			case POINTS_TO:
+				added = pn.addPointsTo( code, (AllocNode)target );
+				break;
+
+			case FLOWS_TO:
+				added = pn.addFlowsTo( code, (IVarAbstraction)target );
+				break;
+
+			case SIMPLE_CONSTRAINT_3:
+				added = pn.add_simple_constraint_3( (IVarAbstraction)target, coords[k], coords[k+1], coords[k+2] );
+				break;
+			}
+
+			if ( added )
+				worklist.push( pn );
+		}
+
+		size = 0;
+		owners.clear();
+		targets.clear();
+	}
+
+	private void record( int kind, int code, IVarAbstraction pn, Object target, long I1, long I2, long L1, long L2 )
+	{
+		if ( size == kinds.length ) {
+			int newKinds[] = new int[size * 2];
+			long newCoords[] = new long[size * 2 * 4];
+			System.arraycopy(kinds, 0, newKinds, 0, size);
+			System.arraycopy(coords, 0, newCoords, 0, size * 4);
+			kinds = newKinds;
+			coords = newCoords;
+		}
+
+		int k = size * 4;
+		kinds[size] = (code << 8) | kind;
+		coords[k] = I1;
+		coords[k+1] = I2;
+		coords[k+2] = L1;
+		coords[k+3] = L2;
+		owners.add(pn);
+		targets.add(target);
+		++size;
+	}
+}
@@ -0,0 +1,174 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+package soot.jimple.spark.geom.geomPA;
+
+import java.util.ArrayList;
+
+/**
+ * Recycles the figures that the figure managers drop while the constraints are solved.
+ *
+ * A dropped figure may still be visited by the propagation that dropped it, e.g. when a
+ * pointer propagates to itself, so the figures dropped by a propagation are only handed
+ * out again after the solver calls release(), once that propagation is over.
+ * Outside the solver, figures are neither recycled nor remembered.
+ *
+ * The pool is only used by the thread that runs the solver.
+ */
+public class FigurePool
+{
+	// Is the solver running?
+	private static boolean enabled = false;
+
+	// Figures that can be handed out again, linked through their next fields
+	private static SegmentNode freeSegments = null;
+	private static RectangleNode freeRectangles = null;
+
+	// Figures dropped since the last release, which may still be visited
+	private static final ArrayList<SegmentNode> dropped = new ArrayList<SegmentNode>();
+
+	// Statistics
+	public static long n_allocated = 0, n_reused = 0;
+
+	/**
+	 * Starts recycling the dropped figures.
+	 */
+	public static void enable()
+	{
+		disable();
+		enabled = true;
+		n_allocated = n_reused = 0;
+	}
+
+	/**
+	 * Stops recycling and forgets all the figures kept for reuse.
+	 */
+	public static void disable()
+	{
+		enabled = false;
+		freeSegments = null;
+		freeRectangles = null;
+		dropped.clear();
+	}
+
+	/**
+	 * Makes the figures dropped so far available for reuse.
+	 * No propagation may be in progress.
+	 */
+	public static void release()
+	{
+		for ( SegmentNode p : dropped ) {
+			if ( p instanceof RectangleNode ) {
+				p.next = freeRectangles;
+				freeRectangles = (RectangleNode)p;
+			}
+			else {
+				p.next = freeSegments;
+				freeSegments = p;
+			}
+		}
+
+		dropped.clear();
+	}
+
+	/**
+	 * A new segment with the first three coordinates of other.
+	 */
+	public static SegmentNode newSegment( SegmentNode other )
+	{
+		SegmentNode p = newSegment();
+		p.I1 = other.I1;
+		p.I2 = other.I2;
+		p.L = other.L;
+		return p;
+	}
+
+	/**
+	 * A new segment, with undefined coordinates.
+	 */
+	public static SegmentNode newSegment()
+	{
+		SegmentNode p = freeSegments;
+
+		if ( p == null ) {
+			++n_allocated;
+			return new SegmentNode();
+		}
+
+		++n_reused;
+		freeSegments = p.next;
+		p.next = null;
+		p.is_new = true;
+		return p;
+	}
+
+	/**
+	 * A new rectangle with the coordinates of other.
+	 */
+	public static RectangleNode newRectangle( RectangleNode other )
+	{
+		RectangleNode p = newRectangle();
+		p.I1 = other.I1;
+		p.I2 = other.I2;
+		p.L = other.L;
+		p.L_prime = other.L_prime;
+		return p;
+	}
+
+	/**
+	 * A new rectangle, with undefined coordinates.
+	 */
+	public static RectangleNode newRectangle()
+	{
+		RectangleNode p = freeRectangles;
+
+		if ( p == null ) {
+			++n_allocated;
+			return new RectangleNode();
+		}
+
+		++n_reused;
+		freeRectangles = (RectangleNode)p.next;
+		p.next = null;
+		p.is_new = true;
+		return p;
+	}
+
+	/**
+	 * The figure p is no longer in any figure manager.
+	 */
+	public static void drop( SegmentNode p )
+	{
+		if ( enabled )
+			dropped.add(p);
+	}
+
+	/**
+	 * The figure p and the figures following it are no longer in any figure manager.
+	 */
+	public static void dropList( SegmentNode p )
+	{
+		if ( !enabled )
+			return;
+
+		while ( p != null ) {
+			dropped.add(p);
+			p = p.next;
+		}
+	}
+}
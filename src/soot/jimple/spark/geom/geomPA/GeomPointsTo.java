@@ -23,6 +23,7 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Deque;
 import java.util.HashMap;
@@ -33,11 +34,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
-import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import soot.AnySubType;
 import soot.ArrayType;
 import soot.Context;
+import soot.FastHierarchy;
 import soot.G;
 import soot.Local;
 import soot.MethodOrMethodContext;
@@ -118,6 +124,7 @@ public class GeomPointsTo extends PAG
 	public static int max_cons_budget = 40;
 	public static int max_pts_budget = 80;
 	public static int cg_refine_times = 1;
+	public static int n_threads = 1;
 	
 	// Worklist, the core data structure for fixed point computation
 	// Other choice, FIFO_Worklist
@@ -142,7 +149,7 @@ public class GeomPointsTo extends PAG
 	public ZArrayNumberer<IVarAbstraction> allocations = new ZArrayNumberer<IVarAbstraction>();
 	
 	// Store all the constraints, initially generated from SPARK
-	public Vector<PlainConstraint> constraints = new Vector<PlainConstraint>();
+	public ArrayList<PlainConstraint> constraints = new ArrayList<PlainConstraint>();
 	
 	// All the callsites that spawn a new thread
 	public Set<Stmt> thread_run_callsites = new HashSet<Stmt>();
@@ -163,6 +170,8 @@ public class GeomPointsTo extends PAG
 	public int max_scc_size, max_scc_id;
 	public int n_var, n_alloc_sites, n_func, n_calls;
 	public int n_reach_methods, n_reach_user_methods, n_reach_spark_user_methods;
+	public long n_fired_total;
+	private int max_worklist;
 	
 	// Output options
 	public String dump_file_name = null;
@@ -179,7 +188,7 @@ public class GeomPointsTo extends PAG
 	
 	// Call graph related components
 	protected CgEdge call_graph[];
-	protected Vector<CgEdge> obsoletedEdges = new Vector<CgEdge>();
+	protected ArrayList<CgEdge> obsoletedEdges = new ArrayList<CgEdge>();
 	protected Map<Integer, LinkedList<CgEdge>> rev_call_graph;
 	protected Deque<Integer> queue_cg = new LinkedList<Integer>();
 	
@@ -288,6 +297,7 @@ public class GeomPointsTo extends PAG
 		max_cons_budget = opts.geom_frac_base();
 		max_pts_budget = max_cons_budget * 2;
 		cg_refine_times = opts.geom_runs();
+		n_threads = opts.geom_threads() < 1 ? 1 : opts.geom_threads();
 		
 		// Prepare other stuffparametrize
 		consG.clear();
@@ -743,19 +753,142 @@ public class GeomPointsTo extends PAG
 	 */
 	private void solveConstraints() 
 	{
+		int n_fired;
+		Date begin = new Date();
+		
+		max_worklist = 0;
+		if ( n_threads > 1 )
+			n_fired = propagateInRounds();
+		else
+			n_fired = propagateOneByOne();
+		
+		Date end = new Date();
+		n_fired_total += n_fired;
+		
+		// Per round statistics, used to tune the worklist and the budgets
+		ps.printf("Solver [Stats] : %d pointers fired (%.2f per pointer), maximum worklist size = %d, %.3fs \n",
+				n_fired, n_var == 0 ? 0.0 : (double)n_fired / n_var, max_worklist, 
+				(double)(end.getTime() - begin.getTime()) / 1000 );
+	}
+	
+	/**
+	 * The sequential solver: the pointers are propagated one at a time, in the worklist order.
+	 * @return the number of propagated pointers
+	 */
+	private int propagateOneByOne()
+	{
+		int n_fired = 0;
+		FigureBuffer buffer = new FigureBuffer(false);
+		
 		while (worklist.has_job()) {
+			int size = worklist.size();
+			if ( size > max_worklist ) max_worklist = size;
+			
 			IVarAbstraction pn = worklist.next();
-//			ps.printf( " pointer %d has %d new points-to tuple\n", pn.id, pn.count_new_pts_intervals() );
-//			debug_context_sensitive_objects(pn);
 			pn.do_before_propagation();
-//			ps.println( "------finish preprocess");
-//			if ( pn.id == 716 )
-//				System.err.println();
-			pn.propagate(this, worklist);
-//			ps.println( "------finish propagtion");
+			pn.propagate(this, worklist, buffer);
 			pn.do_after_propagation();
-//			ps.println( "------finish postprocess");
+			
+			// The propagation is over, nobody visits the dropped figures any more
+			FigurePool.release();
+			++n_fired;
 		}
+		
+		return n_fired;
+	}
+	
+	/**
+	 * The parallel solver.
+	 * In each round, all the pointers in the worklist are propagated on n_threads threads.
+	 * The new figures are recorded in a buffer per thread and inserted after all the propagations are done,
+	 * so that no figure manager is written while it is read.
+	 * Since the buffers are applied in the worklist order, the result does not depend on the thread scheduling.
+	 * @return the number of propagated pointers
+	 */
+	private int propagateInRounds()
+	{
+		int n_fired = 0;
+		final ArrayList<IVarAbstraction> frontier = new ArrayList<IVarAbstraction>();
+		final FigureBuffer buffers[] = new FigureBuffer[n_threads];
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(n_threads);
+		
+		for ( int i = 0; i < n_threads; ++i ) {
+			final FigureBuffer buffer = buffers[i] = new FigureBuffer(true);
+			final int part = i;
+			
+			tasks.add( new Callable<Object>() {
+				public Object call() {
+					// Each thread takes a contiguous slice of the frontier
+					int size = frontier.size();
+					int start = (int)((long)size * part / n_threads);
+					int end = (int)((long)size * (part + 1) / n_threads);
+					
+					for ( int j = start; j < end; ++j )
+						frontier.get(j).propagate(GeomPointsTo.this, worklist, buffer);
+					return null;
+				}
+			});
+		}
+		
+		prepareParallelTypeTests();
+		ExecutorService executor = Executors.newFixedThreadPool(n_threads);
+		
+		try {
+			while (worklist.has_job()) {
+				frontier.clear();
+				while (worklist.has_job())
+					frontier.add(worklist.next());
+				if ( frontier.size() > max_worklist ) max_worklist = frontier.size();
+				
+				for ( IVarAbstraction pn : frontier )
+					pn.do_before_propagation();
+				
+				try {
+					for ( Future<Object> f : executor.invokeAll(tasks) )
+						f.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RuntimeException("Geometric propagation interrupted", e);
+				} catch (ExecutionException e) {
+					if ( e.getCause() instanceof RuntimeException )
+						throw (RuntimeException)e.getCause();
+					throw new RuntimeException(e.getCause());
+				}
+				
+				for ( IVarAbstraction pn : frontier )
+					pn.do_after_propagation();
+				
+				for ( FigureBuffer buffer : buffers )
+					buffer.apply(worklist);
+				
+				FigurePool.release();
+				n_fired += frontier.size();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		
+		return n_fired;
+	}
+	
+	/**
+	 * The type tests in castNeverFails lazily cache the implementers of the interfaces in the hierarchy.
+	 * We fill these caches up front, so that the tests only read shared data when they run on several threads.
+	 */
+	private void prepareParallelTypeTests()
+	{
+		FastHierarchy fh = typeManager.getFastHierarchy();
+		if ( fh == null ) return;
+		
+		for ( SootClass sc : Scene.v().getClasses() ) {
+			if ( sc.isInterface() && sc.resolvingLevel() >= SootClass.HIERARCHY )
+				fh.getAllImplementersOfInterface(sc);
+		}
+		
+		// The array types are tested against these classes
+		RefType.v( "java.lang.Object" );
+		RefType.v( "java.io.Serializable" );
+		RefType.v( "java.lang.Cloneable" );
 	}
 	
 	private int updateCallGraph() 
@@ -1018,7 +1151,9 @@ public class GeomPointsTo extends PAG
 		// Collect the basic information from SPARK
 		Set<VarNode> basePointers = preprocess();
 		worklist.initialize(n_var);
+		n_fired_total = 0;
 		offlineProcessor = new OfflineProcessor(n_var, this);
+		FigurePool.enable();
 		
 		for ( rounds = 0; rounds < cg_refine_times; ++rounds ) {
 
@@ -1053,6 +1188,7 @@ public class GeomPointsTo extends PAG
 
 		if ( rounds < cg_refine_times )
 			ps.printf( "\nSorry, it's not necessary to iterate more times. We stop here.\n" );
+		FigurePool.disable();
 		
 		Date end = new Date();
 		solve_time += end.getTime() - begin.getTime();
@@ -1062,6 +1198,8 @@ public class GeomPointsTo extends PAG
 		ps.printf("Preprocess [Time] : %.3fs \n", (double) prepare_time / 1000);
 		ps.printf("Geometric [Time] : %.3fs \n", (double) solve_time / 1000 );
 		ps.printf("Geometric [Memory] : %.3fMB \n", (double) (mem) / 1024 / 1024 );
+		ps.printf("Geometric [Fired] : %d \n", n_fired_total );
+		ps.printf("Geometric [Figures] : %d allocated, %d reused \n", FigurePool.n_allocated, FigurePool.n_reused );
 		
 		// Prepare for use in various of clients
 		postProcess();
@@ -1270,7 +1408,10 @@ public class GeomPointsTo extends PAG
 		return worklist;
 	}
 	
-	public IVarAbstraction findAndInsertInstanceField(AllocNode obj, SparkField field) 
+	/**
+	 * Synchronized because the pointers may be propagated on several threads (see geom-threads).
+	 */
+	public synchronized IVarAbstraction findAndInsertInstanceField(AllocNode obj, SparkField field) 
 	{
 		AllocDotField af = findAllocDotField(obj, field);
 		if ( af == null ) {
@@ -25,6 +25,7 @@ import java.util.Vector;
 import soot.Type;
 import soot.jimple.spark.geom.geomE.GeometricManager;
 import soot.jimple.spark.geom.geomPA.CallsiteContextVar;
+import soot.jimple.spark.geom.geomPA.FigureBuffer;
 import soot.jimple.spark.geom.geomPA.GeomPointsTo;
 import soot.jimple.spark.geom.geomPA.IFigureManager;
 import soot.jimple.spark.geom.geomPA.IVarAbstraction;
@@ -125,7 +126,11 @@ public abstract class IVarAbstraction implements Numberable {
 	// Points-to analysis core components
 	public abstract void do_before_propagation();
 	public abstract void do_after_propagation();
-	public abstract void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist);
+	public abstract void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist, FigureBuffer buffer);
+	
+	// Insert the figure held in pres, used by FigureBuffer
+	protected abstract boolean addPointsTo( int code, AllocNode obj );
+	protected abstract boolean addFlowsTo( int code, IVarAbstraction qv );
 	
 	// Points-to post-processing
 	public abstract void drop_duplicates();
@@ -18,6 +18,7 @@
  */
 package soot.jimple.spark.geom.heapinsE;
 
+import soot.jimple.spark.geom.geomPA.FigurePool;
 import soot.jimple.spark.geom.geomPA.GeomPointsTo;
 import soot.jimple.spark.geom.geomPA.SegmentNode;
 import soot.jimple.spark.geom.geomPA.IFigureManager;
@@ -112,12 +113,13 @@ public class HeapInsIntervalManager implements IFigureManager {
 					header[ALL_TO_MANY].I2 == 0 )
 				return null;
 			
-			p = new SegmentNode();
+			p = FigurePool.newSegment();
 			
 			code = ALL_TO_MANY;
 			p.I1 = p.I2 = 0;
 			p.L = GeomPointsTo.MAX_CONTEXTS;
 			for ( int i = 0; i < Divisions; ++i ) {
+				FigurePool.dropList(header[i]);
 				size[i] = 0;
 				header[i] = null;
 			}
@@ -161,7 +163,7 @@ public class HeapInsIntervalManager implements IFigureManager {
 			}
 	
 			// Insert the new interval immediately, and we delay the merging until necessary
-			p = new SegmentNode( pnew );
+			p = FigurePool.newSegment( pnew );
 			
 			if ( code == ALL_TO_MANY )
 				clean_garbage_all_to_many(p);
@@ -248,6 +250,8 @@ public class HeapInsIntervalManager implements IFigureManager {
 				q = p;
 				++size[ONE_TO_ONE];
 			}
+			else
+				FigurePool.drop(p);
 			p = temp;
 		}
 		
@@ -278,6 +282,7 @@ public class HeapInsIntervalManager implements IFigureManager {
 		mp.I1 = 0;
 		mp.I2 = left;
 		mp.L = right - left;
+		FigurePool.dropList(mp.next);
 		mp.next = null;
 
 		return mp;
@@ -305,6 +310,7 @@ public class HeapInsIntervalManager implements IFigureManager {
 		mp.I1 = left;
 		mp.I2 = 0;
 		mp.L = right - left;
+		FigurePool.dropList(mp.next);
 		mp.next = null;
 		
 		return mp;
@@ -335,6 +341,7 @@ public class HeapInsIntervalManager implements IFigureManager {
 					}
 					// else, this figure is completely contained in predator, we swallow it
 					
+					FigurePool.drop(list);
 					list = list.next;
 					continue;
 				}
@@ -342,6 +349,7 @@ public class HeapInsIntervalManager implements IFigureManager {
 			} else if (list.I1 + list.L >= left) {
 				// We extend predator to the left
 				left = list.I1;
+				FigurePool.drop(list);
 				list = list.next;
 				continue;
 			}
@@ -389,12 +397,14 @@ public class HeapInsIntervalManager implements IFigureManager {
 						right = list.I2 + list.L;
 					}
 
+					FigurePool.drop(list);
 					list = list.next;
 					continue;
 				}
 			} else if (list.I2 + list.L >= left) {
 				// We extend predator to the left
 				left = list.I2;
+				FigurePool.drop(list);
 				list = list.next;
 				continue;
 			}
@@ -440,7 +450,7 @@ public class HeapInsIntervalManager implements IFigureManager {
 					(predator.I1 + predator.L >= list.I2 + L) )
 				// The checked figure is completely contained in the predator
 				// So we ignore it
-				;
+				FigurePool.drop(list);
 			else { 
 				if ( q == null ) {
 					p = q = list;
@@ -20,6 +20,7 @@ package soot.jimple.spark.geom.heapinsE;
 //import gnu.trove.THashSet;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -33,6 +34,7 @@ import soot.SootClass;
 import soot.SootMethod;
 import soot.Type;
 import soot.jimple.spark.geom.geomPA.CallsiteContextVar;
+import soot.jimple.spark.geom.geomPA.FigureBuffer;
 import soot.jimple.spark.geom.geomPA.GeomPointsTo;
 import soot.jimple.spark.geom.geomPA.IVarAbstraction;
 import soot.jimple.spark.geom.geomPA.IWorklist;
@@ -68,7 +70,7 @@ public class HeapInsNode extends IVarAbstraction
 	public Map<AllocNode, HeapInsIntervalManager> new_pts;
 	
 	// store/load complex constraints
-	public Vector<PlainConstraint> complex_cons = null;
+	public ArrayList<PlainConstraint> complex_cons = null;
 	
 	static {
 		stubManager = new HeapInsIntervalManager();
@@ -215,7 +217,7 @@ public class HeapInsNode extends IVarAbstraction
 	public void put_complex_constraint(PlainConstraint cons) 
 	{
 		if ( complex_cons == null )
-			complex_cons = new Vector<PlainConstraint>();
+			complex_cons = new ArrayList<PlainConstraint>();
 		complex_cons.add( cons );
 	}
 
@@ -234,7 +236,7 @@ public class HeapInsNode extends IVarAbstraction
 	 * An efficient implementation of differential propagation.
 	 */
 	@Override
-	public void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist) 
+	public void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist, FigureBuffer buffer) 
 	{
 		int i, j;
 		AllocNode obj;
@@ -269,7 +271,7 @@ public class HeapInsNode extends IVarAbstraction
 							case GeomPointsTo.STORE_CONS:
 								// Store, qv -> pv.field
 								// pts.I2 may be zero, pts.L may be less than zero
-								if ( qn.add_simple_constraint_3( objn,
+								if ( buffer.add_simple_constraint_3( qn, objn,
 										pcons.code == IEncodingBroker.ONE_TO_ONE ? pts.I1 : 0,
 										pts.I2,
 										pts.L < 0  ? -pts.L : pts.L
@@ -279,7 +281,7 @@ public class HeapInsNode extends IVarAbstraction
 								
 							case GeomPointsTo.LOAD_CONS:
 								// Load, pv.field -> qv
-								if ( objn.add_simple_constraint_3( qn, 
+								if ( buffer.add_simple_constraint_3( objn, qn, 
 										pts.I2, 
 										pcons.code == IEncodingBroker.ONE_TO_ONE ? pts.I1 : 0,
 										pts.L < 0 ? -pts.L : pts.L
@@ -333,7 +335,7 @@ public class HeapInsNode extends IVarAbstraction
 							while ( pe != null ) {
 								if ( pts.is_new || pe.is_new ) {
 									// Propagate this object
-									if ( add_new_points_to_tuple(pts, pe, obj, qn) )
+									if ( add_new_points_to_tuple(pts, pe, obj, qn, buffer) )
 										added = true;
 								}
 								else
@@ -699,7 +701,8 @@ public class HeapInsNode extends IVarAbstraction
 		}
 	}
 	
-	private boolean addPointsTo( int code, AllocNode obj )
+	@Override
+	protected boolean addPointsTo( int code, AllocNode obj )
 	{
 		HeapInsIntervalManager im = pt_objs.get(obj);
 		
@@ -721,13 +724,14 @@ public class HeapInsNode extends IVarAbstraction
 		return false;
 	}
 	
-	private boolean addFlowsTo( int code, HeapInsNode qv )
+	@Override
+	protected boolean addFlowsTo( int code, IVarAbstraction qv )
 	{
 		HeapInsIntervalManager im = flowto.get(qv);
 		
 		if ( im == null ) {
 			im = new HeapInsIntervalManager();
-			flowto.put(qv, im);
+			flowto.put((HeapInsNode)qv, im);
 		}
 		
 		// pres has been filled properly before calling this method
@@ -736,10 +740,11 @@ public class HeapInsNode extends IVarAbstraction
 	
 	// Apply the inference rules
 	private boolean add_new_points_to_tuple( SegmentNode pts, SegmentNode pe, 
-			AllocNode obj, HeapInsNode qn )
+			AllocNode obj, HeapInsNode qn, FigureBuffer buffer )
 	{
 		long interI, interJ;
 		int code = 0;
+		RectangleNode pres = buffer.pres;
 		
 		// Special Cases
 		if (pts.I1 == 0 || pe.I1 == 0) {
@@ -778,7 +783,7 @@ public class HeapInsNode extends IVarAbstraction
 				code = ( pres.I2 == 0 ? HeapInsIntervalManager.MANY_TO_ALL : HeapInsIntervalManager.ONE_TO_ONE );
 		}
 		
-		return qn.addPointsTo( code, obj );
+		return buffer.addPointsTo( qn, code, obj );
 	}
 	
 	// We only test if their points-to objects intersected under context
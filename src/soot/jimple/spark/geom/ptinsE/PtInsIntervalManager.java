@@ -18,6 +18,7 @@
  */
 package soot.jimple.spark.geom.ptinsE;
 
+import soot.jimple.spark.geom.geomPA.FigurePool;
 import soot.jimple.spark.geom.geomPA.GeomPointsTo;
 import soot.jimple.spark.geom.geomPA.SegmentNode;
 import soot.jimple.spark.geom.geomPA.IFigureManager;
@@ -79,11 +80,12 @@ public class PtInsIntervalManager implements IFigureManager
 			if ( header[0] != null && header[0].I2 == 0 )
 				return null;
 			
-			p = new SegmentNode();
+			p = FigurePool.newSegment();
 			
 			p.I1 = p.I2 = 0;
 			p.L = GeomPointsTo.MAX_CONTEXTS;
 			for ( int i = 0; i < Divisions; ++i ) {
+				FigurePool.dropList(header[i]);
 				size[i] = 0;
 				header[i] = null;
 			}
@@ -124,7 +126,7 @@ public class PtInsIntervalManager implements IFigureManager
 			}
 			
 			// Insert the new interval immediately, and we delay the merging until necessary
-			p = new SegmentNode(pnew);
+			p = FigurePool.newSegment(pnew);
 			
 			if ( code == ALL_TO_MANY )
 				clean_garbage_all_to_many(p);
@@ -202,6 +204,8 @@ public class PtInsIntervalManager implements IFigureManager
 				q = p;
 				++size[ONE_TO_ONE];
 			}
+			else
+				FigurePool.drop(p);
 			p = temp;
 		}
 		
@@ -231,6 +235,7 @@ public class PtInsIntervalManager implements IFigureManager
 		mp.I1 = 0;
 		mp.I2 = left;
 		mp.L = right - left;
+		FigurePool.dropList(mp.next);
 		mp.next = null;
 
 		return mp;
@@ -258,6 +263,7 @@ public class PtInsIntervalManager implements IFigureManager
 		mp.I1 = left;
 		mp.I2 = 0;
 		mp.L = right - left;
+		FigurePool.dropList(mp.next);
 		mp.next = null;
 		
 		return mp;
@@ -285,12 +291,14 @@ public class PtInsIntervalManager implements IFigureManager
 						right = list.I1 + list.L;
 					}
 					
+					FigurePool.drop(list);
 					list = list.next;
 					continue;
 				}
 			} else if (list.I1 + list.L >= left) {
 				// We extend mp to the left
 				left = list.I1;
+				FigurePool.drop(list);
 				list = list.next;
 				continue;
 			}
@@ -337,12 +345,14 @@ public class PtInsIntervalManager implements IFigureManager
 						right = list.I2 + list.L;
 					}
 
+					FigurePool.drop(list);
 					list = list.next;
 					continue;
 				}
 			} else if (list.I2 + list.L >= left) {
 				// We extend mp to the left
 				left = list.I2;
+				FigurePool.drop(list);
 				list = list.next;
 				continue;
 			}
@@ -388,7 +398,7 @@ public class PtInsIntervalManager implements IFigureManager
 					(predator.I1 + predator.L >= list.I2 + L) )
 				// The checked figure is completely contained in the predator
 				// So we ignore it
-				;
+				FigurePool.drop(list);
 			else { 
 				if ( q == null ) {
 					p = q = list;
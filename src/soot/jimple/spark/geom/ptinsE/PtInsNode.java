@@ -19,6 +19,7 @@
 package soot.jimple.spark.geom.ptinsE;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -31,6 +32,7 @@ import soot.SootClass;
 import soot.SootMethod;
 import soot.Type;
 import soot.jimple.spark.geom.geomPA.CallsiteContextVar;
+import soot.jimple.spark.geom.geomPA.FigureBuffer;
 import soot.jimple.spark.geom.geomPA.GeomPointsTo;
 import soot.jimple.spark.geom.geomPA.IEncodingBroker;
 import soot.jimple.spark.geom.geomPA.IVarAbstraction;
@@ -68,7 +70,7 @@ public class PtInsNode extends IVarAbstraction
 	public Map<AllocNode, PtInsIntervalManager> new_pts;
 
 	// store/load complex constraints
-	public Vector<PlainConstraint> complex_cons = null;
+	public ArrayList<PlainConstraint> complex_cons = null;
 
 	static {
 		stubManager = new PtInsIntervalManager();
@@ -216,7 +218,7 @@ public class PtInsNode extends IVarAbstraction
 	public void put_complex_constraint(PlainConstraint cons) 
 	{
 		if ( complex_cons == null )
-			complex_cons = new Vector<PlainConstraint>();
+			complex_cons = new ArrayList<PlainConstraint>();
 		complex_cons.add( cons );
 	}
 
@@ -236,7 +238,7 @@ public class PtInsNode extends IVarAbstraction
 	 * An efficient implementation of differential propagation.
 	 */
 	@Override
-	public void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist) 
+	public void propagate(GeomPointsTo ptAnalyzer, IWorklist worklist, FigureBuffer buffer) 
 	{
 		int i, j;
 		AllocNode obj;
@@ -271,7 +273,7 @@ public class PtInsNode extends IVarAbstraction
 							case GeomPointsTo.STORE_CONS:
 								// Store, qv -> pv.field
 								// pts.I2 may be zero, pts.L may be less than zero
-								if ( qn.add_simple_constraint_3( objn,
+								if ( buffer.add_simple_constraint_3( qn, objn,
 										pcons.code == IEncodingBroker.ONE_TO_ONE ? pts.I1 : 0,
 										pts.I2,
 										pts.L
@@ -281,7 +283,7 @@ public class PtInsNode extends IVarAbstraction
 								
 							case GeomPointsTo.LOAD_CONS:
 								// Load, pv.field -> qv
-								if ( objn.add_simple_constraint_3( qn, 
+								if ( buffer.add_simple_constraint_3( objn, qn, 
 										pts.I2, 
 										pcons.code == IEncodingBroker.ONE_TO_ONE ? pts.I1 : 0,
 										pts.L
@@ -332,7 +334,7 @@ public class PtInsNode extends IVarAbstraction
 							while ( pe != null ) {
 								if ( pts.is_new || pe.is_new ) {
 									// Propagate this object
-									if ( add_new_points_to_tuple(pts, pe, obj, qn) )
+									if ( add_new_points_to_tuple(pts, pe, obj, qn, buffer) )
 										added = true;
 								}
 								else
@@ -704,7 +706,8 @@ public class PtInsNode extends IVarAbstraction
 		}
 	}
 	
-	private boolean addPointsTo( int code, AllocNode obj )
+	@Override
+	protected boolean addPointsTo( int code, AllocNode obj )
 	{
 		PtInsIntervalManager im = pt_objs.get(obj);
 		
@@ -726,13 +729,14 @@ public class PtInsNode extends IVarAbstraction
 		return false;
 	}
 	
-	private boolean addFlowsTo( int code, PtInsNode qv )
+	@Override
+	protected boolean addFlowsTo( int code, IVarAbstraction qv )
 	{
 		PtInsIntervalManager im = flowto.get(qv);
 		
 		if ( im == null ) {
 			im = new PtInsIntervalManager();
-			flowto.put(qv, im);
+			flowto.put((PtInsNode)qv, im);
 		}
 		
 		// pres has been filled properly before calling this method
@@ -741,10 +745,11 @@ public class PtInsNode extends IVarAbstraction
 	
 	// Implement the pointer assignment inference rules
 	private boolean add_new_points_to_tuple( SegmentNode pts, SegmentNode pe, 
-			AllocNode obj, PtInsNode qn )
+			AllocNode obj, PtInsNode qn, FigureBuffer buffer )
 	{
 		long interI, interJ;
 		int code = 0;
+		RectangleNode pres = buffer.pres;
 
 		// Special Cases
 		if (pts.I1 == 0 || pe.I1 == 0) {
@@ -769,7 +774,7 @@ public class PtInsNode extends IVarAbstraction
 			code = (pres.I2 == 0 ? PtInsIntervalManager.MANY_TO_ALL : PtInsIntervalManager.ONE_TO_ONE );
 		}
 		
-		return qn.addPointsTo(code, obj);
+		return buffer.addPointsTo( qn, code, obj );
 	}
 	
 	// We only test if their points-to objects intersected under context
@@ -38,6 +38,10 @@ import soot.Type;
  * of each interface is achieved by ORing the type-masks of its top-level
  * concrete implementers. In fact, Reference types are visited in
  * reversed-topological-order.
+ *
+ * The mask of a type is built the first time it is asked for, since
+ * only the declared types of nodes that filter their points-to sets
+ * need one. Types whose masks are equal share one bit-vector.
  */
 public final class TypeManager {
     private Map<SootClass, List<AllocNode>> class2allocs = 
@@ -62,78 +66,128 @@ public final class TypeManager {
         if( type == null ) return null;
         while(allocNodeListener.hasNext()) {
             AllocNode n = (AllocNode) allocNodeListener.next();
-            for( Iterator tIt = Scene.v().getTypeNumberer().iterator(); tIt.hasNext(); ) {
-                final Type t = (Type) tIt.next();
-                if( !(t instanceof RefLikeType) ) continue;
-                if( t instanceof AnySubType ) continue;
-                if( isUnresolved(t) ) continue;
-                if( castNeverFails( n.getType(), t ) ) {
-                    BitVector mask = (BitVector) typeMask.get( t );
-                    if( mask == null ) {
-                        typeMask.put( t, mask = new BitVector() );
-                        for( Iterator anIt = pag.getAllocNodeNumberer().iterator(); anIt.hasNext(); ) {
-                            final AllocNode an = (AllocNode) anIt.next();
-                            if( castNeverFails( an.getType(), t ) ) {
-                                mask.set( an.getNumber() );
-                            }
-                        }
-                        continue;
-                    }
-                    mask.set( n.getNumber() );
-                }
-            }
+            addAllocNode( n );
+            updateTypeMasks( n );
         }
         BitVector ret = (BitVector) typeMask.get( type );
-        if( ret == null && fh != null ) throw new RuntimeException( "oops"+type );
+        if( ret == null && fh != null ) {
+            if( !hasTypeMask( type ) ) throw new RuntimeException( "oops"+type );
+            ret = share( makeTypeMask( type ) );
+            typeMask.put( type, ret );
+            maskedTypes.add( type );
+        }
         return ret;
     }
     final public void clearTypeMask() {
         typeMask = null;
+        maskedTypes = null;
+        sharedMasks = null;
+        maskUsers = null;
     }
+    /** Prepares the type masks, which are then built by get() for each type
+     * the first time it is asked for. */
     final public void makeTypeMask() {
-        RefType.v( "java.lang.Class" );
         typeMask = new LargeNumberedMap( Scene.v().getTypeNumberer() );
+        maskedTypes = new ArrayList<Type>();
+        sharedMasks = new HashMap<BitVector, BitVector>();
+        maskUsers = new IdentityHashMap<BitVector, Integer>();
         if( fh == null ) return;
 
         int numTypes = Scene.v().getTypeNumberer().size();
         if( pag.getOpts().verbose() )
             G.v().out.println( "Total types: "+numTypes );
-        // **
+        class2allocs.clear();
+        anySubtypeAllocs.clear();
         initClass2allocs();
-        makeClassTypeMask(Scene.v().getSootClass("java.lang.Object"));
-        // **
+        allocNodeListener = pag.allocNodeListener();
+    }
+
+    /** Returns the number of type masks built, and the number of distinct
+     * masks among them. */
+    public int numTypeMasks() { return maskedTypes == null ? 0 : maskedTypes.size(); }
+    public int numDistinctTypeMasks() { return maskUsers == null ? 0 : maskUsers.size(); }
+
+    private static boolean hasTypeMask( Type t ) {
+        return t instanceof RefLikeType && !(t instanceof AnySubType) && !isUnresolved(t);
+    }
+
+    private BitVector makeTypeMask( Type t ) {
+        if (t instanceof RefType && !t.equals(RefType.v("java.lang.Object"))
+                && !t.equals(RefType.v("java.io.Serializable"))
+                && !t.equals(RefType.v("java.lang.Cloneable"))) {
+            SootClass sc = ((RefType)t).getSootClass();
+            if (sc.isInterface()) return makeMaskOfInterface(sc);
+            return makeClassTypeMask(sc);
+        }
         ArrayNumberer allocNodes = pag.getAllocNodeNumberer();
-        for( Iterator tIt = Scene.v().getTypeNumberer().iterator(); tIt.hasNext(); ) {
-            final Type t = (Type) tIt.next();
-            if( !(t instanceof RefLikeType) ) continue;
-            if( t instanceof AnySubType ) continue;
-            if( isUnresolved(t) ) continue;
-            // **
-            if (t instanceof RefType && !t.equals(RefType.v("java.lang.Object"))
-                    && !t.equals(RefType.v("java.io.Serializable"))
-                    && !t.equals(RefType.v("java.lang.Cloneable"))) {
-                
-                SootClass sc = ((RefType)t).getSootClass();
-                if (sc.isInterface()) {
-                    makeMaskOfInterface(sc);
-                }
+        BitVector mask = new BitVector( allocNodes.size() );
+        for( Iterator nIt = allocNodes.iterator(); nIt.hasNext(); ) {
+            final Node n = (Node) nIt.next();
+            if( castNeverFails( n.getType(), t ) ) {
+                mask.set( n.getNumber() );
+            }
+        }
+        return mask;
+    }
+
+    /** Adds the new allocation node n to the masks already built. Types
+     * whose masks are shared but that disagree on n get separate masks. */
+    private void updateTypeMasks( AllocNode n ) {
+        Map<BitVector, List<Type>> accepting = new IdentityHashMap<BitVector, List<Type>>();
+        for( Type t : maskedTypes ) {
+            if( !castNeverFails( n.getType(), t ) ) continue;
+            BitVector mask = (BitVector) typeMask.get( t );
+            List<Type> types = accepting.get( mask );
+            if( types == null ) accepting.put( mask, types = new ArrayList<Type>() );
+            types.add( t );
+        }
+        for( Map.Entry<BitVector, List<Type>> e : accepting.entrySet() ) {
+            BitVector mask = e.getKey();
+            List<Type> types = e.getValue();
+            if( types.size() == maskUsers.get( mask ).intValue() ) {
+                // all types of this mask accept n, so update it in place
+                if( sharedMasks.get( mask ) == mask ) sharedMasks.remove( mask );
+                mask.set( n.getNumber() );
+                if( !sharedMasks.containsKey( mask ) ) sharedMasks.put( mask, mask );
                 continue;
             }
-            // **
-            BitVector mask = new BitVector( allocNodes.size() );
-            for( Iterator nIt = allocNodes.iterator(); nIt.hasNext(); ) {
-                final Node n = (Node) nIt.next();
-                if( castNeverFails( n.getType(), t ) ) {
-                    mask.set( n.getNumber() );
-                }
+            BitVector newMask = new BitVector( mask );
+            newMask.set( n.getNumber() );
+            for( Type t : types ) {
+                release( mask );
+                typeMask.put( t, share( newMask ) );
             }
-            typeMask.put( t, mask );
         }
+    }
 
-        allocNodeListener = pag.allocNodeListener();
+    /** Returns the mask equal to mask that is already used by some type,
+     * or mask itself, counting one more user for it. */
+    private BitVector share( BitVector mask ) {
+        BitVector ret = sharedMasks.get( mask );
+        if( ret == null ) sharedMasks.put( mask, ret = mask );
+        Integer users = maskUsers.get( ret );
+        maskUsers.put( ret, new Integer( users == null ? 1 : users.intValue() + 1 ) );
+        return ret;
+    }
+
+    private void release( BitVector mask ) {
+        int users = maskUsers.get( mask ).intValue() - 1;
+        if( users > 0 ) {
+            maskUsers.put( mask, new Integer( users ) );
+            return;
+        }
+        maskUsers.remove( mask );
+        if( sharedMasks.get( mask ) == mask ) sharedMasks.remove( mask );
     }
 
     private LargeNumberedMap typeMask = null;
+    /** The types that have a mask, in the order the masks were built. */
+    private List<Type> maskedTypes = null;
+    /** The masks in use, by their contents, so that types whose masks are
+     * equal share one. */
+    private Map<BitVector, BitVector> sharedMasks = null;
+    /** The number of types using each mask. */
+    private Map<BitVector, Integer> maskUsers = null;
     final public boolean castNeverFails( Type src, Type dst ) {
         if( fh == null ) return true;
         if( dst == null ) return true;
@@ -178,34 +232,14 @@ public final class TypeManager {
         });
     }
 
+    /** Returns the mask of the allocation nodes of clazz and its subclasses. */
     final private BitVector makeClassTypeMask(SootClass clazz) {
-        int nBits = pag.getAllocNodeNumberer().size();
-        final BitVector mask = new BitVector(nBits);
-        
-        List<AllocNode> allocs = null;
-        if (clazz.isConcrete()) {
-            allocs = class2allocs.get(clazz);
-        }
-        if (allocs != null){
-            for (AllocNode an : allocs) {
-                mask.set(an.getNumber());
-            }
-        }
-
-        Collection<SootClass> subclasses = fh.getSubclassesOf(clazz);
-        if (subclasses == Collections.EMPTY_LIST) {
+        BitVector mask = new BitVector(pag.getAllocNodeNumberer().size());
+        if (addSubclassAllocs(clazz, mask, new HashSet<SootClass>())) {
             for (AllocNode an : anySubtypeAllocs) {
                 mask.set(an.getNumber());
             }
-            typeMask.put(clazz.getType(), mask);
-            return mask;
-        }
-        
-        for (SootClass subcl : subclasses) {
-            mask.or(makeClassTypeMask(subcl));
         }
-        
-        typeMask.put(clazz.getType(), mask);
         return mask;
     }
     
@@ -213,21 +247,49 @@ public final class TypeManager {
         if (!(interf.isInterface())) throw new RuntimeException();
         
         BitVector ret = new BitVector(pag.getAllocNodeNumberer().size());
-        typeMask.put(interf.getType(), ret);
         Collection<SootClass> implementers = fh.getAllImplementersOfInterface(interf);
-            
+        
+        boolean anySubtype = false;
+        Set<SootClass> done = new HashSet<SootClass>();
         for (SootClass impl : implementers) {
-            BitVector other = (BitVector)typeMask.get(impl.getType());
-            if (other == null) throw new RuntimeException(impl.toString());
-            ret.or(other);          
+            anySubtype |= addSubclassAllocs(impl, ret, done);
         }
         // I think, the following can be eliminated. It is added to make
         // type-masks exactly the same as the original type-masks
-        if (implementers.size() == 0) {
+        if (anySubtype || implementers.size() == 0) {
             for (AllocNode an : anySubtypeAllocs) ret.set(an.getNumber());
         }
         return ret;
     }
     
+    /** Sets the bits of the allocation nodes of the concrete classes among
+     * clazz and its subclasses that are not in done yet, and adds them to
+     * done. Returns whether one of them has no subclasses; the masks of
+     * such classes include the allocation nodes of AnySubType. */
+    final private boolean addSubclassAllocs(SootClass clazz, BitVector mask, Set<SootClass> done) {
+        boolean leaf = false;
+        List<SootClass> worklist = new ArrayList<SootClass>();
+        worklist.add(clazz);
+        while (!worklist.isEmpty()) {
+            SootClass cl = worklist.remove(worklist.size() - 1);
+            if (!done.add(cl)) continue;
+            if (cl.isConcrete()) {
+                List<AllocNode> allocs = class2allocs.get(cl);
+                if (allocs != null) {
+                    for (AllocNode an : allocs) {
+                        mask.set(an.getNumber());
+                    }
+                }
+            }
+            Collection<SootClass> subclasses = fh.getSubclassesOf(cl);
+            if (subclasses == Collections.EMPTY_LIST) {
+                leaf = true;
+                continue;
+            }
+            worklist.addAll(subclasses);
+        }
+        return leaf;
+    }
+    
 }
 
@@ -40,7 +40,7 @@ public final class BitPointsToSet extends PointsToSetInternal {
 
     private final boolean superAddAll( PointsToSetInternal other, PointsToSetInternal exclude ) {
         boolean ret = super.addAll( other, exclude );
-        if( ret ) empty = false;
+        if( ret ) changed();
         return ret;
     }
 
@@ -53,7 +53,7 @@ public final class BitPointsToSet extends PointsToSetInternal {
         BitVector obits = other.bits;
         BitVector ebits = ( exclude==null ? null : exclude.bits );
         boolean ret = bits.orAndAndNot( obits, mask, ebits );
-        if( ret ) empty = false;
+        if( ret ) changed();
         return ret;
     }
 
@@ -85,6 +85,33 @@ public final class BitPointsToSet extends PointsToSetInternal {
     public final boolean contains( Node n ) {
         return bits.get( n.getNumber() );
     }
+    /** Returns set of newly-added nodes since last call to flushNew. Until
+     * flushNew is first called, all nodes are new. */
+    public final PointsToSetInternal getNewSet() {
+        if( oldBits == null ) return this;
+        if( newSet == null ) {
+            BitVector newBits = new BitVector( bits );
+            newBits.andNot( oldBits );
+            newSet = new BitPointsToSet( type, pag, newBits );
+        }
+        return newSet;
+    }
+    /** Returns set of nodes already present before last call to flushNew. */
+    public final PointsToSetInternal getOldSet() {
+        if( oldBits == null ) return EmptyPointsToSet.v();
+        return new BitPointsToSet( type, pag, new BitVector( oldBits ) );
+    }
+    /** Sets all newly-added nodes to old nodes. */
+    public final void flushNew() {
+        if( oldBits == null ) oldBits = new BitVector( bits );
+        else oldBits.copyFrom( bits );
+        newSet = null;
+    }
+    /** Sets all nodes to newly-added nodes. */
+    public final void unFlushNew() {
+        oldBits = null;
+        newSet = null;
+    }
     public static P2SetFactory getFactory() {
         return new P2SetFactory() {
             public PointsToSetInternal newSet( Type type, PAG pag ) {
@@ -96,13 +123,31 @@ public final class BitPointsToSet extends PointsToSetInternal {
     /* End of public methods. */
     /* End of package methods. */
 
+    private BitPointsToSet( Type type, PAG pag, BitVector bits ) {
+        super( type );
+        this.pag = pag;
+        this.bits = bits;
+        empty = bits.length() == 0;
+    }
+
     private boolean fastAdd( Node n ) {
         boolean ret = bits.set( n.getNumber() );
-        if( ret ) empty = false;
+        if( ret ) changed();
         return ret;
     }
 
+    private void changed() {
+        empty = false;
+        newSet = null;
+    }
+
     private BitVector bits = null;
+    /** Contents of this set at the last call to flushNew, or null if
+     * flushNew was never called. Sets used inside a DoublePointsToSet are
+     * never flushed, so they do not pay for this. */
+    private BitVector oldBits = null;
+    /** Cached result of getNewSet; cleared whenever this set changes. */
+    private BitPointsToSet newSet = null;
     private boolean empty = true;
     private PAG pag = null;
 }
@@ -43,9 +43,13 @@ public final class HashPointsToSet extends PointsToSetInternal {
         && exclude == null
         && ( pag.getTypeManager().getFastHierarchy() == null ||
             type == null || type.equals( other.type ) ) ) {
-            return s.addAll( ((HashPointsToSet) other).s );
+            boolean ret = s.addAll( ((HashPointsToSet) other).s );
+            if( ret ) newSet = null;
+            return ret;
         } else {
-            return super.addAll( other, exclude );
+            boolean ret = super.addAll( other, exclude );
+            if( ret ) newSet = null;
+            return ret;
         }
     }
     /** Calls v's visit method on all nodes in this set. */
@@ -58,8 +62,9 @@ public final class HashPointsToSet extends PointsToSetInternal {
     /** Adds n to this set, returns true if n was not already in this set. */
     public final boolean add( Node n ) {
         if( pag.getTypeManager().castNeverFails( n.getType(), type ) ) {
-
-            return s.add( n );
+            if( !s.add( n ) ) return false;
+            newSet = null;
+            return true;
         }
         return false;
     }
@@ -67,6 +72,35 @@ public final class HashPointsToSet extends PointsToSetInternal {
     public final boolean contains( Node n ) {
         return s.contains( n );
     }
+    /** Returns set of newly-added nodes since last call to flushNew. Until
+     * flushNew is first called, all nodes are new. */
+    public final PointsToSetInternal getNewSet() {
+        if( oldSet == null ) return this;
+        if( newSet == null ) {
+            newSet = new HashPointsToSet( type, pag );
+            for( Node n : s ) {
+                if( !oldSet.contains( n ) ) newSet.s.add( n );
+            }
+        }
+        return newSet;
+    }
+    /** Returns set of nodes already present before last call to flushNew. */
+    public final PointsToSetInternal getOldSet() {
+        if( oldSet == null ) return EmptyPointsToSet.v();
+        HashPointsToSet ret = new HashPointsToSet( type, pag );
+        ret.s.addAll( oldSet );
+        return ret;
+    }
+    /** Sets all newly-added nodes to old nodes. */
+    public final void flushNew() {
+        oldSet = new HashSet<Node>( s );
+        newSet = null;
+    }
+    /** Sets all nodes to newly-added nodes. */
+    public final void unFlushNew() {
+        oldSet = null;
+        newSet = null;
+    }
     public static P2SetFactory getFactory() {
         return new P2SetFactory() {
             public PointsToSetInternal newSet( Type type, PAG pag ) {
@@ -80,5 +114,10 @@ public final class HashPointsToSet extends PointsToSetInternal {
 
     private final HashSet<Node> s = new HashSet<Node>(4);
     private PAG pag = null;
+    /** Contents of this set at the last call to flushNew, or null if
+     * flushNew was never called. */
+    private HashSet<Node> oldSet = null;
+    /** Cached result of getNewSet; cleared whenever this set changes. */
+    private HashPointsToSet newSet = null;
 }
 
@@ -42,7 +42,7 @@ public final class HybridPointsToSet extends PointsToSetInternal {
 
     private final boolean superAddAll( PointsToSetInternal other, PointsToSetInternal exclude ) {
         boolean ret = super.addAll( other, exclude );
-        if( ret ) empty = false;
+        if( ret ) changed();
         return ret;
     }
 
@@ -128,7 +128,7 @@ public final class HybridPointsToSet extends PointsToSetInternal {
                 }
             } while( false );
         }
-        if( ret ) empty = false;
+        if( ret ) changed();
         return ret;
     }
  
@@ -172,10 +172,67 @@ public final class HybridPointsToSet extends PointsToSetInternal {
     /** Adds n to this set, returns true if n was not already in this set. */
     public final boolean add( Node n ) {
         if( pag.getTypeManager().castNeverFails( n.getType(), type ) ) {
-            return fastAdd( n );
+            if( !fastAdd( n ) ) return false;
+            newSet = null;
+            return true;
         }
         return false;
     }
+    /** Returns set of newly-added nodes since last call to flushNew. Until
+     * flushNew is first called, all nodes are new. The result uses the
+     * small array representation whenever it is small, even if this set
+     * has been converted to a bit vector. */
+    public final PointsToSetInternal getNewSet() {
+        if( !tracking ) return this;
+        if( newSet == null ) {
+            final HybridPointsToSet ret = new HybridPointsToSet( type, pag );
+            if( bits == null ) {
+                for( int i = oldSize; i < 16 && slot( i ) != null; i++ ) {
+                    ret.fastAdd( slot( i ) );
+                }
+            } else {
+                BitVector newBits = new BitVector( bits );
+                if( oldBits != null ) newBits.andNot( oldBits );
+                for( BitSetIterator it = newBits.iterator(); it.hasNext(); ) {
+                    ret.fastAdd( (Node) pag.getAllocNodeNumberer().get( it.next() ) );
+                }
+            }
+            newSet = ret;
+        }
+        return newSet;
+    }
+    /** Returns set of nodes already present before last call to flushNew. */
+    public final PointsToSetInternal getOldSet() {
+        if( !tracking ) return EmptyPointsToSet.v();
+        HybridPointsToSet ret = new HybridPointsToSet( type, pag );
+        if( bits == null ) {
+            for( int i = 0; i < oldSize; i++ ) ret.fastAdd( slot( i ) );
+        } else if( oldBits != null ) {
+            ret.bits = new BitVector( oldBits );
+            ret.empty = oldBits.length() == 0;
+        }
+        return ret;
+    }
+    /** Sets all newly-added nodes to old nodes. */
+    public final void flushNew() {
+        tracking = true;
+        newSet = null;
+        if( bits == null ) {
+            oldSize = 0;
+            while( oldSize < 16 && slot( oldSize ) != null ) oldSize++;
+        } else if( oldBits == null ) {
+            oldBits = new BitVector( bits );
+        } else {
+            oldBits.copyFrom( bits );
+        }
+    }
+    /** Sets all nodes to newly-added nodes. */
+    public final void unFlushNew() {
+        tracking = false;
+        oldSize = 0;
+        oldBits = null;
+        newSet = null;
+    }
     /** Returns true iff the set contains n. */
     public final boolean contains( Node n ) {
         if( bits == null ) {
@@ -256,6 +313,38 @@ public final class HybridPointsToSet extends PointsToSetInternal {
         if( n14 != null ) fastAdd( n14 );
         if( n15 != null ) fastAdd( n15 );
         if( n16 != null ) fastAdd( n16 );
+        if( tracking ) {
+            oldBits = new BitVector( pag.getAllocNodeNumberer().size() );
+            for( int i = 0; i < oldSize; i++ ) oldBits.set( slot( i ).getNumber() );
+        }
+    }
+
+    /** Returns the i-th node of the small array representation. */
+    private Node slot( int i ) {
+        switch( i ) {
+            case 0: return n1;
+            case 1: return n2;
+            case 2: return n3;
+            case 3: return n4;
+            case 4: return n5;
+            case 5: return n6;
+            case 6: return n7;
+            case 7: return n8;
+            case 8: return n9;
+            case 9: return n10;
+            case 10: return n11;
+            case 11: return n12;
+            case 12: return n13;
+            case 13: return n14;
+            case 14: return n15;
+            case 15: return n16;
+            default: throw new IndexOutOfBoundsException( ""+i );
+        }
+    }
+
+    private void changed() {
+        empty = false;
+        newSet = null;
     }
 
 //	public static int numBitVectors = 0;
@@ -278,6 +367,17 @@ public final class HybridPointsToSet extends PointsToSetInternal {
     private BitVector bits = null;
     private PAG pag;
     private boolean empty = true;
+    /** Whether flushNew has been called, so that new and old nodes are
+     * told apart. Sets used inside a DoublePointsToSet are never flushed,
+     * so they do not pay for this. */
+    private boolean tracking = false;
+    /** Number of old nodes, which are the first ones of the small array
+     * representation, while bits is null. */
+    private int oldSize = 0;
+    /** Old nodes once bits is not null. */
+    private BitVector oldBits = null;
+    /** Cached result of getNewSet; cleared whenever this set changes. */
+    private HybridPointsToSet newSet = null;
 
     public static HybridPointsToSet intersection(final HybridPointsToSet set1,
         final HybridPointsToSet set2, PAG pag) {
@@ -89,9 +89,12 @@ public final class SortedArraySet extends PointsToSetInternal {
             }
             nodes = newa;
             size = newi;
+            if( ret ) newSet = null;
             return ret;
         }
-        return super.addAll( other, exclude );
+        ret = super.addAll( other, exclude );
+        if( ret ) newSet = null;
+        return ret;
     }
     /** Calls v's visit method on all nodes in this set. */
     public final boolean forall( P2SetVisitor v ) {
@@ -127,6 +130,7 @@ public final class SortedArraySet extends PointsToSetInternal {
             System.arraycopy( nodes, left, nodes, left+1, size-left );
             nodes[left] = n;
             size++;
+            newSet = null;
             return true;
         }
         return false;
@@ -147,6 +151,29 @@ public final class SortedArraySet extends PointsToSetInternal {
         }
         return false;
     }
+    /** Returns set of newly-added nodes since last call to flushNew. Until
+     * flushNew is first called, all nodes are new. */
+    public final PointsToSetInternal getNewSet() {
+        if( oldNodes == null ) return this;
+        if( newSet == null ) newSet = difference( nodes, size, oldNodes, oldNodes.length );
+        return newSet;
+    }
+    /** Returns set of nodes already present before last call to flushNew. */
+    public final PointsToSetInternal getOldSet() {
+        if( oldNodes == null ) return EmptyPointsToSet.v();
+        return difference( oldNodes, oldNodes.length, null, 0 );
+    }
+    /** Sets all newly-added nodes to old nodes. */
+    public final void flushNew() {
+        oldNodes = new Node[size];
+        if( size > 0 ) System.arraycopy( nodes, 0, oldNodes, 0, size );
+        newSet = null;
+    }
+    /** Sets all nodes to newly-added nodes. */
+    public final void unFlushNew() {
+        oldNodes = null;
+        newSet = null;
+    }
     public final static P2SetFactory getFactory() {
         return new P2SetFactory() {
             public final PointsToSetInternal newSet( Type type, PAG pag ) {
@@ -158,8 +185,28 @@ public final class SortedArraySet extends PointsToSetInternal {
     /* End of public methods. */
     /* End of package methods. */
 
+    /** Returns the nodes of the sorted array a that are not in the sorted
+     * array b, as a new set. */
+    private SortedArraySet difference( Node[] a, int asize, Node[] b, int bsize ) {
+        SortedArraySet ret = new SortedArraySet( type, pag );
+        ret.nodes = new Node[asize];
+        int bi = 0;
+        for( int ai = 0; ai < asize; ai++ ) {
+            int ahc = a[ai].getNumber();
+            while( bi < bsize && b[bi].getNumber() < ahc ) bi++;
+            if( bi < bsize && b[bi] == a[ai] ) continue;
+            ret.nodes[ ret.size++ ] = a[ai];
+        }
+        return ret;
+    }
+
     private Node[] nodes = null;
     private int size = 0;
     private PAG pag = null;
+    /** Contents of this set at the last call to flushNew, or null if
+     * flushNew was never called. */
+    private Node[] oldNodes = null;
+    /** Cached result of getNewSet; cleared whenever this set changes. */
+    private SortedArraySet newSet = null;
 }
 
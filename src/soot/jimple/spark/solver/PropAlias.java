@@ -31,13 +31,14 @@ import java.util.*;
  */
 
 public final class PropAlias extends Propagator {
-    protected final Set<VarNode> varNodeWorkList = new TreeSet<VarNode>();
+    protected final VarNodeWorklist varNodeWorkList;
     protected Set<VarNode> aliasWorkList;
     protected Set<FieldRefNode> fieldRefWorkList = new HashSet<FieldRefNode>();
     protected Set<FieldRefNode> outFieldRefWorkList = new HashSet<FieldRefNode>();
 
     public PropAlias( PAG pag ) {
         this.pag = pag;
+        varNodeWorkList = VarNodeWorklist.v( pag.getOpts() );
         loadSets = new LargeNumberedMap( pag.getFieldRefNodeNumberer() );
     }
 
@@ -65,8 +66,7 @@ public final class PropAlias extends Propagator {
             }
             aliasWorkList = new HashSet<VarNode>();
             while( !varNodeWorkList.isEmpty() ) {
-                VarNode src = varNodeWorkList.iterator().next();
-                varNodeWorkList.remove( src );
+                VarNode src = varNodeWorkList.next();
                 aliasWorkList.add( src );
                 handleVarNode( src );
             }
@@ -88,12 +88,12 @@ public final class PropAlias extends Propagator {
                             aliasEdges.put( dstFr, srcFr );
                             fieldRefWorkList.add( srcFr );
                             fieldRefWorkList.add( dstFr );
-                            if( makeP2Set( dstFr ).addAll( 
-                                    srcFr.getP2Set().getOldSet(), null ) ) {
+                            if( union( makeP2Set( dstFr ),
+                                    srcFr.getP2Set().getOldSet() ) ) {
                                 outFieldRefWorkList.add( dstFr );
                             }
-                            if( makeP2Set( srcFr ).addAll( 
-                                    dstFr.getP2Set().getOldSet(), null ) ) {
+                            if( union( makeP2Set( srcFr ),
+                                    dstFr.getP2Set().getOldSet() ) ) {
                                 outFieldRefWorkList.add( srcFr );
                             }
                         }
@@ -103,7 +103,7 @@ public final class PropAlias extends Propagator {
             for (FieldRefNode src : fieldRefWorkList) {
                 for( Iterator dstIt = aliasEdges.get( src ).iterator(); dstIt.hasNext(); ) {
                     final FieldRefNode dst = (FieldRefNode) dstIt.next();
-                    if( makeP2Set( dst ).addAll( src.getP2Set().getNewSet(), null ) ) {
+                    if( union( makeP2Set( dst ), src.getP2Set().getNewSet() ) ) {
                         outFieldRefWorkList.add( dst );
                     }
                 }
@@ -116,13 +116,23 @@ public final class PropAlias extends Propagator {
                 Node[] targets = pag.loadLookup( src );
                 for (Node element0 : targets) {
                     VarNode target = (VarNode) element0;
-                    if( target.makeP2Set().addAll( set, null ) ) {
+                    if( union( target.makeP2Set(), set ) ) {
                         addToWorklist( target );
                     }
                 }
                 getP2Set( src ).flushNew();
             }
             outFieldRefWorkList = new HashSet<FieldRefNode>();
+            if( verbose ) {
+                G.v().out.println( "Fired "+nodesFired+" nodes carrying "
+                        +newFacts+" new points-to facts; "+unions
+                        +" set unions, of which "+changedUnions
+                        +" changed their target." );
+                nodesFired = 0;
+                newFacts = 0;
+                unions = 0;
+                changedUnions = 0;
+            }
 	} while( !varNodeWorkList.isEmpty() );
     }
 
@@ -152,6 +162,8 @@ public final class PropAlias extends Propagator {
 
 	final PointsToSetInternal newP2Set = src.getP2Set().getNewSet();
 	if( newP2Set.isEmpty() ) return false;
+        nodesFired++;
+        if( pag.getOpts().verbose() ) newFacts += newP2Set.size();
 
         if( ofcg != null ) {
             QueueReader addedEdges = pag.edgeReader();
@@ -166,7 +178,7 @@ public final class PropAlias extends Propagator {
                     if( addedTgt instanceof VarNode ) {
                         VarNode edgeSrc = (VarNode) addedSrc;
                         VarNode edgeTgt = (VarNode) addedTgt;
-                        if( edgeTgt.makeP2Set().addAll( edgeSrc.getP2Set(), null ) )
+                        if( union( edgeTgt.makeP2Set(), edgeSrc.getP2Set() ) )
                             addToWorklist( edgeTgt );
                     }
                 } else if( addedSrc instanceof AllocNode ) {
@@ -191,7 +203,7 @@ public final class PropAlias extends Propagator {
 
 	Node[] simpleTargets = pag.simpleLookup( src );
 	for (Node element : simpleTargets) {
-	    if( element.makeP2Set().addAll( newP2Set, null ) ) {
+	    if( union( element.makeP2Set(), newP2Set ) ) {
                 addToWorklist( (VarNode) element );
                 ret = true;
             }
@@ -200,7 +212,7 @@ public final class PropAlias extends Propagator {
         Node[] storeTargets = pag.storeLookup( src );
         for (Node element : storeTargets) {
             final FieldRefNode fr = (FieldRefNode) element;
-            if( fr.makeP2Set().addAll( newP2Set, null ) ) {
+            if( union( fr.makeP2Set(), newP2Set ) ) {
                 fieldRefWorkList.add( fr );
                 ret = true;
             }
@@ -227,6 +239,16 @@ public final class PropAlias extends Propagator {
         return ret;
     }
 
+    /** Adds source to target, counting the union for the statistics
+     * printed in verbose mode. */
+    protected final boolean union( PointsToSetInternal target,
+            PointsToSetInternal source ) {
+        unions++;
+        if( !target.addAll( source, null ) ) return false;
+        changedUnions++;
+        return true;
+    }
+
     private boolean addToWorklist( VarNode n ) {
         if( n.getReplacement() != n ) throw new RuntimeException(
                 "Adding bad node "+n+" with rep "+n.getReplacement() );
@@ -238,6 +260,8 @@ public final class PropAlias extends Propagator {
     protected MultiMap aliasEdges = new HashMultiMap();
     protected LargeNumberedMap loadSets;
     protected OnFlyCallGraph ofcg;
+    /** Work done in the current iteration of the outer loop. */
+    protected long nodesFired, newFacts, unions, changedUnions;
 }
 
 
@@ -30,9 +30,12 @@ import java.util.*;
  */
 
 public final class PropWorklist extends Propagator {
-    protected final Set<VarNode> varNodeWorkList = new TreeSet<VarNode>();
+    protected final VarNodeWorklist varNodeWorkList;
 
-    public PropWorklist( PAG pag ) { this.pag = pag; }
+    public PropWorklist( PAG pag ) {
+        this.pag = pag;
+        varNodeWorkList = VarNodeWorklist.v( pag.getOpts() );
+    }
     /** Actually does the propagation. */
     public final void propagate() {
         ofcg = pag.getOnFlyCallGraph();
@@ -48,9 +51,7 @@ public final class PropWorklist extends Propagator {
                         " nodes." );
             }
             while( !varNodeWorkList.isEmpty() ) {
-                VarNode src = varNodeWorkList.iterator().next();
-                varNodeWorkList.remove( src );
-                handleVarNode( src );
+                handleVarNode( varNodeWorkList.next() );
             }
             if( verbose ) {
                 G.v().out.println( "Now handling field references" );
@@ -64,7 +65,7 @@ public final class PropWorklist extends Propagator {
                     public final void visit( Node n ) {
                             AllocDotField nDotF = pag.makeAllocDotField( 
                                 (AllocNode) n, target.getField() );
-                            nDotF.makeP2Set().addAll( src.getP2Set(), null );
+                            union( nDotF.makeP2Set(), src.getP2Set() );
                         }
                     } );
                 }
@@ -78,7 +79,7 @@ public final class PropWorklist extends Propagator {
                 PointsToSetInternal nDotF = (PointsToSetInternal) pair[0];
 		PointsToSetInternal newP2Set = nDotF.getNewSet();
                 VarNode loadTarget = (VarNode) pair[1];
-                if( loadTarget.makeP2Set().addAll( newP2Set, null ) ) {
+                if( union( loadTarget.makeP2Set(), newP2Set ) ) {
                     varNodeWorkList.add( loadTarget );
                 }
                 nodesToFlush.add( nDotF );
@@ -86,6 +87,16 @@ public final class PropWorklist extends Propagator {
             for (PointsToSetInternal nDotF : nodesToFlush) {
                 nDotF.flushNew();
             }
+            if( verbose ) {
+                G.v().out.println( "Fired "+nodesFired+" nodes carrying "
+                        +newFacts+" new points-to facts; "+unions
+                        +" set unions, of which "+changedUnions
+                        +" changed their target." );
+                nodesFired = 0;
+                newFacts = 0;
+                unions = 0;
+                changedUnions = 0;
+            }
 	} while( !varNodeWorkList.isEmpty() );
     }
 
@@ -116,6 +127,8 @@ public final class PropWorklist extends Propagator {
 
 	final PointsToSetInternal newP2Set = src.getP2Set().getNewSet();
 	if( newP2Set.isEmpty() ) return false;
+        nodesFired++;
+        if( pag.getOpts().verbose() ) newFacts += newP2Set.size();
 
         if( ofcg != null ) {
             QueueReader addedEdges = pag.edgeReader();
@@ -131,7 +144,7 @@ public final class PropWorklist extends Propagator {
                         VarNode edgeSrc = (VarNode) addedSrc.getReplacement();
                         VarNode edgeTgt = (VarNode) addedTgt.getReplacement();
 
-                        if( edgeTgt.makeP2Set().addAll( edgeSrc.getP2Set(), null ) ) {
+                        if( union( edgeTgt.makeP2Set(), edgeSrc.getP2Set() ) ) {
                             varNodeWorkList.add( edgeTgt );
                             if(edgeTgt == src) flush = false;
                         }
@@ -149,7 +162,7 @@ public final class PropWorklist extends Propagator {
 
 	Node[] simpleTargets = pag.simpleLookup( src );
 	for (Node element : simpleTargets) {
-	    if( element.makeP2Set().addAll( newP2Set, null ) ) {
+	    if( union( element.makeP2Set(), newP2Set ) ) {
                 varNodeWorkList.add( (VarNode) element );
                 if(element == src) flush = false;
                 ret = true;
@@ -164,7 +177,7 @@ public final class PropWorklist extends Propagator {
             public final void visit( Node n ) {
                     AllocDotField nDotF = pag.makeAllocDotField( 
                         (AllocNode) n, f );
-                    if( nDotF.makeP2Set().addAll( newP2Set, null ) ) {
+                    if( union( nDotF.makeP2Set(), newP2Set ) ) {
                         returnValue = true;
                     }
 		}
@@ -213,15 +226,14 @@ public final class PropWorklist extends Propagator {
         for (Node[] p : storesToPropagate) {
             VarNode storeSource = (VarNode) p[0];
             AllocDotField nDotF = (AllocDotField) p[1];
-            if( nDotF.makeP2Set().addAll( storeSource.getP2Set(), null ) ) {
+            if( union( nDotF.makeP2Set(), storeSource.getP2Set() ) ) {
                 ret = true;
             }
         }
         for (Node[] p : loadsToPropagate) {
             AllocDotField nDotF = (AllocDotField) p[0];
             VarNode loadTarget = (VarNode) p[1];
-            if( loadTarget.makeP2Set().
-                addAll( nDotF.getP2Set(), null ) ) {
+            if( union( loadTarget.makeP2Set(), nDotF.getP2Set() ) ) {
                 varNodeWorkList.add( loadTarget );
                 ret = true;
             }
@@ -255,8 +267,20 @@ public final class PropWorklist extends Propagator {
 	} );
     }
     
+    /** Adds source to target, counting the union for the statistics
+     * printed in verbose mode. */
+    protected final boolean union( PointsToSetInternal target,
+            PointsToSetInternal source ) {
+        unions++;
+        if( !target.addAll( source, null ) ) return false;
+        changedUnions++;
+        return true;
+    }
+
     protected PAG pag;
     protected OnFlyCallGraph ofcg;
+    /** Work done in the current iteration of the outer loop. */
+    protected long nodesFired, newFacts, unions, changedUnions;
 }
 
 
@@ -0,0 +1,114 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.spark.solver;
+import soot.jimple.spark.pag.*;
+import soot.options.SparkOptions;
+import java.util.*;
+
+/** The set of variable nodes whose points-to sets still have to be
+ * propagated, together with the order in which a propagator takes them
+ * out. The order is chosen by the worklist-order option of Spark. A node
+ * is in the worklist at most once. */
+public abstract class VarNodeWorklist {
+    /** Adds n to the worklist, returning false if it was already in it. */
+    public abstract boolean add( VarNode n );
+    /** Removes and returns the next node to propagate. */
+    public abstract VarNode next();
+    public abstract boolean isEmpty();
+    public abstract int size();
+
+    /** Returns an empty worklist with the order selected by the
+     * worklist-order option in opts. */
+    public static VarNodeWorklist v( SparkOptions opts ) {
+        switch( opts.worklist_order() ) {
+            case SparkOptions.worklist_order_fifo:
+                return new Fifo();
+            case SparkOptions.worklist_order_lrf:
+                return new LeastRecentlyFired();
+            case SparkOptions.worklist_order_topo:
+            default:
+                return new Topological();
+        }
+    }
+
+    /** Takes nodes in the order of the finishing numbers assigned by
+     * TopoSorter, so that a node is usually handled after the nodes that
+     * flow into it. */
+    static final class Topological extends VarNodeWorklist {
+        private final TreeSet<VarNode> nodes = new TreeSet<VarNode>();
+        public boolean add( VarNode n ) { return nodes.add( n ); }
+        public VarNode next() { return nodes.pollFirst(); }
+        public boolean isEmpty() { return nodes.isEmpty(); }
+        public int size() { return nodes.size(); }
+    }
+
+    /** Takes nodes in the order in which they were added. */
+    static final class Fifo extends VarNodeWorklist {
+        private final ArrayDeque<VarNode> queue = new ArrayDeque<VarNode>();
+        private final HashSet<VarNode> inQueue = new HashSet<VarNode>();
+        public boolean add( VarNode n ) {
+            if( !inQueue.add( n ) ) return false;
+            queue.addLast( n );
+            return true;
+        }
+        public VarNode next() {
+            VarNode ret = queue.removeFirst();
+            inQueue.remove( ret );
+            return ret;
+        }
+        public boolean isEmpty() { return queue.isEmpty(); }
+        public int size() { return queue.size(); }
+    }
+
+    /** Takes first the node that was taken out longest ago, so that nodes
+     * get time to accumulate changes before being propagated again. Nodes
+     * never taken out come first, in topological order. */
+    static final class LeastRecentlyFired extends VarNodeWorklist {
+        private final Map<VarNode,Integer> lastFired = new HashMap<VarNode,Integer>();
+        private final HashSet<VarNode> inQueue = new HashSet<VarNode>();
+        private int time = 0;
+        private final PriorityQueue<VarNode> queue = new PriorityQueue<VarNode>( 11,
+            new Comparator<VarNode>() {
+                public int compare( VarNode a, VarNode b ) {
+                    int ta = firedAt( a );
+                    int tb = firedAt( b );
+                    if( ta != tb ) return ta < tb ? -1 : 1;
+                    return a.compareTo( b );
+                }
+            } );
+        private int firedAt( VarNode n ) {
+            Integer t = lastFired.get( n );
+            return t == null ? -1 : t.intValue();
+        }
+        public boolean add( VarNode n ) {
+            if( !inQueue.add( n ) ) return false;
+            queue.add( n );
+            return true;
+        }
+        public VarNode next() {
+            VarNode ret = queue.poll();
+            inQueue.remove( ret );
+            lastFired.put( ret, new Integer( time++ ) );
+            return ret;
+        }
+        public boolean isEmpty() { return queue.isEmpty(); }
+        public int size() { return queue.size(); }
+    }
+}
@@ -27,6 +27,8 @@
 
 package soot.jimple.toolkits.annotation.purity;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.io.*;
 import soot.*;
 import soot.util.dot.*;
@@ -164,10 +166,12 @@ public abstract class AbstractInterproceduralAnalysis {
 		elem = data.get(m);
 	    }
 	    else {
-		// unanalysed method
-		if (!unanalysed.containsKey(m)) 
-		    unanalysed.put(m, summaryOfUnanalysedMethod(m));
-		elem = unanalysed.get(m);
+		// unanalysed method, maybe asked for by several threads
+		synchronized (unanalysed) {
+		    if (!unanalysed.containsKey(m)) 
+			unanalysed.put(m, summaryOfUnanalysedMethod(m));
+		    elem = unanalysed.get(m);
+		}
 	    }
 	    applySummary(src, callStmt, elem, accum);
 	    merge(dst, accum, dst);
@@ -312,6 +316,28 @@ public abstract class AbstractInterproceduralAnalysis {
     public Iterator getAnalysedMethods()
     { return data.keySet().iterator(); }
 
+    /**
+     * Tells whether m calls a method that does not come strictly before
+     * it in the topological order (recursion). Such a method is analysed
+     * before the summary of that callee is known, so it is analysed again.
+     * This is only a hint: it returns false for the other methods of a
+     * recursive cycle, whose callees all come before them, although they
+     * are analysed again too whenever the cycle has to be iterated.
+     * Subclasses can use this to keep per-method data that is costly
+     * to recompute for the methods most likely to need it.
+     */
+    protected boolean mayBeReanalysed(SootMethod m)
+    {
+	Integer o = order.get(m);
+	if (o == null) return false;
+	Iterator it = dg.getSuccsOf(m).iterator();
+	while (it.hasNext()) {
+	    Integer oo = order.get(it.next());
+	    if (oo != null && oo.intValue() >= o.intValue()) return true;
+	}
+	return false;
+    }
+
     /**
      * Carry out the analysis.
      *
@@ -321,70 +347,295 @@ public abstract class AbstractInterproceduralAnalysis {
      */
     protected void doAnalysis(boolean verbose)
     {
-	// queue class
-	class IntComparator implements Comparator {
-	    public int compare(Object o1, Object o2) 
-	    {
-		Integer v1 = order.get(o1);
-		Integer v2 = order.get(o2);
-		return v1.intValue()-v2.intValue();
-	    }
-	};
-	SortedSet queue = new TreeSet(new IntComparator());
+	// methods indexed by their topological order; the worklist is
+	// a bit set over these indices, so that the next method to
+	// process is always the pending one with the smallest order
+	int n = order.size();
+	SootMethod[] methods = new SootMethod[n];
+	BitSet queue = new BitSet(n);
 	
 	// init
 	Iterator it = order.keySet().iterator();
 	while (it.hasNext()) {
-	    Object o = it.next();
-	    data.put(o, newInitialSummary());
-	    queue.add(o);
+	    SootMethod m = (SootMethod)it.next();
+	    int i = order.get(m).intValue();
+	    methods[i] = m;
+	    data.put(m, newInitialSummary());
+	    queue.set(i);
 	}
 
-	Map<SootMethod,Integer> nb = new HashMap<SootMethod,Integer>(); // only for debug pretty-printing
+	int[] nb = verbose ? new int[n] : null; // only for debug pretty-printing
 
 	// fixpoint iterations
-	while (!queue.isEmpty()) {
-	    SootMethod m = (SootMethod)queue.first();
-	    queue.remove(m);
+	for (int i = queue.nextSetBit(0); i >= 0; i = queue.nextSetBit(0)) {
+	    queue.clear(i);
+	    SootMethod m = methods[i];
 	    Object newSummary = newInitialSummary();
 	    Object oldSummary = data.get(m);
 
-	    if (nb.containsKey(m)) nb.put(m,new Integer(nb.get(m).intValue()+1));
-	    else nb.put(m,new Integer(1));
 	    if (verbose)
-		G.v().out.println(" |- processing "+m.toString()+" ("+nb.get(m)+"-st time)");
+		G.v().out.println(" |- processing "+m.toString()+" ("+(++nb[i])+"-st time)");
 
 	    analyseMethod(m,newSummary);
 	    if (!oldSummary.equals(newSummary)) {
 		// summary for m changed!
 		data.put(m,newSummary);
-		queue.addAll(dg.getPredsOf(m));
+		Iterator itp = dg.getPredsOf(m).iterator();
+		while (itp.hasNext())
+		    queue.set(order.get(itp.next()).intValue());
 	    }
 	}
 
-	// fixpoint verification
-	if (doCheck) {
-	    it = order.keySet().iterator();
-	    while (it.hasNext()) {
-		SootMethod m = (SootMethod)it.next();
-		Object newSummary = newInitialSummary();
-		Object oldSummary = data.get(m);
-		analyseMethod(m,newSummary);
-		if (!oldSummary.equals(newSummary)) {
-		    G.v().out.println("inter-procedural fixpoint not reached for method "+m.toString());
-		    DotGraph gm  = new DotGraph("false_fixpoint");
-		    DotGraph gmm = new	DotGraph("next_iterate");
-		    gm.setGraphLabel("false fixpoint: "+m.toString());
-		    gmm.setGraphLabel("fixpoint next iterate: "+m.toString());
-		    fillDotGraph("", oldSummary, gm);
-		    fillDotGraph("", newSummary, gmm);
-		    gm.plot(m.toString()+"_false_fixpoint.dot");
-		    gmm.plot(m.toString()+"_false_fixpoint_next.dot");
-		    throw new Error("AbstractInterproceduralAnalysis sanity check failed!!!");
+	if (doCheck) checkFixpoint();
+    }
+
+    /**
+     * Called by doAnalysis(verbose,threads) on each strongly connected
+     * component of the filtered call-graph, callees first, before any
+     * method is analysed.
+     * If the summaries of all the methods of component are already
+     * known, e.g. from a previous run, put them into data and return
+     * true: the component will not be analysed.
+     */
+    protected boolean knownSummaries(List<SootMethod> component)
+    { return false; }
+
+    /**
+     * Carry out the analysis one strongly connected component of the
+     * filtered call-graph at a time, callees first.
+     * A component is iterated to its fixpoint as soon as all the
+     * components it calls are done, so that independent components are
+     * analysed in parallel on threads threads. analyseMethod and
+     * applySummary may then be called concurrently on methods of
+     * different components; summaryOfUnanalysedMethod is still called
+     * once per method, under a lock.
+     *
+     * @see knownSummaries
+     */
+    protected void doAnalysis(boolean verbose, int threads)
+    {
+	int n = order.size();
+	final SootMethod[] methods = new SootMethod[n];
+	Iterator it = order.keySet().iterator();
+	while (it.hasNext()) {
+	    SootMethod m = (SootMethod)it.next();
+	    methods[order.get(m).intValue()] = m;
+	    data.put(m, newInitialSummary());
+	}
+	// from now on, data only gets new values for these keys, each
+	// one from the thread analysing its component, and it is read
+	// by the callers only once the component is done
+
+	// components, callees first, and the calls between them
+	final List<int[]> comps = components(methods);
+	int nc = comps.size();
+	final int[] compOf = new int[n];
+	for (int c = 0; c < nc; c++)
+	    for (int i : comps.get(c)) compOf[i] = c;
+	final List<Set<Integer>> callers = new ArrayList<Set<Integer>>(nc);
+	for (int c = 0; c < nc; c++) callers.add(new HashSet<Integer>());
+	for (int i = 0; i < n; i++) {
+	    Iterator itp = dg.getPredsOf(methods[i]).iterator();
+	    while (itp.hasNext()) {
+		int cc = compOf[order.get(itp.next()).intValue()];
+		if (cc != compOf[i]) callers.get(compOf[i]).add(cc);
+	    }
+	}
+
+	// components whose summaries are known are done already
+	final AtomicInteger[] pending = new AtomicInteger[nc];
+	for (int c = 0; c < nc; c++) pending[c] = new AtomicInteger();
+	boolean[] known = new boolean[nc];
+	int nbKnown = 0;
+	for (int c = 0; c < nc; c++) {
+	    List<SootMethod> comp = new ArrayList<SootMethod>();
+	    for (int i : comps.get(c)) comp.add(methods[i]);
+	    known[c] = knownSummaries(comp);
+	    if (known[c]) nbKnown++;
+	    else for (int cc : callers.get(c)) pending[cc].incrementAndGet();
+	}
+	if (verbose)
+	    G.v().out.println(" |- "+nc+" components, "+nbKnown+" already known");
+
+	final int[] nb = verbose ? new int[n] : null; // only for debug pretty-printing
+	final boolean verb = verbose;
+	final CountDownLatch left = new CountDownLatch(nc - nbKnown);
+	final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+	final ExecutorService executor = Executors.newFixedThreadPool(Math.max(threads, 1));
+
+	class ComponentTask implements Runnable {
+	    final int c;
+	    ComponentTask(int c) { this.c = c; }
+	    public void run() {
+		try {
+		    if (failure.get() != null) return;
+		    analyseComponent(comps.get(c), c, methods, compOf, nb, verb);
+		    for (int cc : callers.get(c))
+			if (pending[cc].decrementAndGet() == 0)
+			    executor.execute(new ComponentTask(cc));
+		    left.countDown();
+		}
+		catch (Throwable t) {
+		    // give up: wake up doAnalysis
+		    failure.compareAndSet(null, t);
+		    while (left.getCount() > 0) left.countDown();
 		}
 	    }
 	}
 
+	// find the ready components before starting any: once started, a
+	// task may bring the count of a caller to zero and start it itself
+	List<Integer> ready = new ArrayList<Integer>();
+	for (int c = 0; c < nc; c++)
+	    if (!known[c] && pending[c].get() == 0) ready.add(c);
+
+	try {
+	    for (int c : ready)
+		executor.execute(new ComponentTask(c));
+	    left.await();
+	}
+	catch (InterruptedException e) {
+	    throw new RuntimeException("interrupted while analysing components", e);
+	}
+	finally {
+	    executor.shutdownNow();
+	}
+
+	Throwable t = failure.get();
+	if (t instanceof RuntimeException) throw (RuntimeException)t;
+	if (t instanceof Error) throw (Error)t;
+	if (t != null) throw new RuntimeException(t);
+
+	if (doCheck) checkFixpoint();
+    }
+
+    /**
+     * Iterate the component comp, given as sorted topological indices,
+     * to its fixpoint; the summaries of the methods it calls outside
+     * are final. The pending method with the smallest order is
+     * processed first, as in doAnalysis.
+     */
+    private void analyseComponent(int[] comp, int c, SootMethod[] methods,
+				  int[] compOf, int[] nb, boolean verbose)
+    {
+	BitSet queue = new BitSet(comp.length);
+	queue.set(0, comp.length);
+	for (int k = queue.nextSetBit(0); k >= 0; k = queue.nextSetBit(0)) {
+	    queue.clear(k);
+	    int i = comp[k];
+	    SootMethod m = methods[i];
+	    Object newSummary = newInitialSummary();
+	    Object oldSummary = data.get(m);
+
+	    if (verbose)
+		G.v().out.println(" |- processing "+m.toString()+" ("+(++nb[i])+"-st time)");
+
+	    analyseMethod(m,newSummary);
+	    if (!oldSummary.equals(newSummary)) {
+		// summary for m changed! only its callers of the same
+		// component are not done yet
+		data.put(m,newSummary);
+		Iterator itp = dg.getPredsOf(m).iterator();
+		while (itp.hasNext()) {
+		    int j = order.get(itp.next()).intValue();
+		    if (compOf[j] == c)
+			queue.set(Arrays.binarySearch(comp, j));
+		}
+	    }
+	}
+    }
+
+    /**
+     * The strongly connected components of dg, as sorted arrays of
+     * topological indices, callees first (Tarjan's algorithm, with
+     * explicit stacks).
+     */
+    private List<int[]> components(SootMethod[] methods)
+    {
+	int n = methods.length;
+	int[][] succs = new int[n][];
+	for (int i = 0; i < n; i++) {
+	    List l = dg.getSuccsOf(methods[i]);
+	    succs[i] = new int[l.size()];
+	    Iterator it = l.iterator();
+	    for (int k = 0; it.hasNext(); k++)
+		succs[i][k] = order.get(it.next()).intValue();
+	}
+
+	int[] index = new int[n];
+	int[] low = new int[n];
+	boolean[] onStack = new boolean[n];
+	int[] stack = new int[n];     // nodes of the unfinished components
+	int[] calls = new int[n];     // the depth-first path
+	int[] next = new int[n];      // next successor to visit on the path
+	int sp = 0, cp = 0, counter = 0;
+	Arrays.fill(index, -1);
+	List<int[]> comps = new ArrayList<int[]>();
+
+	for (int r = 0; r < n; r++) {
+	    if (index[r] >= 0) continue;
+	    index[r] = low[r] = counter++;
+	    stack[sp++] = r;
+	    onStack[r] = true;
+	    calls[cp] = r;
+	    next[cp++] = 0;
+	    while (cp > 0) {
+		int v = calls[cp-1];
+		if (next[cp-1] < succs[v].length) {
+		    int w = succs[v][next[cp-1]++];
+		    if (index[w] < 0) {
+			index[w] = low[w] = counter++;
+			stack[sp++] = w;
+			onStack[w] = true;
+			calls[cp] = w;
+			next[cp++] = 0;
+		    }
+		    else if (onStack[w] && index[w] < low[v])
+			low[v] = index[w];
+		    continue;
+		}
+		cp--;
+		if (cp > 0 && low[v] < low[calls[cp-1]])
+		    low[calls[cp-1]] = low[v];
+		if (low[v] == index[v]) {
+		    // v is the root of a component
+		    int k = sp;
+		    do k--; while (stack[k] != v);
+		    int[] comp = new int[sp-k];
+		    for (int j = k; j < sp; j++) {
+			comp[j-k] = stack[j];
+			onStack[stack[j]] = false;
+		    }
+		    sp = k;
+		    Arrays.sort(comp);
+		    comps.add(comp);
+		}
+	    }
+	}
+	return comps;
     }
-}
 
+    /** Check that analysing any method again does not change its summary. */
+    private void checkFixpoint()
+    {
+	Iterator it = order.keySet().iterator();
+	while (it.hasNext()) {
+	    SootMethod m = (SootMethod)it.next();
+	    Object newSummary = newInitialSummary();
+	    Object oldSummary = data.get(m);
+	    analyseMethod(m,newSummary);
+	    if (!oldSummary.equals(newSummary)) {
+		G.v().out.println("inter-procedural fixpoint not reached for method "+m.toString());
+		DotGraph gm  = new DotGraph("false_fixpoint");
+		DotGraph gmm = new	DotGraph("next_iterate");
+		gm.setGraphLabel("false fixpoint: "+m.toString());
+		gmm.setGraphLabel("fixpoint next iterate: "+m.toString());
+		fillDotGraph("", oldSummary, gm);
+		fillDotGraph("", newSummary, gmm);
+		gm.plot(m.toString()+"_false_fixpoint.dot");
+		gmm.plot(m.toString()+"_false_fixpoint_next.dot");
+		throw new Error("AbstractInterproceduralAnalysis sanity check failed!!!");
+	    }
+	}
+    }
+}
@@ -27,6 +27,7 @@
 
 package soot.jimple.toolkits.annotation.purity;
 import java.util.*;
+import java.util.concurrent.*;
 import soot.*;
 import soot.util.*;
 import soot.util.dot.*;
@@ -165,18 +166,19 @@ public class PurityGraph
     /** 
      * Caching: this semm to actually improve both speed and memory 
      * consumption!
+     * The caches are shared by the methods analysed in parallel.
      */
-    private static final Map<PurityNode, PurityNode> nodeCache =  new HashMap<PurityNode, PurityNode>();
-    private static final Map<PurityEdge, PurityEdge> edgeCache =  new HashMap<PurityEdge, PurityEdge>();
-    private static PurityNode cacheNode(PurityNode p)
+    private static final ConcurrentMap<PurityNode, PurityNode> nodeCache =  new ConcurrentHashMap<PurityNode, PurityNode>();
+    private static final ConcurrentMap<PurityEdge, PurityEdge> edgeCache =  new ConcurrentHashMap<PurityEdge, PurityEdge>();
+    static PurityNode cacheNode(PurityNode p)
     {
-	if (!nodeCache.containsKey(p)) nodeCache.put(p,p);
-	return nodeCache.get(p);
+	PurityNode q = nodeCache.putIfAbsent(p,p);
+	return q==null ? p : q;
     }
-    private static PurityEdge cacheEdge(PurityEdge e)
+    static PurityEdge cacheEdge(PurityEdge e)
     {
-	if (!edgeCache.containsKey(e)) edgeCache.put(e,e);
-	return edgeCache.get(e);
+	PurityEdge f = edgeCache.putIfAbsent(e,e);
+	return f==null ? e : f;
     }
 
     /**
@@ -27,6 +27,8 @@
 
 package soot.jimple.toolkits.annotation.purity;
 import java.util.*;
+import java.util.concurrent.*;
+import java.io.File;
 import soot.*;
 import soot.util.dot.*;
 import soot.jimple.*;
@@ -223,6 +225,17 @@ public class PurityInterproceduralAnalysis
 	    return true;
 	}
     }
+
+    // unit graphs of the methods that mayBeReanalysed
+    private final Map<SootMethod,ExceptionalUnitGraph> graphs =
+	new ConcurrentHashMap<SootMethod,ExceptionalUnitGraph>();
+
+    // bodies and unit graphs are built one at a time, as they are not
+    // thread-safe
+    private final Object graphLock = new Object();
+
+    // library summaries kept across runs, or null
+    private PuritySummaryCache cache = null;
     
     /** The constructor does it all! */
     PurityInterproceduralAnalysis(CallGraph        cg,
@@ -236,14 +249,26 @@ public class PurityInterproceduralAnalysis
 	    drawAsOneDot("EmptyCallGraph");
 	}
 
+	if (opts.summaries_file().length() > 0)
+	    cache = new PuritySummaryCache(new File(opts.summaries_file()), cg, dg);
+
 	Date start = new Date();
 	G.v().out.println("[AM] Analysis began");
-	doAnalysis(opts.verbose());
+	if (opts.threads() > 1 || cache != null)
+	    doAnalysis(opts.verbose(), opts.threads());
+	else
+	    doAnalysis(opts.verbose());
 	G.v().out.println("[AM] Analysis finished");
 	Date finish = new Date();
 	long runtime = finish.getTime() - start.getTime();
 	G.v().out.println("[AM] run time: "+runtime/1000.+" s");
 
+	if (cache != null) {
+	    cache.write(data);
+	    G.v().out.println("[AM] library summaries: "+cache.nbRead+" read, "+
+			      cache.nbWritten+" written to "+opts.summaries_file());
+	}
+
 	if (opts.dump_cg()) {
 	    G.v().out.println("[AM] Dumping annotated .dot call-graph");
 	    drawAsOneDot("CallGraph");
@@ -261,16 +286,15 @@ public class PurityInterproceduralAnalysis
 	    Iterator it = getAnalysedMethods();
 	    while (it.hasNext()) {
 		SootMethod method = (SootMethod)it.next();
-		Body body = method.retrieveActiveBody();
-		ExceptionalUnitGraph graph = new ExceptionalUnitGraph(body);
 		if (opts.verbose()) G.v().out.println("  |- "+method);
 		PurityIntraproceduralAnalysis r = 
-		    new PurityIntraproceduralAnalysis(graph, this);
+		    new PurityIntraproceduralAnalysis(graphOf(method), this);
 		r.drawAsOneDot("Intra_",method.toString());
 		PurityGraphBox b = new PurityGraphBox();
 		r.copyResult(b);
 	    }
 	}
+	graphs.clear();
 
 
 	{
@@ -357,16 +381,43 @@ public class PurityInterproceduralAnalysis
 	dst.g = new PurityGraph(src.g);
     }
     
+    protected boolean knownSummaries(List<SootMethod> component)
+    {
+	if (cache == null) return false;
+	Map<SootMethod,PurityGraph> known = cache.read(component);
+	if (known == null) return false;
+	for (Map.Entry<SootMethod,PurityGraph> e : known.entrySet()) {
+	    PurityGraphBox b = new PurityGraphBox();
+	    b.g = e.getValue();
+	    data.put(e.getKey(), b);
+	}
+	return true;
+    }
+
     protected void analyseMethod(SootMethod method,
 				 Object     dst)
     {
-	Body body = method.retrieveActiveBody();
-	ExceptionalUnitGraph graph = new ExceptionalUnitGraph(body);
 	PurityIntraproceduralAnalysis r = 
-	    new PurityIntraproceduralAnalysis(graph, this);
+	    new PurityIntraproceduralAnalysis(graphOf(method), this);
 	r.copyResult(dst);
     }
 
+    /**
+     * Returns the unit graph of the method, building it only once for
+     * the methods that mayBeReanalysed.
+     */
+    private ExceptionalUnitGraph graphOf(SootMethod method)
+    {
+	ExceptionalUnitGraph graph = graphs.get(method);
+	if (graph == null) {
+	    synchronized (graphLock) {
+		graph = new ExceptionalUnitGraph(method.retrieveActiveBody());
+	    }
+	    if (mayBeReanalysed(method)) graphs.put(method, graph);
+	}
+	return graph;
+    }
+
     /**
      * @see PurityGraph.conservativeGraph
      * @see PurityGraph.freshGraph
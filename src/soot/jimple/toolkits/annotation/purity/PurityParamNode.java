@@ -40,6 +40,9 @@ public class PurityParamNode implements PurityNode
 
     public String toString() { return "P_"+id; }
 
+    /** The index of the parameter, -1 for this. */
+    int getIndex() { return id; }
+
     public int hashCode() { return id; }
     
     public boolean equals(Object o)
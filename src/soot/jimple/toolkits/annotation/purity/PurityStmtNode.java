@@ -52,12 +52,16 @@ public class PurityStmtNode implements PurityNode
     PurityStmtNode(Stmt id, boolean inside)
     { 
 	this.id = id; this.inside = inside;
-	if (!nMap.containsKey(id)) { nMap.put(id,new Integer(n)); n++; }
+	synchronized (nMap) {
+	    if (!nMap.containsKey(id)) { nMap.put(id,new Integer(n)); n++; }
+	}
     }
 
     public String toString() 
     { 
-	if (inside) return "I_"+nMap.get(id); else return "L_"+nMap.get(id);
+	Integer i;
+	synchronized (nMap) { i = nMap.get(id); }
+	if (inside) return "I_"+i; else return "L_"+i;
 	//if (inside) return "I_"+id; else return "L_"+id; 
     }
 
@@ -73,6 +77,10 @@ public class PurityStmtNode implements PurityNode
 	else return false;
     }
 
+    /** The statement that created the node. */
+    Stmt getStmt()
+    { return id; }
+
     public boolean isInside() 
     { return inside; }
 
@@ -0,0 +1,404 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.annotation.purity;
+import java.util.*;
+import java.io.*;
+import java.security.*;
+import soot.*;
+import soot.jimple.*;
+import soot.jimple.toolkits.callgraph.*;
+import soot.toolkits.graph.*;
+
+/**
+ * Summaries of library methods kept in a file across runs.
+ *
+ * A strongly connected component of the call-graph is kept if its
+ * methods, and all the analysed methods they call transitively, belong
+ * to library classes. It is identified by a fingerprint of the bodies
+ * and call edges of these methods, so that its summaries are only read
+ * back when nothing they were computed from has changed.
+ * Statement nodes are written as the method and the position of the
+ * statement in its body.
+ *
+ * The components are read before the analysis starts and written once
+ * it is over, so the cache is only used by one thread.
+ */
+class PuritySummaryCache
+{
+    private static final String HEADER = "soot-purity-summaries 1";
+
+    private final File      file;
+    private final CallGraph cg;
+    private final Set<SootMethod> analysed;  // methods of the filtered call-graph
+
+    // fingerprint of the component of each method that can be kept
+    private final Map<SootMethod,String> fingerprints =
+	new HashMap<SootMethod,String>();
+    // components that can be kept, callees first
+    private final List<List<SootMethod>> kept =
+	new ArrayList<List<SootMethod>>();
+    // lines of each component of the file, by fingerprint
+    private final Map<String,List<String>> stored =
+	new LinkedHashMap<String,List<String>>();
+    // units of the methods, by position
+    private final Map<SootMethod,List<Unit>> units =
+	new HashMap<SootMethod,List<Unit>>();
+
+    int nbRead = 0, nbWritten = 0;
+
+    /**
+     * Reads the components saved in file, if it exists.
+     *
+     * @param dg is the filtered call-graph of the analysis
+     */
+    PuritySummaryCache(File file, CallGraph cg, DirectedGraph dg)
+    {
+	this.file = file;
+	this.cg   = cg;
+	this.analysed = new HashSet<SootMethod>();
+	Iterator it = dg.iterator();
+	while (it.hasNext()) analysed.add((SootMethod)it.next());
+
+	if (!file.exists()) return;
+	try {
+	    BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+	    try {
+		String line = in.readLine();
+		if (!HEADER.equals(line)) {
+		    G.v().out.println("[AM] ignoring "+file+": not a summaries file");
+		    return;
+		}
+		List<String> lines = null;
+		while ((line = in.readLine()) != null) {
+		    if (line.startsWith("C\t")) {
+			lines = new ArrayList<String>();
+			stored.put(line.substring(2), lines);
+		    }
+		    else if (lines != null) lines.add(line);
+		}
+	    }
+	    finally {
+		in.close();
+	    }
+	}
+	catch (IOException e) {
+	    G.v().out.println("[AM] could not read summaries from "+file+": "+e);
+	    stored.clear();
+	}
+    }
+
+    /**
+     * Computes the fingerprint of component, whose callees must have been
+     * given before, and returns its summaries if they were saved.
+     *
+     * @return null unless the summary of every method of component was read
+     */
+    Map<SootMethod,PurityGraph> read(List<SootMethod> component)
+    {
+	String fp = fingerprint(component);
+	if (fp == null) return null;
+	for (SootMethod m : component) fingerprints.put(m, fp);
+	kept.add(component);
+
+	List<String> lines = stored.get(fp);
+	if (lines == null) return null;
+	Map<SootMethod,PurityGraph> r = parse(lines);
+	if (r == null || !r.keySet().equals(new HashSet<SootMethod>(component)))
+	    return null;
+	nbRead += r.size();
+	return r;
+    }
+
+    /**
+     * Writes the components that can be kept, with their summaries in
+     * data, and the components of the file that were not used by this run.
+     *
+     * @param data maps SootMethod to PurityGraphBox
+     */
+    void write(Map data)
+    {
+	// where the statements of the kept methods are
+	Map<Unit,String> where = new HashMap<Unit,String>();
+	for (SootMethod m : fingerprints.keySet()) {
+	    List<Unit> us = unitsOf(m);
+	    for (int i = 0; i < us.size(); i++)
+		where.put(us.get(i), m.getSignature()+"\t"+i);
+	}
+
+	File tmp = new File(file.getPath()+".tmp");
+	try {
+	    PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), "UTF-8")));
+	    try {
+		out.print(HEADER+"\n");
+		Set<String> written = new HashSet<String>();
+		for (List<SootMethod> comp : kept) {
+		    String fp = fingerprints.get(comp.get(0));
+		    String text = componentText(comp, data, where);
+		    if (text == null || !written.add(fp)) continue;
+		    out.print("C\t"+fp+"\n"+text);
+		    nbWritten += comp.size();
+		}
+		for (Map.Entry<String,List<String>> e : stored.entrySet()) {
+		    if (!written.add(e.getKey())) continue;
+		    out.print("C\t"+e.getKey()+"\n");
+		    for (String line : e.getValue()) out.print(line+"\n");
+		}
+	    }
+	    finally {
+		out.close();
+	    }
+	    if (out.checkError())
+		throw new IOException("write error on "+tmp);
+	    file.delete();
+	    if (!tmp.renameTo(file))
+		throw new IOException("cannot rename "+tmp+" to "+file);
+	}
+	catch (IOException e) {
+	    G.v().out.println("[AM] could not write summaries to "+file+": "+e);
+	}
+    }
+
+    /**
+     * The fingerprint of the methods of component, of their bodies and of
+     * their call edges, the analysed callees being represented by the
+     * fingerprint of their own component.
+     *
+     * @return null if a method it depends on is not in a library class
+     */
+    private String fingerprint(List<SootMethod> component)
+    {
+	List<SootMethod> sorted = new ArrayList<SootMethod>(component);
+	Collections.sort(sorted, new Comparator<SootMethod>() {
+		public int compare(SootMethod a, SootMethod b)
+		{ return a.getSignature().compareTo(b.getSignature()); }
+	    });
+	Set<SootMethod> inside = new HashSet<SootMethod>(component);
+
+	StringBuilder b = new StringBuilder();
+	for (SootMethod m : sorted) {
+	    if (!m.getDeclaringClass().isLibraryClass()) return null;
+	    b.append("M ").append(m.getSignature()).append('\n');
+	    Iterator itl = m.retrieveActiveBody().getLocals().iterator();
+	    while (itl.hasNext()) {
+		Local l = (Local)itl.next();
+		b.append("V ").append(l.getName()).append(' ').append(l.getType()).append('\n');
+	    }
+	    List<Unit> us = unitsOf(m);
+	    for (int i = 0; i < us.size(); i++) {
+		Unit u = us.get(i);
+		b.append("U ").append(i).append(' ').append(u).append('\n');
+		List<String> tgts = new ArrayList<String>();
+		Iterator it = cg.edgesOutOf(u);
+		while (it.hasNext()) {
+		    SootMethod t = ((Edge)it.next()).tgt();
+		    if (inside.contains(t))
+			tgts.add("c "+t.getSignature());
+		    else if (analysed.contains(t)) {
+			String fp = fingerprints.get(t);
+			if (fp == null) return null;
+			tgts.add("a "+fp);
+		    }
+		    else
+			tgts.add("u "+t.getSignature());
+		}
+		Collections.sort(tgts);
+		for (String t : tgts) b.append("T ").append(t).append('\n');
+	    }
+	}
+
+	try {
+	    MessageDigest md = MessageDigest.getInstance("SHA-1");
+	    byte[] h = md.digest(b.toString().getBytes("UTF-8"));
+	    StringBuilder s = new StringBuilder();
+	    for (byte x : h) s.append(Integer.toHexString((x & 0xff) | 0x100).substring(1));
+	    return s.toString();
+	}
+	catch (NoSuchAlgorithmException e) {
+	    throw new RuntimeException(e);
+	}
+	catch (UnsupportedEncodingException e) {
+	    throw new RuntimeException(e);
+	}
+    }
+
+    /**
+     * The lines saving the summaries of component, or null if one of
+     * their statement nodes does not come from a kept method.
+     */
+    private String componentText(List<SootMethod> component, Map data,
+				 Map<Unit,String> where)
+    {
+	StringBuilder b = new StringBuilder();
+	for (SootMethod m : component) {
+	    PurityGraph g = ((PurityGraphBox)data.get(m)).g;
+	    b.append("S\t").append(m.getSignature()).append('\n');
+
+	    // all the nodes of the graph, numbered
+	    Map<PurityNode,Integer> ids = new HashMap<PurityNode,Integer>();
+	    List<PurityNode> nodes = new ArrayList<PurityNode>(g.nodes);
+	    nodes.addAll(g.paramNodes);
+	    nodes.addAll(g.ret);
+	    nodes.addAll(g.globEscape);
+	    nodes.addAll(g.mutated.keySet());
+	    Iterator it = g.edges.keySet().iterator();
+	    while (it.hasNext()) {
+		Iterator itt = g.edges.get(it.next()).iterator();
+		while (itt.hasNext()) {
+		    PurityEdge e = (PurityEdge)itt.next();
+		    nodes.add(e.getSource());
+		    nodes.add(e.getTarget());
+		}
+	    }
+	    for (PurityNode n : nodes) {
+		if (ids.containsKey(n)) continue;
+		String s = nodeText(n, where);
+		if (s == null) return null;
+		ids.put(n, new Integer(ids.size()));
+		b.append("N\t").append(s).append('\n');
+	    }
+
+	    it = g.nodes.iterator();
+	    while (it.hasNext()) b.append("O\t").append(ids.get(it.next())).append('\n');
+	    it = g.paramNodes.iterator();
+	    while (it.hasNext()) b.append("P\t").append(ids.get(it.next())).append('\n');
+	    it = g.ret.iterator();
+	    while (it.hasNext()) b.append("R\t").append(ids.get(it.next())).append('\n');
+	    it = g.globEscape.iterator();
+	    while (it.hasNext()) b.append("X\t").append(ids.get(it.next())).append('\n');
+	    it = g.edges.keySet().iterator();
+	    while (it.hasNext()) {
+		Iterator itt = g.edges.get(it.next()).iterator();
+		while (itt.hasNext()) {
+		    PurityEdge e = (PurityEdge)itt.next();
+		    b.append("E\t").append(ids.get(e.getSource()))
+			.append('\t').append(ids.get(e.getTarget()))
+			.append('\t').append(e.isInside() ? 1 : 0)
+			.append('\t').append(e.getField()).append('\n');
+		}
+	    }
+	    it = g.mutated.keySet().iterator();
+	    while (it.hasNext()) {
+		Object n = it.next();
+		Iterator itt = g.mutated.get(n).iterator();
+		while (itt.hasNext())
+		    b.append("W\t").append(ids.get(n)).append('\t').append(itt.next()).append('\n');
+	    }
+	}
+	return b.toString();
+    }
+
+    private static String nodeText(PurityNode n, Map<Unit,String> where)
+    {
+	if (n instanceof PurityThisNode) return "T";
+	if (n instanceof PurityParamNode) return "P\t"+((PurityParamNode)n).getIndex();
+	if (n instanceof PurityGlobalNode) return "G";
+	if (n instanceof PurityMethodNode) return "M\t"+((PurityMethodNode)n).getMethod().getSignature();
+	if (n instanceof PurityStmtNode) {
+	    PurityStmtNode s = (PurityStmtNode)n;
+	    String w = where.get(s.getStmt());
+	    if (w == null) return null;
+	    return (s.isInside() ? "I\t" : "L\t")+w;
+	}
+	return null;
+    }
+
+    /**
+     * Rebuilds the summaries saved in lines.
+     *
+     * @return null if they refer to a method or statement that cannot be found
+     */
+    private Map<SootMethod,PurityGraph> parse(List<String> lines)
+    {
+	Map<SootMethod,PurityGraph> r = new HashMap<SootMethod,PurityGraph>();
+	PurityGraph g = null;
+	List<PurityNode> nodes = null;
+	try {
+	    for (String line : lines) {
+		String[] t = line.split("\t");
+		String k = t[0];
+		if (k.equals("S")) {
+		    SootMethod m = method(t[1]);
+		    if (m == null) return null;
+		    g = new PurityGraph();
+		    nodes = new ArrayList<PurityNode>();
+		    r.put(m, g);
+		}
+		else if (k.equals("N")) {
+		    PurityNode n = node(t);
+		    if (n == null) return null;
+		    nodes.add(n);
+		}
+		else if (k.equals("O")) g.nodes.add(nodes.get(Integer.parseInt(t[1])));
+		else if (k.equals("P")) g.paramNodes.add(nodes.get(Integer.parseInt(t[1])));
+		else if (k.equals("R")) g.ret.add(nodes.get(Integer.parseInt(t[1])));
+		else if (k.equals("X")) g.globEscape.add(nodes.get(Integer.parseInt(t[1])));
+		else if (k.equals("E")) {
+		    PurityNode src = nodes.get(Integer.parseInt(t[1]));
+		    PurityNode tgt = nodes.get(Integer.parseInt(t[2]));
+		    PurityEdge e = PurityGraph.cacheEdge(new PurityEdge(src, t[4], tgt, t[3].equals("1")));
+		    g.edges.put(src, e);
+		    g.backEdges.put(tgt, e);
+		}
+		else if (k.equals("W")) g.mutated.put(nodes.get(Integer.parseInt(t[1])), t[2]);
+		else return null;
+	    }
+	}
+	catch (RuntimeException e) {
+	    // truncated or garbled lines
+	    return null;
+	}
+	return r;
+    }
+
+    private PurityNode node(String[] t)
+    {
+	String k = t[1];
+	if (k.equals("T")) return PurityThisNode.node;
+	if (k.equals("G")) return PurityGlobalNode.node;
+	if (k.equals("P"))
+	    return PurityGraph.cacheNode(new PurityParamNode(Integer.parseInt(t[2])));
+	SootMethod m = method(t[2]);
+	if (m == null) return null;
+	if (k.equals("M")) return PurityGraph.cacheNode(new PurityMethodNode(m));
+	if (!m.isConcrete()) return null;
+	List<Unit> us = unitsOf(m);
+	int i = Integer.parseInt(t[3]);
+	if (i >= us.size()) return null;
+	if (k.equals("I")) return PurityGraph.cacheNode(new PurityStmtNode((Stmt)us.get(i), true));
+	if (k.equals("L")) return PurityGraph.cacheNode(new PurityStmtNode((Stmt)us.get(i), false));
+	return null;
+    }
+
+    private static SootMethod method(String signature)
+    {
+	Scene s = Scene.v();
+	return s.containsMethod(signature) ? s.getMethod(signature) : null;
+    }
+
+    private List<Unit> unitsOf(SootMethod m)
+    {
+	List<Unit> us = units.get(m);
+	if (us == null) {
+	    us = new ArrayList<Unit>(m.retrieveActiveBody().getUnits());
+	    units.put(m, us);
+	}
+	return us;
+    }
+}
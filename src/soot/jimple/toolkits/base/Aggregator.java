@@ -40,6 +40,9 @@ public class Aggregator extends BodyTransformer
     public Aggregator( Singletons.Global g ) {}
     public static Aggregator v() { return G.v().soot_jimple_toolkits_base_Aggregator(); }
 
+    /** Edits the body only through its BodyAnalysisManager and its chains. */
+    protected boolean keepsAnalyses() { return true; }
+
     /** Traverse the statements in the given body, looking for
       *  aggregation possibilities; that is, given a def d and a use u,
       *  d has no other uses, u has no other defs, collapse d and u. 
@@ -109,11 +112,13 @@ public class Aggregator extends BodyTransformer
       LocalDefs localDefs;
       ExceptionalUnitGraph graph;
       boolean hadAggregation = false;
-      Chain units = body.getUnits();
+      BodyAnalysisManager analyses = body.getAnalysisManager();
       
-      graph = new ExceptionalUnitGraph(body);
-      localDefs = new SmartLocalDefs(graph, new SimpleLiveLocals(graph));
-      localUses = new SimpleLocalUses(graph, localDefs);
+      // The defs and uses are kept up to date as s is aggregated, so
+      // that the next iteration does not have to compute them again
+      graph = analyses.getGraph();
+      localDefs = analyses.getLocalDefs();
+      localUses = analyses.getLocalUses();
           
       stmtIt = (new PseudoTopologicalOrderer()).newList(graph,false).iterator();
       
@@ -304,8 +309,8 @@ public class Aggregator extends BodyTransformer
           if (usepair.valueBox.canContainValue(aggregatee))
             {
               boolean wasSimpleCopy = isSimpleCopy( usepair.unit );
-              usepair.valueBox.setValue(aggregatee);
-              units.remove(s);
+              analyses.replaceUse(use, usepair.valueBox, aggregatee, s);
+              analyses.removeUnit(s);
               hadAggregation = true;
               // clean up the tags. If s was not a simple copy, the new statement should get
               // the tags of s.
@@ -39,7 +39,7 @@ public class CHATransformer extends SceneTransformer
     protected void internalTransform(String phaseName, Map opts)
     {
         CHAOptions options = new CHAOptions( opts );
-        CallGraphBuilder cg = new CallGraphBuilder( DumbPointerAnalysis.v() );
+        CallGraphBuilder cg = new CallGraphBuilder( DumbPointerAnalysis.v(), options.threads() );
         cg.build();
         if( options.verbose() ) {
             G.v().out.println( "Number of reachable methods: "
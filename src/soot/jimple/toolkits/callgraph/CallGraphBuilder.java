@@ -53,12 +53,18 @@ public final class CallGraphBuilder
     /** This constructor builds a complete call graph using the given
      * PointsToAnalysis to resolve virtual calls. */
     public CallGraphBuilder( PointsToAnalysis pa ) {
+        this( pa, 1 );
+    }
+    /** This constructor builds the same call graph, retrieving and scanning
+     * the bodies of reachable methods and resolving their virtual calls on
+     * the given number of threads. */
+    public CallGraphBuilder( PointsToAnalysis pa, int threads ) {
         this.pa = pa;
         cg = new CallGraph();
         Scene.v().setCallGraph( cg );
         reachables = Scene.v().getReachableMethods();
         ContextManager cm = makeContextManager(cg);
-        ofcgb = new OnFlyCallGraphBuilder( cm, reachables );
+        ofcgb = new OnFlyCallGraphBuilder( cm, reachables, false, threads );
    }
     /** This constructor builds the incomplete hack call graph for the
      * Dava ThrowFinder.
@@ -79,6 +85,13 @@ public final class CallGraphBuilder
         ofcgb = new OnFlyCallGraphBuilder( cm, reachables, true );
     }
     public void build() {
+        try {
+            buildGraph();
+        } finally {
+            ofcgb.shutdown();
+        }
+    }
+    private void buildGraph() {
         QueueReader worklist = reachables.listener();
         while(true) {
             ofcgb.processReachables();
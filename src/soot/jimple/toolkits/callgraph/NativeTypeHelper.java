@@ -0,0 +1,160 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.callgraph;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import soot.AnySubType;
+import soot.EntryPoints;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.jimple.toolkits.pointer.representations.AbstractObject;
+import soot.jimple.toolkits.pointer.representations.GeneralConstObject;
+import soot.jimple.toolkits.pointer.representations.ReferenceVariable;
+import soot.jimple.toolkits.pointer.util.NativeHelper;
+import soot.jimple.toolkits.pointer.util.NativeMethodDriver;
+import soot.util.NumberedString;
+
+/** Models the objects that native code and the virtual machine pass to
+ * reachable methods, for the call graph builders that propagate types
+ * instead of allocation sites. Native methods are simulated by the
+ * NativeMethodDriver that Spark uses; the objects that the virtual machine
+ * creates, such as the main thread and the default class loader, are the
+ * ones Spark adds in MethodPAG.addMiscEdges(). Subclasses map the variables
+ * of a method to their own representation and decide what assigning an
+ * abstract object to a variable means.
+ */
+abstract class NativeTypeHelper extends NativeHelper
+{
+    private final NativeMethodDriver driver = new NativeMethodDriver( this );
+
+    private final AbstractObject mainThread =
+        new GeneralConstObject( RefType.v( "java.lang.Thread" ), "mainThread" );
+    private final AbstractObject mainThreadGroup =
+        new GeneralConstObject( RefType.v( "java.lang.ThreadGroup" ), "mainThreadGroup" );
+    private final AbstractObject defaultClassLoader =
+        new GeneralConstObject( AnySubType.v( RefType.v( "java.lang.ClassLoader" ) ), "defaultClassLoader" );
+    private final AbstractObject mainClassNameString =
+        new GeneralConstObject( RefType.v( "java.lang.String" ), "mainClassNameString" );
+    private final AbstractObject privilegedActionException =
+        new GeneralConstObject( AnySubType.v( RefType.v( "java.security.PrivilegedActionException" ) ), "privilegedActionException" );
+    private final AbstractObject canonicalPath =
+        new GeneralConstObject( RefType.v( "java.lang.String" ), "canonicalPath" );
+
+    private final NumberedString sigCanonicalize = Scene.v().getSubSigNumberer().
+        findOrAdd( "java.lang.String canonicalize(java.lang.String)" );
+    private Set<NumberedString> implicitSubSigs;
+
+    /** Returns the variable holding the receiver of m. */
+    protected abstract ReferenceVariable thisVar( SootMethod m );
+    /** Returns the variable holding parameter i of m, or null if its type
+     * is not a reference type. */
+    protected abstract ReferenceVariable paramVar( SootMethod m, int i );
+    /** Returns the variable holding the return value of m, or null if its
+     * type is not a reference type. */
+    protected abstract ReferenceVariable returnVar( SootMethod m );
+    /** Returns the variable holding all thrown exceptions. */
+    protected abstract ReferenceVariable exceptionVar();
+
+    /** Adds what native code and the virtual machine do to the variables of
+     * a newly reachable method. Returns false if m is a native method of a
+     * class that the NativeMethodDriver has no simulation for. */
+    public boolean processMethod( SootMethod m ) {
+        boolean simulated = true;
+        if( m.isNative() ) {
+            ReferenceVariable[] params = new ReferenceVariable[ m.getParameterCount() ];
+            for( int i = 0; i < params.length; i++ ) params[i] = paramVar( m, i );
+            simulated = driver.process( m, m.isStatic() ? null : thisVar( m ), returnVar( m ), params );
+        }
+
+        String sig = m.getSignature();
+        if( sig.equals( "<java.lang.Thread: void <init>(java.lang.ThreadGroup,java.lang.String)>" ) ) {
+            assignObjectTo( thisVar( m ), mainThread );
+            assignObjectTo( paramVar( m, 0 ), mainThreadGroup );
+        } else if( sig.equals( "<java.lang.ref.Finalizer: void <init>(java.lang.Object)>" ) ) {
+            assign( finalizeQueue(), thisVar( m ) );
+        } else if( sig.equals( "<java.lang.ref.Finalizer: void runFinalizer()>" ) ) {
+            assign( thisVar( m ), finalizeQueue() );
+        } else if( sig.equals( "<java.lang.ref.Finalizer: void access$100(java.lang.Object)>" ) ) {
+            assign( paramVar( m, 0 ), finalizeQueue() );
+        } else if( sig.equals( "<java.lang.ClassLoader: void <init>()>" ) ) {
+            assignObjectTo( thisVar( m ), defaultClassLoader );
+        } else if( sig.equals( "<java.lang.Thread: void exit()>" ) ) {
+            assignObjectTo( thisVar( m ), mainThread );
+        } else if( sig.equals( "<java.security.PrivilegedActionException: void <init>(java.lang.Exception)>" ) ) {
+            assign( paramVar( m, 0 ), exceptionVar() );
+            assignObjectTo( thisVar( m ), privilegedActionException );
+        }
+
+        if( m.getNumberedSubSignature().equals( sigCanonicalize ) ) {
+            for( SootClass cl = m.getDeclaringClass(); ; cl = cl.getSuperclass() ) {
+                if( cl.getName().equals( "java.io.FileSystem" ) ) {
+                    assignObjectTo( returnVar( m ), canonicalPath );
+                }
+                if( !cl.hasSuperclass() ) break;
+            }
+        }
+
+        if( !m.isStatic() && !m.getName().equals( "<init>" )
+                && isImplicit( m ) && extendsClassLoader( m.getDeclaringClass() ) ) {
+            assignObjectTo( thisVar( m ), defaultClassLoader );
+            if( m.getParameterCount() > 0 ) assignObjectTo( paramVar( m, 0 ), mainClassNameString );
+        }
+        return simulated;
+    }
+
+    /** Returns whether m has the subsignature of a method the virtual
+     * machine calls implicitly. */
+    private boolean isImplicit( SootMethod m ) {
+        if( implicitSubSigs == null ) {
+            implicitSubSigs = new HashSet<NumberedString>();
+            for( Iterator<SootMethod> implicitIt = EntryPoints.v().implicit().iterator(); implicitIt.hasNext(); ) {
+                implicitSubSigs.add( implicitIt.next().getNumberedSubSignature() );
+            }
+        }
+        return implicitSubSigs.contains( m.getNumberedSubSignature() );
+    }
+
+    private static boolean extendsClassLoader( SootClass c ) {
+        while( !c.getName().equals( "java.lang.ClassLoader" ) ) {
+            if( !c.hasSuperclass() ) return false;
+            c = c.getSuperclass();
+        }
+        return true;
+    }
+
+    private ReferenceVariable finalizeQueue() {
+        return tempField( "finalizeQueue" );
+    }
+
+    /** Variables whose type is not a reference type are null; the
+     * native method simulations still pass them, so ignore them here. */
+    public void assign( ReferenceVariable lhs, ReferenceVariable rhs ) {
+        if( lhs == null || rhs == null ) return;
+        super.assign( lhs, rhs );
+    }
+    public void assignObjectTo( ReferenceVariable lhs, AbstractObject obj ) {
+        if( lhs == null ) return;
+        super.assignObjectTo( lhs, obj );
+    }
+}
@@ -31,9 +31,17 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import soot.ArrayType;
 import soot.Body;
@@ -86,6 +94,13 @@ import soot.util.queue.ChunkedQueue;
 import soot.util.queue.QueueReader;
 
 /** Models the call graph.
+ * The builder, like the VirtualCalls it resolves calls with, is driven by
+ * a single thread. With more than one thread, that thread hands the
+ * reachable methods it has not processed yet to a pool, in waves: the pool
+ * retrieves their bodies, one at a time and in the order it would have,
+ * scans them for call sites, and then resolves the virtual calls they add
+ * ahead of time. The calls and edges themselves are still added by the
+ * driving thread, in the same order, so the call graph is the same.
  * @author Ondrej Lhotak
  */
 public final class OnFlyCallGraphBuilder
@@ -395,6 +410,14 @@ public final class OnFlyCallGraphBuilder
     private final ChunkedQueue targetsQueue = new ChunkedQueue();
     private final QueueReader targets = targetsQueue.reader();
 
+    /** parallel waves */
+    private int threads = 1;
+    private ExecutorService executor;
+    private final Object bodyLock = new Object();
+    private final Map<SootMethod,BodyScan> scans = new HashMap<SootMethod,BodyScan>();
+    private List<SootMethod> wave;
+    private int waveLeft = 0;
+
 
     public OnFlyCallGraphBuilder( ContextManager cm, ReachableMethods rm ) {
         this.cm = cm;
@@ -405,29 +428,47 @@ public final class OnFlyCallGraphBuilder
             G.v().out.println( "[Call Graph] For information on where the call graph may be incomplete, use the verbose option to the cg phase." );
         }
         
-//        if(options.reflection_log()==null || options.reflection_log().length()==0) {
+        if(options.reflection_log()==null || options.reflection_log().length()==0) {
         	reflectionModel = new DefaultReflectionModel();
-//        } else {
-//        	reflectionModel = new TraceBasedReflectionModel();
-//        }
+        } else {
+        	reflectionModel = new TraceBasedReflectionModel();
+        }
     }
     public OnFlyCallGraphBuilder( ContextManager cm, ReachableMethods rm, boolean appOnly ) {
         this( cm, rm );
         this.appOnly = appOnly;
     }
+    /** Builds the call graph with a pool of the given number of threads;
+     * call {@link #shutdown()} once done with the builder. */
+    public OnFlyCallGraphBuilder( ContextManager cm, ReachableMethods rm, boolean appOnly, int threads ) {
+        this( cm, rm, appOnly );
+        this.threads = threads;
+    }
     public void processReachables() {
         while(true) {
             if( !worklist.hasNext() ) {
                 rm.update();
                 if( !worklist.hasNext() ) break;
             }
+            if( threads > 1 && waveLeft == 0 ) scanWave();
             MethodOrMethodContext momc = (MethodOrMethodContext) worklist.next();
             SootMethod m = momc.method();
-            if( appOnly && !m.getDeclaringClass().isApplicationClass() ) continue;
-            if( analyzedMethods.add( m ) ) processNewMethod( m );
-            processNewMethodContext( momc );
+            if( waveLeft > 0 ) waveLeft--;
+            if( !appOnly || m.getDeclaringClass().isApplicationClass() ) {
+                if( analyzedMethods.add( m ) ) processNewMethod( m );
+                processNewMethodContext( momc );
+            }
+            if( wave != null && waveLeft == 0 ) {
+                prepareDispatch( wave );
+                wave = null;
+            }
         }
     }
+    /** Stops the threads of the pool, if any. */
+    public void shutdown() {
+        if( executor != null ) executor.shutdownNow();
+        executor = null;
+    }
     public boolean wantTypes( Local receiver ) {
         return receiverToSites.get(receiver) != null;
     }
@@ -529,12 +570,144 @@ public final class OnFlyCallGraphBuilder
         if( m.isNative() || m.isPhantom() ) {
             return;
         }
-        Body b = m.retrieveActiveBody();
-        getImplicitTargets( m );
-        findReceivers(m, b);
+        BodyScan scan = scans.remove( m );
+        if( scan == null ) scan = new BodyScan( m.retrieveActiveBody() );
+        getImplicitTargets( m, scan );
+        findReceivers(m, scan);
     }
-    private void findReceivers(SootMethod m, Body b) {
-        for( Iterator sIt = b.getUnits().iterator(); sIt.hasNext(); ) {
+
+    /** Retrieves and scans, on the pool, the bodies of the methods queued in
+     * the worklist that processReachables will process. The bodies are
+     * retrieved one at a time, in worklist order, as processReachables
+     * would; the virtual calls they add are resolved ahead of time once the
+     * last of them has been processed. */
+    private void scanWave() {
+        final List<SootMethod> methods = new ArrayList<SootMethod>();
+        Set<SootMethod> seen = new HashSet<SootMethod>();
+        for( QueueReader ahead = (QueueReader) worklist.clone(); ahead.hasNext(); ) {
+            final SootMethod m = ((MethodOrMethodContext) ahead.next()).method();
+            waveLeft++;
+            if( appOnly && !m.getDeclaringClass().isApplicationClass() ) continue;
+            if( m.isNative() || m.isPhantom() || analyzedMethods.contains( m ) ) continue;
+            if( seen.add( m ) ) methods.add( m );
+        }
+        wave = methods;
+        if( methods.size() < 2 ) return;
+        final BodyScan[] found = new BodyScan[methods.size()];
+        final int[] next = new int[1];
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        for( int t = 0; t < threads; t++ ) tasks.add( new Callable<Object>() {
+            public Object call() {
+                while( true ) {
+                    int i;
+                    Body b;
+                    // the throw analysis and the resolver used to build
+                    // bodies are not thread-safe
+                    synchronized( bodyLock ) {
+                        i = next[0]++;
+                        if( i >= found.length ) return null;
+                        b = methods.get( i ).retrieveActiveBody();
+                    }
+                    found[i] = new BodyScan( b );
+                }
+            }
+        } );
+        runAll( tasks );
+        for( int i = 0; i < found.length; i++ ) scans.put( methods.get( i ), found[i] );
+    }
+
+    /** Resolves, on the pool, the virtual calls added by the given methods
+     * whose targets VirtualCalls will cache, and caches them. */
+    private void prepareDispatch( List<SootMethod> methods ) {
+        if( !Scene.v().hasFastHierarchy() ) return;
+        Set<VirtualCalls.DispatchKey> keys = new LinkedHashSet<VirtualCalls.DispatchKey>();
+        for( SootMethod m : methods ) {
+            List receivers = (List) methodToReceivers.get( m );
+            if( receivers == null ) continue;
+            for( Iterator receiverIt = receivers.iterator(); receiverIt.hasNext(); ) {
+                final Local receiver = (Local) receiverIt.next();
+                for( Iterator siteIt = ((Collection) receiverToSites.get( receiver )).iterator(); siteIt.hasNext(); ) {
+                    final VirtualCallSite site = (VirtualCallSite) siteIt.next();
+                    if( site.iie() instanceof SpecialInvokeExpr && site.kind() != Kind.THREAD ) continue;
+                    VirtualCalls.DispatchKey key =
+                        VirtualCalls.v().uncachedKey( receiver.getType(), site.subSig() );
+                    if( key != null ) keys.add( key );
+                }
+            }
+        }
+        if( keys.size() < 2 ) return;
+        final VirtualCalls.DispatchKey[] todo = keys.toArray( new VirtualCalls.DispatchKey[keys.size()] );
+        final List[] prepared = new List[todo.length];
+        final AtomicInteger next = new AtomicInteger();
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        for( int t = 0; t < threads; t++ ) tasks.add( new Callable<Object>() {
+            public Object call() {
+                for( int i = next.getAndIncrement(); i < todo.length; i = next.getAndIncrement() ) {
+                    try {
+                        prepared[i] = VirtualCalls.v().prepare( todo[i] );
+                    } catch( RuntimeException e ) {
+                        // left to resolve(), which reports the failure if
+                        // the call is resolved at all
+                    }
+                }
+                return null;
+            }
+        } );
+        runAll( tasks );
+        for( int i = 0; i < todo.length; i++ ) {
+            if( prepared[i] != null ) VirtualCalls.v().addPrepared( todo[i], prepared[i] );
+        }
+    }
+
+    private void runAll( List<Callable<Object>> tasks ) {
+        if( executor == null ) {
+            executor = Executors.newFixedThreadPool( threads, new ThreadFactory() {
+                public Thread newThread( Runnable r ) {
+                    Thread t = new Thread( r, "call graph builder" );
+                    t.setDaemon( true );
+                    return t;
+                }
+            } );
+        }
+        try {
+            for( Future<Object> f : executor.invokeAll( tasks ) ) f.get();
+        } catch( InterruptedException e ) {
+            throw new RuntimeException( "interrupted while building the call graph", e );
+        } catch( ExecutionException e ) {
+            Throwable t = e.getCause();
+            if( t instanceof RuntimeException ) throw (RuntimeException) t;
+            if( t instanceof Error ) throw (Error) t;
+            throw new RuntimeException( t );
+        }
+    }
+
+    /** The statements of a body that may give rise to call edges, in order,
+     * with the signature of the method each invoke refers to. Scanning only
+     * reads the body, so several bodies can be scanned at once. */
+    private static final class BodyScan {
+        final List<Stmt> stmts = new ArrayList<Stmt>();
+        final List<String> signatures = new ArrayList<String>();
+        BodyScan( Body b ) {
+            for( Iterator sIt = b.getUnits().iterator(); sIt.hasNext(); ) {
+                final Stmt s = (Stmt) sIt.next();
+                if( s.containsInvokeExpr() ) {
+                    stmts.add( s );
+                    signatures.add( s.getInvokeExpr().getMethodRef().getSignature() );
+                } else if( ( s.containsFieldRef() && s.getFieldRef() instanceof StaticFieldRef )
+                        || ( s instanceof AssignStmt && isNew( ((AssignStmt) s).getRightOp() ) ) ) {
+                    stmts.add( s );
+                    signatures.add( null );
+                }
+            }
+        }
+        private static boolean isNew( Value rhs ) {
+            return rhs instanceof NewExpr || rhs instanceof NewArrayExpr
+                || rhs instanceof NewMultiArrayExpr;
+        }
+    }
+
+    private void findReceivers(SootMethod m, BodyScan scan) {
+        for( Iterator sIt = scan.stmts.iterator(); sIt.hasNext(); ) {
             final Stmt s = (Stmt) sIt.next();
             if (s.containsInvokeExpr()) {
                 InvokeExpr ie = s.getInvokeExpr();
@@ -575,24 +748,24 @@ public final class OnFlyCallGraphBuilder
     
     ReflectionModel reflectionModel;
     
-    private void getImplicitTargets( SootMethod source ) {
+    private void getImplicitTargets( SootMethod source, BodyScan scan ) {
         final SootClass scl = source.getDeclaringClass();
         if( source.isNative() || source.isPhantom() ) return;
         if( source.getSubSignature().indexOf( "<init>" ) >= 0 ) {
             handleInit(source, scl);
         }
-        Body b = source.retrieveActiveBody();
-        for( Iterator sIt = b.getUnits().iterator(); sIt.hasNext(); ) {
-            final Stmt s = (Stmt) sIt.next();
+        for( int i = 0; i < scan.stmts.size(); i++ ) {
+            final Stmt s = scan.stmts.get( i );
             if( s.containsInvokeExpr() ) {
                 InvokeExpr ie = s.getInvokeExpr();
-                if( ie.getMethodRef().getSignature().equals( "<java.lang.reflect.Method: java.lang.Object invoke(java.lang.Object,java.lang.Object[])>" ) ) {
+                String sig = scan.signatures.get( i );
+                if( sig.equals( "<java.lang.reflect.Method: java.lang.Object invoke(java.lang.Object,java.lang.Object[])>" ) ) {
                 	reflectionModel.methodInvoke(source,s);
                 }
-                if( ie.getMethodRef().getSignature().equals( "<java.lang.Class: java.lang.Object newInstance()>" ) ) {
+                if( sig.equals( "<java.lang.Class: java.lang.Object newInstance()>" ) ) {
                 	reflectionModel.classNewInstance(source,s);
                 }
-                if( ie.getMethodRef().getSignature().equals( "<java.lang.reflect.Constructor: java.lang.Object newInstance(java.lang.Object[])>" ) ) {
+                if( sig.equals( "<java.lang.reflect.Constructor: java.lang.Object newInstance(java.lang.Object[])>" ) ) {
                 	reflectionModel.contructorNewInstance(source, s);
                 }
                 if( ie.getMethodRef().getSubSignature() == sigForName ) {
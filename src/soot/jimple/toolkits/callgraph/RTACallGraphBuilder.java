@@ -0,0 +1,320 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.callgraph;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import soot.AnySubType;
+import soot.ArrayType;
+import soot.Body;
+import soot.FastHierarchy;
+import soot.Kind;
+import soot.Local;
+import soot.MethodOrMethodContext;
+import soot.RefLikeType;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.ClassConstant;
+import soot.jimple.NewArrayExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.NewMultiArrayExpr;
+import soot.jimple.StringConstant;
+import soot.jimple.toolkits.pointer.representations.AbstractObject;
+import soot.jimple.toolkits.pointer.representations.ReferenceVariable;
+import soot.util.queue.QueueReader;
+
+/** Builds a call graph using Rapid Type Analysis. A virtual call is
+ * dispatched on every type that is instantiated in a reachable method and
+ * is a subtype of the declared type of the receiver. No pointer assignment
+ * graph is built; the only state kept besides the call graph is the set of
+ * instantiated types and the receivers of reachable methods, each indexed
+ * by type.
+ *
+ * Besides the receivers of instance entry points and the arguments of main
+ * methods, the objects created by native methods and by the virtual
+ * machine are instantiated as in Spark, see {@link NativeTypeHelper}. An
+ * object of type AnySubType instantiates the concrete subtypes of its base
+ * type that fit the variable it is assigned to.
+ */
+public final class RTACallGraphBuilder
+{
+    private final ReachableMethods reachables;
+    private final OnFlyCallGraphBuilder ofcgb;
+    private final CallGraph cg;
+
+    /** Instantiated types, indexed by each of their supertypes. */
+    private final Map<Type,List<Type>> instantiatedSubtypes = new HashMap<Type,List<Type>>();
+    private final Set<Type> instantiated = new HashSet<Type>();
+    /** Receivers of reachable methods, indexed by their declared type. */
+    private final Map<Type,List<Local>> receiversByType = new HashMap<Type,List<Local>>();
+    private NativeTypes nativeTypes;
+
+    public CallGraph getCallGraph() { return cg; }
+    public ReachableMethods reachables() { return reachables; }
+
+    public RTACallGraphBuilder() {
+        cg = new CallGraph();
+        Scene.v().setCallGraph( cg );
+        reachables = Scene.v().getReachableMethods();
+        ContextManager cm = CallGraphBuilder.makeContextManager( cg );
+        ofcgb = new OnFlyCallGraphBuilder( cm, reachables );
+    }
+
+    /** Returns the number of types found to be instantiated. */
+    public int numInstantiatedTypes() { return instantiated.size(); }
+
+    public void build() {
+        nativeTypes = new NativeTypes();
+        QueueReader<MethodOrMethodContext> methods = reachables.listener();
+        QueueReader<Edge> edges = cg.listener();
+        for( Iterator<SootMethod> mIt = Scene.v().getEntryPoints().iterator(); mIt.hasNext(); ) {
+            final SootMethod m = mIt.next();
+            if( !m.isStatic() ) instantiate( m.getDeclaringClass().getType() );
+            if( m.getSubSignature().equals( "void main(java.lang.String[])" ) ) {
+                instantiate( ArrayType.v( RefType.v( "java.lang.String" ), 1 ) );
+                instantiate( RefType.v( "java.lang.String" ) );
+            }
+        }
+        while(true) {
+            ofcgb.processReachables();
+            boolean changed = false;
+            while( methods.hasNext() ) {
+                processMethod( methods.next().method() );
+                changed = true;
+            }
+            while( edges.hasNext() ) {
+                processEdge( edges.next() );
+                changed = true;
+            }
+            if( !changed ) break;
+        }
+    }
+
+    private void processMethod( SootMethod m ) {
+        nativeTypes.processMethod( m );
+        if( m.isConcrete() && m.hasActiveBody() ) {
+            Body b = m.getActiveBody();
+            for( Iterator<Unit> sIt = b.getUnits().iterator(); sIt.hasNext(); ) {
+                final Unit s = sIt.next();
+                for( Iterator<ValueBox> vbIt = s.getUseBoxes().iterator(); vbIt.hasNext(); ) {
+                    final Value v = vbIt.next().getValue();
+                    if( v instanceof NewExpr ) {
+                        instantiate( ((NewExpr) v).getBaseType() );
+                    } else if( v instanceof NewArrayExpr ) {
+                        instantiate( v.getType() );
+                    } else if( v instanceof NewMultiArrayExpr ) {
+                        ArrayType at = (ArrayType) v.getType();
+                        int dims = ((NewMultiArrayExpr) v).getSizeCount();
+                        for( int i = 0; i < dims; i++ ) {
+                            instantiate( at );
+                            if( !( at.getElementType() instanceof ArrayType ) ) break;
+                            at = (ArrayType) at.getElementType();
+                        }
+                    } else if( v instanceof StringConstant ) {
+                        instantiate( RefType.v( "java.lang.String" ) );
+                    } else if( v instanceof ClassConstant ) {
+                        instantiate( RefType.v( "java.lang.Class" ) );
+                    }
+                }
+            }
+        }
+        List receivers = (List) ofcgb.methodToReceivers().get( m );
+        if( receivers != null ) for( Iterator receiverIt = receivers.iterator(); receiverIt.hasNext(); ) {
+            final Local receiver = (Local) receiverIt.next();
+            addReceiver( receiver );
+        }
+        List stringConstants = (List) ofcgb.methodToStringConstants().get( m );
+        if( stringConstants != null ) for( Iterator stringConstantIt = stringConstants.iterator(); stringConstantIt.hasNext(); ) {
+            final Local stringConstant = (Local) stringConstantIt.next();
+            ofcgb.addStringConstant( stringConstant, null, null );
+        }
+    }
+
+    /** Objects created reflectively are instantiated by the class of the
+     * constructor that the reflection model resolved them to. */
+    private void processEdge( Edge e ) {
+        Kind kind = e.kind();
+        if( kind == Kind.NEWINSTANCE || kind == Kind.REFL_CLASS_NEWINSTANCE
+                || kind == Kind.REFL_CONSTR_NEWINSTANCE ) {
+            instantiate( e.tgt().getDeclaringClass().getType() );
+        }
+    }
+
+    /** Dispatches all receivers that may point to an object of type t on t,
+     * the first time t is found to be instantiated. */
+    private void instantiate( Type t ) {
+        if( !instantiated.add( t ) ) return;
+        for( Iterator<Type> supIt = supertypesOf( t ).iterator(); supIt.hasNext(); ) {
+            final Type sup = supIt.next();
+            List<Type> subtypes = instantiatedSubtypes.get( sup );
+            if( subtypes == null ) instantiatedSubtypes.put( sup, subtypes = new ArrayList<Type>() );
+            subtypes.add( t );
+            List<Local> receivers = receiversByType.get( sup );
+            if( receivers != null ) for( Iterator<Local> receiverIt = receivers.iterator(); receiverIt.hasNext(); ) {
+                final Local receiver = receiverIt.next();
+                ofcgb.addType( receiver, null, t, null );
+            }
+        }
+    }
+
+    /** Dispatches a receiver of a newly reachable method on all types
+     * instantiated so far that it may point to. */
+    private void addReceiver( Local receiver ) {
+        Type declared = receiver.getType();
+        if( declared instanceof ArrayType ) declared = RefType.v( "java.lang.Object" );
+        if( !( declared instanceof RefType ) ) return;
+        List<Local> receivers = receiversByType.get( declared );
+        if( receivers == null ) receiversByType.put( declared, receivers = new ArrayList<Local>() );
+        receivers.add( receiver );
+        List<Type> subtypes = instantiatedSubtypes.get( declared );
+        if( subtypes != null ) for( Iterator<Type> tIt = subtypes.iterator(); tIt.hasNext(); ) {
+            final Type t = tIt.next();
+            ofcgb.addType( receiver, null, t, null );
+        }
+    }
+
+    /** Instantiates the concrete subtypes of the base of t that can be
+     * stored in a variable of type declared; an array type stands for
+     * all arrays that can. */
+    private void instantiateAnySubType( AnySubType t, Type declared ) {
+        FastHierarchy fh = Scene.v().getOrMakeFastHierarchy();
+        if( declared instanceof ArrayType ) {
+            if( fh.canStoreType( t, declared ) ) instantiate( declared );
+            return;
+        }
+        Set<SootClass> seen = new HashSet<SootClass>();
+        List<SootClass> worklist = new ArrayList<SootClass>();
+        worklist.add( t.getBase().getSootClass() );
+        while( !worklist.isEmpty() ) {
+            SootClass cl = worklist.remove( worklist.size() - 1 );
+            if( !seen.add( cl ) ) continue;
+            if( cl.isInterface() ) {
+                worklist.addAll( fh.getAllImplementersOfInterface( cl ) );
+            } else {
+                if( cl.isConcrete() && fh.canStoreType( cl.getType(), declared ) ) instantiate( cl.getType() );
+                worklist.addAll( fh.getSubclassesOf( cl ) );
+            }
+        }
+    }
+
+    /** Returns t and all its superclasses and superinterfaces. Array types
+     * only have java.lang.Object as supertype here, since VirtualCalls
+     * dispatches calls on arrays as calls on java.lang.Object. */
+    private List<Type> supertypesOf( Type t ) {
+        List<Type> ret = new ArrayList<Type>();
+        if( !( t instanceof RefType ) ) {
+            ret.add( RefType.v( "java.lang.Object" ) );
+            return ret;
+        }
+        Set<SootClass> seen = new HashSet<SootClass>();
+        List<SootClass> worklist = new ArrayList<SootClass>();
+        worklist.add( ((RefType) t).getSootClass() );
+        while( !worklist.isEmpty() ) {
+            SootClass cl = worklist.remove( worklist.size() - 1 );
+            if( !seen.add( cl ) ) continue;
+            ret.add( cl.getType() );
+            if( cl.hasSuperclass() ) worklist.add( cl.getSuperclass() );
+            worklist.addAll( cl.getInterfaces() );
+        }
+        return ret;
+    }
+
+    /** A variable that native methods and the virtual machine act on; only
+     * its type matters. */
+    private static final class Variable implements ReferenceVariable {
+        final Type type;
+        Variable( Type type ) {
+            this.type = type;
+        }
+    }
+
+    /** Instantiates the objects that native methods and the virtual machine
+     * assign to variables. Assignments between variables are ignored, since
+     * the objects they copy have been instantiated already. */
+    private final class NativeTypes extends NativeTypeHelper {
+        private final Variable object = new Variable( RefType.v( "java.lang.Object" ) );
+
+        private Variable variable( Type t ) {
+            return t instanceof RefLikeType ? new Variable( t ) : null;
+        }
+        protected ReferenceVariable thisVar( SootMethod m ) {
+            return variable( m.getDeclaringClass().getType() );
+        }
+        protected ReferenceVariable paramVar( SootMethod m, int i ) {
+            return variable( m.getParameterType( i ) );
+        }
+        protected ReferenceVariable returnVar( SootMethod m ) {
+            return variable( m.getReturnType() );
+        }
+        protected ReferenceVariable exceptionVar() {
+            return variable( RefType.v( "java.lang.Throwable" ) );
+        }
+        protected void assignImpl( ReferenceVariable lhs, ReferenceVariable rhs ) {
+        }
+        protected void assignObjectToImpl( ReferenceVariable lhs, AbstractObject obj ) {
+            Type t = obj.getType();
+            if( t instanceof AnySubType ) instantiateAnySubType( (AnySubType) t, ((Variable) lhs).type );
+            else instantiate( t );
+        }
+        protected void throwExceptionImpl( AbstractObject obj ) {
+            assignObjectToImpl( exceptionVar(), obj );
+        }
+        protected ReferenceVariable arrayElementOfImpl( ReferenceVariable base ) {
+            Type t = ((Variable) base).type;
+            return t instanceof ArrayType ? variable( ((ArrayType) t).getElementType() ) : object;
+        }
+        protected ReferenceVariable cloneObjectImpl( ReferenceVariable source ) {
+            return source;
+        }
+        protected ReferenceVariable newInstanceOfImpl( ReferenceVariable cls ) {
+            for( Iterator<SootClass> clIt = Scene.v().dynamicClasses().iterator(); clIt.hasNext(); ) {
+                instantiate( clIt.next().getType() );
+            }
+            return object;
+        }
+        protected ReferenceVariable staticFieldImpl( String className, String fieldName ) {
+            if( Scene.v().containsClass( className )
+                    && Scene.v().getSootClass( className ).declaresFieldByName( fieldName ) ) {
+                return variable( Scene.v().getSootClass( className ).getFieldByName( fieldName ).getType() );
+            }
+            return object;
+        }
+        protected ReferenceVariable tempFieldImpl( String fieldsig ) {
+            return object;
+        }
+        protected ReferenceVariable tempVariableImpl() {
+            return object;
+        }
+        protected ReferenceVariable tempLocalVariableImpl( SootMethod method ) {
+            return object;
+        }
+    }
+}
@@ -0,0 +1,430 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.callgraph;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import soot.ArrayType;
+import soot.Body;
+import soot.FastHierarchy;
+import soot.Kind;
+import soot.Local;
+import soot.MethodOrMethodContext;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.ArrayRef;
+import soot.jimple.AssignStmt;
+import soot.jimple.CastExpr;
+import soot.jimple.CaughtExceptionRef;
+import soot.jimple.ClassConstant;
+import soot.jimple.FieldRef;
+import soot.jimple.IdentityStmt;
+import soot.jimple.InstanceInvokeExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.NewArrayExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.NewMultiArrayExpr;
+import soot.jimple.NullConstant;
+import soot.jimple.ParameterRef;
+import soot.jimple.ReturnStmt;
+import soot.jimple.Stmt;
+import soot.jimple.StringConstant;
+import soot.jimple.ThisRef;
+import soot.jimple.ThrowStmt;
+import soot.jimple.toolkits.pointer.representations.AbstractObject;
+import soot.jimple.toolkits.pointer.representations.ReferenceVariable;
+import soot.util.queue.QueueReader;
+
+/** Builds a call graph using Variable Type Analysis. Types of allocated
+ * objects are propagated along a type flow graph whose nodes are the
+ * reference-typed locals of reachable methods, the fields (one node per
+ * field, shared by all objects), the parameters, receiver and return value
+ * of each reachable method, the contents of all arrays and all thrown
+ * exceptions. Each node only admits types compatible with its declared
+ * type. A virtual call is dispatched on the types that reach its receiver.
+ *
+ * The graph grows together with the call graph: each new edge connects the
+ * arguments and result of its call site to the target. Native methods and
+ * the objects created by the virtual machine are modeled as in Spark, see
+ * {@link NativeTypeHelper}. A native method that Spark does not simulate
+ * either, or a method without a body such as a phantom method, may return
+ * any type allocated anywhere.
+ */
+public final class VTACallGraphBuilder
+{
+    private final ReachableMethods reachables;
+    private final OnFlyCallGraphBuilder ofcgb;
+    private final CallGraph cg;
+    private FastHierarchy fh;
+
+    private final Map<Local,Node> localToNode = new HashMap<Local,Node>();
+    private final Map<SootField,Node> fieldToNode = new HashMap<SootField,Node>();
+    /** For each method, the nodes of its receiver, its parameters and its
+     * return value, in that order; null where the type is not a reference
+     * type. */
+    private final Map<SootMethod,Node[]> methodToNodes = new HashMap<SootMethod,Node[]>();
+    private final Node arrayElements = new Node( null, null );
+    private final Node exceptions = new Node( RefType.v( "java.lang.Throwable" ), null );
+    /** Every type allocated in a reachable method or by native code. */
+    private final Node allocated = new Node( null, null );
+    private final Map<String,Node> tempFieldToNode = new HashMap<String,Node>();
+    private NativeTypes nativeTypes;
+    private final ArrayDeque<Node> worklist = new ArrayDeque<Node>();
+    private int numNodes = 3;
+
+    public CallGraph getCallGraph() { return cg; }
+    public ReachableMethods reachables() { return reachables; }
+
+    public VTACallGraphBuilder() {
+        cg = new CallGraph();
+        Scene.v().setCallGraph( cg );
+        reachables = Scene.v().getReachableMethods();
+        ContextManager cm = CallGraphBuilder.makeContextManager( cg );
+        ofcgb = new OnFlyCallGraphBuilder( cm, reachables );
+    }
+
+    /** Returns the number of nodes of the type flow graph. */
+    public int numNodes() { return numNodes; }
+
+    public void build() {
+        fh = Scene.v().getOrMakeFastHierarchy();
+        nativeTypes = new NativeTypes();
+        QueueReader<MethodOrMethodContext> methods = reachables.listener();
+        QueueReader<Edge> edges = cg.listener();
+        for( Iterator<SootMethod> mIt = Scene.v().getEntryPoints().iterator(); mIt.hasNext(); ) {
+            final SootMethod m = mIt.next();
+            if( !m.isStatic() ) allocate( thisNode( m ), m.getDeclaringClass().getType() );
+            if( m.getSubSignature().equals( "void main(java.lang.String[])" ) ) {
+                allocate( paramNode( m, 0 ), ArrayType.v( RefType.v( "java.lang.String" ), 1 ) );
+                allocate( arrayElements, RefType.v( "java.lang.String" ) );
+            }
+        }
+        while(true) {
+            ofcgb.processReachables();
+            boolean changed = false;
+            while( methods.hasNext() ) {
+                processMethod( methods.next().method() );
+                changed = true;
+            }
+            while( edges.hasNext() ) {
+                processEdge( edges.next() );
+                changed = true;
+            }
+            if( !changed && worklist.isEmpty() ) break;
+            propagate();
+        }
+    }
+
+    /** Adds the intraprocedural flow of a newly reachable method. */
+    private void processMethod( SootMethod m ) {
+        List stringConstants = (List) ofcgb.methodToStringConstants().get( m );
+        if( stringConstants != null ) for( Iterator stringConstantIt = stringConstants.iterator(); stringConstantIt.hasNext(); ) {
+            final Local stringConstant = (Local) stringConstantIt.next();
+            ofcgb.addStringConstant( stringConstant, null, null );
+        }
+        boolean simulated = nativeTypes.processMethod( m );
+        if( m.isNative() ? !simulated : !m.hasActiveBody() ) addEdge( allocated, returnNode( m ) );
+        if( !m.isConcrete() || !m.hasActiveBody() ) return;
+        Body b = m.getActiveBody();
+        for( Iterator<Unit> sIt = b.getUnits().iterator(); sIt.hasNext(); ) {
+            final Stmt s = (Stmt) sIt.next();
+            if( s instanceof IdentityStmt ) {
+                IdentityStmt is = (IdentityStmt) s;
+                Node dst = nodeOf( is.getLeftOp() );
+                Value rhs = is.getRightOp();
+                if( rhs instanceof ThisRef ) {
+                    addEdge( thisNode( m ), dst );
+                } else if( rhs instanceof ParameterRef ) {
+                    addEdge( paramNode( m, ((ParameterRef) rhs).getIndex() ), dst );
+                } else if( rhs instanceof CaughtExceptionRef ) {
+                    addEdge( exceptions, dst );
+                }
+            } else if( s instanceof AssignStmt ) {
+                AssignStmt as = (AssignStmt) s;
+                Node dst = nodeOf( as.getLeftOp() );
+                if( dst == null ) continue;
+                Value rhs = as.getRightOp();
+                if( rhs instanceof CastExpr ) rhs = ((CastExpr) rhs).getOp();
+                if( rhs instanceof NewExpr ) {
+                    allocate( dst, ((NewExpr) rhs).getBaseType() );
+                } else if( rhs instanceof NewArrayExpr ) {
+                    allocate( dst, rhs.getType() );
+                } else if( rhs instanceof NewMultiArrayExpr ) {
+                    ArrayType at = (ArrayType) rhs.getType();
+                    allocate( dst, at );
+                    int dims = ((NewMultiArrayExpr) rhs).getSizeCount();
+                    for( int i = 1; i < dims && at.getElementType() instanceof ArrayType; i++ ) {
+                        at = (ArrayType) at.getElementType();
+                        allocate( arrayElements, at );
+                    }
+                } else if( !( rhs instanceof InvokeExpr ) ) {
+                    flow( rhs, dst );
+                }
+            } else if( s instanceof ReturnStmt ) {
+                flow( ((ReturnStmt) s).getOp(), returnNode( m ) );
+            } else if( s instanceof ThrowStmt ) {
+                flow( ((ThrowStmt) s).getOp(), exceptions );
+            }
+        }
+    }
+
+    /** Adds the interprocedural flow of a new call graph edge. */
+    private void processEdge( Edge e ) {
+        Kind kind = e.kind();
+        SootMethod tgt = e.tgt();
+        Stmt s = e.srcStmt();
+        InvokeExpr ie = s != null && s.containsInvokeExpr() ? s.getInvokeExpr() : null;
+        Node result = s instanceof AssignStmt ? nodeOf( ((AssignStmt) s).getLeftOp() ) : null;
+        if( kind.isExplicit() ) {
+            if( ie instanceof InstanceInvokeExpr ) {
+                flow( ((InstanceInvokeExpr) ie).getBase(), thisNode( tgt ) );
+            }
+            int args = Math.min( ie.getArgCount(), tgt.getParameterCount() );
+            for( int i = 0; i < args; i++ ) {
+                flow( ie.getArg( i ), paramNode( tgt, i ) );
+            }
+            addEdge( returnNode( tgt ), result );
+        } else if( kind == Kind.THREAD ) {
+            flow( ((InstanceInvokeExpr) ie).getBase(), thisNode( tgt ) );
+        } else if( kind == Kind.PRIVILEGED || kind == Kind.REFL_INVOKE ) {
+            flow( ie.getArg( 0 ), thisNode( tgt ) );
+            if( kind == Kind.REFL_INVOKE ) flowArgArray( ie.getArg( 1 ), tgt );
+            addEdge( returnNode( tgt ), result );
+        } else if( kind == Kind.NEWINSTANCE || kind == Kind.REFL_CLASS_NEWINSTANCE
+                || kind == Kind.REFL_CONSTR_NEWINSTANCE ) {
+            RefType created = tgt.getDeclaringClass().getType();
+            allocate( thisNode( tgt ), created );
+            if( result != null ) addType( result, created );
+            if( kind == Kind.REFL_CONSTR_NEWINSTANCE ) flowArgArray( ie.getArg( 0 ), tgt );
+        } else if( kind == Kind.FINALIZE ) {
+            addEdge( thisNode( e.src() ), thisNode( tgt ) );
+        }
+    }
+
+    /** Passes the contents of the argument array of a reflective call to
+     * every parameter of its target, as Spark does. */
+    private void flowArgArray( Value args, SootMethod tgt ) {
+        if( args instanceof NullConstant ) return;
+        for( int i = 0; i < tgt.getParameterCount(); i++ ) {
+            addEdge( arrayElements, paramNode( tgt, i ) );
+        }
+    }
+
+    /** Propagates newly found types along the flow graph until a fixed
+     * point is reached, dispatching the virtual calls on each receiver as
+     * its types arrive. */
+    private void propagate() {
+        while( !worklist.isEmpty() ) {
+            Node n = worklist.removeFirst();
+            List<Type> newTypes = n.pending;
+            n.pending = null;
+            for( Iterator<Node> succIt = n.succs.iterator(); succIt.hasNext(); ) {
+                final Node succ = succIt.next();
+                for( Iterator<Type> tIt = newTypes.iterator(); tIt.hasNext(); ) {
+                    addType( succ, tIt.next() );
+                }
+            }
+            if( n.local != null && ofcgb.wantTypes( n.local ) ) {
+                for( Iterator<Type> tIt = newTypes.iterator(); tIt.hasNext(); ) {
+                    ofcgb.addType( n.local, null, tIt.next(), null );
+                }
+            }
+        }
+    }
+
+    private void flow( Value v, Node dst ) {
+        if( dst == null ) return;
+        if( v instanceof StringConstant ) {
+            allocate( dst, RefType.v( "java.lang.String" ) );
+        } else if( v instanceof ClassConstant ) {
+            allocate( dst, RefType.v( "java.lang.Class" ) );
+        } else {
+            addEdge( nodeOf( v ), dst );
+        }
+    }
+
+    private void addEdge( Node src, Node dst ) {
+        if( src == null || dst == null || src == dst ) return;
+        src.succs.add( dst );
+        for( Iterator<Type> tIt = src.types.iterator(); tIt.hasNext(); ) {
+            addType( dst, tIt.next() );
+        }
+    }
+
+    /** Adds the type of an object created at a program point to n. */
+    private void allocate( Node n, Type t ) {
+        addType( allocated, t );
+        addType( n, t );
+    }
+
+    private void addType( Node n, Type t ) {
+        if( n == null ) return;
+        if( n.type != null && !fh.canStoreType( t, n.type ) ) return;
+        if( !n.types.add( t ) ) return;
+        if( n.pending == null ) {
+            n.pending = new ArrayList<Type>();
+            worklist.addLast( n );
+        }
+        n.pending.add( t );
+    }
+
+    /** Returns the node holding the values of v, or null if v is not a
+     * local, field reference or array reference of reference type. */
+    private Node nodeOf( Value v ) {
+        if( !isReference( v.getType() ) ) return null;
+        if( v instanceof Local ) {
+            Node ret = localToNode.get( v );
+            if( ret == null ) localToNode.put( (Local) v, ret = newNode( v.getType(), (Local) v ) );
+            return ret;
+        } else if( v instanceof FieldRef ) {
+            SootField f = ((FieldRef) v).getField();
+            Node ret = fieldToNode.get( f );
+            if( ret == null ) fieldToNode.put( f, ret = newNode( f.getType(), null ) );
+            return ret;
+        } else if( v instanceof ArrayRef ) {
+            return arrayElements;
+        }
+        return null;
+    }
+
+    private Node thisNode( SootMethod m ) {
+        return nodesOf( m )[0];
+    }
+    private Node paramNode( SootMethod m, int i ) {
+        return nodesOf( m )[i+1];
+    }
+    private Node returnNode( SootMethod m ) {
+        return nodesOf( m )[m.getParameterCount()+1];
+    }
+    private Node[] nodesOf( SootMethod m ) {
+        Node[] ret = methodToNodes.get( m );
+        if( ret == null ) {
+            int params = m.getParameterCount();
+            ret = new Node[params+2];
+            if( !m.isStatic() ) ret[0] = newNode( m.getDeclaringClass().getType(), null );
+            for( int i = 0; i < params; i++ ) {
+                Type t = m.getParameterType( i );
+                if( isReference( t ) ) ret[i+1] = newNode( t, null );
+            }
+            if( isReference( m.getReturnType() ) ) ret[params+1] = newNode( m.getReturnType(), null );
+            methodToNodes.put( m, ret );
+        }
+        return ret;
+    }
+
+    private Node newNode( Type type, Local local ) {
+        numNodes++;
+        return new Node( type, local );
+    }
+
+    private static boolean isReference( Type t ) {
+        return t instanceof RefType || t instanceof ArrayType;
+    }
+
+    /** Maps the variables that native methods and the virtual machine
+     * act on to nodes of the type flow graph. */
+    private final class NativeTypes extends NativeTypeHelper {
+        protected ReferenceVariable thisVar( SootMethod m ) {
+            return thisNode( m );
+        }
+        protected ReferenceVariable paramVar( SootMethod m, int i ) {
+            return paramNode( m, i );
+        }
+        protected ReferenceVariable returnVar( SootMethod m ) {
+            return returnNode( m );
+        }
+        protected ReferenceVariable exceptionVar() {
+            return exceptions;
+        }
+        protected void assignImpl( ReferenceVariable lhs, ReferenceVariable rhs ) {
+            addEdge( (Node) rhs, (Node) lhs );
+        }
+        protected void assignObjectToImpl( ReferenceVariable lhs, AbstractObject obj ) {
+            allocate( (Node) lhs, obj.getType() );
+        }
+        protected void throwExceptionImpl( AbstractObject obj ) {
+            allocate( exceptions, obj.getType() );
+        }
+        protected ReferenceVariable arrayElementOfImpl( ReferenceVariable base ) {
+            return arrayElements;
+        }
+        protected ReferenceVariable cloneObjectImpl( ReferenceVariable source ) {
+            return source;
+        }
+        protected ReferenceVariable newInstanceOfImpl( ReferenceVariable cls ) {
+            Node ret = newNode( RefType.v( "java.lang.Object" ), null );
+            for( Iterator<SootClass> clIt = Scene.v().dynamicClasses().iterator(); clIt.hasNext(); ) {
+                allocate( ret, clIt.next().getType() );
+            }
+            return ret;
+        }
+        protected ReferenceVariable staticFieldImpl( String className, String fieldName ) {
+            if( !Scene.v().containsClass( className )
+                    || !Scene.v().getSootClass( className ).declaresFieldByName( fieldName ) ) {
+                return tempField( "<" + className + ": " + fieldName + ">" );
+            }
+            SootField f = Scene.v().getSootClass( className ).getFieldByName( fieldName );
+            Node ret = fieldToNode.get( f );
+            if( ret == null ) fieldToNode.put( f, ret = newNode( f.getType(), null ) );
+            return ret;
+        }
+        protected ReferenceVariable tempFieldImpl( String fieldsig ) {
+            Node ret = tempFieldToNode.get( fieldsig );
+            if( ret == null ) tempFieldToNode.put( fieldsig, ret = newNode( RefType.v( "java.lang.Object" ), null ) );
+            return ret;
+        }
+        protected ReferenceVariable tempVariableImpl() {
+            return newNode( RefType.v( "java.lang.Object" ), null );
+        }
+        protected ReferenceVariable tempLocalVariableImpl( SootMethod method ) {
+            return newNode( RefType.v( "java.lang.Object" ), null );
+        }
+    }
+
+    /** A node of the type flow graph. */
+    private static final class Node implements ReferenceVariable {
+        /** Only subtypes of this type may flow into the node; null admits
+         * all types. */
+        final Type type;
+        /** The local this node stands for, if any. */
+        final Local local;
+        final Set<Type> types = new HashSet<Type>();
+        /** Types added since the node was last propagated. */
+        List<Type> pending;
+        final List<Node> succs = new ArrayList<Node>( 2 );
+
+        Node( Type type, Local local ) {
+            this.type = type;
+            this.local = local;
+        }
+    }
+}
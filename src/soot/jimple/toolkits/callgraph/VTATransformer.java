@@ -0,0 +1,46 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.callgraph;
+
+import soot.options.*;
+import soot.*;
+import java.util.*;
+
+/** Builds an invoke graph using Variable Type Analysis. */
+public class VTATransformer extends SceneTransformer
+{
+    public VTATransformer( Singletons.Global g ) {}
+    public static VTATransformer v() { return G.v().soot_jimple_toolkits_callgraph_VTATransformer(); }
+
+    protected void internalTransform(String phaseName, Map opts)
+    {
+        VTAOptions options = new VTAOptions( opts );
+        VTACallGraphBuilder cg = new VTACallGraphBuilder();
+        cg.build();
+        if( options.verbose() ) {
+            G.v().out.println( "Number of reachable methods: "
+                    +Scene.v().getReachableMethods().size() );
+            G.v().out.println( "Number of call graph edges: "
+                    +Scene.v().getCallGraph().size() );
+            G.v().out.println( "Number of type flow graph nodes: "
+                    +cg.numNodes() );
+        }
+    }
+}
@@ -23,8 +23,13 @@ import soot.jimple.*;
 import java.util.*;
 import soot.util.*;
 import soot.util.queue.*;
+import soot.options.Options;
 
 /** Resolves virtual calls.
+ * The dispatch tables and caches are not synchronized: VirtualCalls must
+ * only be used by the thread that builds the call graph, except for
+ * {@link #prepare(DispatchKey)}, which other threads may run while that
+ * thread waits for them.
  * @author Ondrej Lhotak
  */
 public final class VirtualCalls
@@ -78,71 +83,217 @@ public final class VirtualCalls
     }
 
     private final Map<Type,List<Type>> baseToSubTypes = new HashMap<Type,List<Type>>();
+    /** Distinct targets, in order of discovery, of each call whose receiver
+     * is of type AnySubType. Under CHA every receiver has such a type, so
+     * without this cache every call site walks the whole subtree again.
+     * Only resolutions that cannot change later are kept; see
+     * {@link #isFinalDispatch(RefType, NumberedString)}. */
+    private final Map<DispatchKey,List<SootMethod>> anySubTypeTargets =
+        new HashMap<DispatchKey,List<SootMethod>>();
 
     public void resolve( Type t, Type declaredType, NumberedString subSig, SootMethod container, ChunkedQueue targets ) {
         resolve(t, declaredType, null, subSig, container, targets);
     }
     public void resolve( Type t, Type declaredType, Type sigType, NumberedString subSig, SootMethod container, ChunkedQueue targets ) {
+        resolveFinal( t, declaredType, sigType, subSig, container, targets );
+    }
+
+    /** Resolves the call as resolve does, and returns whether all the
+     * dispatches it made give the same result for the rest of the run. */
+    private boolean resolveFinal( Type t, Type declaredType, Type sigType, NumberedString subSig, SootMethod container, ChunkedQueue targets ) {
         if( declaredType instanceof ArrayType ) declaredType = RefType.v("java.lang.Object");
         if( sigType instanceof ArrayType ) sigType = RefType.v("java.lang.Object");
         if( t instanceof ArrayType ) t = RefType.v( "java.lang.Object" );
         if( declaredType != null && !Scene.v().getOrMakeFastHierarchy()
                 .canStoreType( t, declaredType ) ) {
-            return;
+            return true;
         }
         if( sigType != null && !Scene.v().getOrMakeFastHierarchy()
                 .canStoreType( t, sigType ) ) {
-            return;
+            return true;
         }
         if( t instanceof RefType ) {
             SootMethod target = resolveNonSpecial( (RefType) t, subSig );
             if( target != null ) targets.add( target );
+            return isFinalDispatch( (RefType) t, subSig );
         } else if( t instanceof AnySubType ) {
-            RefType base = ((AnySubType)t).getBase();
-
-            List subTypes = baseToSubTypes.get(base);
-            if( subTypes != null ) {
-                for( Iterator stIt = subTypes.iterator(); stIt.hasNext(); ) {
-                    final Type st = (Type) stIt.next();
-                    resolve( st, declaredType, sigType, subSig, container, targets );
-                }
-                return;
-            }
-
-            baseToSubTypes.put(base, subTypes = new ArrayList() );
-
-            subTypes.add(base);
-
-            LinkedList<SootClass> worklist = new LinkedList<SootClass>();
-            HashSet<SootClass> workset = new HashSet<SootClass>();
-            FastHierarchy fh = Scene.v().getOrMakeFastHierarchy();
-            SootClass cl = base.getSootClass();
-
-            if( workset.add( cl ) ) worklist.add( cl );
-            while( !worklist.isEmpty() ) {
-                cl = worklist.removeFirst();
-                if( cl.isInterface() ) {
-                    for( Iterator cIt = fh.getAllImplementersOfInterface(cl).iterator(); cIt.hasNext(); ) {
-                        final SootClass c = (SootClass) cIt.next();
-                        if( workset.add( c ) ) worklist.add( c );
-                    }
-                } else {
-                    if( cl.isConcrete() ) {
-                        resolve( cl.getType(), declaredType, sigType, subSig, container, targets );
-                        subTypes.add(cl.getType());
-                    }
-                    for( Iterator cIt = fh.getSubclassesOf( cl ).iterator(); cIt.hasNext(); ) {
-                        final SootClass c = (SootClass) cIt.next();
-                        if( workset.add( c ) ) worklist.add( c );
-                    }
-                }
+            DispatchKey key = new DispatchKey( t, declaredType, sigType, subSig );
+            List<SootMethod> cached = anySubTypeTargets.get( key );
+            boolean isFinal = true;
+            if( cached == null ) {
+                ChunkedQueue found = new ChunkedQueue();
+                QueueReader foundReader = found.reader();
+                // The walk that first lists the subtypes of a base type
+                // does not dispatch on the base type itself unless it is
+                // concrete, while later resolutions do; only remember the
+                // latter, so that every call site gets the same targets
+                // as without this cache.
+                boolean listed = baseToSubTypes.containsKey( ((AnySubType) t).getBase() );
+                isFinal = resolveAnySubType( (AnySubType) t, declaredType, sigType, subSig, container, found );
+                Set<SootMethod> distinct = new LinkedHashSet<SootMethod>();
+                while( foundReader.hasNext() ) distinct.add( (SootMethod) foundReader.next() );
+                cached = new ArrayList<SootMethod>( distinct );
+                if( listed && isFinal ) anySubTypeTargets.put( key, cached );
             }
+            for( SootMethod target : cached ) targets.add( target );
+            return isFinal;
         } else if( t instanceof NullType ) {
+            return true;
         } else {
             throw new RuntimeException( "oops "+t );
         }
     }
     
+    /** Returns whether dispatching subSig on t gives the same result for the
+     * rest of the run. With -allow-phantom-refs, resolving a method reference
+     * adds a method to a phantom class, or a stub to a class when no class
+     * declares the method, so a dispatch is only final if a class between t
+     * and the first declaration of subSig is not phantom, and under
+     * -ignore-resolution-errors, where any class may gain methods, none is. */
+    private boolean isFinalDispatch( RefType t, NumberedString subSig ) {
+        if( !Scene.v().allowsPhantomRefs() ) return true;
+        if( Options.v().ignore_resolution_errors() ) return false;
+        for( SootClass cls = t.getSootClass(); ; cls = cls.getSuperclass() ) {
+            if( cls.isPhantom() ) return false;
+            if( cls.declaresMethod( subSig ) ) return true;
+            if( !cls.hasSuperclass() ) return false;
+        }
+    }
+
+    /** Resolves a call on a receiver of type t or any of its subtypes,
+     * walking the class hierarchy below the base type of t, and returns
+     * whether all the dispatches it made are final. */
+    private boolean resolveAnySubType( AnySubType t, Type declaredType, Type sigType, NumberedString subSig, SootMethod container, ChunkedQueue targets ) {
+        RefType base = t.getBase();
+        boolean isFinal = true;
+
+        List subTypes = baseToSubTypes.get(base);
+        if( subTypes != null ) {
+            for( Iterator stIt = subTypes.iterator(); stIt.hasNext(); ) {
+                final Type st = (Type) stIt.next();
+                if( !resolveFinal( st, declaredType, sigType, subSig, container, targets ) ) isFinal = false;
+            }
+            return isFinal;
+        }
+
+        baseToSubTypes.put(base, subTypes = new ArrayList() );
+
+        subTypes.add(base);
+
+        LinkedList<SootClass> worklist = new LinkedList<SootClass>();
+        HashSet<SootClass> workset = new HashSet<SootClass>();
+        FastHierarchy fh = Scene.v().getOrMakeFastHierarchy();
+        SootClass cl = base.getSootClass();
+
+        if( workset.add( cl ) ) worklist.add( cl );
+        while( !worklist.isEmpty() ) {
+            cl = worklist.removeFirst();
+            if( cl.isInterface() ) {
+                for( Iterator cIt = fh.getAllImplementersOfInterface(cl).iterator(); cIt.hasNext(); ) {
+                    final SootClass c = (SootClass) cIt.next();
+                    if( workset.add( c ) ) worklist.add( c );
+                }
+            } else {
+                if( cl.isConcrete() ) {
+                    if( !resolveFinal( cl.getType(), declaredType, sigType, subSig, container, targets ) ) isFinal = false;
+                    subTypes.add(cl.getType());
+                }
+                for( Iterator cIt = fh.getSubclassesOf( cl ).iterator(); cIt.hasNext(); ) {
+                    final SootClass c = (SootClass) cIt.next();
+                    if( workset.add( c ) ) worklist.add( c );
+                }
+            }
+        }
+        return isFinal;
+    }
+
+    /** Returns the cache key of a call with subSig on a receiver of any
+     * subtype of its declared type, as CHA resolves it, if resolve() would
+     * cache its targets the next time it resolves it but has not yet;
+     * returns null otherwise, or if the types involved are not resolved
+     * to classes yet. */
+    DispatchKey uncachedKey( Type declaredType, NumberedString subSig ) {
+        if( declaredType instanceof ArrayType ) declaredType = RefType.v("java.lang.Object");
+        if( !( declaredType instanceof RefType ) ) return null;
+        RefType base = (RefType) declaredType;
+        if( !base.hasSootClass() || base.getAnySubType() == null ) return null;
+        if( !baseToSubTypes.containsKey( base ) ) return null;
+        DispatchKey key = new DispatchKey( base.getAnySubType(), base, null, subSig );
+        return anySubTypeTargets.containsKey( key ) ? null : key;
+    }
+
+    /** Computes the targets resolve() caches under key, as it would compute
+     * them now, without changing any table; returns null if a dispatch is
+     * not final. It only reads the Scene and the hierarchy, so several
+     * threads may run it at once, while nothing else uses VirtualCalls or
+     * changes the Scene. */
+    List<SootMethod> prepare( DispatchKey key ) {
+        FastHierarchy fh = Scene.v().getFastHierarchy();
+        Set<SootMethod> distinct = new LinkedHashSet<SootMethod>();
+        List subTypes = baseToSubTypes.get( ((AnySubType) key.t).getBase() );
+        for( Iterator stIt = subTypes.iterator(); stIt.hasNext(); ) {
+            final RefType st = (RefType) stIt.next();
+            if( !fh.canStoreType( st, key.declaredType ) ) continue;
+            SootMethod target = lookup( st, key.subSig );
+            if( target != null ) distinct.add( target );
+            if( !isFinalDispatch( st, key.subSig ) ) return null;
+        }
+        return new ArrayList<SootMethod>( distinct );
+    }
+
+    /** Caches the targets computed by prepare. */
+    void addPrepared( DispatchKey key, List<SootMethod> targets ) {
+        anySubTypeTargets.put( key, targets );
+    }
+
+    /** Dispatches subSig on t as resolveNonSpecial does, without filling
+     * the dispatch tables. */
+    private SootMethod lookup( RefType t, NumberedString subSig ) {
+        SmallNumberedMap vtbl = (SmallNumberedMap) typeToVtbl.get( t );
+        if( vtbl != null ) {
+            SootMethod ret = (SootMethod) vtbl.get( subSig );
+            if( ret != null ) return ret;
+        }
+        SootClass cls = t.getSootClass();
+        if( cls.declaresMethod( subSig ) ) {
+            SootMethod m = cls.getMethod( subSig );
+            if( m.isConcrete() || m.isNative() || m.isPhantom() ) return m;
+            return null;
+        }
+        if( cls.hasSuperclass() ) return lookup( cls.getSuperclass().getType(), subSig );
+        return null;
+    }
+
+    /** Key of the dispatch cache for receivers of type AnySubType. */
+    static final class DispatchKey {
+        private final Type t;
+        private final Type declaredType;
+        private final Type sigType;
+        private final NumberedString subSig;
+        DispatchKey( Type t, Type declaredType, Type sigType, NumberedString subSig ) {
+            this.t = t;
+            this.declaredType = declaredType;
+            this.sigType = sigType;
+            this.subSig = subSig;
+        }
+        public int hashCode() {
+            int ret = t.hashCode() * 31 + subSig.hashCode();
+            if( declaredType != null ) ret = ret * 31 + declaredType.hashCode();
+            if( sigType != null ) ret = ret * 31 + sigType.hashCode();
+            return ret;
+        }
+        public boolean equals( Object o ) {
+            if( !( o instanceof DispatchKey ) ) return false;
+            DispatchKey other = (DispatchKey) o;
+            return t.equals( other.t ) && subSig == other.subSig
+                && same( declaredType, other.declaredType )
+                && same( sigType, other.sigType );
+        }
+        private static boolean same( Type a, Type b ) {
+            return a == null ? b == null : a.equals( b );
+        }
+    }
+
     public final NumberedString sigClinit =
         Scene.v().getSubSigNumberer().findOrAdd("void <clinit>()");
     public final NumberedString sigStart =
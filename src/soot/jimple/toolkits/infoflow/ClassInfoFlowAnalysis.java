@@ -21,6 +21,7 @@ public class ClassInfoFlowAnalysis
 	
 	Map<SootMethod, SmartMethodInfoFlowAnalysis> methodToInfoFlowAnalysis;
 	Map<SootMethod, HashMutableDirectedGraph> methodToInfoFlowSummary;
+	Set<SootMethod> methodsBeingAnalyzed; // by the smart version
 	
 	public static int methodCount = 0;
 	
@@ -30,6 +31,7 @@ public class ClassInfoFlowAnalysis
 		 this.dfa = dfa;
 		 methodToInfoFlowAnalysis = new HashMap<SootMethod, SmartMethodInfoFlowAnalysis>();
 		 methodToInfoFlowSummary = new HashMap<SootMethod, HashMutableDirectedGraph>();
+		 methodsBeingAnalyzed = new HashSet<SootMethod>();
 		 
 //		 doSimpleConservativeDataFlowAnalysis();
 	}
@@ -40,29 +42,12 @@ public class ClassInfoFlowAnalysis
 		{
 			methodCount++;
 
-			// First do simple version that doesn't follow invoke expressions
-			// The "smart" version will be computed later, but since it may
-			// request its own DataFlowGraph, we need this simple version first.
-			if(!methodToInfoFlowSummary.containsKey(method))
-			{
-				HashMutableDirectedGraph dataFlowGraph = simpleConservativeInfoFlowAnalysis(method);
-				methodToInfoFlowSummary.put(method, dataFlowGraph);
-			}
-			
-			// Then do smart version that does follow invoke expressions, if possible
+			// Do the smart version that follows invoke expressions, if possible
 			if(method.isConcrete())
-			{
-				Body b = method.retrieveActiveBody();
-				UnitGraph g = new ExceptionalUnitGraph(b);
-				SmartMethodInfoFlowAnalysis smdfa = new SmartMethodInfoFlowAnalysis(g, dfa);
-
-				methodToInfoFlowAnalysis.put(method, smdfa);
-				methodToInfoFlowSummary.remove(method);
-				methodToInfoFlowSummary.put(method, smdfa.getMethodInfoFlowSummary());
-				return smdfa;
-//				G.v().out.println(method + " has SMART infoFlowGraph: ");
-//				printDataFlowGraph(mdfa.getMethodDataFlowGraph());
-			}
+				return smartInfoFlowAnalysis(method);
+			
+			if(!methodToInfoFlowSummary.containsKey(method))
+				methodToInfoFlowSummary.put(method, simpleConservativeInfoFlowAnalysis(method));
 		}
 
 		return methodToInfoFlowAnalysis.get(method);
@@ -73,33 +58,49 @@ public class ClassInfoFlowAnalysis
 	{
 		if(!methodToInfoFlowSummary.containsKey(method))
 		{
-			methodCount++;
-
-			// First do simple version that doesn't follow invoke expressions
-			// The "smart" version will be computed later, but since it may
-			// request its own DataFlowGraph, we need this simple version first.
-			HashMutableDirectedGraph dataFlowGraph = simpleConservativeInfoFlowAnalysis(method);
-			methodToInfoFlowSummary.put(method, dataFlowGraph);
-			
-			// Then do smart version that does follow invoke expressions, if possible
-			if(method.isConcrete() && doFullAnalysis)// && method.getDeclaringClass().isApplicationClass())
+			if(methodsBeingAnalyzed.contains(method))
 			{
-				Body b = method.retrieveActiveBody();
-				UnitGraph g = new ExceptionalUnitGraph(b);
-				SmartMethodInfoFlowAnalysis smdfa = new SmartMethodInfoFlowAnalysis(g, dfa);
-
-				methodToInfoFlowAnalysis.put(method, smdfa);
-				methodToInfoFlowSummary.remove(method);
-				methodToInfoFlowSummary.put(method, smdfa.getMethodInfoFlowSummary());
-
-//				G.v().out.println(method + " has SMART infoFlowGraph: ");
-//				printDataFlowGraph(mdfa.getMethodDataFlowGraph());
+				// The smart version of this method requests its own summary
+				// (it is reentrant): give it the simple version, which is
+				// replaced once the smart version is done.
+				methodToInfoFlowSummary.put(method, simpleConservativeInfoFlowAnalysis(method));
+			}
+			else
+			{
+				methodCount++;
+				
+				// Do the smart version that follows invoke expressions, if possible
+				if(method.isConcrete() && doFullAnalysis)// && method.getDeclaringClass().isApplicationClass())
+					smartInfoFlowAnalysis(method);
+				else
+					methodToInfoFlowSummary.put(method, simpleConservativeInfoFlowAnalysis(method));
 			}
 		}
 
 		return methodToInfoFlowSummary.get(method);
 	}
 	
+	private SmartMethodInfoFlowAnalysis smartInfoFlowAnalysis(SootMethod method)
+	{
+		methodsBeingAnalyzed.add(method);
+		try
+		{
+			Body b = method.retrieveActiveBody();
+			UnitGraph g = new ExceptionalUnitGraph(b);
+			SmartMethodInfoFlowAnalysis smdfa = new SmartMethodInfoFlowAnalysis(g, dfa);
+
+			methodToInfoFlowAnalysis.put(method, smdfa);
+			methodToInfoFlowSummary.put(method, smdfa.getMethodInfoFlowSummary());
+//			G.v().out.println(method + " has SMART infoFlowGraph: ");
+//			printDataFlowGraph(mdfa.getMethodDataFlowGraph());
+			return smdfa;
+		}
+		finally
+		{
+			methodsBeingAnalyzed.remove(method);
+		}
+	}
+	
 /*	public void doFixedPointDataFlowAnalysis()
 	{
 		Iterator it = sootClass.getMethods().iterator();
@@ -170,11 +171,10 @@ public class ClassInfoFlowAnalysis
 			return triviallyConservativeInfoFlowAnalysis(sm);
 			
 		Body b = sm.retrieveActiveBody();
-		UnitGraph g = new ExceptionalUnitGraph(b);
 		HashSet<EquivalentValue> fieldsStaticsParamsAccessed = new HashSet<EquivalentValue>();		
 
 		// Get list of fields, globals, and parameters that are accessed
-		Iterator stmtIt = g.iterator();
+		Iterator stmtIt = b.getUnits().iterator();
 		while(stmtIt.hasNext())
 		{
 			Stmt s = (Stmt) stmtIt.next();
@@ -195,6 +195,7 @@ public class InfoFlowAnalysis
 		// get the data flow graph for each possible target of ie,
 		// then combine them conservatively and return the result.
 		HashMutableDirectedGraph ret = null;
+		HashMutableDirectedGraph firstSummary = null;
 		
 		SootMethodRef methodRef = ie.getMethodRef();
 		String subSig = methodRef.resolve().getSubSignature();
@@ -209,16 +210,13 @@ public class InfoFlowAnalysis
 			{
 				HashMutableDirectedGraph ifs = getMethodInfoFlowSummary(target, context.getDeclaringClass().isApplicationClass());
 				if(ret == null)
-					ret = ifs;
+					ret = firstSummary = ifs;
 				else
 				{
-					for(Object node : ifs.getNodes())
-					{
-						if(!ret.containsNode(node))
-							ret.addNode(node);
-						for(Object succ : ifs.getSuccsOf(node))
-							ret.addEdge(node, succ);
-					}
+					// don't add to the cached summary of the first target
+					if(ret == firstSummary)
+						ret = copyOf(firstSummary);
+					addAll(ret, ifs);
 				}
 			}
 			
@@ -227,6 +225,28 @@ public class InfoFlowAnalysis
 //		return getMethodInfoFlowSummary(methodRef.resolve(), context.getDeclaringClass().isApplicationClass());
 	}
 	
+	private static HashMutableDirectedGraph copyOf(HashMutableDirectedGraph g)
+	{
+		HashMutableDirectedGraph ret = new MemoryEfficientGraph();
+		addAll(ret, g);
+		return ret;
+	}
+	
+	private static void addAll(HashMutableDirectedGraph g, HashMutableDirectedGraph other)
+	{
+		for(Object node : other.getNodes())
+		{
+			if(!g.containsNode(node))
+				g.addNode(node);
+			for(Object succ : other.getSuccsOf(node))
+			{
+				if(!g.containsNode(succ))
+					g.addNode(succ);
+				g.addEdge(node, succ);
+			}
+		}
+	}
+	
 	protected MutableDirectedGraph getInvokeAbbreviatedInfoFlowGraph(InvokeExpr ie, SootMethod context)
 	{
 		// get the data flow graph for each possible target of ie,
@@ -45,11 +45,11 @@ public class CodeBlockRWSet extends MethodRWSet
 /*					PointsToSetInternal base = (PointsToSetInternal) fields.get(field);
 					base.forall( 
 						new P2SetVisitor() 
-						{
+						{
 	    					public void visit( Node n )
-	    					{
-	        					ret.append(n.getNumber() + " ");
-	    					}
+	    					{
+	        					ret.append(n.getNumber() + " ");
+	    					}
 						}
 					);
 */					
@@ -138,6 +138,18 @@ public class CodeBlockRWSet extends MethodRWSet
 		    	this.union(set);
 		    }
 		}
+		else
+		{
+		    for( Iterator globalIt = other.getGlobals().iterator(); globalIt.hasNext(); )
+		    {
+		    	ret = addGlobal( (SootField) globalIt.next() ) | ret;
+		    }
+		    for( Iterator fieldIt = other.getFields().iterator(); fieldIt.hasNext(); )
+		    {
+		    	final Object field = fieldIt.next();
+		    	ret = addFieldRef( other.getBaseForField( field ), field ) | ret;
+		    }
+		}
 		if( !getCallsNative() && other.getCallsNative() )
 		{
 		    setCallsNative();
@@ -194,11 +206,11 @@ public class CodeBlockRWSet extends MethodRWSet
 
 							pti1.forall( 
 								new P2SetVisitor() 
-								{
+								{
     	        					public void visit( Node n )
-    	        					{
-    	            					if( pti2.contains( n ) ) newpti.add(n);
-    	        					}
+    	        					{
+    	            					if( pti2.contains( n ) ) newpti.add(n);
+    	        					}
     	    					}
     	    				);
     	    				
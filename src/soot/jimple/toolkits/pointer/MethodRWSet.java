@@ -171,13 +171,21 @@ public class MethodRWSet extends RWSet {
 		    ret = addFieldRef( os, field ) | ret;
 		}
 	    }
-	} else {
+	} else if( other instanceof StmtRWSet ) {
 	    StmtRWSet oth = (StmtRWSet) other;
 	    if( oth.base != null ) {
 		ret = addFieldRef( oth.base, oth.field ) | ret;
 	    } else if( oth.field != null ) {
 		ret = addGlobal( (SootField) oth.field ) | ret;
 	    }
+	} else {
+	    for( Iterator globalIt = other.getGlobals().iterator(); globalIt.hasNext(); ) {
+		ret = addGlobal( (SootField) globalIt.next() ) | ret;
+	    }
+	    for( Iterator fieldIt = other.getFields().iterator(); fieldIt.hasNext(); ) {
+		final Object field = fieldIt.next();
+		ret = addFieldRef( other.getBaseForField( field ), field ) | ret;
+	    }
 	}
 	if( !getCallsNative() && other.getCallsNative() ) {
 	    setCallsNative();
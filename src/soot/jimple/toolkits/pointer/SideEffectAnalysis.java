@@ -21,6 +21,7 @@ package soot.jimple.toolkits.pointer;
 import soot.*;
 import soot.jimple.*;
 import soot.jimple.toolkits.callgraph.*;
+import soot.util.MapNumberer;
 import java.util.*;
 
 /** Generates side-effect information from a PointsToAnalysis. */
@@ -29,8 +30,12 @@ public class SideEffectAnalysis {
     CallGraph cg;
     Map<SootMethod, MethodRWSet> methodToNTReadSet = new HashMap<SootMethod, MethodRWSet>();
     Map<SootMethod, MethodRWSet> methodToNTWriteSet = new HashMap<SootMethod, MethodRWSet>();
+    Map<SootMethod, SummaryRWSet> methodToReadSummary = new HashMap<SootMethod, SummaryRWSet>();
+    Map<SootMethod, SummaryRWSet> methodToWriteSummary = new HashMap<SootMethod, SummaryRWSet>();
+    // Numbers the globals and fields of the summaries
+    MapNumberer fieldNumberer = new MapNumberer();
     int rwsetcount = 0;
-    TransitiveTargets tt;
+    Filter filter;
 
     public void findNTRWSets( SootMethod method ) {
 	if( methodToNTReadSet.containsKey( method )
@@ -69,7 +74,6 @@ public class SideEffectAnalysis {
     public SideEffectAnalysis( PointsToAnalysis pa, CallGraph cg ) {
 	this.pa = pa;
 	this.cg = cg;
-        this.tt = new TransitiveTargets( cg );
     }
 
     public SideEffectAnalysis( PointsToAnalysis pa, CallGraph cg, Filter filter ) {
@@ -80,7 +84,7 @@ public class SideEffectAnalysis {
     // - R. Halpert 2006-12-02
 	this.pa = pa;
 	this.cg = cg;
-        this.tt = new TransitiveTargets( cg, filter );
+        this.filter = filter;
     }
 
     private RWSet ntReadSet( SootMethod method, Stmt stmt ) {
@@ -93,18 +97,11 @@ public class SideEffectAnalysis {
     }
     public RWSet readSet( SootMethod method, Stmt stmt ) {
 	RWSet ret = null;
-        Iterator<MethodOrMethodContext> targets = tt.iterator( stmt );
-        while( targets.hasNext() ) {
-            SootMethod target = (SootMethod) targets.next();
-            if( target.isNative() ) {
+        for( SootMethod target : targetsOf( stmt ) ) {
+            RWSet tr = readSummary( target );
+            if( tr != null ) {
                 if( ret == null ) ret = new SiteRWSet();
-                ret.setCallsNative();
-            } else if( target.isConcrete() ) {
-                RWSet ntr = nonTransitiveReadSet(target);
-                if( ntr != null ) {
-                    if( ret == null ) ret = new SiteRWSet();
-                    ret.union( ntr );
-                }
+                ret.union( tr );
             }
         }
         if( ret == null ) return ntReadSet( method, stmt );
@@ -122,18 +119,11 @@ public class SideEffectAnalysis {
     }
     public RWSet writeSet( SootMethod method, Stmt stmt ) {
 	RWSet ret = null;
-        Iterator<MethodOrMethodContext> targets = tt.iterator( stmt );
-        while( targets.hasNext() ) {
-            SootMethod target = (SootMethod) targets.next();
-            if( target.isNative() ) {
+        for( SootMethod target : targetsOf( stmt ) ) {
+            RWSet tw = writeSummary( target );
+            if( tw != null ) {
                 if( ret == null ) ret = new SiteRWSet();
-                ret.setCallsNative();
-            } else if( target.isConcrete() ) {
-                RWSet ntw = nonTransitiveWriteSet(target);
-                if( ntw != null ) {
-                    if( ret == null ) ret = new SiteRWSet();
-                    ret.union( ntw );
-                }
+                ret.union( tw );
             }
 	}
         if( ret == null ) return ntWriteSet( method, stmt );
@@ -141,6 +131,141 @@ public class SideEffectAnalysis {
 	return ret;
     }
 
+    /** Returns the read set of method together with that of every
+     * method it transitively calls, or null if it is empty. The set is
+     * shared by all methods of a strongly connected component of the
+     * call graph, and is read-only; union it into a MethodRWSet to
+     * change it. */
+    public RWSet transitiveReadSet( SootMethod method ) {
+        return readSummary( method );
+    }
+
+    /** Returns the write set of method together with that of every
+     * method it transitively calls, or null if it is empty. The set is
+     * shared by all methods of a strongly connected component of the
+     * call graph, and is read-only; union it into a MethodRWSet to
+     * change it. */
+    public RWSet transitiveWriteSet( SootMethod method ) {
+        return writeSummary( method );
+    }
+
+    private SummaryRWSet readSummary( SootMethod method ) {
+        findSummaries( method );
+        return methodToReadSummary.get( method );
+    }
+
+    private SummaryRWSet writeSummary( SootMethod method ) {
+        findSummaries( method );
+        return methodToWriteSummary.get( method );
+    }
+
+    private List<SootMethod> targetsOf( Unit u ) {
+        List<SootMethod> ret = new ArrayList<SootMethod>();
+        Iterator it = cg.edgesOutOf( u );
+        if( filter != null ) it = filter.wrap( it );
+        while( it.hasNext() ) ret.add( ((Edge) it.next()).tgt() );
+        return ret;
+    }
+
+    private List<SootMethod> targetsOf( SootMethod m ) {
+        List<SootMethod> ret = new ArrayList<SootMethod>();
+        Iterator it = cg.edgesOutOf( m );
+        if( filter != null ) it = filter.wrap( it );
+        while( it.hasNext() ) ret.add( ((Edge) it.next()).tgt() );
+        return ret;
+    }
+
+    /** Computes the transitive summaries of all methods reachable from
+     * root, one strongly connected component of the call graph at a
+     * time, callees first, so that every method is visited once. */
+    private void findSummaries( SootMethod root ) {
+        if( methodToReadSummary.containsKey( root ) ) return;
+
+        Map<SootMethod, Integer> index = new HashMap<SootMethod, Integer>();
+        Map<SootMethod, Integer> lowlink = new HashMap<SootMethod, Integer>();
+        ArrayList<SootMethod> sccStack = new ArrayList<SootMethod>();
+        ArrayList<SootMethod> callStack = new ArrayList<SootMethod>();
+        ArrayList<Iterator<SootMethod>> succStack = new ArrayList<Iterator<SootMethod>>();
+
+        index.put( root, 0 );
+        lowlink.put( root, 0 );
+        sccStack.add( root );
+        callStack.add( root );
+        succStack.add( targetsOf( root ).iterator() );
+
+        while( !callStack.isEmpty() ) {
+            int top = callStack.size() - 1;
+            SootMethod m = callStack.get( top );
+            Iterator<SootMethod> succs = succStack.get( top );
+            if( succs.hasNext() ) {
+                SootMethod tgt = succs.next();
+                if( methodToReadSummary.containsKey( tgt ) ) continue;
+                Integer tgtIndex = index.get( tgt );
+                if( tgtIndex == null ) {
+                    int i = index.size();
+                    index.put( tgt, i );
+                    lowlink.put( tgt, i );
+                    sccStack.add( tgt );
+                    callStack.add( tgt );
+                    succStack.add( targetsOf( tgt ).iterator() );
+                } else if( tgtIndex.intValue() < lowlink.get( m ).intValue() ) {
+                    // tgt is still on sccStack: completed components
+                    // have their summaries and were skipped above
+                    lowlink.put( m, tgtIndex );
+                }
+                continue;
+            }
+
+            callStack.remove( top );
+            succStack.remove( top );
+            int low = lowlink.get( m ).intValue();
+            if( top > 0 ) {
+                SootMethod caller = callStack.get( top - 1 );
+                if( low < lowlink.get( caller ).intValue() )
+                    lowlink.put( caller, low );
+            }
+            if( low != index.get( m ).intValue() ) continue;
+
+            // m is the root of a component; pop it and summarize it
+            List<SootMethod> scc = new ArrayList<SootMethod>();
+            SootMethod n;
+            do {
+                n = sccStack.remove( sccStack.size() - 1 );
+                scc.add( n );
+            } while( n != m );
+            summarize( scc );
+        }
+    }
+
+    private void summarize( List<SootMethod> scc ) {
+        SummaryRWSet read = new SummaryRWSet( fieldNumberer );
+        SummaryRWSet write = new SummaryRWSet( fieldNumberer );
+        for( SootMethod m : scc ) {
+            if( m.isNative() ) {
+                read.setCallsNative();
+                write.setCallsNative();
+            } else if( m.isConcrete() ) {
+                read.union( nonTransitiveReadSet( m ) );
+                write.union( nonTransitiveWriteSet( m ) );
+            }
+        }
+        for( SootMethod m : scc ) {
+            for( SootMethod tgt : targetsOf( m ) ) {
+                // targets outside the component are already summarized
+                read.union( methodToReadSummary.get( tgt ) );
+                write.union( methodToWriteSummary.get( tgt ) );
+            }
+        }
+        read.setReadOnly();
+        write.setReadOnly();
+        if( read.size() == 0 && !read.getCallsNative() ) read = null;
+        if( write.size() == 0 && !write.getCallsNative() ) write = null;
+        for( SootMethod m : scc ) {
+            methodToReadSummary.put( m, read );
+            methodToWriteSummary.put( m, write );
+        }
+    }
+
     protected RWSet addValue( Value v, SootMethod m, Stmt s ) {
 	RWSet ret = null;
 	if( v instanceof InstanceFieldRef ) {
@@ -0,0 +1,235 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.pointer;
+import java.util.*;
+import soot.*;
+import soot.util.BitSetIterator;
+import soot.util.BitVector;
+import soot.util.MapNumberer;
+
+/** Represents the transitive read or write set of the methods of a
+ * strongly connected component of the call graph, as summarized by
+ * SideEffectAnalysis. The globals and fields in the set are bits of two
+ * bit vectors, numbered by a numberer shared by all the summaries of the
+ * analysis. Once complete, a summary is made read-only and handed out as
+ * it is. */
+public class SummaryRWSet extends RWSet {
+    private final MapNumberer numberer;
+    private final BitVector globals = new BitVector();
+    private final BitVector fields = new BitVector();
+    private final Map<Object, PointsToSet> bases = new HashMap<Object, PointsToSet>();
+    private boolean callsNative = false;
+    private boolean readOnly = false;
+
+    public SummaryRWSet( MapNumberer numberer ) {
+	this.numberer = numberer;
+    }
+
+    public String toString() {
+        boolean empty = true;
+        StringBuffer ret = new StringBuffer();
+        for( Iterator fieldIt = getFields().iterator(); fieldIt.hasNext(); ) {
+            final Object field = fieldIt.next();
+            ret.append( "[Field: "+field+" "+bases.get(field)+"]\n" );
+            empty = false;
+        }
+        for( Iterator globalIt = getGlobals().iterator(); globalIt.hasNext(); ) {
+            final Object global = globalIt.next();
+            ret.append( "[Global: "+global+"]\n" );
+            empty = false;
+        }
+        if(empty) ret.append("empty");
+        return ret.toString();
+    }
+
+    public int size() {
+	return globals.cardinality() + fields.cardinality();
+    }
+
+    /** Makes the set read-only; any later change throws. */
+    public void setReadOnly() {
+	readOnly = true;
+    }
+
+    public boolean isReadOnly() {
+	return readOnly;
+    }
+
+    public boolean getCallsNative() {
+	return callsNative;
+    }
+
+    public boolean setCallsNative() {
+	checkWritable();
+	boolean ret = !callsNative;
+	callsNative = true;
+	return ret;
+    }
+
+    /** Returns a read-only view of the globals read/written. */
+    public Set getGlobals() {
+	return new BitVectorView( globals );
+    }
+
+    /** Returns a read-only view of the fields read/written. */
+    public Set getFields() {
+	return new BitVectorView( fields );
+    }
+
+    /** Returns a set of base objects whose field f is read/written. */
+    public PointsToSet getBaseForField( Object f ) {
+	return bases.get( f );
+    }
+
+    public boolean hasNonEmptyIntersection( RWSet oth ) {
+	if( oth instanceof SummaryRWSet
+		&& ((SummaryRWSet) oth).numberer == numberer ) {
+	    SummaryRWSet other = (SummaryRWSet) oth;
+	    if( globals.intersects( other.globals ) ) return true;
+	    if( !fields.intersects( other.fields ) ) return false;
+	    BitVector common = BitVector.and( fields, other.fields );
+	    for( BitSetIterator it = common.iterator(); it.hasNext(); ) {
+		Object field = numberer.get( it.next() );
+		if( Union.hasNonEmptyIntersection(
+			    bases.get( field ), other.bases.get( field ) ) )
+		    return true;
+	    }
+	    return false;
+	}
+	for( Iterator globalIt = oth.getGlobals().iterator(); globalIt.hasNext(); ) {
+	    if( contains( globals, globalIt.next() ) ) return true;
+	}
+	for( Iterator fieldIt = oth.getFields().iterator(); fieldIt.hasNext(); ) {
+	    final Object field = fieldIt.next();
+	    if( contains( fields, field )
+		    && Union.hasNonEmptyIntersection(
+			bases.get( field ), oth.getBaseForField( field ) ) )
+		return true;
+	}
+	return false;
+    }
+
+    /** Adds the RWSet other into this set. */
+    public boolean union( RWSet other ) {
+	checkWritable();
+	if( other == null ) return false;
+	boolean ret = false;
+	if( other.getCallsNative() ) ret = setCallsNative();
+	if( other instanceof SummaryRWSet
+		&& ((SummaryRWSet) other).numberer == numberer ) {
+	    SummaryRWSet o = (SummaryRWSet) other;
+	    int before = globals.cardinality();
+	    globals.or( o.globals );
+	    ret = globals.cardinality() != before | ret;
+	    for( BitSetIterator it = o.fields.iterator(); it.hasNext(); ) {
+		int n = it.next();
+		ret = addBase( n, numberer.get( n ), o.bases.get( numberer.get( n ) ) ) | ret;
+	    }
+	    return ret;
+	}
+	for( Iterator globalIt = other.getGlobals().iterator(); globalIt.hasNext(); ) {
+	    ret = addGlobal( (SootField) globalIt.next() ) | ret;
+	}
+	for( Iterator fieldIt = other.getFields().iterator(); fieldIt.hasNext(); ) {
+	    final Object field = fieldIt.next();
+	    ret = addFieldRef( other.getBaseForField( field ), field ) | ret;
+	}
+	return ret;
+    }
+
+    public boolean addGlobal( SootField global ) {
+	checkWritable();
+	numberer.add( global );
+	return globals.set( (int) numberer.get( global ) );
+    }
+
+    public boolean addFieldRef( PointsToSet otherBase, Object field ) {
+	checkWritable();
+	numberer.add( field );
+	return addBase( (int) numberer.get( field ), field, otherBase );
+    }
+
+    public boolean isEquivTo( RWSet other ) {
+	return other == this;
+    }
+
+    private boolean addBase( int n, Object field, PointsToSet otherBase ) {
+	boolean ret = fields.set( n );
+	PointsToSet base = bases.get( field );
+	if( base instanceof FullObjectSet ) return ret;
+	if( otherBase instanceof FullObjectSet ) {
+	    bases.put( field, otherBase );
+	    return true;
+	}
+	if( otherBase.equals( base ) ) return ret;
+	Union u;
+	if( base == null || !(base instanceof Union) ) {
+	    u = G.v().Union_factory.newUnion();
+	    if( base != null ) u.addAll( base );
+	    bases.put( field, u );
+	    ret = true;
+	} else {
+	    u = (Union) base;
+	}
+	return u.addAll( otherBase ) | ret;
+    }
+
+    private boolean contains( BitVector bits, Object o ) {
+	return numberer.contains( o ) && bits.get( (int) numberer.get( o ) );
+    }
+
+    private void checkWritable() {
+	if( readOnly ) throw new RuntimeException(
+		"Summary is read-only; union it into a MethodRWSet to change it" );
+    }
+
+    /** The globals or fields whose numbers are set in a bit vector. */
+    private class BitVectorView extends AbstractSet {
+	private final BitVector bits;
+
+	BitVectorView( BitVector bits ) {
+	    this.bits = bits;
+	}
+
+	public boolean contains( Object o ) {
+	    return SummaryRWSet.this.contains( bits, o );
+	}
+
+	public int size() {
+	    return bits.cardinality();
+	}
+
+	public Iterator iterator() {
+	    final BitSetIterator it = bits.iterator();
+	    return new Iterator() {
+		public boolean hasNext() {
+		    return it.hasNext();
+		}
+		public Object next() {
+		    if( !it.hasNext() ) throw new NoSuchElementException();
+		    return numberer.get( it.next() );
+		}
+		public void remove() {
+		    throw new UnsupportedOperationException();
+		}
+	    };
+	}
+    }
+}
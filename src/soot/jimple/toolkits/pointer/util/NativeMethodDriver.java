@@ -125,6 +125,8 @@ public class NativeMethodDriver {
    * @param returnVar, the variable represent @return
    *                 it is null if the method has no return
    * @param params, array of parameters.
+   * @return false if there is no simulation for the class of the method,
+   *         in which case nothing is done.
    */
   public boolean process(SootMethod method, 
 				ReferenceVariable thisVar,
@@ -139,7 +141,7 @@ public class NativeMethodDriver {
 	  //G.v().out.println("WARNING: it is unsafe to simulate the method ");
 	  //G.v().out.println("         "+method.toString());	
       //throw new NativeMethodNotSupportedException(method);
-      return true;
+      return false;
     } else {
 
       try {
@@ -32,6 +32,7 @@ import soot.jimple.toolkits.reflection.ReflectiveCallsInliner;
 import soot.options.Options;
 import soot.rtlib.tamiflex.DefaultHandler;
 import soot.rtlib.tamiflex.IUnexpectedReflectiveCallHandler;
+import soot.rtlib.tamiflex.KnownTargets;
 import soot.rtlib.tamiflex.OpaquePredicate;
 import soot.rtlib.tamiflex.ReflectiveCalls;
 import soot.rtlib.tamiflex.SootSig;
@@ -49,6 +50,7 @@ public class ReflInliner {
 		Scene.v().addBasicClass(DefaultHandler.class.getName(),SootClass.BODIES);
 		Scene.v().addBasicClass(OpaquePredicate.class.getName(),SootClass.BODIES);
 		Scene.v().addBasicClass(ReflectiveCalls.class.getName(),SootClass.BODIES);
+		Scene.v().addBasicClass(KnownTargets.class.getName(),SootClass.BODIES);
 		ArrayList<String> argList = new ArrayList<String>(Arrays.asList(args));
 		argList.add("-w");
 		argList.add("-p");
@@ -20,16 +20,24 @@
 package soot.jimple.toolkits.reflection;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import soot.Body;
 import soot.G;
@@ -41,6 +49,12 @@ import soot.tagkit.Host;
 import soot.tagkit.LineNumberTag;
 import soot.tagkit.SourceLnPosTag;
 
+/**
+ * The reflective calls recorded in one or more TamiFlex logs. Identical
+ * lines are read only once, and the method making the calls recorded in a
+ * line is only looked up in the Scene when the calls of a method with its
+ * name are first asked for.
+ */
 public class ReflectionTraceInfo {
 	
 	public enum Kind { ClassForName, ClassNewInstance, ConstructorNewInstance, MethodInvoke, FieldSet, FieldGet }
@@ -57,6 +71,25 @@ public class ReflectionTraceInfo {
 
 	protected Map<SootMethod,Set<String>> fieldGetReceivers;
 
+	/** Log entries that have not been added to the maps above yet, by their
+	 * source, the name of the class and of the method making the call. */
+	private final Map<String,List<TraceEntry>> unresolved = new LinkedHashMap<String,List<TraceEntry>>();
+
+	private static class TraceEntry {
+		final String kind;
+		final String target;
+		final int lineNumber;
+		TraceEntry(String kind, String target, int lineNumber) {
+			this.kind = kind;
+			this.target = target;
+			this.lineNumber = lineNumber;
+		}
+	}
+
+	/**
+	 * @param logFile the log file to read, or several of them separated by
+	 * the path separator of the platform; they are read in parallel
+	 */
 	public ReflectionTraceInfo(String logFile) {
 		classForNameReceivers = new LinkedHashMap<SootMethod, Set<String>>();
 		classNewInstanceReceivers = new LinkedHashMap<SootMethod, Set<String>>();
@@ -68,90 +101,157 @@ public class ReflectionTraceInfo {
 		if(logFile==null) {
 			throw new InternalError("Trace based refection model enabled but no trace file given!?");
 		} else {
+			Map<String,String> names = new HashMap<String,String>();
+			Set<String> ignoredKinds = new LinkedHashSet<String>();
+			for(String line: readLogs(logFile.split(File.pathSeparator))) {
+				String[] portions = line.split(";",-1);
+				String kind = portions[0];
+				String target = portions[1];
+				String source = portions[2];
+				int lineNumber = portions[3].length()==0 ? -1 : Integer.parseInt(portions[3]);
+
+				if(receiversOf(kind)==null) {
+					ignoredKinds.add(kind);
+					continue;
+				}
+				source = intern(names, source);
+				List<TraceEntry> entries = unresolved.get(source);
+				if(entries==null) {
+					unresolved.put(source, entries = new ArrayList<TraceEntry>());
+				}
+				entries.add(new TraceEntry(intern(names, kind), intern(names, target), lineNumber));
+			}
+			if(!ignoredKinds.isEmpty()) {
+				G.v().out.println("Encountered reflective calls entries of the following kinds that\n" +
+						"cannot currently be handled:");
+				for (String kind : ignoredKinds) {
+					G.v().out.println(kind);
+				}
+			}
+		}
+	}
+
+	private static String intern(Map<String,String> names, String name) {
+		String ret = names.get(name);
+		if(ret==null) {
+			names.put(name, ret = name);
+		}
+		return ret;
+	}
+
+	/** Returns the distinct non-empty lines of the given files, in the order
+	 * in which they first occur. Several files are read in parallel. */
+	private static Set<String> readLogs(String[] logFiles) {
+		if(logFiles.length==1) {
+			return readLog(logFiles[0]);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(logFiles.length, Runtime.getRuntime().availableProcessors()));
+		try {
+			List<Future<Set<String>>> logs = new ArrayList<Future<Set<String>>>();
+			for(final String logFile: logFiles) {
+				logs.add(executor.submit(new Callable<Set<String>>() {
+					public Set<String> call() {
+						return readLog(logFile);
+					}
+				}));
+			}
+			Set<String> lines = new LinkedHashSet<String>();
+			for(Future<Set<String>> log: logs) {
+				lines.addAll(log.get());
+			}
+			return lines;
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static Set<String> readLog(String logFile) {
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(logFile)));
 			try {
-				BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(logFile)));
+				Set<String> lines = new LinkedHashSet<String>();
 				String line;
-				int lines = 0;
-				Set<String> ignoredKinds = new HashSet<String>();
 				while((line=reader.readLine())!=null) {
 					if(line.length()==0) continue;
-					String[] portions = line.split(";",-1);
-					String kind = portions[0];
-					String target = portions[1];
-					String source = portions[2];
-					int lineNumber = portions[3].length()==0 ? -1 : Integer.parseInt(portions[3]);
+					lines.add(line);
+				}
+				return lines;
+			} finally {
+				reader.close();
+			}
+		} catch (FileNotFoundException e) {
+			throw new RuntimeException("Trace file not found.",e);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
 
-					Set<SootMethod> possibleSourceMethods = inferSource(source, lineNumber);
-					for (SootMethod sourceMethod : possibleSourceMethods) {
-						if(kind.equals("Class.forName")) {
-							Set<String> receiverNames;
-							if((receiverNames=classForNameReceivers.get(sourceMethod))==null) {
-								classForNameReceivers.put(sourceMethod, receiverNames = new LinkedHashSet<String>());
-							}
-							receiverNames.add(target);
-						} else if(kind.equals("Class.newInstance")) {
-							Set<String> receiverNames;
-							if((receiverNames=classNewInstanceReceivers.get(sourceMethod))==null) {
-								classNewInstanceReceivers.put(sourceMethod, receiverNames = new LinkedHashSet<String>());
-							}
-							receiverNames.add(target);
-						} else if(kind.equals("Method.invoke")) {
-							if(!Scene.v().containsMethod(target)) {
-								throw new RuntimeException("Unknown method for signature: "+target);
-							}
-							
-							Set<String> receiverNames;
-							if((receiverNames=methodInvokeReceivers.get(sourceMethod))==null) {
-								methodInvokeReceivers.put(sourceMethod, receiverNames = new LinkedHashSet<String>());
-							}
-							receiverNames.add(target);								
-						} else if (kind.equals("Constructor.newInstance")) {
-							if(!Scene.v().containsMethod(target)) {
-								throw new RuntimeException("Unknown method for signature: "+target);
-							}
-							
-							Set<String> receiverNames;
-							if((receiverNames=constructorNewInstanceReceivers.get(sourceMethod))==null) {
-								constructorNewInstanceReceivers.put(sourceMethod, receiverNames = new LinkedHashSet<String>());
-							}
-							receiverNames.add(target);								
-						} else if (kind.equals("Field.set*")) {
-							if(!Scene.v().containsField(target)) {
-								throw new RuntimeException("Unknown method for signature: "+target);
-							}
-							
-							Set<String> receiverNames;
-							if((receiverNames=fieldSetReceivers.get(sourceMethod))==null) {
-								fieldSetReceivers.put(sourceMethod, receiverNames = new LinkedHashSet<String>());
-							}
-							receiverNames.add(target);								
-						} else if (kind.equals("Field.get*")) {
-							if(!Scene.v().containsField(target)) {
-								throw new RuntimeException("Unknown method for signature: "+target);
-							}
-							
-							Set<String> receiverNames;
-							if((receiverNames=fieldGetReceivers.get(sourceMethod))==null) {
-								fieldGetReceivers.put(sourceMethod, receiverNames = new LinkedHashSet<String>());
-							}
-							receiverNames.add(target);								
-						} else {
-							ignoredKinds.add(kind);
-						}							
-					}
-					lines++;
+	/** Returns the map holding the targets of calls of the given kind, as
+	 * named in the log, or null if the kind cannot be handled. */
+	private Map<SootMethod,Set<String>> receiversOf(String kind) {
+		if(kind.equals("Class.forName")) {
+			return classForNameReceivers;
+		} else if(kind.equals("Class.newInstance")) {
+			return classNewInstanceReceivers;
+		} else if(kind.equals("Method.invoke")) {
+			return methodInvokeReceivers;
+		} else if(kind.equals("Constructor.newInstance")) {
+			return constructorNewInstanceReceivers;
+		} else if(kind.equals("Field.set*")) {
+			return fieldSetReceivers;
+		} else if(kind.equals("Field.get*")) {
+			return fieldGetReceivers;
+		}
+		return null;
+	}
+
+	/** Adds the entries made by methods named like m to the maps. */
+	private void resolve(SootMethod m) {
+		if(unresolved.isEmpty()) return;
+		resolve(m.getDeclaringClass().getName()+"."+m.getName());
+	}
+
+	private void resolveAll() {
+		for(String source: new ArrayList<String>(unresolved.keySet())) {
+			resolve(source);
+		}
+	}
+
+	private void resolve(String source) {
+		List<TraceEntry> entries = unresolved.remove(source);
+		if(entries==null) return;
+		Map<Integer,Set<SootMethod>> sourceMethods = new HashMap<Integer,Set<SootMethod>>();
+		for(TraceEntry entry: entries) {
+			if(entry.kind.equals("Method.invoke") || entry.kind.equals("Constructor.newInstance")) {
+				if(!Scene.v().containsMethod(entry.target)) {
+					throw new RuntimeException("Unknown method for signature: "+entry.target);
 				}
-				if(!ignoredKinds.isEmpty()) {
-					G.v().out.println("Encountered reflective calls entries of the following kinds that\n" +
-							"cannot currently be handled:");
-					for (String kind : ignoredKinds) {
-						G.v().out.println(kind);
-					}
+			} else if(entry.kind.equals("Field.set*") || entry.kind.equals("Field.get*")) {
+				if(!Scene.v().containsField(entry.target)) {
+					throw new RuntimeException("Unknown method for signature: "+entry.target);
+				}
+			}
+
+			Set<SootMethod> possibleSourceMethods = sourceMethods.get(entry.lineNumber);
+			if(possibleSourceMethods==null) {
+				possibleSourceMethods = inferSource(source, entry.lineNumber);
+				sourceMethods.put(entry.lineNumber, possibleSourceMethods);
+			}
+			Map<SootMethod,Set<String>> receivers = receiversOf(entry.kind);
+			for (SootMethod sourceMethod : possibleSourceMethods) {
+				Set<String> receiverNames;
+				if((receiverNames=receivers.get(sourceMethod))==null) {
+					receivers.put(sourceMethod, receiverNames = new LinkedHashSet<String>());
 				}
-			} catch (FileNotFoundException e) {
-				throw new RuntimeException("Trace file not found.",e);
-			} catch (IOException e) {
-				throw new RuntimeException(e);
+				receiverNames.add(entry.target);
 			}
 		}
 	}
@@ -226,6 +326,7 @@ public class ReflectionTraceInfo {
 	}
 	
 	public Set<String> classForNameClassNames(SootMethod container) {
+		resolve(container);
 		if(!classForNameReceivers.containsKey(container)) return Collections.emptySet();
 		return classForNameReceivers.get(container);
 	}
@@ -239,6 +340,7 @@ public class ReflectionTraceInfo {
 	}
 	
 	public Set<String> classNewInstanceClassNames(SootMethod container) {
+		resolve(container);
 		if(!classNewInstanceReceivers.containsKey(container)) return Collections.emptySet();
 		return classNewInstanceReceivers.get(container);
 	}
@@ -252,6 +354,7 @@ public class ReflectionTraceInfo {
 	}
 	
 	public Set<String> constructorNewInstanceSignatures(SootMethod container) {
+		resolve(container);
 		if(!constructorNewInstanceReceivers.containsKey(container)) return Collections.emptySet();
 		return constructorNewInstanceReceivers.get(container);
 	}
@@ -265,6 +368,7 @@ public class ReflectionTraceInfo {
 	}
 	
 	public Set<String> methodInvokeSignatures(SootMethod container) {
+		resolve(container);
 		if(!methodInvokeReceivers.containsKey(container)) return Collections.emptySet();
 		return methodInvokeReceivers.get(container);
 	}
@@ -278,6 +382,7 @@ public class ReflectionTraceInfo {
 	}
 	
 	public Set<SootMethod> methodsContainingReflectiveCalls() {
+		resolveAll();
 		Set<SootMethod> res = new LinkedHashSet<SootMethod>();
 		res.addAll(classForNameReceivers.keySet());
 		res.addAll(classNewInstanceReceivers.keySet());
@@ -287,11 +392,13 @@ public class ReflectionTraceInfo {
 	}
 
 	public Set<String> fieldSetSignatures(SootMethod container) {
+		resolve(container);
 		if(!fieldSetReceivers.containsKey(container)) return Collections.emptySet();
 		return fieldSetReceivers.get(container);
 	}
 
 	public Set<String> fieldGetSignatures(SootMethod container) {
+		resolve(container);
 		if(!fieldGetReceivers.containsKey(container)) return Collections.emptySet();
 		return fieldGetReceivers.get(container);
 	}
@@ -78,6 +78,7 @@ import soot.options.CGOptions;
 import soot.options.Options;
 import soot.rtlib.tamiflex.DefaultHandler;
 import soot.rtlib.tamiflex.IUnexpectedReflectiveCallHandler;
+import soot.rtlib.tamiflex.KnownTargets;
 import soot.rtlib.tamiflex.OpaquePredicate;
 import soot.rtlib.tamiflex.ReflectiveCalls;
 import soot.rtlib.tamiflex.SootSig;
@@ -121,6 +122,7 @@ public class ReflectiveCallsInliner extends SceneTransformer {
 			Scene.v().getSootClass(DefaultHandler.class.getName()).setApplicationClass();
 			Scene.v().getSootClass(OpaquePredicate.class.getName()).setApplicationClass();
 			Scene.v().getSootClass(ReflectiveCalls.class.getName()).setApplicationClass();
+			Scene.v().getSootClass(KnownTargets.class.getName()).setApplicationClass();
 			
 			reflectiveCallsClass = new SootClass("soot.rtlib.tamiflex.ReflectiveCallsWrapper", Modifier.PUBLIC);
 			Scene.v().addClass(reflectiveCallsClass);
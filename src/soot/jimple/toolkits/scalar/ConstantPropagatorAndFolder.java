@@ -42,6 +42,9 @@ public class ConstantPropagatorAndFolder extends BodyTransformer
     public ConstantPropagatorAndFolder( Singletons.Global g ) {}
     public static ConstantPropagatorAndFolder v() { return G.v().soot_jimple_toolkits_scalar_ConstantPropagatorAndFolder(); }
 
+    /** Edits the body only through its BodyAnalysisManager and its chains. */
+    protected boolean keepsAnalyses() { return true; }
+
     protected void internalTransform(Body b, String phaseName, Map options)
     {
         StmtBody stmtBody = (StmtBody)b;
@@ -52,10 +55,9 @@ public class ConstantPropagatorAndFolder extends BodyTransformer
             G.v().out.println("[" + stmtBody.getMethod().getName() +
                                "] Propagating and folding constants...");
 
-        ExceptionalUnitGraph unitGraph = new ExceptionalUnitGraph(stmtBody);
-        LocalDefs localDefs;
-        
-        localDefs = new SmartLocalDefs(unitGraph, new SimpleLiveLocals(unitGraph));
+        BodyAnalysisManager analyses = stmtBody.getAnalysisManager();
+        ExceptionalUnitGraph unitGraph = analyses.getGraph();
+        LocalDefs localDefs = analyses.getLocalDefs();
 
         // Perform a constant/local propagation pass.
         Iterator stmtIt = (new PseudoTopologicalOrderer()).newList(unitGraph,false).iterator();
@@ -78,7 +80,7 @@ public class ConstantPropagatorAndFolder extends BodyTransformer
                             (DefinitionStmt) defsOfUse.get(0);
                         if (defStmt.getRightOp() instanceof NumericConstant) {
                             if (useBox.canContainValue(defStmt.getRightOp())) {
-                                useBox.setValue(defStmt.getRightOp());
+                                analyses.replaceUse(stmt, useBox, defStmt.getRightOp(), stmt);
                                 numPropagated++;
                             }
                         }
@@ -97,7 +99,7 @@ public class ConstantPropagatorAndFolder extends BodyTransformer
                         Value constValue =
                             Evaluator.getConstantValueOf(value);
                         if (useBox.canContainValue(constValue)) {
-                            useBox.setValue(constValue);
+                            analyses.replaceUse(stmt, useBox, constValue, stmt);
                             numFolded++;
                         }
                     }
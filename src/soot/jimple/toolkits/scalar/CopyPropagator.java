@@ -44,6 +44,9 @@ public class CopyPropagator extends BodyTransformer
     public CopyPropagator( Singletons.Global g ) {}
     public static CopyPropagator v() { return G.v().soot_jimple_toolkits_scalar_CopyPropagator(); }
 
+    /** Edits the body only through its BodyAnalysisManager and its chains. */
+    protected boolean keepsAnalyses() { return true; }
+
     /** Cascaded copy propagator.
     
         If it encounters situations of the form: A: a = ...; B: ... x = a; C:... use (x); 
@@ -98,11 +101,9 @@ public class CopyPropagator extends BodyTransformer
         
 //            ((JimpleBody) stmtBody).printDebugTo(new java.io.PrintWriter(G.v().out, true));
             
-        ExceptionalUnitGraph graph = new ExceptionalUnitGraph(stmtBody);
-
-        LocalDefs localDefs;
-        
-        localDefs = new SmartLocalDefs(graph, new SimpleLiveLocals(graph));
+        BodyAnalysisManager analyses = stmtBody.getAnalysisManager();
+        ExceptionalUnitGraph graph = analyses.getGraph();
+        LocalDefs localDefs = analyses.getLocalDefs();
 
         // Perform a local propagation pass.
         {
@@ -150,7 +151,7 @@ public class CopyPropagator extends BodyTransformer
                                         throw new RuntimeException("Variable " + m + " used without definition!");
                                     else if(defCount == 1)
                                     {
-                                        useBox.setValue(m);
+                                        analyses.replaceUse(stmt, useBox, m, def);
                                         fastCopyPropagationCount++;
                                         continue;
                                     }
@@ -198,7 +199,7 @@ public class CopyPropagator extends BodyTransformer
                                             
                                     }
                                     
-                                    useBox.setValue(m);
+                                    analyses.replaceUse(stmt, useBox, m, def);
                                     slowCopyPropagationCount++;
                                 }
                             }
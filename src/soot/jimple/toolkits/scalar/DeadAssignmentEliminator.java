@@ -43,6 +43,9 @@ public class DeadAssignmentEliminator extends BodyTransformer
     public DeadAssignmentEliminator( Singletons.Global g ) {}
     public static DeadAssignmentEliminator v() { return G.v().soot_jimple_toolkits_scalar_DeadAssignmentEliminator(); }
 
+    /** Edits the body only through its BodyAnalysisManager and its chains. */
+    protected boolean keepsAnalyses() { return true; }
+
     /** Eliminates dead code in a linear fashion.  Complexity is linear 
         with respect to the statements.
         
@@ -153,9 +156,9 @@ public class DeadAssignmentEliminator extends BodyTransformer
             }
         }
 
-        ExceptionalUnitGraph graph = new ExceptionalUnitGraph(b);
-        LocalDefs defs = new SmartLocalDefs(graph, new SimpleLiveLocals(graph));
-        LocalUses uses = new SimpleLocalUses(graph, defs);
+        BodyAnalysisManager analyses = b.getAnalysisManager();
+        LocalDefs defs = analyses.getLocalDefs();
+        LocalUses uses = analyses.getLocalUses();
         
         // Add all the statements which are used to compute values
         // for the essential statements, recursively
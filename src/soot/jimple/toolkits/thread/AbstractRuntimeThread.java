@@ -20,6 +20,7 @@ public class AbstractRuntimeThread
 	
 	// What methods are in the thread
 	List<Object> methods;
+	Set<Object> methodSet; // same as methods, for fast lookup
 	List<Object> runMethods; // meant to be a subset of methods
 
 	// What kind of parallelism
@@ -43,6 +44,7 @@ public class AbstractRuntimeThread
 		startStmt = null;
 		startStmtMethod = null;
 		methods = new ArrayList<Object>();
+		methodSet = new HashSet<Object>();
 		runMethods = new ArrayList<Object>();
 
 		// What kind of parallelism - this is set unsafely, so analysis MUST set it correctly
@@ -82,12 +84,13 @@ public class AbstractRuntimeThread
 
 	public boolean containsMethod(Object method)
 	{
-		return methods.contains(method);
+		return methodSet.contains(method);
 	}
 	
 	public void addMethod(Object method)
 	{
 		methods.add(method);
+		methodSet.add(method);
 	}
 	
 	public void addRunMethod(Object method)
@@ -8,6 +8,8 @@
  */
 package soot.jimple.toolkits.thread.mhp;
 
+import soot.*;
+import soot.options.Options;
 import soot.util.*;
 import java.util.*;
 
@@ -56,6 +58,9 @@ class MhpAnalysis
 	private final Map<JPegStmt, Set<JPegStmt>> notifyPred;
 	FlowSet fullSet = new ArraySparseSet();
 	LinkedList<Object> workList = new LinkedList<Object>();
+	// the nodes in workList, since searching the list itself takes linear time
+	Set<Object> inWorkList = new HashSet<Object>();
+	int iterations = 0;
 	
 	MhpAnalysis(PegGraph g)
 	{
@@ -112,8 +117,8 @@ class MhpAnalysis
 		
 		while (keysIt.hasNext()){
 			JPegStmt stmt =  (JPegStmt)keysIt.next();
-			if (!workList.contains(stmt)){
-				workList.addLast(stmt);
+			if (!inWorkList.contains(stmt)){
+				addToWorkList(stmt);
 			}
 			//System.out.println("add"+stmt+"to worklist");
 		}
@@ -238,6 +243,8 @@ class MhpAnalysis
 		//testKill();
 		
 		doAnalysis();
+		if(Options.v().verbose())
+			G.v().out.println("[mhp] nodes: "+size+" iterations: "+iterations);
 		//testNotifySucc();
 		//-----------
 		long beginTime = System.currentTimeMillis();
@@ -258,6 +265,8 @@ class MhpAnalysis
 		while(workList.size()>0){
 			//get the head of the worklist and remove the head
 			Object currentObj= workList.removeFirst();	    
+			inWorkList.remove(currentObj);
+			iterations++;
 			//System.out.println("curObj: "+currentObj);
 			/* 
 			 if (currentObj instanceof JPegStmt){
@@ -420,8 +429,8 @@ class MhpAnalysis
 						/*add m to the worklist because the change in M(m) may lead to 
 						 * a change in OUT(m)
 						 */
-						if (!workList.contains(tempM)){
-							workList.addLast(tempM);
+						if (!inWorkList.contains(tempM)){
+							addToWorkList(tempM);
 							
 						}
 						//System.out.println("add in symmetry"+tempM+"to worklist");
@@ -452,18 +461,18 @@ class MhpAnalysis
 								
 							}
 							
-							else if ( !workList.contains(localSucc)){
+							else if ( !inWorkList.contains(localSucc)){
 								
-								workList.addLast(localSucc);
+								addToWorkList(localSucc);
 								
 								//System.out.println("add "+localSucc+"to worklist---local succ");
 							}
 							
 						}
 						else{
-							if ( !workList.contains(localSucc)){
+							if ( !inWorkList.contains(localSucc)){
 								
-								workList.addLast(localSucc);
+								addToWorkList(localSucc);
 								
 								//System.out.println("add to worklist---local succ");
 								/*	Iterator it = ((List)localSucc).iterator();
@@ -574,8 +583,8 @@ class MhpAnalysis
 					Iterator notifySuccIt = notifySuccSet.iterator();
 					while(notifySuccIt.hasNext()){
 						Object notifySuccNode = notifySuccIt.next();
-						if (!workList.contains(notifySuccNode)){
-							workList.addLast(notifySuccNode);
+						if (!inWorkList.contains(notifySuccNode)){
+							addToWorkList(notifySuccNode);
 						}
 						//System.out.println("add"+notifySuccNode+"to worklist");
 					}
@@ -913,8 +922,8 @@ class MhpAnalysis
 						/*add m to the worklist because the change in M(m) may lead to 
 						 * a change in OUT(m)
 						 */
-						if (!workList.contains(tempM)){
-							workList.addLast(tempM);
+						if (!inWorkList.contains(tempM)){
+							addToWorkList(tempM);
 						}
 						//System.out.println("add"+tempM+"to worklist");
 						
@@ -941,16 +950,16 @@ class MhpAnalysis
 								continue;
 							}
 							else{
-								if ( !workList.contains(localSucc))
+								if ( !inWorkList.contains(localSucc))
 									
-									workList.addLast(localSucc); 
+									addToWorkList(localSucc); 
 							}
 							
 						}
 						
-						else if ( !workList.contains(localSucc)){
+						else if ( !inWorkList.contains(localSucc)){
 							
-							workList.addLast(localSucc);
+							addToWorkList(localSucc);
 							/*
 							 System.out.println("add to worklist---local succ");
 							 Iterator it = ((List)localSucc).iterator();
@@ -986,8 +995,8 @@ class MhpAnalysis
 									if (tempStmt instanceof JPegStmt){
 										if ((JPegStmt)tempStmt instanceof BeginStmt){
 											// if (((JPegStmt)tempStmt).getName().equals("begin")){
-											if(!workList.contains(tempStmt)){
-												workList.addLast(tempStmt);
+											if(!inWorkList.contains(tempStmt)){
+												addToWorkList(tempStmt);
 											}
 											break;
 										}
@@ -1016,6 +1025,12 @@ class MhpAnalysis
 		}//end while
 		
 	}
+	private void addToWorkList(Object o)
+	{
+		workList.addLast(o);
+		inWorkList.add(o);
+	}
+	
 	protected Object entryInitialFlow()
 	{
 		return new ArraySparseSet();
@@ -13,6 +13,7 @@ import soot.jimple.toolkits.thread.mhp.pegcallgraph.PegCallGraph;
 import soot.jimple.spark.ondemand.DemandCSPointsTo;
 import soot.jimple.spark.pag.*;
 import soot.options.SparkOptions;
+import soot.util.BitVector;
 import java.util.*;
 
 /** UnsynchronizedMhpAnalysis written by Richard L. Halpert 2006-12-09
@@ -32,6 +33,12 @@ import java.util.*;
 public class SynchObliviousMhpAnalysis implements MhpTester, Runnable
 {
 	List<AbstractRuntimeThread> threadList;
+	
+	// For each method, the positions in threadList of the threads that run it.
+	// Threads are indexed once their methods are all known. Queries may come
+	// from several threads once the analysis is done.
+	Map<Object, BitVector> methodToThreads;
+	int indexedThreads;
 	boolean optionPrintDebug;
 	boolean optionThreaded = false; // DOESN'T WORK if set to true... ForwardFlowAnalysis uses a static field in a thread-unsafe way
 	
@@ -40,6 +47,8 @@ public class SynchObliviousMhpAnalysis implements MhpTester, Runnable
 	public SynchObliviousMhpAnalysis()
 	{
 		threadList = new ArrayList<AbstractRuntimeThread>();
+		methodToThreads = new HashMap<Object, BitVector>();
+		indexedThreads = 0;
 		optionPrintDebug = false;
 
 		self = null;
@@ -360,21 +369,33 @@ public class SynchObliviousMhpAnalysis implements MhpTester, Runnable
     		return true;
 		}
 
-		int size = threadList.size();
-		for(int i = 0; i < size; i++)
+		indexThreads();
+		BitVector threads1 = methodToThreads.get(m1);
+		BitVector threads2 = methodToThreads.get(m2);
+		if(threads1 == null || threads2 == null)
+			return false;
+		
+		// m1 and m2 are run by two different threads unless both are only run by the same one
+		return !(threads1.cardinality() == 1 && threads1.equals(threads2));
+	}
+	
+	private synchronized void indexThreads()
+	{
+		for(; indexedThreads < threadList.size(); indexedThreads++)
 		{
-			if(threadList.get(i).containsMethod(m1))
+			AbstractRuntimeThread thread = threadList.get(indexedThreads);
+			for(int i = 0; i < thread.methodCount(); i++)
 			{
-				for(int j = 0; j < size; j++)
+				Object method = thread.getMethod(i);
+				BitVector threads = methodToThreads.get(method);
+				if(threads == null)
 				{
-					if(threadList.get(j).containsMethod(m2) && i != j)
-					{
-						return true;
-					}
+					threads = new BitVector();
+					methodToThreads.put(method, threads);
 				}
+				threads.set(indexedThreads);
 			}
 		}
-		return false;
 	}
 	
 	public void printMhpSummary()
@@ -411,6 +432,9 @@ public class SynchObliviousMhpAnalysis implements MhpTester, Runnable
 			}
 			threads.add(threadList.get(i));
 		}
+		indexThreads();
+		G.v().out.println("[mhp] " + threads.size() + " threads, " + size + " thread instances, " +
+			methodToThreads.size() + " methods");
 	}
 	
 	public List<SootClass> getThreadClassList()
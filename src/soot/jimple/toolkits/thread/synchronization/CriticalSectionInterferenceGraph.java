@@ -1,8 +1,15 @@
 package soot.jimple.toolkits.thread.synchronization;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import soot.Hierarchy;
 import soot.Local;
@@ -14,6 +21,8 @@ import soot.PointsToAnalysis;
 import soot.jimple.toolkits.callgraph.ReachableMethods;
 import soot.jimple.toolkits.pointer.CodeBlockRWSet;
 import soot.jimple.toolkits.thread.mhp.MhpTester;
+import soot.util.BitSetIterator;
+import soot.util.BitVector;
 
 public class CriticalSectionInterferenceGraph {
 
@@ -69,10 +78,15 @@ public class CriticalSectionInterferenceGraph {
 		}
 		else // calculate separate groups for transactions
 		{
-	    	Iterator<CriticalSection> tnIt1 = criticalSections.iterator();
-	    	while(tnIt1.hasNext())
+			// Without the original locks, only transactions with a data dependency
+			// can interfere; these are found up front, in parallel
+			List<List<CriticalSection>> dependentTransactions = null;
+			if(!optionLeaveOriginalLocks)
+				dependentTransactions = findDataDependencies();
+			
+	    	for(int tn1Num = 0; tn1Num < criticalSections.size(); tn1Num++)
 	    	{
-	    		CriticalSection tn1 = tnIt1.next();
+	    		CriticalSection tn1 = criticalSections.get(tn1Num);
 	    		
 	    		// if this transaction has somehow already been marked for deletion
 	    		if(tn1.setNumber == -1)
@@ -88,7 +102,10 @@ public class CriticalSectionInterferenceGraph {
 	    		}
 	    		else
 	    		{
-		        	Iterator<CriticalSection> tnIt2 = criticalSections.iterator();
+		    		List<CriticalSection> candidates = criticalSections;
+		    		if(dependentTransactions != null)
+		    			candidates = dependentTransactions.get(tn1Num);
+		        	Iterator<CriticalSection> tnIt2 = candidates.iterator();
 		    		while(tnIt2.hasNext())
 		    		{
 		    			CriticalSection tn2 = tnIt2.next();
@@ -105,7 +122,8 @@ public class CriticalSectionInterferenceGraph {
 	//	    				continue;
 		    			
 		    			// check if these two transactions can't ever be in parallel
-		    			if(!mayHappenInParallel(tn1, tn2))
+		    			// (already done for the data dependencies found up front)
+		    			if(dependentTransactions == null && !mayHappenInParallel(tn1, tn2))
 		    				continue;
 	
 		    			// check for RW or WW data dependencies.
@@ -114,7 +132,7 @@ public class CriticalSectionInterferenceGraph {
 		    			SootClass classTwo = null;
 		    			boolean typeCompatible = false;
 		    			boolean emptyEdge = false;
-		    			if(tn1.origLock != null && tn2.origLock != null)
+		    			if(optionLeaveOriginalLocks && tn1.origLock != null && tn2.origLock != null)
 		    			{
 							// Check if edge is empty
 	    					if(tn1.origLock == null || tn2.origLock == null)
@@ -162,11 +180,8 @@ public class CriticalSectionInterferenceGraph {
 					    		}
 					    	}
 			    		}
-		    			if((!optionLeaveOriginalLocks && 
-		    				   (tn1.write.hasNonEmptyIntersection(tn2.write) ||
-		    					tn1.write.hasNonEmptyIntersection(tn2.read) ||
-		    					tn1.read.hasNonEmptyIntersection(tn2.write))	) || 
-		    			   ( optionLeaveOriginalLocks && typeCompatible && (optionIncludeEmptyPossibleEdges || !emptyEdge) ))
+		    			if(!optionLeaveOriginalLocks || 
+		    			   ( typeCompatible && (optionIncludeEmptyPossibleEdges || !emptyEdge) ))
 		    			{
 		    				// Determine the size of the intersection for GraphViz output
 		    				CodeBlockRWSet rw = null;
@@ -238,13 +253,145 @@ public class CriticalSectionInterferenceGraph {
 		}
 	}
 	
+	/** Returns, for each transaction, the transactions that may happen in
+	 * parallel with it and read or write what it writes, or write what it
+	 * reads, in the order of criticalSections. Only transactions that share
+	 * a field or global with it are compared to it; the comparisons are
+	 * spread over as many threads as there are processors. */
+	private List<List<CriticalSection>> findDataDependencies()
+	{
+		final List<CriticalSection> sections = new ArrayList<CriticalSection>(criticalSections);
+		
+		// Index the transactions by the fields and globals they read and write
+		final Map<Object, BitVector> readers = new HashMap<Object, BitVector>();
+		final Map<Object, BitVector> writers = new HashMap<Object, BitVector>();
+		for(int i = 0; i < sections.size(); i++)
+		{
+			CriticalSection tn = sections.get(i);
+			index(readers, tn.read, i);
+			index(writers, tn.write, i);
+		}
+		
+		// the reachable methods are updated when they are asked for, so get them only once
+		final ReachableMethods rm = (mhp == null) ? Scene.v().getReachableMethods() : null;
+		
+		List<List<CriticalSection>> ret = new ArrayList<List<CriticalSection>>(sections.size());
+		int threads = Runtime.getRuntime().availableProcessors();
+		if(threads < 2 || sections.size() < 2)
+		{
+			for(CriticalSection tn1 : sections)
+				ret.add(dataDependencies(tn1, sections, readers, writers, rm));
+			return ret;
+		}
+		
+		List<Future<List<CriticalSection>>> futures = new ArrayList<Future<List<CriticalSection>>>(sections.size());
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			for(final CriticalSection tn1 : sections)
+			{
+				futures.add(executor.submit(new Callable<List<CriticalSection>>()
+				{
+					public List<CriticalSection> call()
+					{
+						return dataDependencies(tn1, sections, readers, writers, rm);
+					}
+				}));
+			}
+			for(Future<List<CriticalSection>> future : futures)
+				ret.add(get(future));
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		return ret;
+	}
+	
+	private List<CriticalSection> dataDependencies(CriticalSection tn1, List<CriticalSection> sections,
+			Map<Object, BitVector> readers, Map<Object, BitVector> writers, ReachableMethods rm)
+	{
+		BitVector candidates = new BitVector(sections.size());
+		addUsers(candidates, writers, tn1.write);
+		addUsers(candidates, readers, tn1.write);
+		addUsers(candidates, writers, tn1.read);
+		List<CriticalSection> ret = new ArrayList<CriticalSection>();
+		for(BitSetIterator it = candidates.iterator(); it.hasNext();)
+		{
+			CriticalSection tn2 = sections.get(it.next());
+			if(mayHappenInParallel(tn1, tn2, rm) &&
+			   (tn1.write.hasNonEmptyIntersection(tn2.write) ||
+				tn1.write.hasNonEmptyIntersection(tn2.read) ||
+				tn1.read.hasNonEmptyIntersection(tn2.write)))
+				ret.add(tn2);
+		}
+		return ret;
+	}
+	
+	private static void index(Map<Object, BitVector> users, CodeBlockRWSet rw, int tnNum)
+	{
+		for(Object global : rw.getGlobals())
+			use(users, global).set(tnNum);
+		for(Object field : rw.getFields())
+			use(users, field).set(tnNum);
+	}
+	
+	private static BitVector use(Map<Object, BitVector> users, Object location)
+	{
+		BitVector ret = users.get(location);
+		if(ret == null)
+		{
+			ret = new BitVector();
+			users.put(location, ret);
+		}
+		return ret;
+	}
+	
+	private static void addUsers(BitVector candidates, Map<Object, BitVector> users, CodeBlockRWSet rw)
+	{
+		for(Object global : rw.getGlobals())
+		{
+			BitVector tns = users.get(global);
+			if(tns != null)
+				candidates.or(tns);
+		}
+		for(Object field : rw.getFields())
+		{
+			BitVector tns = users.get(field);
+			if(tns != null)
+				candidates.or(tns);
+		}
+	}
+	
+	private static List<CriticalSection> get(Future<List<CriticalSection>> dependencies)
+	{
+		try
+		{
+			return dependencies.get();
+		}
+		catch(InterruptedException e)
+		{
+			throw new RuntimeException(e);
+		}
+		catch(ExecutionException e)
+		{
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new RuntimeException(e.getCause());
+		}
+	}
+	
     public boolean mayHappenInParallel(CriticalSection tn1, CriticalSection tn2)
+    {
+    	if(mhp == null && optionLeaveOriginalLocks)
+    		return true;
+    	return mayHappenInParallel(tn1, tn2, mhp == null ? Scene.v().getReachableMethods() : null);
+    }
+    
+    private boolean mayHappenInParallel(CriticalSection tn1, CriticalSection tn2, ReachableMethods rm)
     {
     	if(mhp == null)
     	{
-    		if(optionLeaveOriginalLocks)
-    			return true;
-    		ReachableMethods rm = Scene.v().getReachableMethods();
     		if(!rm.contains(tn1.method) || !rm.contains(tn2.method))
     			return false;
     		return true;
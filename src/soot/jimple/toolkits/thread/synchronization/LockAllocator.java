@@ -24,6 +24,10 @@ public class LockAllocator extends SceneTransformer
 		return G.v().soot_jimple_toolkits_thread_synchronization_LockAllocator();
 	}
     
+    // Number of methods whose graphs are kept while going through the critical
+    // sections, which are ordered by method
+    static final int GRAPH_CACHE_SIZE = 16;
+    
     List<CriticalSection> criticalSections = null;
     CriticalSectionInterferenceGraph interferenceGraph = null;
     DirectedGraph deadlockGraph = null;
@@ -153,7 +157,6 @@ public class LockAllocator extends SceneTransformer
 		Date start = new Date();
     	G.v().out.println("[wjtp.tn] *** Find and Name Transactions *** " + start);
     	Map<SootMethod, FlowSet> methodToFlowSet = new HashMap<SootMethod, FlowSet>();
-    	Map<SootMethod, ExceptionalUnitGraph> methodToExcUnitGraph = new HashMap<SootMethod, ExceptionalUnitGraph>();
     	Iterator runAnalysisClassesIt = Scene.v().getApplicationClasses().iterator();
     	while (runAnalysisClassesIt.hasNext()) 
     	{
@@ -166,7 +169,6 @@ public class LockAllocator extends SceneTransformer
 				{
 	    	    	Body b = method.retrieveActiveBody();
 	    	    	ExceptionalUnitGraph eug = new ExceptionalUnitGraph(b);
-    		    	methodToExcUnitGraph.put(method, eug);
     		    	
     	    		// run the intraprocedural analysis
     				SynchronizedRegionFinder ta = new SynchronizedRegionFinder(eug, b, optionPrintDebug, optionOpenNesting, tlo);
@@ -399,6 +401,7 @@ public class LockAllocator extends SceneTransformer
 			List<PointsToSetInternal> lockPTSets) {
 		// For each transaction, if the group's R/Ws may be fields of the same object, 
 		// then check for the transaction if they must be fields of the same RUNTIME OBJECT
+		Map<SootMethod, UnitGraph> methodToGraph = lruMap(GRAPH_CACHE_SIZE);
 		Iterator<CriticalSection> tnIt9 = AllTransactions.iterator();
 		while(tnIt9.hasNext())
 		{
@@ -413,7 +416,13 @@ public class LockAllocator extends SceneTransformer
 				
 				// Get list of objects (FieldRef or Local) to be locked (lockset analysis)
 				G.v().out.println("[wjtp.tn] * " + tn.name + " *");
-				LockableReferenceAnalysis la = new LockableReferenceAnalysis(new BriefUnitGraph(tn.method.retrieveActiveBody()));
+				UnitGraph graph = methodToGraph.get(tn.method);
+				if(graph == null)
+				{
+					graph = new BriefUnitGraph(tn.method.retrieveActiveBody());
+					methodToGraph.put(tn.method, graph);
+				}
+				LockableReferenceAnalysis la = new LockableReferenceAnalysis(graph);
 				tn.lockset = la.getLocksetOf(tasea, tn.group.rwSet, tn);
 				
 				// Determine if list is suitable for the selected locking scheme
@@ -611,16 +620,22 @@ public class LockAllocator extends SceneTransformer
 		
 		// if for any lock there is any def to anything other than a static field, then it's a local lock.			
 		// for each transaction, check every def of the lock
+		Map<SootMethod, SmartLocalDefs> methodToLocalDefs = lruMap(GRAPH_CACHE_SIZE);
 		Iterator<CriticalSection> tnAIt = AllTransactions.iterator();
 		while(tnAIt.hasNext())
 		{
 			CriticalSection tn = tnAIt.next();
 			if(tn.setNumber <= 0)
 				continue;
-			ExceptionalUnitGraph egraph = new ExceptionalUnitGraph(tn.method.retrieveActiveBody());
-			SmartLocalDefs sld = new SmartLocalDefs(egraph, new SimpleLiveLocals(egraph));
 			if(tn.origLock == null || !(tn.origLock instanceof Local)) // || tn.begin == null)
 				continue;
+			SmartLocalDefs sld = methodToLocalDefs.get(tn.method);
+			if(sld == null)
+			{
+				ExceptionalUnitGraph egraph = new ExceptionalUnitGraph(tn.method.retrieveActiveBody());
+				sld = new SmartLocalDefs(egraph, new SimpleLiveLocals(egraph));
+				methodToLocalDefs.put(tn.method, sld);
+			}
 			List<Unit> rDefs = sld.getDefsOfAt( (Local) tn.origLock , tn.entermonitor );
 			if(rDefs == null)
 				continue;
@@ -665,6 +680,18 @@ public class LockAllocator extends SceneTransformer
 		}
 	}
     
+	/** Returns a map that only keeps its maxSize most recently used entries. */
+	static <K, V> Map<K, V> lruMap(final int maxSize)
+	{
+		return new LinkedHashMap<K, V>(16, 0.75f, true)
+		{
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+			{
+				return size() > maxSize;
+			}
+		};
+	}
+
 	public static String locksetToLockNumString(List<EquivalentValue> lockset, Map<Value, Integer> lockToLockNum)
 	{
 		if( lockset == null ) return "null";
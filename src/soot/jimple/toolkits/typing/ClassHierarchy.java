@@ -35,6 +35,13 @@ import java.util.*;
  * This class encapsulates the typing class hierarchy, as well as non-reference types.
  *
  * <P> This class is primarily used by the TypeResolver class, to optimize its computation.
+ *
+ * <P> One hierarchy is shared by the typing of all bodies of a scene, and may be
+ * used by several threads at once. Type nodes are created, and their ancestor and
+ * descendant sets read, under the lock of the hierarchy, since creating a node
+ * adds it to the sets of existing ones. Least common ancestors are remembered
+ * once computed. Nodes for array types create those types through ArrayType.v,
+ * which is not synchronized, so other threads must not create types meanwhile.
  **/
 public class ClassHierarchy
 {
@@ -59,6 +66,12 @@ public class ClassHierarchy
   
   /** Used to create TypeNode instances **/
   private final ConstructorChooser make = new ConstructorChooser();
+
+  /** Map: pair of type node ids -> least common ancestor **/
+  private final HashMap<Long, TypeNode> lcaMap = new HashMap<Long, TypeNode>();
+
+  /** Map: pair of type node ids -> unique least common ancestor, or null **/
+  private final HashMap<Long, TypeNode> lcaIfUniqueMap = new HashMap<Long, TypeNode>();
   
   private ClassHierarchy(Scene scene)
   {
@@ -93,19 +106,22 @@ public class ClassHierarchy
 	throw new InternalTypingException();
       }
     
-    ClassHierarchy classHierarchy =
-      G.v().ClassHierarchy_classHierarchyMap.get(scene);
-
-    if(classHierarchy == null)
+    Map<Scene, ClassHierarchy> classHierarchyMap = G.v().ClassHierarchy_classHierarchyMap;
+    synchronized(classHierarchyMap)
       {
-	classHierarchy = new ClassHierarchy(scene);
+	ClassHierarchy classHierarchy = classHierarchyMap.get(scene);
+
+	if(classHierarchy == null)
+	  {
+	    classHierarchy = new ClassHierarchy(scene);
+	  }
+
+	return classHierarchy;
       }
-    
-    return classHierarchy;
   }
 
   /** Get the type node for the given type. **/
-  public TypeNode typeNode(Type type)
+  public synchronized TypeNode typeNode(Type type)
   {
     if(type == null) 
       {
@@ -129,8 +145,45 @@ public class ClassHierarchy
     return typeNode;
   }
 
+  /** Get the least common ancestor of the given type nodes, computing it only
+   * the first time it is asked for. **/
+  synchronized TypeNode lca(TypeNode typeNode1, TypeNode typeNode2) throws TypeException
+  {
+    Long key = key(typeNode1, typeNode2);
+    TypeNode lca = lcaMap.get(key);
+
+    if(lca == null)
+      {
+	lca = typeNode1.computeLca(typeNode2);
+	lcaMap.put(key, lca);
+      }
+
+    return lca;
+  }
+
+  /** Get the least common ancestor of the given type nodes if it is unique,
+   * null otherwise, computing it only the first time it is asked for. **/
+  synchronized TypeNode lcaIfUnique(TypeNode typeNode1, TypeNode typeNode2) throws TypeException
+  {
+    Long key = key(typeNode1, typeNode2);
+    TypeNode lca = lcaIfUniqueMap.get(key);
+
+    if(lca == null && !lcaIfUniqueMap.containsKey(key))
+      {
+	lca = typeNode1.computeLcaIfUnique(typeNode2);
+	lcaIfUniqueMap.put(key, lca);
+      }
+
+    return lca;
+  }
+
+  private static Long key(TypeNode typeNode1, TypeNode typeNode2)
+  {
+    return new Long(((long) typeNode1.id() << 32) | typeNode2.id());
+  }
+
   /** Returns a string representation of this object **/
-  public String toString ()
+  public synchronized String toString ()
   {
     StringBuffer s = new StringBuffer();
     boolean colon = false;
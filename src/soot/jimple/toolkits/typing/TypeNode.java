@@ -252,9 +252,16 @@ class TypeNode
     return type;
   }
 
+  /* The ancestors of NULL and the descendants of every node grow when new
+   * nodes are created under the lock of the hierarchy, so they are only
+   * read under that lock. */
+
   public boolean hasAncestor(TypeNode typeNode)
   {
-    return ancestors.get(typeNode.id);
+    synchronized(hierarchy)
+      {
+	return ancestors.get(typeNode.id);
+      }
   }
 
   public boolean hasAncestorOrSelf(TypeNode typeNode)
@@ -262,12 +269,15 @@ class TypeNode
     if(typeNode == this)
       return true;
 
-    return ancestors.get(typeNode.id);
+    return hasAncestor(typeNode);
   }
 
   public boolean hasDescendant(TypeNode typeNode)
   {
-    return descendants.get(typeNode.id);
+    synchronized(hierarchy)
+      {
+	return descendants.get(typeNode.id);
+      }
   }
 
   public boolean hasDescendantOrSelf(TypeNode typeNode)
@@ -275,7 +285,7 @@ class TypeNode
     if(typeNode == this)
       return true;
 
-    return descendants.get(typeNode.id);
+    return hasDescendant(typeNode);
   }
 
   public List parents()
@@ -315,6 +325,13 @@ class TypeNode
 	return this;
       }
 
+    return hierarchy.lca(this, type);
+  }
+
+  /** Walks up the superclasses of type to the first one that is an ancestor
+   * of this node. **/
+  TypeNode computeLca(TypeNode type) throws TypeException
+  {
     do
       {
 	type = type.parentClass;
@@ -339,8 +356,6 @@ class TypeNode
 
   public TypeNode lcaIfUnique(TypeNode type) throws TypeException
   {
-    TypeNode initial = type;
-
     if(type == null)
       {
 	throw new InternalTypingException();
@@ -361,6 +376,15 @@ class TypeNode
 	return this;
       }
 
+    return hierarchy.lcaIfUnique(this, type);
+  }
+
+  /** Walks up the parents of type to the first one that is an ancestor of
+   * this node, or returns null if type has several parents on the way. **/
+  TypeNode computeLcaIfUnique(TypeNode type) throws TypeException
+  {
+    TypeNode initial = type;
+
     do
       {
 	if(type.parents.size() == 1)
@@ -402,22 +426,25 @@ class TypeNode
 
   public TypeNode array()
   {
-    if(array != null)
+    synchronized(hierarchy)
       {
- 	return array;
-      }
+	if(array != null)
+	  {
+	    return array;
+	  }
 
-    if(type instanceof ArrayType)
-      {
-	ArrayType atype = (ArrayType) type;
-	array = hierarchy.typeNode(ArrayType.v(atype.baseType, atype.numDimensions + 1));
-	return array;
-      }
+	if(type instanceof ArrayType)
+	  {
+	    ArrayType atype = (ArrayType) type;
+	    array = hierarchy.typeNode(ArrayType.v(atype.baseType, atype.numDimensions + 1));
+	    return array;
+	  }
 
-    if(type instanceof PrimType || type instanceof RefType)
-      {
-	array = hierarchy.typeNode(ArrayType.v(type, 1));
-	return array;
+	if(type instanceof PrimType || type instanceof RefType)
+	  {
+	    array = hierarchy.typeNode(ArrayType.v(type, 1));
+	    return array;
+	  }
       }
 
     throw new InternalTypingException();
@@ -0,0 +1,45 @@
+package soot.rtlib.tamiflex;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, for each target of a reflective call, at which call sites it
+ * was found to be known or unknown, so that a call site computes and looks
+ * up the signature of a target only once. Looking up a result neither
+ * locks nor allocates.
+ */
+public class KnownTargets<T> {
+	
+	public static final int UNCHECKED = -1;
+	public static final int UNKNOWN = 0;
+	public static final int KNOWN = 1;
+	
+	//for each target, (contextId << 1 | known) for each call site at which it was checked
+	private final ConcurrentHashMap<T,int[]> checked = new ConcurrentHashMap<T,int[]>();
+	
+	/** Returns KNOWN or UNKNOWN if target was checked at call site contextId, and UNCHECKED otherwise. */
+	public int get(T target, int contextId) {
+		int[] entries = checked.get(target);
+		if(entries != null) {
+			for(int entry : entries) {
+				if((entry >> 1) == contextId) {
+					return entry & 1;
+				}
+			}
+		}
+		return UNCHECKED;
+	}
+	
+	/** Records whether target is known at call site contextId and returns KNOWN or UNKNOWN accordingly. */
+	public synchronized int put(T target, int contextId, boolean known) {
+		int[] old = checked.get(target);
+		int length = old == null ? 0 : old.length;
+		int[] entries = new int[length+1];
+		if(old != null) {
+			System.arraycopy(old, 0, entries, 0, length);
+		}
+		entries[length] = contextId << 1 | (known ? 1 : 0);
+		checked.put(target, entries);
+		return known ? KNOWN : UNKNOWN;
+	}
+}
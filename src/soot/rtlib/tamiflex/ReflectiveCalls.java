@@ -3,8 +3,10 @@ package soot.rtlib.tamiflex;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ReflectiveCalls {
 	
@@ -15,42 +17,84 @@ public class ReflectiveCalls {
 	private final static Set<String> fieldSet = new HashSet<String>();
 	private final static Set<String> fieldGet = new HashSet<String>();
 	
+	//results of the checks above, so that signatures are computed only once per call site and target
+	private final static KnownTargets<String> classForNameChecked = new KnownTargets<String>();
+	private final static KnownTargets<Class<?>> classNewInstanceChecked = new KnownTargets<Class<?>>();
+	private final static KnownTargets<Constructor<?>> constructorNewInstanceChecked = new KnownTargets<Constructor<?>>();
+	//the signature of the target of Method.invoke depends on the class of the receiver
+	private final static ConcurrentHashMap<Class<?>,KnownTargets<Method>> methodInvokeChecked = new ConcurrentHashMap<Class<?>,KnownTargets<Method>>();
+	private final static KnownTargets<Field> fieldSetChecked = new KnownTargets<Field>();
+	private final static KnownTargets<Field> fieldGetChecked = new KnownTargets<Field>();
+	
 	static {
 		//soot will add initialization code here
 	}
 	
 	public static void knownClassForName(int contextId, String className) {
-		if(!classForName.contains(contextId+className)) {
+		int known = classForNameChecked.get(className, contextId);
+		if(known == KnownTargets.UNCHECKED) {
+			known = classForNameChecked.put(className, contextId, classForName.contains(contextId+className));
+		}
+		if(known == KnownTargets.UNKNOWN) {
 			UnexpectedReflectiveCall.classForName(className);
 		}
 	}
 	
 	public static void knownClassNewInstance(int contextId, Class<?> c) {
-		if(!classNewInstance.contains(contextId+c.getName())) {
+		int known = classNewInstanceChecked.get(c, contextId);
+		if(known == KnownTargets.UNCHECKED) {
+			known = classNewInstanceChecked.put(c, contextId, classNewInstance.contains(contextId+c.getName()));
+		}
+		if(known == KnownTargets.UNKNOWN) {
 			UnexpectedReflectiveCall.classNewInstance(c);
 		}
 	}
 	
 	public static void knownConstructorNewInstance(int contextId, Constructor<?> c) {
-		if(!constructorNewInstance.contains(contextId+SootSig.sootSignature(c))) {
+		int known = constructorNewInstanceChecked.get(c, contextId);
+		if(known == KnownTargets.UNCHECKED) {
+			known = constructorNewInstanceChecked.put(c, contextId, constructorNewInstance.contains(contextId+SootSig.sootSignature(c)));
+		}
+		if(known == KnownTargets.UNKNOWN) {
 			UnexpectedReflectiveCall.constructorNewInstance(c);
 		}
 	}
 	
 	public static void knownMethodInvoke(int contextId, Object o, Method m) {
-		if(!methodInvoke.contains(contextId+SootSig.sootSignature(o,m))) {
+		Class<?> receiverClass = Modifier.isStatic(m.getModifiers()) ? m.getDeclaringClass() : o.getClass();
+		KnownTargets<Method> checked = methodInvokeChecked.get(receiverClass);
+		if(checked == null) {
+			checked = new KnownTargets<Method>();
+			KnownTargets<Method> other = methodInvokeChecked.putIfAbsent(receiverClass, checked);
+			if(other != null) {
+				checked = other;
+			}
+		}
+		int known = checked.get(m, contextId);
+		if(known == KnownTargets.UNCHECKED) {
+			known = checked.put(m, contextId, methodInvoke.contains(contextId+SootSig.sootSignature(o,m)));
+		}
+		if(known == KnownTargets.UNKNOWN) {
 			UnexpectedReflectiveCall.methodInvoke(o, m);
 		}
 	}
 
 	public static void knownFieldSet(int contextId, Object o, Field f) {
-		if(!fieldSet.contains(contextId+SootSig.sootSignature(f))) {
+		int known = fieldSetChecked.get(f, contextId);
+		if(known == KnownTargets.UNCHECKED) {
+			known = fieldSetChecked.put(f, contextId, fieldSet.contains(contextId+SootSig.sootSignature(f)));
+		}
+		if(known == KnownTargets.UNKNOWN) {
 			UnexpectedReflectiveCall.fieldSet(o, f);
 		}
 	}
 
 	public static void knownFieldGet(int contextId, Object o, Field f) {
-		if(!fieldGet.contains(contextId+SootSig.sootSignature(f))) {
+		int known = fieldGetChecked.get(f, contextId);
+		if(known == KnownTargets.UNCHECKED) {
+			known = fieldGetChecked.put(f, contextId, fieldGet.contains(contextId+SootSig.sootSignature(f)));
+		}
+		if(known == KnownTargets.UNKNOWN) {
 			UnexpectedReflectiveCall.fieldGet(o, f);
 		}
 	}
@@ -11,6 +11,7 @@ public class SootSig {
 	
 	private static Map<Constructor<?>,String> constrCache = new ConcurrentHashMap<Constructor<?>, String>(); //TODO should be a map with soft keys, actually	
 	private static Map<Method,String> methodCache = new ConcurrentHashMap<Method, String>(); //TODO should be a map with soft keys, actually	
+	private static Map<Field,String> fieldCache = new ConcurrentHashMap<Field, String>(); //TODO should be a map with soft keys, actually	
 	
 	public static String sootSignature(Constructor<?> c) {
 		String res = constrCache.get(c);
@@ -105,6 +106,15 @@ public class SootSig {
 	}
 
 	public static String sootSignature(Field f) {
+		String res = fieldCache.get(f);
+		if(res==null) {
+			res = computeSootSignature(f);
+			fieldCache.put(f, res);
+		}
+		return res;
+	}
+
+	private static String computeSootSignature(Field f) {
 		StringBuilder b = new StringBuilder();
 		b.append("<");
 		b.append(getTypeName(f.getDeclaringClass()));
@@ -26,6 +26,8 @@ import soot.jimple.toolkits.pointer.*;
 import soot.jimple.toolkits.scalar.UnreachableCodeEliminator;
 import soot.toolkits.graph.*;
 
+import java.util.List;
+
 /**
  * @author Navindra Umanee
  **/
@@ -68,12 +70,82 @@ public class DefaultShimpleFactory implements ShimpleFactory
         rdFrontier = null;
     }
     
+    /**
+     * Sets the body the graphs are computed for. If it is the body
+     * they were last computed for, the block graph is computed again
+     * and compared with the cached one: while the blocks have the same
+     * edges, the cached blocks are moved onto the units of the new ones
+     * and the dominator and dominance frontier information is kept, so
+     * that rebuilding SSA form after an edit that leaves the CFG alone
+     * does not compute it again.
+     **/
     public void setBody(Body body)
     {
+        if(body == this.body && bg != null){
+            BlockGraph oldBg = bg;
+            ug = null;
+            bg = null;
+            BlockGraph newBg = getBlockGraph();
+
+            if(sameShape(oldBg, newBg)){
+                // keep the blocks the dominator information refers to
+                List<Block> oldBlocks = oldBg.getBlocks();
+                List<Block> newBlocks = newBg.getBlocks();
+                for(int i = 0; i < oldBlocks.size(); i++)
+                    oldBlocks.get(i).setUnits(newBlocks.get(i));
+                bg = oldBg;
+                pta = null;
+                cg = null;
+                sea = null;
+                gvn = null;
+                return;
+            }
+
+            UnitGraph newUg = ug;
+            clearCache();
+            ug = newUg;
+            bg = newBg;
+            return;
+        }
+
         this.body = body;
         clearCache();        
     }
 
+    /**
+     * Do the two block graphs have as many blocks, with the same edges
+     * between the blocks at the same index?  Dominance only depends on
+     * these edges.
+     **/
+    protected static boolean sameShape(BlockGraph a, BlockGraph b)
+    {
+        List<Block> aBlocks = a.getBlocks();
+        List<Block> bBlocks = b.getBlocks();
+        if(aBlocks.size() != bBlocks.size())
+            return false;
+
+        for(int i = 0; i < aBlocks.size(); i++){
+            Block aBlock = aBlocks.get(i);
+            Block bBlock = bBlocks.get(i);
+            if(!sameIndices(aBlock.getSuccs(), bBlock.getSuccs()) ||
+               !sameIndices(aBlock.getPreds(), bBlock.getPreds()))
+                return false;
+        }
+
+        return sameIndices(a.getHeads(), b.getHeads()) && sameIndices(a.getTails(), b.getTails());
+    }
+
+    private static boolean sameIndices(List<Block> a, List<Block> b)
+    {
+        if(a.size() != b.size())
+            return false;
+        for(int i = 0; i < a.size(); i++){
+            if(a.get(i).getIndexInMethod() != b.get(i).getIndexInMethod())
+                return false;
+        }
+        return true;
+    }
+
     public Body getBody()
     {
         if(body == null)
@@ -42,7 +42,6 @@ public class PhiNodeManager
     protected DominatorTree dt;
     protected DominanceFrontier df;
     protected BlockGraph cfg;
-    protected GuaranteedDefs gd;
     
     public PhiNodeManager(ShimpleBody body)
     {
@@ -52,7 +51,6 @@ public class PhiNodeManager
 
     public void update()
     {
-        gd = new GuaranteedDefs(sf.getUnitGraph());
         cfg = sf.getBlockGraph();
         dt = sf.getDominatorTree();
         df = sf.getDominanceFrontier();
@@ -107,11 +105,7 @@ public class PhiNodeManager
         int iterCount = 0;
         Stack<Block> workList = new Stack<Block>();
 
-        Map<Integer, Integer> has_already = new HashMap<Integer, Integer>();
-        for(Iterator blocksIt = cfg.iterator(); blocksIt.hasNext(); ){
-          Block block = (Block) blocksIt.next();
-          has_already.put(block.getIndexInMethod(), 0);
-        }
+        int[] hasAlready = new int[cfg.size()];
 
         /* Main Cytron algorithm. */
         
@@ -150,9 +144,9 @@ public class PhiNodeManager
                           continue;
                         }
                         
-                        if(has_already.get(frontierBlock.getIndexInMethod()) < iterCount)
+                        if(hasAlready[fBIndex] < iterCount)
                         {
-                            has_already.put(frontierBlock.getIndexInMethod(), iterCount);
+                            hasAlready[fBIndex] = iterCount;
                             prependTrivialPhiNode(local, frontierBlock);
                             change = true;
 
@@ -199,6 +199,13 @@ public class SPatchingChain extends PatchingChain<Unit>
      **/
     protected Map<UnitBox, Unit> boxToPhiNode = new HashMap<UnitBox, Unit>();
 
+    /**
+     * The Phi nodes that appear as values in boxToPhiNode, kept
+     * separately so that checking whether a Phi node was already
+     * processed does not scan every tracked box.
+     **/
+    protected Set<Unit> phiNodes = new HashSet<Unit>();
+
     /**
      * Flag that indicates whether control flow falls through from the
      * box to the Phi node.  null indicates we probably need a call to
@@ -217,19 +224,21 @@ public class SPatchingChain extends PatchingChain<Unit>
             return;
 
         // already processed previously, unit chain manipulations?
-        if(boxToPhiNode.values().contains(phiNode))
+        if(phiNodes.contains(phiNode))
             return;
 
         Iterator boxesIt = phi.getUnitBoxes().iterator();
         while(boxesIt.hasNext()){
             UnitBox box = (UnitBox) boxesIt.next();
             boxToPhiNode.put(box, phiNode);
+            phiNodes.add(phiNode);
         }
     }
 
     protected void reprocessPhiNodes()
     {
-        Set<Unit> phiNodes = new HashSet<Unit>(boxToPhiNode.values());
+        Set<Unit> phiNodes = this.phiNodes;
+        this.phiNodes = new HashSet<Unit>();
         boxToPhiNode = new HashMap<UnitBox, Unit>();
         boxToNeedsPatching = new HashMap<SUnitBox, Boolean>();
 
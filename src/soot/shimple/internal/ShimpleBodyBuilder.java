@@ -63,10 +63,17 @@ public class ShimpleBodyBuilder
     protected BlockGraph cfg;
     
     /**
-     * A fixed list of all original Locals.
+     * A fixed list of the original Locals that are renamed, those
+     * defined more than once.  The others are left as they are.
      **/
     protected List<Local> origLocals;
 
+    /**
+     * Position of each Local in origLocals, so that renaming does not
+     * have to search the list for every use and definition.
+     **/
+    protected Map<Local,Integer> origLocalIndices;
+
     public PhiNodeManager phi;
     public PiNodeManager pi;
 
@@ -91,11 +98,51 @@ public class ShimpleBodyBuilder
     {
         cfg = sf.getBlockGraph();
         dt = sf.getDominatorTree();
-        origLocals = new ArrayList<Local>(body.getLocals());
+        origLocals = multiplyDefinedLocals();
+        origLocalIndices = new HashMap<Local,Integer>(origLocals.size() * 2 + 1);
+        for(int i = 0; i < origLocals.size(); i++)
+            origLocalIndices.put(origLocals.get(i), new Integer(i));
     }
 
+    /**
+     * Returns the Locals of the body that have more than one
+     * definition.  Renaming leaves a Local defined once unchanged, so
+     * only these need to be renamed.
+     **/
+    protected List<Local> multiplyDefinedLocals()
+    {
+        Set<Local> defined = new HashSet<Local>();
+        Set<Local> redefined = new HashSet<Local>();
+
+        for(Iterator unitsIt = body.getUnits().iterator(); unitsIt.hasNext();){
+            Unit unit = (Unit) unitsIt.next();
+            for(Iterator boxesIt = unit.getDefBoxes().iterator(); boxesIt.hasNext();){
+                Value def = ((ValueBox) boxesIt.next()).getValue();
+                if(def instanceof Local && !defined.add((Local) def))
+                    redefined.add((Local) def);
+            }
+        }
+
+        List<Local> ret = new ArrayList<Local>(redefined.size());
+        for(Iterator localsIt = body.getLocals().iterator(); localsIt.hasNext();){
+            Local local = (Local) localsIt.next();
+            if(redefined.contains(local))
+                ret.add(local);
+        }
+        return ret;
+    }
+
+    /**
+     * Puts the body in SSA form.  Only Locals defined more than once,
+     * e.g. by an edit since the last time, get Phi nodes and are
+     * renamed, and the dominance information of the factory is kept
+     * while the blocks of the body have not changed.
+     **/
     public void transform()
     {
+        // the factory may have been used for another body since
+        sf.setBody(body);
+
         phi.insertTrivialPhiNodes();
 
         boolean change = false;
@@ -261,7 +308,7 @@ public class ShimpleBodyBuilder
                     Value lhsValue = defStmt.getLeftOp();
                     
                     // not something we're interested in
-                    if(!origLocals.contains(lhsValue))
+                    if(!origLocalIndices.containsKey(lhsValue))
                         continue;
 
                     ValueBox lhsLocalBox = defStmt.getLeftOpBox();
@@ -312,9 +359,10 @@ public class ShimpleBodyBuilder
 
                     Local phiArg = (Local) phiArgBox.getValue();
                     
+                    // not one of the locals being renamed
                     int localIndex = indexOfLocal(phiArg);
                     if(localIndex == -1)
-                        throw new RuntimeException("Assertion failed.");
+                        continue;
                     
                     if(namingStacks[localIndex].empty())
                         continue;
@@ -368,7 +416,7 @@ public class ShimpleBodyBuilder
     {
         Local oldLocal = local;
         
-        if(!origLocals.contains(local))
+        if(!origLocalIndices.containsKey(local))
             oldLocal = newLocalsToOldLocal.get(local);
         
         if(subscript.intValue() == 0)
@@ -399,16 +447,16 @@ public class ShimpleBodyBuilder
      **/
     protected int indexOfLocal(Value local)
     {
-        int localIndex = origLocals.indexOf(local);
+        Integer localIndex = origLocalIndices.get(local);
 
-        if(localIndex == -1){
+        if(localIndex == null){
             // might be null
             Local oldLocal = newLocalsToOldLocal.get(local);
 
-            localIndex = origLocals.indexOf(oldLocal);
+            localIndex = origLocalIndices.get(oldLocal);
         }
         
-        return localIndex;
+        return localIndex == null ? -1 : localIndex.intValue();
     }
 
     /**
@@ -224,6 +224,20 @@ public class Block
         return mIndexInMethod;
     }
 
+    /**
+     *  Makes this Block span the units the given Block spans.  Used to
+     *  carry a Block over to a BlockGraph of the same shape computed
+     *  after an edit of its Body.
+     *
+     *  @param aBlock   The Block whose units this Block gets.
+     */
+    public void setUnits(Block aBlock)
+    {
+        mHead = aBlock.mHead;
+        mTail = aBlock.mTail;
+        mBlockLength = aBlock.mBlockLength;
+    }
+
     /**
      * Returns the first unit in this block.
      * @return The first unit in this block. 
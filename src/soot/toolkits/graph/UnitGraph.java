@@ -328,17 +328,19 @@ public abstract class UnitGraph implements DirectedGraph<Unit>
 
       // pathStack := list of succs lists
       // pathStackIndex := last visited index in pathStack
-      LinkedList<Unit> pathStack = new LinkedList<Unit>();
-      LinkedList<Integer> pathStackIndex = new LinkedList<Integer>();
+      // Both are indexed by level, so they are kept in arrays rather
+      // than linked lists to make every access constant time.
+      ArrayList<Unit> pathStack = new ArrayList<Unit>();
+      int[] pathStackIndex = new int[16];
 
       pathStack.add(from);
-      pathStackIndex.add(new Integer(0));
+      pathStackIndex[0] = 0;
 
       int psiMax = (g.getSuccsOf(pathStack.get(0))).size();
       int level = 0;
-      while (pathStackIndex.get(0).intValue() != psiMax)
+      while (pathStackIndex[0] != psiMax)
         {
-          int p = (pathStackIndex.get(level)).intValue();
+          int p = pathStackIndex[level];
 
           List<Unit> succs = g.getSuccsOf((pathStack.get(level)));
           if (p >= succs.size())
@@ -346,11 +348,9 @@ public abstract class UnitGraph implements DirectedGraph<Unit>
               // no more succs - backtrack to previous level.
 
               pathStack.remove(level);
-              pathStackIndex.remove(level);
 
               level--;
-              int q = pathStackIndex.get(level).intValue();
-              pathStackIndex.set(level, new Integer(q+1));
+              pathStackIndex[level]++;
               continue;
             }
 
@@ -366,13 +366,19 @@ public abstract class UnitGraph implements DirectedGraph<Unit>
           // check preds of betweenUnit to see if we should visit its kids.
           if (g.getPredsOf(betweenUnit).size() > 1)
             {
-              pathStackIndex.set(level, new Integer(p+1));
+              pathStackIndex[level] = p+1;
               continue;
             }
 
           // visit kids of betweenUnit.
           level++;
-          pathStackIndex.add(new Integer(0));
+          if (level == pathStackIndex.length)
+            {
+              int[] newIndex = new int[pathStackIndex.length * 2];
+              System.arraycopy(pathStackIndex, 0, newIndex, 0, pathStackIndex.length);
+              pathStackIndex = newIndex;
+            }
+          pathStackIndex[level] = 0;
           pathStack.add(betweenUnit);
         }
       return null;
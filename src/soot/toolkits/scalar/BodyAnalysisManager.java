@@ -0,0 +1,355 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2013 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.toolkits.scalar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import soot.Body;
+import soot.Local;
+import soot.Trap;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.util.Chain;
+import soot.util.Cons;
+
+/**
+ * Keeps the unit graph and the def-use analyses of a Body for the
+ * transformers that run on it, so that they are only computed again once
+ * the Body has changed.
+ *
+ * <p> Any change of the units or traps of the Body, as counted by
+ * {@link Body#getModificationCount()}, drops all the analyses. Edits of
+ * boxes are not counted: the transformers using the manager make them
+ * through replaceUse() and removeUnit(), which update the local defs and
+ * uses in place; only the unit graph and the live locals are computed
+ * again after them. Any other transformer releases the manager of the
+ * Body when it is done, see {@link soot.BodyTransformer#keepsAnalyses()}.
+ * Units covered by a trap are not updated in place, since an edit may
+ * change where their exceptions come from.
+ *
+ * <p> The lists handed out are never changed afterwards; an update
+ * replaces them. The local defs are the ones SmartLocalDefs finds on an
+ * ExceptionalUnitGraph, and the local uses the ones SimpleLocalUses finds
+ * from them.
+ *
+ * @see Body#getAnalysisManager()
+ */
+public class BodyAnalysisManager
+{
+    private final Body body;
+
+    // The modification count of the Body for which the analyses below hold
+    private long stamp = -1;
+
+    private ExceptionalUnitGraph graph;
+    private LiveLocals liveLocals;
+
+    // The defs of each local at each unit using it, and the uses of the
+    // local each unit defines
+    private Map<Cons, List<Unit>> defs;
+    private Map<Unit, List<UnitValueBoxPair>> uses;
+    private LocalDefs localDefs;
+    private LocalUses localUses;
+
+    // The units covered by a trap
+    private Set<Unit> trapped;
+
+    public BodyAnalysisManager(Body body)
+    {
+        this.body = body;
+    }
+
+    /** Returns an ExceptionalUnitGraph of the Body. */
+    public ExceptionalUnitGraph getGraph()
+    {
+        validate();
+        if(graph == null) {
+            graph = new ExceptionalUnitGraph(body);
+            stamp = body.getModificationCount();
+        }
+        return graph;
+    }
+
+    /** Returns the SimpleLiveLocals of the graph of the Body. */
+    public LiveLocals getLiveLocals()
+    {
+        validate();
+        if(liveLocals == null) {
+            liveLocals = new SimpleLiveLocals(getGraph());
+            stamp = body.getModificationCount();
+        }
+        return liveLocals;
+    }
+
+    /** Returns the defs of the locals at the units of the Body. */
+    public LocalDefs getLocalDefs()
+    {
+        computeDefsAndUses();
+        return localDefs;
+    }
+
+    /** Returns the uses of the locals defined by the units of the Body. */
+    public LocalUses getLocalUses()
+    {
+        computeDefsAndUses();
+        return localUses;
+    }
+
+    /** Drops all the analyses of the Body. */
+    public void invalidate()
+    {
+        graph = null;
+        liveLocals = null;
+        defs = null;
+        uses = null;
+        localDefs = null;
+        localUses = null;
+        trapped = null;
+        stamp = body.getModificationCount();
+    }
+
+    /**
+     * Puts value in box, a use box of the unit u, and updates the local
+     * defs and uses. Each local in value must have the same defs at u as
+     * at from, a unit that already uses it; e.g. value may be moved or
+     * copied from from. If the defs and uses cannot be updated in place,
+     * all the analyses are dropped.
+     */
+    public void replaceUse(Unit u, ValueBox box, Value value, Unit from)
+    {
+        if(!isKept(u) || !isKept(from)) {
+            setValue(box, value);
+            return;
+        }
+
+        List<ValueBox> oldBoxes = localBoxes(box, box.getValue());
+        List<Value> oldLocals = new ArrayList<Value>(oldBoxes.size());
+        List<List<Unit>> oldDefs = new ArrayList<List<Unit>>(oldBoxes.size());
+        for( ValueBox ob : oldBoxes ) {
+            oldLocals.add(ob.getValue());
+            List<Unit> ds = defs.get(new Cons(u, ob.getValue()));
+            if(ds == null) {
+                setValue(box, value);
+                return;
+            }
+            oldDefs.add(ds);
+        }
+
+        List<ValueBox> newBoxes = localBoxes(box, value);
+        List<Value> newLocals = new ArrayList<Value>(newBoxes.size());
+        List<List<Unit>> newDefs = new ArrayList<List<Unit>>(newBoxes.size());
+        for( ValueBox nb : newBoxes ) {
+            Value l = nb == box ? value : nb.getValue();
+            newLocals.add(l);
+            List<Unit> ds = defs.get(new Cons(u, l));
+            if(ds == null)
+                ds = defs.get(new Cons(from, l));
+            if(ds == null) {
+                setValue(box, value);
+                return;
+            }
+            newDefs.add(ds);
+        }
+
+        for( int i = 0; i < oldBoxes.size(); i++ ) {
+            for( Unit d : oldDefs.get(i) )
+                removeUses(d, u, oldBoxes.get(i));
+        }
+
+        box.setValue(value);
+
+        for( Value l : oldLocals ) {
+            if(!isUsedAt(l, u))
+                defs.remove(new Cons(u, l));
+        }
+        for( int i = 0; i < newBoxes.size(); i++ ) {
+            List<Unit> ds = newDefs.get(i);
+            defs.put(new Cons(u, newLocals.get(i)), ds);
+            for( Unit d : ds )
+                addUse(d, new UnitValueBoxPair(u, newBoxes.get(i)));
+        }
+
+        liveLocals = null;
+        stamp = body.getModificationCount();
+    }
+
+    /**
+     * Removes the unit u from the Body and updates the local defs and uses.
+     * They are only kept if no unit uses the local u defines.
+     */
+    public void removeUnit(Unit u)
+    {
+        if(!isKept(u) || uses.get(u) == null || !uses.get(u).isEmpty()) {
+            body.getUnits().remove(u);
+            return;
+        }
+
+        for( Iterator boxIt = u.getUseBoxes().iterator(); boxIt.hasNext(); ) {
+            final ValueBox box = (ValueBox) boxIt.next();
+            List<Unit> ds = defs.remove(new Cons(u, box.getValue()));
+            if(ds == null)
+                continue;
+            for( Unit d : ds )
+                removeUses(d, u, null);
+        }
+        uses.remove(u);
+
+        body.getUnits().remove(u);
+
+        graph = null;
+        liveLocals = null;
+        stamp = body.getModificationCount();
+    }
+
+    /** Puts value in box, an edit the analyses are not updated for. */
+    private void setValue(ValueBox box, Value value)
+    {
+        box.setValue(value);
+        invalidate();
+    }
+
+    private void validate()
+    {
+        if(stamp != body.getModificationCount())
+            invalidate();
+    }
+
+    /** Can the defs and uses at u be updated in place? */
+    private boolean isKept(Unit u)
+    {
+        if(defs == null || stamp != body.getModificationCount())
+            return false;
+
+        if(trapped == null) {
+            trapped = new HashSet<Unit>();
+            Chain<Unit> units = body.getUnits();
+            for( Trap t : body.getTraps() ) {
+                for( Unit v = t.getBeginUnit(); v != null && v != t.getEndUnit(); v = units.getSuccOf(v) )
+                    trapped.add(v);
+            }
+        }
+        return !trapped.contains(u);
+    }
+
+    private void computeDefsAndUses()
+    {
+        validate();
+        if(defs != null)
+            return;
+
+        SmartLocalDefs smartDefs = new SmartLocalDefs(getGraph(), getLiveLocals());
+
+        final Map<Cons, List<Unit>> defs = new HashMap<Cons, List<Unit>>();
+        final Map<Unit, List<UnitValueBoxPair>> uses = new HashMap<Unit, List<UnitValueBoxPair>>();
+        Map<Unit, List<UnitValueBoxPair>> found = new HashMap<Unit, List<UnitValueBoxPair>>();
+
+        for( Iterator uIt = body.getUnits().iterator(); uIt.hasNext(); ) {
+            final Unit u = (Unit) uIt.next();
+            for( Iterator boxIt = u.getUseBoxes().iterator(); boxIt.hasNext(); ) {
+                final ValueBox box = (ValueBox) boxIt.next();
+                if(!(box.getValue() instanceof Local))
+                    continue;
+                List<Unit> ds = smartDefs.getDefsOfAt((Local) box.getValue(), u);
+                defs.put(new Cons(u, box.getValue()), Collections.unmodifiableList(ds));
+                for( Unit d : ds ) {
+                    List<UnitValueBoxPair> l = found.get(d);
+                    if(l == null)
+                        found.put(d, l = new ArrayList<UnitValueBoxPair>());
+                    l.add(new UnitValueBoxPair(u, box));
+                }
+            }
+        }
+        for( Iterator uIt = body.getUnits().iterator(); uIt.hasNext(); ) {
+            final Unit u = (Unit) uIt.next();
+            List<UnitValueBoxPair> l = found.get(u);
+            if(l == null)
+                uses.put(u, Collections.<UnitValueBoxPair>emptyList());
+            else
+                uses.put(u, Collections.unmodifiableList(l));
+        }
+
+        this.defs = defs;
+        this.uses = uses;
+        localDefs = new LocalDefs() {
+            public List<Unit> getDefsOfAt(Local l, Unit s) {
+                return defs.get(new Cons(s, l));
+            }
+        };
+        localUses = new LocalUses() {
+            public List getUsesOf(Unit s) {
+                return uses.get(s);
+            }
+        };
+        stamp = body.getModificationCount();
+    }
+
+    /** Removes from the uses of d those at u, in box if it is not null. */
+    private void removeUses(Unit d, Unit u, ValueBox box)
+    {
+        List<UnitValueBoxPair> old = uses.get(d);
+        List<UnitValueBoxPair> l = new ArrayList<UnitValueBoxPair>(old.size());
+        for( UnitValueBoxPair p : old ) {
+            if(p.unit != u || (box != null && p.valueBox != box))
+                l.add(p);
+        }
+        uses.put(d, Collections.unmodifiableList(l));
+    }
+
+    private void addUse(Unit d, UnitValueBoxPair p)
+    {
+        List<UnitValueBoxPair> l = new ArrayList<UnitValueBoxPair>(uses.get(d));
+        l.add(p);
+        uses.put(d, Collections.unmodifiableList(l));
+    }
+
+    /** The boxes of the locals in value, if it is put in box. */
+    private static List<ValueBox> localBoxes(ValueBox box, Value value)
+    {
+        if(value instanceof Local)
+            return Collections.singletonList(box);
+
+        List<ValueBox> ret = new ArrayList<ValueBox>();
+        for( Iterator boxIt = value.getUseBoxes().iterator(); boxIt.hasNext(); ) {
+            final ValueBox vb = (ValueBox) boxIt.next();
+            if(vb.getValue() instanceof Local)
+                ret.add(vb);
+        }
+        return ret;
+    }
+
+    private static boolean isUsedAt(Value l, Unit u)
+    {
+        for( Iterator boxIt = u.getUseBoxes().iterator(); boxIt.hasNext(); ) {
+            final ValueBox box = (ValueBox) boxIt.next();
+            if(box.getValue() == l)
+                return true;
+        }
+        return false;
+    }
+}
@@ -49,6 +49,8 @@ public class SmartLocalDefs implements LocalDefs
     private final UnitGraph graph;
     private final LocalDefsAnalysis analysis;
     private final Map<Unit, HashSet> unitToMask;
+    private final Map<Unit, Local> unitToLocalDef; // the local each unit defines,
+                                   // computed once instead of on every flow step
     public SmartLocalDefs(UnitGraph g, LiveLocals live) {
         this.graph = g;
 
@@ -61,10 +63,12 @@ public class SmartLocalDefs implements LocalDefs
 
         localToDefs = new HashMap<Local, HashSet<Unit>>();
         unitToMask = new HashMap<Unit, HashSet>();
+        unitToLocalDef = new HashMap<Unit, Local>(g.size() * 2 + 1, 0.7f);
         for( Iterator uIt = g.iterator(); uIt.hasNext(); ) {
             final Unit u = (Unit) uIt.next();
-            Local l = localDef(u);
+            Local l = computeLocalDef(u);
             if( l == null ) continue;
+            unitToLocalDef.put(u, l);
             HashSet<Unit> s = defsOf(l);
             s.add(u);
         }
@@ -87,11 +91,11 @@ public class SmartLocalDefs implements LocalDefs
         answer = new HashMap<Cons, ArrayList<Unit>>();
         for( Iterator uIt = graph.iterator(); uIt.hasNext(); ) {
             final Unit u = (Unit) uIt.next();
+            HashSet analysisResult = (HashSet) analysis.getFlowBefore(u);
             for( Iterator vbIt = u.getUseBoxes().iterator(); vbIt.hasNext(); ) {
                 final ValueBox vb = (ValueBox) vbIt.next();
                 Value v = vb.getValue();
                 if( !(v instanceof Local) ) continue;
-                HashSet analysisResult = (HashSet) analysis.getFlowBefore(u);
                 ArrayList<Unit> al = new ArrayList<Unit>();
                 for (Unit unit : defsOf((Local)v)) {
                     if(analysisResult.contains(unit)) al.add(unit);
@@ -107,6 +111,10 @@ public class SmartLocalDefs implements LocalDefs
                                "]     SmartLocalDefs finished.");
     }
     private Local localDef(Unit u) {
+        return unitToLocalDef.get(u);
+    }
+
+    private Local computeLocalDef(Unit u) {
         List defBoxes = u.getDefBoxes();
 		int size = defBoxes.size();
         if( size == 0 ) return null;
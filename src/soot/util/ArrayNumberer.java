@@ -21,27 +21,47 @@ package soot.util;
 import java.util.*;
 
 /** A class that numbers objects, so they can be placed in bitsets.
+ * Numbers are assigned densely starting from 1. Adding objects and
+ * looking them up may happen concurrently from several threads; numbers
+ * are only handed out while holding the lock of the numberer, and the
+ * table is published through a volatile field, so readers never see
+ * an object before it has been numbered.
+ *
+ * <p> The lock is only taken the first time an object is added. It is
+ * not replaced by an AtomicInteger: Numberable has no compare-and-set,
+ * so two threads adding the same object could otherwise both take a
+ * number for it, leaving a hole in the numbering.
  *
  * @author Ondrej Lhotak
  * @author xiao, generalize it.
  */
 
 public class ArrayNumberer<E> implements IterableNumberer<E> {
-    Numberable[] numberToObj = new Numberable[1024];
-    int lastNumber = 0;
+    volatile Numberable[] numberToObj = new Numberable[1024];
+    volatile int lastNumber = 0;
 
     public void add( E oo ) {
         Numberable o = (Numberable) oo;
         if( o.getNumber() != 0 ) return;
         
-        ++lastNumber;
-        if( lastNumber >= numberToObj.length ) {
-            Numberable[] newnto = new Numberable[numberToObj.length*2];
-            System.arraycopy(numberToObj, 0, newnto, 0, numberToObj.length);
-            numberToObj = newnto;
+        synchronized( this ) {
+            // another thread may have numbered it while we waited
+            if( o.getNumber() != 0 ) return;
+
+            int number = lastNumber + 1;
+            Numberable[] nto = numberToObj;
+            if( number >= nto.length ) {
+                Numberable[] newnto = new Numberable[nto.length*2];
+                System.arraycopy(nto, 0, newnto, 0, nto.length);
+                nto = newnto;
+            }
+            // publish the table before the number, so that a thread
+            // that sees the number can look the object up by it
+            nto[number] = o;
+            numberToObj = nto;
+            o.setNumber( number );
+            lastNumber = number;
         }
-        numberToObj[lastNumber] = o;
-        o.setNumber( lastNumber );
     }
 
     public long get( E oo ) {
@@ -68,7 +88,7 @@ public class ArrayNumberer<E> implements IterableNumberer<E> {
     final class NumbererIterator implements Iterator<E> {
         int cur = 1;
         public final boolean hasNext() {
-            return cur < numberToObj.length && numberToObj[cur] != null;
+            return cur <= lastNumber;
         }
 
 		public final E next() { 
@@ -52,19 +52,53 @@ public class EscapedWriter extends FilterWriter
         throw new RuntimeException();
     }
   
-    /** Write a segment of the given String. */
+    /** Write a segment of the given String. Runs of characters that need
+     * no escaping are passed on in one call. */
     public void write(String s, int off, int len) throws IOException
     {
-        for(int i = off; i < off + len; i++)
-            write(s.charAt(i));
+        int start = off;
+        int end = off + len;
+        for(int i = off; i < end; i++) {
+            if(!isPlain(s.charAt(i))) {
+                if(i > start) super.write(s, start, i - start);
+                writeEscaped(s.charAt(i));
+                start = i + 1;
+            }
+        }
+        if(end > start) super.write(s, start, end - start);
+    }
+
+    /** Write a segment of the given character array. Runs of characters
+     * that need no escaping are passed on in one call. */
+    public void write(char[] cbuf, int off, int len) throws IOException
+    {
+        int start = off;
+        int end = off + len;
+        for(int i = off; i < end; i++) {
+            if(!isPlain(cbuf[i])) {
+                if(i > start) super.write(cbuf, start, i - start);
+                writeEscaped(cbuf[i]);
+                start = i + 1;
+            }
+        }
+        if(end > start) super.write(cbuf, start, end - start);
     }
   
     /** Write a single character. */
     public void write(int ch) throws IOException
     {
-        if (ch >= 32 && ch <= 126 || ch == cr || ch == lf || ch == ' ')
+        if (isPlain(ch))
             { super.write(ch); return; }
-        
+        writeEscaped(ch);
+    }
+
+    private boolean isPlain(int ch)
+    {
+        return ch >= 32 && ch <= 126 || ch == cr || ch == lf || ch == ' ';
+    }
+
+    private void writeEscaped(int ch) throws IOException
+    {
         mini.setLength(0);
         mini.append(Integer.toHexString(ch));
 
@@ -72,7 +106,6 @@ public class EscapedWriter extends FilterWriter
             mini.insert(0, "0");
 
         mini.insert(0, "\\u");
-        for (int i = 0; i < mini.length(); i++)
-            super.write(mini.charAt(i));
+        super.write(mini.toString(), 0, mini.length());
     }
 }
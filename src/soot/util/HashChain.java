@@ -47,6 +47,12 @@ public class HashChain<E> extends AbstractCollection<E>
     private E lastItem;
     private long stateCount = 0;  
 
+    /** Returns the number of changes made to this chain so far. */
+    public long getModificationCount()
+    {
+        return stateCount;
+    }
+
     /** Erases the contents of the current HashChain. */
     public void clear() 
     {
@@ -41,5 +41,6 @@ public final class NumberedString implements Numberable {
     public final int getNumber() { return number; }
 
     final private String s;
-    private int number;
+    // read without a lock by StringNumberer
+    private volatile int number;
 }
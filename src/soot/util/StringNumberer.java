@@ -18,30 +18,32 @@
  */
 
 package soot.util;
-import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** A class that numbers strings, so they can be placed in bitsets.
+ * Strings are interned with ConcurrentHashMap.putIfAbsent(), so neither
+ * looking up nor adding a string locks the map. The NumberedString that
+ * wins the race is numbered by ArrayNumberer.add(), which only locks the
+ * first time; a thread that finds it not numbered yet numbers it itself,
+ * so no thread gets a NumberedString without its number.
  *
  * @author Ondrej Lhotak
  */
 
 public class StringNumberer extends ArrayNumberer<NumberedString> {
-    HashMap<String, NumberedString> stringToNumbered = new HashMap<String, NumberedString>(1024);
+    ConcurrentHashMap<String, NumberedString> stringToNumbered = new ConcurrentHashMap<String, NumberedString>(1024);
 
     public NumberedString find( String s ) {
-        NumberedString ret = stringToNumbered.get( s );
-        if( ret == null ) {
-            stringToNumbered.put( s, ret = new NumberedString(s) );
-            add( ret );
-        }
-        return ret;
+        return findOrAdd( s );
     }
     public NumberedString findOrAdd( String s ) {
         NumberedString ret = stringToNumbered.get( s );
         if( ret == null ) {
-            stringToNumbered.put( s, ret = new NumberedString(s) );
-            add( ret );
+            NumberedString fresh = new NumberedString(s);
+            ret = stringToNumbered.putIfAbsent( s, fresh );
+            if( ret == null ) ret = fresh;
         }
+        if( ret.getNumber() == 0 ) add( ret );
         return ret;
     }
 }
@@ -247,29 +247,67 @@ public class Attribute {
             return;
         }
         writerOut.println("<attribute>");
-        writerOut.println("<srcPos sline=\""+javaStartLn()+"\" eline=\""+javaEndLn()+"\" spos=\""+javaStartPos()+"\" epos=\""+javaEndPos()+"\"/>");
-        writerOut.println("<jmpPos sline=\""+jimpleStartLn()+"\" eline=\""+jimpleEndLn()+"\" spos=\""+jimpleStartPos()+"\" epos=\""+jimpleEndPos()+"\"/>");
+        printPos(writerOut, "srcPos", javaStartLn(), javaEndLn(), javaStartPos(), javaEndPos());
+        printPos(writerOut, "jmpPos", jimpleStartLn(), jimpleEndLn(), jimpleStartPos(), jimpleEndPos());
         if (colors != null){
             Iterator<ColorAttribute> cIt = colors.iterator();
             while (cIt.hasNext()){
                 ColorAttribute ca = cIt.next();
-                writerOut.println("<color r=\""+ca.red()+"\" g=\""+ca.green()+"\" b=\""+ca.blue()+"\" fg=\""+ca.fg()+"\" aType=\""+ca.analysisType()+"\"/>");
+                writerOut.print("<color r=\"");
+                writerOut.print(ca.red());
+                writerOut.print("\" g=\"");
+                writerOut.print(ca.green());
+                writerOut.print("\" b=\"");
+                writerOut.print(ca.blue());
+                writerOut.print("\" fg=\"");
+                writerOut.print(ca.fg());
+                writerOut.print("\" aType=\"");
+                writerOut.print(ca.analysisType());
+                writerOut.println("\"/>");
             }
         }
         if (texts != null){
             Iterator<StringAttribute> textsIt = texts.iterator();
             while (textsIt.hasNext()){
                 StringAttribute sa = textsIt.next();
-                writerOut.println("<text info=\""+sa.info()+"\" aType=\""+sa.analysisType()+"\"/>");
+                writerOut.print("<text info=\"");
+                writerOut.print(sa.info());
+                writerOut.print("\" aType=\"");
+                writerOut.print(sa.analysisType());
+                writerOut.println("\"/>");
             }
         }
         if (links != null){
             Iterator<LinkAttribute> linksIt = links.iterator();
             while (linksIt.hasNext()){
                 LinkAttribute la = linksIt.next();
-                writerOut.println("<link label=\""+formatForXML(la.info())+"\" jmpLink=\""+la.jimpleLink()+"\" srcLink=\""+la.javaLink()+"\" clssNm=\""+la.className()+"\" aType=\""+la.analysisType()+"\"/>");
+                writerOut.print("<link label=\"");
+                writerOut.print(formatForXML(la.info()));
+                writerOut.print("\" jmpLink=\"");
+                writerOut.print(la.jimpleLink());
+                writerOut.print("\" srcLink=\"");
+                writerOut.print(la.javaLink());
+                writerOut.print("\" clssNm=\"");
+                writerOut.print(la.className());
+                writerOut.print("\" aType=\"");
+                writerOut.print(la.analysisType());
+                writerOut.println("\"/>");
             }
         }
         writerOut.println("</attribute>");
     }
+
+    private void printPos(PrintWriter writerOut, String name, int sline, int eline, int spos, int epos){
+        writerOut.print('<');
+        writerOut.print(name);
+        writerOut.print(" sline=\"");
+        writerOut.print(sline);
+        writerOut.print("\" eline=\"");
+        writerOut.print(eline);
+        writerOut.print("\" spos=\"");
+        writerOut.print(spos);
+        writerOut.print("\" epos=\"");
+        writerOut.print(epos);
+        writerOut.println("\"/>");
+    }
 }
@@ -95,8 +95,16 @@ public class TagCollector {
     
 	private void addAttribute(Attribute a){
 		if ( !a.isEmpty() ) 
-			attributes.add(a);
+			attributeCollected(a);
 	}
+
+    /** Called for each non-empty attribute as soon as it has been
+     * collected. The default keeps it for <code>printTags</code>; a
+     * subclass may write it out instead, so that the attributes of a
+     * class need not all be held in memory. */
+    protected void attributeCollected(Attribute a){
+        attributes.add(a);
+    }
             
     private void collectHostTags(Host h) {
 		Predicate<Tag> p = Predicate.truePred();
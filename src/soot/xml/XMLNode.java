@@ -26,6 +26,8 @@
 
 package soot.xml;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
 
 /** XML helper */
 public class XMLNode extends XMLRoot
@@ -33,6 +35,10 @@ public class XMLNode extends XMLRoot
 	// constants
 	public static final int TAG_STRING_BUFFER = 4096;
 
+	// the child added last, so that adding a child only has to walk the
+	// list from there; only trusted while it is still a child of this node
+	private XMLNode lastChild = null;
+
 	// node pointers
 	public XMLNode next = null;		// -> to next node
 	public XMLNode prev = null;		// -> to previous node
@@ -75,10 +81,16 @@ public class XMLNode extends XMLRoot
 	}
 	public String toPostString( String indent )
 	{
-		if( next != null )
-			return this.toString( indent ) + next.toPostString( indent);
-		else
-			return this.toString( indent );
+		StringWriter sw = new StringWriter();
+		printPost( new PrintWriter( sw ), indent );
+		return sw.toString();
+	}
+
+	// prints this node and all nodes after it
+	public void printPost( PrintWriter out, String indent )
+	{
+		for( XMLNode current = this; current != null; current = current.next )
+			current.print( out, indent );
 	}
 
 	// returns the number of children
@@ -126,12 +138,21 @@ public class XMLNode extends XMLRoot
 	}   
 	public String toString( String indent )
 	{
-		// <tag		
-		StringBuffer beginTag = new StringBuffer( TAG_STRING_BUFFER );
-		StringBuffer endTag = new StringBuffer( TAG_STRING_BUFFER );
+		StringWriter sw = new StringWriter();
+		print( new PrintWriter( sw ), indent );
+		return sw.toString();
+	}
+
+	// prints this node and its children without building the whole
+	// text in memory first
+	public void print( PrintWriter out, String indent )
+	{
 		String xmlName = eliminateSpaces( name );
 
-		beginTag.append( "<" + xmlName );
+		// <tag
+		out.print( indent );
+		out.print( '<' );
+		out.print( xmlName );
 
 		if( attributes != null )
 		{
@@ -142,7 +163,9 @@ public class XMLNode extends XMLRoot
 					// <tag attr="
 					String attributeName = eliminateSpaces( attributes[ i ].toString().trim() );
 					// TODO: attribute name should be one word! squish it?
-					beginTag.append( " " + attributeName + "=\"" );
+					out.print( ' ' );
+					out.print( attributeName );
+					out.print( "=\"" );
 
 					// <tag attr="val"
 					// if there is no value associated with this attribute, 
@@ -152,12 +175,13 @@ public class XMLNode extends XMLRoot
 					{
 						if( i < values.length )
 						{
-							beginTag.append( values[ i ].toString().trim() + "\"" );
+							out.print( values[ i ].toString().trim() );
 						}
 						else
 						{
-							beginTag.append( attributeName.trim() + "\"" );
+							out.print( attributeName.trim() );
 						}           
+						out.print( '"' );
 					}
 				}
 			}
@@ -167,26 +191,20 @@ public class XMLNode extends XMLRoot
 		// if there is no value in this element AND this element has no children, it can be a single tag <.../>
 		if( value.length() < 1 && child == null )
 		{
-			beginTag.append( " />\n" );
-			endTag.setLength( 0 );
+			out.print( " />\n" );
+			return;
 		}
-		else
-		{
-			beginTag.append( ">" );
-			endTag.append( "</" + xmlName + ">\n" );
-		}       
-
-		//return ( prev.toString() + beginTag.toString() + value.toString() + child.toString() + endTag.toString() + next.toString() );		
-		String returnStr = indent + beginTag.toString();
-		if( value.length() > 0 )
-			returnStr += value.toString();
+		out.print( '>' );
+		out.print( value );
 		if( child != null )
-			returnStr += "\n" + child.toPostString( indent + "  " );
-		if( child != null )
-			returnStr += indent;
-		if( endTag.length() > 0 )
-			returnStr += endTag.toString();
-		return( returnStr );
+		{
+			out.print( '\n' );
+			child.printPost( out, indent + "  " );
+			out.print( indent );
+		}
+		out.print( "</" );
+		out.print( xmlName );
+		out.print( ">\n" );
 	}
 
 
@@ -350,6 +368,8 @@ public class XMLNode extends XMLRoot
 		else
 		{
 			XMLNode current = this.child;
+			if( lastChild != null && lastChild.parent == this )
+				current = lastChild;
 			while( current.next != null )
 			{
 				current = current.next;
@@ -358,6 +378,7 @@ public class XMLNode extends XMLRoot
 			node.prev = current;
 			node.parent = this;
 		}
+		lastChild = node;
 		return node;
 	}   
 
@@ -903,7 +903,10 @@ public class XMLPrinter {
                 }
             }
         }
-        out.println(toString());
+        if (root == null)
+            throw new RuntimeException("Error generating XML!");
+        root.print(out);
+        out.println();
     }
 
     public void printJimpleStyleTo(SootClass cl, PrintWriter out) {
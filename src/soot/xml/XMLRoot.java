@@ -26,6 +26,7 @@
 
 package soot.xml;
 
+import java.io.PrintWriter;
 
 /** XML helper */
 public class XMLRoot
@@ -46,6 +47,14 @@ public class XMLRoot
 		return XMLPrinter.xmlHeader + XMLPrinter.dtdHeader + this.child.toPostString();
 	}
 
+	// prints the same text as toString() straight to out
+	public void print( PrintWriter out )
+	{
+		out.print( XMLPrinter.xmlHeader );
+		out.print( XMLPrinter.dtdHeader );
+		this.child.printPost( out, "" );
+	}
+
 	// add element to end of tree
 	public XMLNode addElement( String name ) 
 	{
@@ -0,0 +1,78 @@
+package soot;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import soot.options.Options;
+
+
+/**
+ * JUnit test checking that parsing .jimple files ahead of resolution
+ * neither keeps every file open nor changes the classes resolved from them.
+ */
+public class JimpleClassProviderTest extends TestCase {
+
+    private static final int CLASSES = 400;
+
+    private File dir;
+    private List<String> classNames;
+
+    public JimpleClassProviderTest(String name) {
+	super(name);
+    }
+
+    protected void setUp() throws IOException {
+	G.reset();
+	dir = File.createTempFile("jimple", "");
+	dir.delete();
+	dir.mkdir();
+	classNames = new ArrayList<String>();
+	for (int i = 0; i < CLASSES; i++) {
+	    String className = "p.C" + i;
+	    FileWriter w = new FileWriter(new File(dir, className + ".jimple"));
+	    w.write("public class " + className + " extends java.lang.Object\n"
+		    + "{\n"
+		    + "    public static int f" + i + ";\n"
+		    + "}\n");
+	    w.close();
+	    classNames.add(className);
+	}
+	Options.v().set_src_prec(Options.src_prec_jimple);
+	Options.v().set_allow_phantom_refs(true);
+	Options.v().set_soot_classpath(dir.getPath());
+    }
+
+    protected void tearDown() {
+	G.reset();
+	for (File f : dir.listFiles()) f.delete();
+	dir.delete();
+    }
+
+    /** Returns the number of files this process has open, or -1 if it
+     * cannot tell. */
+    private static int openFiles() {
+	String[] fds = new File("/proc/self/fd").list();
+	return fds == null ? -1 : fds.length;
+    }
+
+    public void testParseAhead() {
+	int before = openFiles();
+	SourceLocator.v().parseJimpleAhead(classNames);
+	int after = openFiles();
+	if (before >= 0) {
+	    int threads = Runtime.getRuntime().availableProcessors();
+	    assertTrue((after - before) + " files open after parseAhead",
+		       after - before <= 2 * threads);
+	}
+	for (int i = 0; i < CLASSES; i++) {
+	    SootClass c = Scene.v().loadClassAndSupport(classNames.get(i));
+	    assertFalse(c.isPhantom());
+	    assertEquals(1, c.getFieldCount());
+	    assertTrue(c.declaresFieldByName("f" + i));
+	}
+    }
+}
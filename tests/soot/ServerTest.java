@@ -0,0 +1,180 @@
+package soot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import polyglot.util.StringUtil;
+
+
+/**
+ * JUnit test running two jobs through one Soot server. The class of the
+ * jobs lies in a directory whose name contains a space, so that the class
+ * path has to be quoted. The library classes, such as java.lang.Object,
+ * must be kept from the first job to the second; the application class
+ * must be dropped.
+ *
+ * The library is made of the polyglot jar, a directory holding Library,
+ * which refers to the missing class Missing, and jdkLocation, which
+ * defaults to the rt.jar of the running VM and can be set with the
+ * soot.test.jdk property.
+ */
+public class ServerTest extends TestCase {
+
+    static class Job {
+	public static void main(String[] args) {
+	    System.out.println(new Object().hashCode());
+	    System.out.println(StringUtil.escape(Library.name()));
+	}
+    }
+
+    static class Library {
+	static Missing missing;
+
+	static String name() {
+	    return "library";
+	}
+    }
+
+    static class Missing {
+    }
+
+    private static String jdkLocation
+	= System.getProperty("soot.test.jdk",
+			     System.getProperty("java.home") + File.separator
+			     + "lib" + File.separator + "rt.jar");
+
+    private File dir;
+    private File libDir;
+
+    public ServerTest(String name) {
+	super(name);
+    }
+
+    /** Copies the class file of Job into a new directory named with a
+     * space, and that of Library into another one. */
+    protected void setUp() throws IOException {
+	dir = newDir("server ");
+	copyClass(Job.class, dir);
+	libDir = newDir("library");
+	copyClass(Library.class, libDir);
+	G.reset();
+    }
+
+    protected void tearDown() {
+	G.reset();
+	delete(dir);
+	delete(libDir);
+    }
+
+    private static File newDir(String prefix) throws IOException {
+	File ret = File.createTempFile(prefix, " test");
+	ret.delete();
+	return ret;
+    }
+
+    private static void copyClass(Class c, File dir) throws IOException {
+	String name = c.getName().replace('.', '/') + ".class";
+	File file = new File(dir, name);
+	file.getParentFile().mkdirs();
+	InputStream in = c.getClassLoader().getResourceAsStream(name);
+	OutputStream out = new FileOutputStream(file);
+	try {
+	    byte[] buf = new byte[4096];
+	    for (int n; (n = in.read(buf)) > 0; ) out.write(buf, 0, n);
+	} finally {
+	    in.close();
+	    out.close();
+	}
+    }
+
+    private static void delete(File f) {
+	File[] children = f.listFiles();
+	if (children != null) {
+	    for (int i = 0; i < children.length; i++) delete(children[i]);
+	}
+	f.delete();
+    }
+
+    /** Serves the given job lines and returns the answers. */
+    private static String serve(String jobs) throws IOException {
+	ByteArrayOutputStream out = new ByteArrayOutputStream();
+	Server.serve(new ByteArrayInputStream(jobs.getBytes()), out);
+	return out.toString();
+    }
+
+    private static int count(String s, String part) {
+	int n = 0;
+	for (int i = s.indexOf(part); i >= 0; i = s.indexOf(part, i + 1)) n++;
+	return n;
+    }
+
+    /** The line of a job on Job. */
+    private String job() throws IOException {
+	String polyglot;
+	try {
+	    polyglot = new File(StringUtil.class.getProtectionDomain()
+				.getCodeSource().getLocation().toURI()).getPath();
+	} catch (URISyntaxException e) {
+	    throw new IOException(e.toString());
+	}
+	return "-cp \"" + dir.getPath() + File.pathSeparator
+	    + libDir.getPath() + File.pathSeparator + polyglot
+	    + File.pathSeparator + jdkLocation + "\" -allow-phantom-refs -f n "
+	    + Job.class.getName() + "\n";
+    }
+
+    public void testTwoJobsKeepLibrary() throws IOException {
+	String job = job();
+	String answers = serve(job);
+	assertEquals(answers, 1, count(answers, Server.JOB_SUCCEEDED));
+	assertEquals(answers, 0, count(answers, Server.LIBRARY_NOT_KEPT));
+	SootClass object = Scene.v().getSootClass("java.lang.Object");
+	SootClass util = Scene.v().getSootClass(StringUtil.class.getName());
+	assertFalse(util.isPhantom());
+	assertFalse(Scene.v().containsClass(Job.class.getName()));
+
+	answers = serve(job + job);
+	assertEquals(answers, 2, count(answers, Server.JOB_SUCCEEDED));
+	assertEquals(answers, 0, count(answers, Server.LIBRARY_NOT_KEPT));
+	assertSame(object, Scene.v().getSootClass("java.lang.Object"));
+	assertSame(util, Scene.v().getSootClass(StringUtil.class.getName()));
+	assertFalse(Scene.v().containsClass(Job.class.getName()));
+    }
+
+    /** Library refers to Missing, which is phantom: both must be kept. */
+    public void testPhantomReferencesKept() throws IOException {
+	String job = job();
+	String answers = serve(job);
+	assertEquals(answers, 1, count(answers, Server.JOB_SUCCEEDED));
+	SootClass library = Scene.v().getSootClass(Library.class.getName());
+	assertTrue(library.isLibraryClass());
+	assertTrue(Scene.v().getSootClass(Missing.class.getName()).isPhantom());
+
+	answers = serve(job);
+	assertEquals(answers, 1, count(answers, Server.JOB_SUCCEEDED));
+	assertEquals(answers, 0, count(answers, Server.LIBRARY_NOT_KEPT));
+	assertSame(library, Scene.v().getSootClass(Library.class.getName()));
+	assertTrue(Scene.v().getSootClass(Missing.class.getName()).isPhantom());
+    }
+
+    public void testFailedJob() throws IOException {
+	String answers = serve("-no-such-option\n-cp 'unterminated\n");
+	assertEquals(answers, 2, count(answers, Server.JOB_FAILED));
+    }
+
+    public void testSplitArgs() {
+	assertEquals(Arrays.asList(new String[] { "-cp", "a b:c", "X" }),
+		     Arrays.asList(Server.splitArgs(" -cp \"a b\":c  X ")));
+	assertEquals(Arrays.asList(new String[] { "a\\\"b", "c d", "'" }),
+		     Arrays.asList(Server.splitArgs("'a\\\"b' c\\ d \\'")));
+	assertEquals(0, Server.splitArgs("  ").length);
+    }
+}
@@ -0,0 +1,106 @@
+package soot.baf.toolkits.base;
+
+import java.util.Collections;
+
+import junit.framework.TestCase;
+import soot.G;
+import soot.IntType;
+import soot.Local;
+import soot.Modifier;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.VoidType;
+import soot.baf.Baf;
+import soot.baf.BafBody;
+import soot.jimple.IntConstant;
+import soot.jimple.LongConstant;
+import soot.util.Chain;
+
+
+/**
+ * JUnit test running the peephole automaton with PushPopPeephole on a
+ * small Baf body.
+ */
+public class PeepholeAutomatonTest extends TestCase {
+
+    private BafBody body;
+    private Chain<Unit> units;
+    private Local l;
+
+    public PeepholeAutomatonTest(String name) {
+	super(name);
+    }
+
+    protected void setUp() {
+	G.reset();
+	SootClass c = new SootClass("T", Modifier.PUBLIC);
+	SootMethod m = new SootMethod("m", Collections.EMPTY_LIST,
+				      VoidType.v(), Modifier.STATIC);
+	c.addMethod(m);
+	body = Baf.v().newBody(m);
+	m.setActiveBody(body);
+	units = body.getUnits();
+	l = Baf.v().newLocal("l", IntType.v());
+	body.getLocals().add(l);
+    }
+
+    protected void tearDown() {
+	G.reset();
+    }
+
+    private Unit add(Unit u) {
+	units.addLast(u);
+	return u;
+    }
+
+    private Unit load() {
+	return add(Baf.v().newLoadInst(IntType.v(), l));
+    }
+
+    private Unit pop(Type t) {
+	return add(Baf.v().newPopInst(t));
+    }
+
+    public void testPushPop() {
+	load();
+	pop(IntType.v());
+	Unit pushLong = add(Baf.v().newPushInst(LongConstant.v(1)));
+	Unit popInt = pop(IntType.v());
+	Unit target = load();
+	Unit popTarget = pop(IntType.v());
+	load();
+	add(Baf.v().newPushInst(IntConstant.v(0)));
+	pop(IntType.v());
+	pop(IntType.v());
+	Unit jump = add(Baf.v().newGotoInst(target));
+	Unit ret = add(Baf.v().newReturnVoidInst());
+
+	PeepholeAutomaton automaton = new PeepholeAutomaton();
+	automaton.add(new PushPopPeephole());
+	assertTrue(automaton.apply(body));
+
+	// The first pair goes, the mismatched and the jump target pairs
+	// stay, and the nested pairs go once the inner one is removed.
+	Unit[] expected = { pushLong, popInt, target, popTarget, jump, ret };
+	assertEquals(expected.length, units.size());
+	int i = 0;
+	for (Unit u : units) {
+	    assertSame(expected[i++], u);
+	}
+
+	assertFalse(automaton.apply(body));
+    }
+
+    public void testNotEnabledByDefault() {
+	load();
+	pop(IntType.v());
+	add(Baf.v().newReturnVoidInst());
+
+	// PushPopPeephole is commented out in the delivered peephole.dat,
+	// so bb.pho must leave the body alone.
+	PeepholeOptimizer.v().transform(body);
+	assertEquals(3, units.size());
+    }
+}
@@ -0,0 +1,237 @@
+package soot.jimple.binary;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+import soot.G;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.options.Options;
+
+
+/**
+ * JUnit test checking that classes written with -f jbin and read back with
+ * -src-prec jbin print as the same Jimple as the original classes.
+ *
+ * The classes are analysed against the class library at jdkLocation, which
+ * defaults to the rt.jar of the running VM and can be set with the
+ * soot.test.jdk property or as the argument of main().
+ */
+public class BinaryJimpleRoundTripTest extends TestCase {
+
+    interface Visitor {
+	long visit(Object o) throws Exception;
+    }
+
+    static class Sample implements Visitor {
+	static final String NAME = "sample";
+	private static int count;
+	private double[] weights = { 0.5, -1.25e300, Double.NaN };
+	protected Object last;
+
+	public synchronized long visit(Object o) throws Exception {
+	    count++;
+	    last = o;
+	    if (o instanceof String) {
+		return ((String) o).length() + 4000000000L;
+	    }
+	    try {
+		int[][] grid = new int[3][count];
+		grid[1][0] = (int) weights[2] ^ 0xff;
+		return grid[1].length << 2;
+	    } catch (ArrayIndexOutOfBoundsException e) {
+		throw new Exception("index " + e.getMessage(), e);
+	    } finally {
+		count--;
+	    }
+	}
+
+	float classify(char c, byte b, short s) {
+	    switch (c) {
+	    case 'a':
+		return b;
+	    case 'b':
+	    case 'z':
+		return -s / 3.5f;
+	    case 1000:
+		return Float.MIN_VALUE;
+	    default:
+		return c > b ? c % 7 : (float) Math.sqrt(s);
+	    }
+	}
+
+	String describe(List<? extends Number> numbers) {
+	    StringBuilder sb = new StringBuilder(NAME);
+	    for (Number n : numbers) {
+		if (n == null) continue;
+		sb.append(n.intValue() >>> 1).append('\n');
+	    }
+	    Class<?> c = Sample[].class;
+	    return sb.append(c).toString();
+	}
+    }
+
+    private static String jdkLocation		// Can be changed by main().
+	= System.getProperty("soot.test.jdk",
+			     System.getProperty("java.home") + File.separator
+			     + "lib" + File.separator + "rt.jar");
+
+    private static final String[] CLASSES = {
+	Visitor.class.getName(), Sample.class.getName()
+    };
+
+    private File dir;
+
+    public BinaryJimpleRoundTripTest(String name) {
+	super(name);
+    }
+
+    protected void setUp() throws IOException {
+	dir = File.createTempFile("jbin", "");
+	dir.delete();
+	dir.mkdir();
+    }
+
+    protected void tearDown() {
+	G.reset();
+	delete(dir);
+    }
+
+    private static void delete(File f) {
+	File[] children = f.listFiles();
+	if (children != null) {
+	    for (File child : children) delete(child);
+	}
+	f.delete();
+    }
+
+    /** Runs Soot on CLASSES with the given classpath, output directory
+     * and options. */
+    private static void runSoot(String classpath, File outputDir,
+				String... options) {
+	G.reset();
+	List<String> args = new ArrayList<String>();
+	args.add("-cp");
+	args.add(classpath + File.pathSeparator + jdkLocation);
+	args.add("-allow-phantom-refs");
+	args.add("-d");
+	args.add(outputDir.getPath());
+	args.addAll(Arrays.asList(options));
+	args.addAll(Arrays.asList(CLASSES));
+	soot.Main.main(args.toArray(new String[args.size()]));
+	G.reset();
+    }
+
+    private static String read(File f) throws IOException {
+	byte[] bytes = new byte[(int) f.length()];
+	FileInputStream in = new FileInputStream(f);
+	try {
+	    int n = 0;
+	    while (n < bytes.length) {
+		int r = in.read(bytes, n, bytes.length - n);
+		if (r < 0) break;
+		n += r;
+	    }
+	} finally {
+	    in.close();
+	}
+	return new String(bytes, "UTF-8");
+    }
+
+    public void testRoundTrip() throws IOException {
+	String classpath = System.getProperty("java.class.path");
+	File jbin = new File(dir, "jbin");
+	File direct = new File(dir, "direct");
+	File roundTrip = new File(dir, "roundtrip");
+
+	runSoot(classpath, jbin, "-f", "jbin");
+	runSoot(classpath, direct, "-f", "J");
+	runSoot(jbin.getPath() + File.pathSeparator + classpath, roundTrip,
+		"-src-prec", "jbin", "-p", "jb", "enabled:false", "-f", "J");
+
+	for (String className : CLASSES) {
+	    assertTrue(className + ".jbin not written",
+		       new File(jbin, className + ".jbin").isFile());
+	    String expected = read(new File(direct, className + ".jimple"));
+	    String actual = read(new File(roundTrip, className + ".jimple"));
+	    assertEquals(className, expected, actual);
+	}
+    }
+
+    /** Loads CLASSES with the given classpath, without building any
+     * body. */
+    private static void load(String classpath) {
+	G.reset();
+	Options.v().set_allow_phantom_refs(true);
+	Options.v().set_soot_classpath(classpath + File.pathSeparator
+				       + jdkLocation);
+	for (String className : CLASSES) {
+	    Options.v().classes().add(className);
+	}
+	Scene.v().loadNecessaryClasses();
+    }
+
+    private static void write(SootClass c, File outputDir)
+	throws IOException {
+	OutputStream out
+	    = new FileOutputStream(new File(outputDir, c.getName() + ".jbin"));
+	try {
+	    new BinaryJimpleWriter(c).writeTo(out);
+	} finally {
+	    out.close();
+	}
+    }
+
+    public void testBodiesBuiltWhenMissing() throws IOException {
+	String classpath = System.getProperty("java.class.path");
+	File jbin = new File(dir, "jbin");
+	File direct = new File(dir, "direct");
+	File roundTrip = new File(dir, "roundtrip");
+	jbin.mkdir();
+
+	load(classpath);
+	for (String className : CLASSES) {
+	    write(Scene.v().getSootClass(className), jbin);
+	}
+
+	runSoot(classpath, direct, "-f", "J");
+	runSoot(jbin.getPath() + File.pathSeparator + classpath, roundTrip,
+		"-src-prec", "jbin", "-p", "jb", "enabled:false", "-f", "J");
+
+	for (String className : CLASSES) {
+	    String expected = read(new File(direct, className + ".jimple"));
+	    String actual = read(new File(roundTrip, className + ".jimple"));
+	    assertEquals(className, expected, actual);
+	}
+    }
+
+    public void testReleasedBodyRejected() throws IOException {
+	load(System.getProperty("java.class.path"));
+	SootClass sample = Scene.v().getSootClass(Sample.class.getName());
+	SootMethod visit = sample.getMethodByName("visit");
+	visit.retrieveActiveBody();
+	visit.releaseActiveBody();
+	try {
+	    write(sample, dir);
+	    fail("released body written");
+	} catch (RuntimeException e) {
+	    assertTrue(e.getMessage(),
+		       e.getMessage().indexOf(visit.getSignature()) >= 0);
+	}
+    }
+
+    public static void main(String[] args) {
+	if (args.length > 0) {
+	    jdkLocation = args[0];
+	}
+	junit.textui.TestRunner.run(BinaryJimpleRoundTripTest.class);
+    }
+}
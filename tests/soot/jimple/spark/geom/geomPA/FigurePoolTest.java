@@ -0,0 +1,77 @@
+package soot.jimple.spark.geom.geomPA;
+
+import junit.framework.TestCase;
+import soot.jimple.spark.geom.geomE.GeometricManager;
+import soot.jimple.spark.geom.heapinsE.HeapInsIntervalManager;
+
+/**
+ * JUnit test checking that the figures swallowed by the figure managers
+ * are handed out again by the FigurePool, but only once they are released.
+ */
+public class FigurePoolTest extends TestCase {
+
+    public FigurePoolTest(String name) {
+	super(name);
+    }
+
+    protected void setUp() {
+	FigurePool.enable();
+    }
+
+    protected void tearDown() {
+	FigurePool.disable();
+    }
+
+    public void testSwallowedFigureReusedAfterRelease() {
+	GeometricManager gm = new GeometricManager();
+	SegmentNode small = gm.addNewFigure(GeometricManager.ONE_TO_ONE,
+					    new RectangleNode(5, 5, 2, 0));
+	SegmentNode large = gm.addNewFigure(GeometricManager.ONE_TO_ONE,
+					    new RectangleNode(1, 1, 10, 0));
+	assertNotNull(small);
+	assertNotNull(large);
+	assertSame(large, gm.getFigures()[GeometricManager.ONE_TO_ONE]);
+	assertNull(large.next);
+
+	// Not released yet, a propagation may still visit it
+	SegmentNode fresh = FigurePool.newSegment();
+	assertNotSame(small, fresh);
+
+	FigurePool.release();
+	small.is_new = false;
+	SegmentNode reused = FigurePool.newSegment();
+	assertSame(small, reused);
+	assertTrue(reused.is_new);
+	assertNull(reused.next);
+	assertEquals(1, FigurePool.n_reused);
+    }
+
+    public void testMergedFiguresReused() {
+	HeapInsIntervalManager im = new HeapInsIntervalManager();
+	SegmentNode first = im.addNewFigure(HeapInsIntervalManager.ONE_TO_ONE,
+					    new RectangleNode(1, 100, 1, 0));
+	SegmentNode second = im.addNewFigure(HeapInsIntervalManager.ONE_TO_ONE,
+					     new RectangleNode(50, 200, 1, 0));
+	SegmentNode third = im.addNewFigure(HeapInsIntervalManager.ONE_TO_ONE,
+					    new RectangleNode(80, 300, 1, 0));
+
+	// The newest figure becomes the merged one, the other two are swallowed
+	im.mergeFigures(1);
+	assertSame(third, im.getFigures()[HeapInsIntervalManager.MANY_TO_ALL]);
+	assertNull(im.getFigures()[HeapInsIntervalManager.ONE_TO_ONE]);
+
+	FigurePool.release();
+	SegmentNode a = FigurePool.newSegment();
+	SegmentNode b = FigurePool.newSegment();
+	assertTrue((a == first && b == second) || (a == second && b == first));
+	assertNotSame(third, FigurePool.newSegment());
+    }
+
+    public void testDisabledPoolKeepsNothing() {
+	FigurePool.disable();
+	SegmentNode p = new SegmentNode();
+	FigurePool.drop(p);
+	FigurePool.release();
+	assertNotSame(p, FigurePool.newSegment());
+    }
+}
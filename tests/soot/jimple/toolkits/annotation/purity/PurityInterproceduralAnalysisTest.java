@@ -0,0 +1,223 @@
+package soot.jimple.toolkits.annotation.purity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import junit.framework.TestCase;
+import soot.G;
+import soot.PackManager;
+import soot.Scene;
+import soot.SootMethod;
+import soot.tagkit.StringTag;
+import soot.tagkit.Tag;
+import soot.options.Options;
+import soot.options.PurityOptions;
+
+
+/**
+ * JUnit test checking that PurityInterproceduralAnalysis finds the same
+ * purity of every method when the components of the call graph are
+ * analysed in parallel, and when the library summaries are read from the
+ * file written by a previous run.
+ *
+ * Only Program is an application class. Cell and Visitor are library
+ * classes; Cell.visit calls back into Program, so its summary is not kept.
+ */
+public class PurityInterproceduralAnalysisTest extends TestCase {
+
+    interface Visitor {
+	void see(Object o);
+    }
+
+    static class Cell {
+	Object v;
+	Cell next;
+	static Object global;
+
+	Cell(Object v) {
+	    this.v = v;
+	}
+
+	Object get() {
+	    return v;
+	}
+
+	void set(Object o) {
+	    v = o;
+	}
+
+	Cell copy() {
+	    Cell c = new Cell(v);
+	    if (next != null) c.next = next.copy();
+	    return c;
+	}
+
+	void publish() {
+	    global = v;
+	}
+
+	static boolean even(Cell c) {
+	    return c == null || odd(c.next);
+	}
+
+	static boolean odd(Cell c) {
+	    return c != null && even(c.next);
+	}
+
+	void visit(Visitor x) {
+	    x.see(v);
+	    if (next != null) next.visit(x);
+	}
+    }
+
+    static class Program implements Visitor {
+	Object last;
+
+	public void see(Object o) {
+	    last = o;
+	}
+
+	static Cell build(int n) {
+	    Cell c = null;
+	    for (int i = 0; i < n; i++) {
+		Cell d = new Cell(new Object());
+		d.next = c;
+		c = d;
+	    }
+	    return c;
+	}
+
+	public static void main(String[] args) {
+	    Cell c = build(3);
+	    Cell d = c.copy();
+	    d.set(c.get());
+	    Cell.even(d);
+	    c.publish();
+	    c.visit(new Program());
+	}
+    }
+
+    private static final Pattern READ
+	= Pattern.compile("library summaries: (\\d+) read");
+
+    private File file;
+    private String log;
+
+    public PurityInterproceduralAnalysisTest(String name) {
+	super(name);
+    }
+
+    protected void setUp() throws IOException {
+	file = File.createTempFile("purity", ".summaries");
+	file.delete();
+    }
+
+    protected void tearDown() {
+	file.delete();
+	G.reset();
+    }
+
+    /** Analyses Program with the given purity options, given as name and
+     * value pairs, and returns the purity tags of the analysed methods by
+     * signature. The analysis output is left in log. */
+    private Map<String, Set<String>> analyse(String... options) {
+	G.reset();
+	Options.v().set_whole_program(true);
+	Options.v().set_allow_phantom_refs(true);
+	Options.v().set_output_format(Options.output_format_none);
+	Options.v().set_soot_classpath(System.getProperty("java.class.path"));
+	Options.v().set_main_class(Program.class.getName());
+	Options.v().classes().add(Program.class.getName());
+	Options.v().setPhaseOption("cg.cha", "on");
+	Scene.v().loadNecessaryClasses();
+	PackManager.v().getPack("cg").apply();
+
+	Map<String, String> opts = new HashMap<String, String>();
+	opts.put("enabled", "true");
+	opts.put("print", "false");
+	opts.put("dump-summaries", "false");
+	for (int i = 0; i < options.length; i += 2) {
+	    opts.put(options[i], options[i + 1]);
+	}
+	ByteArrayOutputStream out = new ByteArrayOutputStream();
+	G.v().out = new PrintStream(out);
+	PurityInterproceduralAnalysis p = new PurityInterproceduralAnalysis(
+	    Scene.v().getCallGraph(), Scene.v().getEntryPoints().iterator(),
+	    new PurityOptions(opts));
+	G.v().out.flush();
+	log = out.toString();
+
+	Map<String, Set<String>> ret = new HashMap<String, Set<String>>();
+	for (Iterator it = p.getAnalysedMethods(); it.hasNext(); ) {
+	    SootMethod m = (SootMethod) it.next();
+	    Set<String> tags = new HashSet<String>();
+	    for (Iterator<Tag> itt = m.getTags().iterator(); itt.hasNext(); ) {
+		Tag t = itt.next();
+		if (t instanceof StringTag) tags.add(t.toString());
+	    }
+	    ret.put(m.getSignature(), tags);
+	}
+	return ret;
+    }
+
+    private int summariesRead() {
+	Matcher m = READ.matcher(log);
+	assertTrue("no summaries file in " + log, m.find());
+	return Integer.parseInt(m.group(1));
+    }
+
+    private static String cell(String subSignature) {
+	return "<" + Cell.class.getName() + ": " + subSignature + ">";
+    }
+
+    public void testParallelSameAsSequential() {
+	Map<String, Set<String>> seq = analyse();
+	assertTrue(seq.get(cell("void set(java.lang.Object)"))
+		   .contains("purity: impure"));
+	assertTrue(seq.get(cell("java.lang.Object get()"))
+		   .contains("purity: pure"));
+	assertEquals(seq, analyse("threads", "4"));
+    }
+
+    public void testLibrarySummariesReadBack() {
+	Map<String, Set<String>> seq = analyse();
+	assertEquals(seq, analyse("summaries-file", file.getPath()));
+	assertEquals(0, summariesRead());
+	assertTrue(file.exists());
+
+	assertEquals(seq, analyse("summaries-file", file.getPath(),
+				  "threads", "2"));
+	int read = summariesRead();
+	assertTrue(read > 0);
+
+	// everything but the call back into Program comes from the file
+	int library = 0;
+	for (String sig : seq.keySet()) {
+	    if (sig.startsWith("<" + Cell.class.getName() + ":")) library++;
+	}
+	assertEquals(library - 1, read);
+    }
+
+    public void testGarbageFileIgnored() throws IOException {
+	Writer w = new FileWriter(file);
+	try {
+	    w.write("not summaries\n");
+	} finally {
+	    w.close();
+	}
+	Map<String, Set<String>> seq = analyse();
+	assertEquals(seq, analyse("summaries-file", file.getPath()));
+	assertEquals(0, summariesRead());
+    }
+}
@@ -0,0 +1,135 @@
+package soot.jimple.toolkits.callgraph;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+import soot.G;
+import soot.MethodOrMethodContext;
+import soot.PackManager;
+import soot.Scene;
+import soot.options.Options;
+
+
+/**
+ * JUnit test checking that cg.cha builds the same call graph with several
+ * threads as with one: the same edges, added in the same order, and the
+ * same reachable methods.
+ *
+ * The same interface methods are called from methods reached in different
+ * waves, so that some of these calls are resolved ahead of time.
+ */
+public class CHAThreadsTest extends TestCase {
+
+    interface Shape {
+	double area();
+	String name();
+    }
+
+    static class Circle implements Shape {
+	static final Shape UNIT = new Square();
+	public double area() { return Program.area(UNIT) * 3.14; }
+	public String name() { return "circle"; }
+    }
+
+    static class Square implements Shape {
+	public double area() { return 1; }
+	public String name() { return Program.name(this); }
+    }
+
+    static class Triangle extends Square {
+	public double area() { return Program.half(this); }
+    }
+
+    static class Worker extends Thread {
+	Shape shape = new Triangle();
+	public void run() { Program.describe(shape); }
+    }
+
+    static class Program {
+	static double area(Shape s) {
+	    return s.area();
+	}
+
+	static double half(Shape s) {
+	    return area(new Square()) / 2 + s.name().length();
+	}
+
+	static String name(Shape s) {
+	    return s.getClass().getName() + s.hashCode();
+	}
+
+	static String describe(Shape s) {
+	    return s.name() + s.area() + s.toString();
+	}
+
+	public static void main(String[] args) {
+	    Shape[] shapes = { new Circle(), new Square(), new Triangle() };
+	    for (int i = 0; i < shapes.length; i++) {
+		describe(shapes[i]);
+	    }
+	    new Worker().start();
+	}
+    }
+
+    private static String jdkLocation
+	= System.getProperty("soot.test.jdk",
+			     System.getProperty("java.home") + File.separator
+			     + "lib" + File.separator + "rt.jar");
+
+    public CHAThreadsTest(String name) {
+	super(name);
+    }
+
+    protected void tearDown() {
+	G.reset();
+    }
+
+    /** Returns the edges of the call graph built by cg.cha with the given
+     * number of threads, in the order they were added, followed by the
+     * reachable methods, in the order they were reached. */
+    private static List<String> build(int threads) {
+	G.reset();
+	Options.v().set_whole_program(true);
+	Options.v().set_allow_phantom_refs(true);
+	Options.v().set_output_format(Options.output_format_none);
+	Options.v().set_soot_classpath(System.getProperty("java.class.path")
+				       + File.pathSeparator + jdkLocation);
+	Options.v().set_main_class(Program.class.getName());
+	Options.v().classes().add(Program.class.getName());
+	Options.v().setPhaseOption("cg.cha", "on");
+	Options.v().setPhaseOption("cg.cha", "threads:" + threads);
+	Scene.v().loadNecessaryClasses();
+	PackManager.v().getPack("cg").apply();
+	List<String> ret = new ArrayList<String>();
+	for (Iterator<Edge> it = Scene.v().getCallGraph().listener();
+	     it.hasNext(); ) {
+	    Edge e = it.next();
+	    ret.add(e.toString() + " " + e.kind());
+	}
+	for (Iterator it = Scene.v().getReachableMethods().listener();
+	     it.hasNext(); ) {
+	    ret.add(((MethodOrMethodContext) it.next()).method().toString());
+	}
+	return ret;
+    }
+
+    public void testSameCallGraph() {
+	List<String> one = build(1);
+	boolean lateInterfaceCall = false;
+	for (String edge : one) {
+	    if (edge.startsWith("INTERFACE") && edge.contains(" half(")) {
+		lateInterfaceCall = true;
+	    }
+	}
+	assertTrue(lateInterfaceCall);
+	assertEquals(one, build(4));
+    }
+
+    public void testThreadCountDoesNotMatter() {
+	List<String> four = build(4);
+	assertEquals(four, build(3));
+    }
+}
@@ -0,0 +1,203 @@
+package soot.jimple.toolkits.callgraph;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import soot.G;
+import soot.PackManager;
+import soot.Scene;
+import soot.options.Options;
+
+
+/**
+ * JUnit test comparing the call graphs built by cg.rta and cg.vta with the
+ * ones built by cg.cha and cg.spark for a small program. Every Spark edge
+ * must be found by VTA, every VTA edge by RTA and every RTA edge by CHA.
+ *
+ * The same is checked for a second program whose calls are only reached
+ * through the arguments of reflective calls, resolved by a reflection log.
+ *
+ * The programs are analysed against the class library at
+ * jdkLocation, which defaults to the rt.jar of the running VM and can be
+ * set with the soot.test.jdk property or as the argument of main().
+ */
+public class TypeBasedCallGraphTest extends TestCase {
+
+    interface Shape {
+	double area();
+    }
+
+    static class Square implements Shape {
+	public double area() {
+	    return 4;
+	}
+    }
+
+    static class Circle implements Shape {
+	public double area() {
+	    return 3;
+	}
+    }
+
+    static class Program {
+	public static void main(String[] args) {
+	    Shape s = new Square();
+	    System.out.println(s.area());
+	    System.out.println(Thread.currentThread().getName());
+	    System.out.println(s.getClass().getName());
+	}
+    }
+
+    static class Reflective {
+	Reflective(Shape s) {
+	    s.area();
+	}
+
+	public static void call(Shape s) {
+	    s.area();
+	}
+
+	public static void main(String[] args) throws Exception {
+	    Method m = Reflective.class.getMethod("call", Shape.class);
+	    m.invoke(null, new Object[] { new Circle() });
+	    Constructor<Reflective> c = Reflective.class.getConstructor(Shape.class);
+	    c.newInstance(new Object[] { new Square() });
+	}
+    }
+
+    private static String jdkLocation		// Can be changed by main().
+	= System.getProperty("soot.test.jdk",
+			     System.getProperty("java.home") + File.separator
+			     + "lib" + File.separator + "rt.jar");
+
+    private static Set<String> spark, vta, rta, cha, reflSpark, reflVTA;
+
+    public TypeBasedCallGraphTest(String name) {
+	super(name);
+    }
+
+    /** Returns the edges of the call graph built by the given phase of the
+     * cg pack for the given main class, as strings. */
+    private static Set<String> edges(String phase, Class<?> main,
+				     String reflectionLog) {
+	G.reset();
+	Options.v().set_whole_program(true);
+	Options.v().set_allow_phantom_refs(true);
+	Options.v().set_output_format(Options.output_format_none);
+	Options.v().set_soot_classpath(System.getProperty("java.class.path")
+				       + File.pathSeparator + jdkLocation);
+	Options.v().set_main_class(main.getName());
+	Options.v().classes().add(main.getName());
+	Options.v().setPhaseOption(phase, "on");
+	if (reflectionLog != null) {
+	    Options.v().setPhaseOption("cg", "reflection-log:" + reflectionLog);
+	}
+	Scene.v().loadNecessaryClasses();
+	PackManager.v().getPack("cg").apply();
+	Set<String> ret = new HashSet<String>();
+	for (Iterator<Edge> it = Scene.v().getCallGraph().listener();
+	     it.hasNext(); ) {
+	    ret.add(it.next().toString());
+	}
+	G.reset();
+	return ret;
+    }
+
+    private static Set<String> edges(String phase) {
+	return edges(phase, Program.class, null);
+    }
+
+    /** Writes a reflection log naming the targets of the reflective calls
+     * in Reflective.main. */
+    private static String writeReflectionLog() throws IOException {
+	File log = File.createTempFile("refl", ".log");
+	log.deleteOnExit();
+	String r = Reflective.class.getName();
+	String shape = Shape.class.getName();
+	Writer w = new FileWriter(log);
+	try {
+	    w.write("Method.invoke;<" + r + ": void call(" + shape + ")>;"
+		    + r + ".main;;;\n");
+	    w.write("Constructor.newInstance;<" + r + ": void <init>(" + shape
+		    + ")>;" + r + ".main;;;\n");
+	} finally {
+	    w.close();
+	}
+	return log.getPath();
+    }
+
+    protected void setUp() throws IOException {
+	if (spark == null) {
+	    spark = edges("cg.spark");
+	    vta = edges("cg.vta");
+	    rta = edges("cg.rta");
+	    cha = edges("cg.cha");
+	    String log = writeReflectionLog();
+	    reflSpark = edges("cg.spark", Reflective.class, log);
+	    reflVTA = edges("cg.vta", Reflective.class, log);
+	}
+    }
+
+    private static void assertContainsAll(String name, Set<String> bigger,
+					  Set<String> smaller) {
+	Set<String> missing = new HashSet<String>(smaller);
+	missing.removeAll(bigger);
+	assertTrue(missing.size() + " edges missing from " + name + ", e.g. "
+		   + (missing.isEmpty() ? "" : missing.iterator().next()),
+		   missing.isEmpty());
+    }
+
+    public void testVTAContainsSpark() {
+	assertContainsAll("cg.vta", vta, spark);
+    }
+
+    /** The receivers of the area() calls only arrive through the argument
+     * arrays of Method.invoke and Constructor.newInstance. */
+    public void testVTAContainsSparkWithReflectionLog() {
+	int area = 0;
+	for (Iterator<String> it = reflSpark.iterator(); it.hasNext(); ) {
+	    if (it.next().endsWith(": double area()>")) area++;
+	}
+	assertEquals(2, area);
+	assertContainsAll("cg.vta", reflVTA, reflSpark);
+    }
+
+    public void testRTAContainsVTA() {
+	assertContainsAll("cg.rta", rta, vta);
+    }
+
+    public void testCHAContainsRTA() {
+	assertContainsAll("cg.cha", cha, rta);
+    }
+
+    /** The receivers of these calls come from a static field that only
+     * native code sets and from native methods. */
+    public void testCallsOnNativeObjects() {
+	String main = "<" + Program.class.getName()
+	    + ": void main(java.lang.String[])>";
+	int println = 0, getName = 0;
+	for (Iterator<String> it = vta.iterator(); it.hasNext(); ) {
+	    String e = it.next();
+	    if (e.indexOf(" in " + main + " ==> ") < 0) continue;
+	    if (e.endsWith("ln(java.lang.String)>")) println++;
+	    if (e.endsWith(": java.lang.String getName()>")) getName++;
+	}
+	assertTrue("no println edge out of main", println > 0);
+	assertEquals(2, getName);
+    }
+
+    public static void main(String[] args) {
+	if (args.length > 0) {
+	    jdkLocation = args[0];
+	}
+	junit.textui.TestRunner.run(TypeBasedCallGraphTest.class);
+    }
+}
@@ -0,0 +1,95 @@
+package soot.jimple.toolkits.callgraph;
+
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+import soot.G;
+import soot.PackManager;
+import soot.Scene;
+import soot.SootMethod;
+import soot.options.Options;
+
+
+/**
+ * JUnit regression test checking that VirtualCalls does not keep
+ * resolutions that change once phantom methods are added to the Scene.
+ *
+ * The library is left off the Soot classpath, so java.lang.Thread is
+ * phantom and only gets a getName() method once the super call in
+ * Impl.superName() is resolved. CHA resolves the call in before() earlier
+ * than that and the identical call in after() later, and the latter must
+ * still get its edge.
+ */
+public class VirtualCallsPhantomTest extends TestCase {
+
+    static class Base extends Thread {
+    }
+
+    static class Impl extends Base {
+	String superName() {
+	    after(this);
+	    return super.getName();
+	}
+    }
+
+    static String before(Base b) {
+	return b.getName();
+    }
+
+    static String after(Base b) {
+	return b.getName();
+    }
+
+    static void mid(Impl i) {
+	i.superName();
+    }
+
+    public static void main(String[] args) {
+	Impl i = new Impl();
+	before(i);
+	mid(i);
+    }
+
+    public VirtualCallsPhantomTest(String name) {
+	super(name);
+    }
+
+    protected void setUp() {
+	G.reset();
+	Options.v().set_whole_program(true);
+	Options.v().set_allow_phantom_refs(true);
+	Options.v().set_output_format(Options.output_format_none);
+	Options.v().set_soot_classpath(System.getProperty("java.class.path"));
+	Options.v().set_main_class(getClass().getName());
+	Options.v().classes().add(getClass().getName());
+	Options.v().setPhaseOption("cg.cha", "on");
+	Scene.v().loadNecessaryClasses();
+	PackManager.v().getPack("cg").apply();
+    }
+
+    protected void tearDown() {
+	G.reset();
+    }
+
+    private int countEdgesOutOf(SootMethod m) {
+	int count = 0;
+	for (Iterator<Edge> it = Scene.v().getCallGraph().edgesOutOf(m);
+	     it.hasNext(); it.next()) {
+	    count++;
+	}
+	return count;
+    }
+
+    public void testCallResolvedAfterPhantomMethodIsAdded() {
+	SootMethod superName = Scene.v().getSootClass(Impl.class.getName())
+	    .getMethodByName("superName");
+	SootMethod after = Scene.v().getSootClass(getClass().getName())
+	    .getMethodByName("after");
+	assertEquals(2, countEdgesOutOf(superName));
+	assertEquals(1, countEdgesOutOf(after));
+	Edge e = (Edge) Scene.v().getCallGraph().edgesOutOf(after).next();
+	assertEquals("<java.lang.Thread: java.lang.String getName()>",
+		     e.tgt().getSignature());
+	assertTrue(e.tgt().isPhantom());
+    }
+}
@@ -0,0 +1,169 @@
+package soot.jimple.toolkits.pointer;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import soot.G;
+import soot.PackManager;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.Stmt;
+import soot.options.Options;
+
+
+/**
+ * JUnit test of the transitive side-effect summaries of SideEffectAnalysis
+ * on a recursive call cycle.
+ *
+ * The library is left off the Soot classpath and all calls are static, so
+ * the CHA call graph is exactly the one below.
+ */
+public class SideEffectAnalysisTest extends TestCase {
+
+    static class Program {
+	static int a, b, c, d, e;
+
+	static void even(int n) {
+	    a = n;
+	    if (n > 0) odd(n - 1);
+	}
+
+	static void odd(int n) {
+	    b = c;
+	    leaf();
+	    if (n > 0) even(n - 1);
+	}
+
+	static void leaf() {
+	    d = 1;
+	}
+
+	static void caller() {
+	    even(3);
+	}
+
+	public static void main(String[] args) {
+	    caller();
+	}
+    }
+
+    private SootClass program;
+    private SideEffectAnalysis sea;
+
+    public SideEffectAnalysisTest(String name) {
+	super(name);
+    }
+
+    protected void setUp() {
+	G.reset();
+	Options.v().set_whole_program(true);
+	Options.v().set_allow_phantom_refs(true);
+	Options.v().set_output_format(Options.output_format_none);
+	Options.v().set_soot_classpath(System.getProperty("java.class.path"));
+	Options.v().set_main_class(Program.class.getName());
+	Options.v().classes().add(Program.class.getName());
+	Options.v().setPhaseOption("cg.cha", "on");
+	Scene.v().loadNecessaryClasses();
+	PackManager.v().getPack("cg").apply();
+	program = Scene.v().getSootClass(Program.class.getName());
+	sea = new SideEffectAnalysis(DumbPointerAnalysis.v(),
+				     Scene.v().getCallGraph());
+    }
+
+    protected void tearDown() {
+	G.reset();
+    }
+
+    private SootMethod method(String name) {
+	return program.getMethodByName(name);
+    }
+
+    private Set<SootField> fields(String... names) {
+	Set<SootField> ret = new HashSet<SootField>();
+	for (String name : names) {
+	    ret.add(program.getFieldByName(name));
+	}
+	return ret;
+    }
+
+    public void testCycleSummaries() {
+	for (String name : new String[] { "even", "odd", "caller" }) {
+	    SootMethod m = method(name);
+	    assertEquals(name, fields("c"),
+			 sea.transitiveReadSet(m).getGlobals());
+	    assertEquals(name, fields("a", "b", "d"),
+			 sea.transitiveWriteSet(m).getGlobals());
+	}
+	assertNull(sea.transitiveReadSet(method("leaf")));
+	assertEquals(fields("d"),
+		     sea.transitiveWriteSet(method("leaf")).getGlobals());
+    }
+
+    public void testCallSiteSets() {
+	SootMethod caller = method("caller");
+	Stmt call = null;
+	for (Iterator<Unit> it = caller.retrieveActiveBody().getUnits()
+		 .iterator(); it.hasNext(); ) {
+	    Stmt s = (Stmt) it.next();
+	    if (s.containsInvokeExpr()) call = s;
+	}
+	assertEquals(fields("c"), sea.readSet(caller, call).getGlobals());
+	assertEquals(fields("a", "b", "d"),
+		     sea.writeSet(caller, call).getGlobals());
+    }
+
+    public void testSummariesSharedAndReadOnly() {
+	RWSet even = sea.transitiveWriteSet(method("even"));
+	assertSame(even, sea.transitiveWriteSet(method("odd")));
+	assertNotSame(even, sea.transitiveWriteSet(method("leaf")));
+
+	SootField e = program.getFieldByName("e");
+	try {
+	    even.addGlobal(e);
+	    fail("summary changed");
+	} catch (RuntimeException ex) {
+	}
+	try {
+	    sea.transitiveReadSet(method("odd")).union(even);
+	    fail("summary changed");
+	} catch (RuntimeException ex) {
+	}
+	try {
+	    even.getGlobals().add(e);
+	    fail("summary changed");
+	} catch (UnsupportedOperationException ex) {
+	}
+
+	assertEquals(fields("a", "b", "d"),
+		     sea.transitiveWriteSet(method("odd")).getGlobals());
+	assertEquals(fields("c"),
+		     sea.transitiveReadSet(method("even")).getGlobals());
+    }
+
+    public void testSummariesMixWithOtherSets() {
+	RWSet write = sea.transitiveWriteSet(method("even"));
+	RWSet read = sea.transitiveReadSet(method("even"));
+
+	MethodRWSet copy = new MethodRWSet();
+	copy.union(write);
+	copy.addGlobal(program.getFieldByName("e"));
+	assertEquals(fields("a", "b", "d", "e"), copy.getGlobals());
+	assertEquals(fields("a", "b", "d"), write.getGlobals());
+
+	CodeBlockRWSet block = new CodeBlockRWSet();
+	block.union(read);
+	assertEquals(fields("c"), block.getGlobals());
+
+	assertTrue(copy.hasNonEmptyIntersection(write));
+	assertTrue(write.hasNonEmptyIntersection(copy));
+	assertTrue(write.hasNonEmptyIntersection(
+		       sea.transitiveWriteSet(method("leaf"))));
+	assertFalse(write.hasNonEmptyIntersection(read));
+	assertFalse(block.hasNonEmptyIntersection(write));
+    }
+}
@@ -0,0 +1,106 @@
+package soot.jimple.toolkits.typing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import soot.G;
+import soot.Modifier;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+
+
+/**
+ * JUnit stress test checking that one typing ClassHierarchy can be used
+ * by several threads at once: they create the type nodes of a class tree
+ * in different orders, while asking for ancestors, descendants and least
+ * common ancestors of the nodes created so far.
+ *
+ * Class Ci extends C(i/2), and C1 extends java.lang.Object, so the least
+ * common ancestor of two classes is found by halving the larger index.
+ */
+public class ClassHierarchy_concurrency_Test extends TestCase {
+
+    private static final int THREADS = 8;
+    private static final int CLASSES = 20000;
+
+    public ClassHierarchy_concurrency_Test(String name) {
+	super(name);
+    }
+
+    protected void setUp() {
+	G.reset();
+	SootClass object = new SootClass("java.lang.Object", Modifier.PUBLIC);
+	Scene.v().addClass(object);
+	Scene.v().addClass(new SootClass("java.lang.Cloneable",
+					 Modifier.PUBLIC | Modifier.INTERFACE));
+	Scene.v().addClass(new SootClass("java.io.Serializable",
+					 Modifier.PUBLIC | Modifier.INTERFACE));
+	for (int i = 1; i <= CLASSES; i++) {
+	    SootClass c = new SootClass("C" + i, Modifier.PUBLIC);
+	    c.setSuperclass(i == 1 ? object : Scene.v().getSootClass("C" + i / 2));
+	    Scene.v().addClass(c);
+	}
+    }
+
+    protected void tearDown() {
+	G.reset();
+    }
+
+    private static int lca(int i, int j) {
+	while (i != j) {
+	    if (i > j) i /= 2;
+	    else j /= 2;
+	}
+	return i;
+    }
+
+    /** Returns the class of the k-th node the given thread creates. */
+    private static int order(int thread, int k) {
+	int i = (k + thread * (CLASSES / THREADS)) % CLASSES;
+	if (thread % 2 == 1) i = CLASSES - 1 - i;
+	return i + 1;
+    }
+
+    public void testConcurrentTyping() throws InterruptedException {
+	final ClassHierarchy hierarchy = ClassHierarchy.classHierarchy(Scene.v());
+	final List<String> errors = new ArrayList<String>();
+	List<Thread> threads = new ArrayList<Thread>();
+	for (int t = 0; t < THREADS; t++) {
+	    final int id = t;
+	    threads.add(new Thread() {
+		    public void run() {
+			try {
+			    for (int k = 0; k < CLASSES; k++)
+				check(hierarchy, order(id, k), order(id, k / 2));
+			} catch (Throwable e) {
+			    synchronized (errors) {
+				errors.add(e.toString());
+			    }
+			}
+		    }
+		});
+	}
+	for (Thread thread : threads)
+	    thread.start();
+	for (Thread thread : threads)
+	    thread.join();
+	assertTrue(errors.toString(), errors.isEmpty());
+    }
+
+    private static void check(ClassHierarchy hierarchy, int i, int j)
+	throws TypeException {
+	TypeNode node = hierarchy.typeNode(RefType.v("C" + i));
+	TypeNode other = hierarchy.typeNode(RefType.v("C" + j));
+	if (!node.hasAncestor(hierarchy.OBJECT)
+	    || !hierarchy.OBJECT.hasDescendant(node)
+	    || !hierarchy.NULL.hasAncestor(node)
+	    || !node.hasDescendant(hierarchy.NULL))
+	    throw new AssertionError("wrong ancestors or descendants of " + node);
+	RefType expected = RefType.v("C" + lca(i, j));
+	if (node.lca(other).type() != expected
+	    || other.lcaIfUnique(node).type() != expected)
+	    throw new AssertionError("wrong lca of " + node + " and " + other);
+    }
+}
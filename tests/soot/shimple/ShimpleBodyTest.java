@@ -0,0 +1,156 @@
+package soot.shimple;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import soot.Body;
+import soot.G;
+import soot.Local;
+import soot.Scene;
+import soot.SootClass;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.AssignStmt;
+import soot.jimple.DefinitionStmt;
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.ReturnStmt;
+import soot.options.Options;
+import soot.toolkits.graph.DominanceFrontier;
+
+
+/**
+ * JUnit test checking that rebuilding SSA form after an edit gives the
+ * body a full construction gives, and that the dominance information is
+ * kept while the blocks of the body do not change.
+ */
+public class ShimpleBodyTest extends TestCase {
+
+    static class Program {
+	static int loop(int n) {
+	    int s = 0;
+	    for (int i = 0; i < n; i++) {
+		if (i % 3 == 0) s += i;
+		else s -= 1;
+	    }
+	    return s;
+	}
+
+	static int branch(int a) {
+	    int r;
+	    if (a > 0) r = a * 2;
+	    else r = -a;
+	    return r + 1;
+	}
+    }
+
+    private SootClass program;
+
+    public ShimpleBodyTest(String name) {
+	super(name);
+    }
+
+    protected void setUp() {
+	G.reset();
+	Options.v().set_allow_phantom_refs(true);
+	Options.v().set_output_format(Options.output_format_none);
+	Options.v().set_soot_classpath(System.getProperty("java.class.path"));
+	Options.v().classes().add(Program.class.getName());
+	Scene.v().loadNecessaryClasses();
+	program = Scene.v().getSootClass(Program.class.getName());
+    }
+
+    protected void tearDown() {
+	G.reset();
+    }
+
+    private ShimpleBody shimple(String name) {
+	Body b = program.getMethodByName(name).retrieveActiveBody();
+	return Shimple.v().newBody(b);
+    }
+
+    private static ReturnStmt returnStmt(Body b) {
+	for (Iterator<Unit> it = b.getUnits().iterator(); it.hasNext(); ) {
+	    Unit u = it.next();
+	    if (u instanceof ReturnStmt) return (ReturnStmt) u;
+	}
+	fail("no return in " + b);
+	return null;
+    }
+
+    /** Redefines the local returned by b just before the return, which
+     * leaves the blocks alone but breaks SSA form. */
+    private static void redefineReturned(Body b) {
+	ReturnStmt ret = returnStmt(b);
+	Local l = (Local) ret.getOp();
+	AssignStmt def = Jimple.v().newAssignStmt(l, IntConstant.v(7));
+	b.getUnits().insertBefore(def, ret);
+    }
+
+    private static void assertSSA(Body b) {
+	Set<Value> defined = new HashSet<Value>();
+	for (Iterator<Unit> it = b.getUnits().iterator(); it.hasNext(); ) {
+	    Unit u = it.next();
+	    for (Iterator boxIt = u.getDefBoxes().iterator(); boxIt.hasNext(); ) {
+		Value v = ((ValueBox) boxIt.next()).getValue();
+		if (v instanceof Local)
+		    assertTrue(v + " defined twice in " + b, defined.add(v));
+	    }
+	}
+    }
+
+    /** The body a full SSA construction gives for b. */
+    private static String fullyRebuilt(ShimpleBody b) {
+	return Shimple.v().newBody(b).toString();
+    }
+
+    public void testRebuildKeepsDominanceInfo() {
+	ShimpleBody b = shimple("loop");
+	redefineReturned(b);
+	String expected = fullyRebuilt(b);
+
+	// building the expected body used the factory, so start again
+	b = shimple("loop");
+	DominanceFrontier df = G.v().shimpleFactory.getDominanceFrontier();
+	redefineReturned(b);
+	b.setSSA(false);
+	b.rebuild();
+	assertTrue(b.isSSA());
+	assertSSA(b);
+	assertEquals(expected, b.toString());
+	assertSame(df, G.v().shimpleFactory.getDominanceFrontier());
+    }
+
+    public void testRebuildAfterOtherBody() {
+	ShimpleBody b = shimple("branch");
+	shimple("loop");
+
+	redefineReturned(b);
+	String expected = fullyRebuilt(b);
+	b.rebuild();
+	assertSSA(b);
+	assertEquals(expected, b.toString());
+    }
+
+    public void testChangedBlocksRecomputed() {
+	ShimpleBody b = shimple("branch");
+	DominanceFrontier df = G.v().shimpleFactory.getDominanceFrontier();
+
+	// a branch to the return splits the block holding it
+	ReturnStmt ret = returnStmt(b);
+	Unit first = b.getUnits().getFirst();
+	Local a = (Local) ((DefinitionStmt) first).getLeftOp();
+	b.getUnits().insertAfter(Jimple.v().newIfStmt(
+	    Jimple.v().newEqExpr(a, IntConstant.v(0)), ret), first);
+	redefineReturned(b);
+	String expected = fullyRebuilt(b);
+
+	b.rebuild();
+	assertSSA(b);
+	assertEquals(expected, b.toString());
+	assertNotSame(df, G.v().shimpleFactory.getDominanceFrontier());
+    }
+}
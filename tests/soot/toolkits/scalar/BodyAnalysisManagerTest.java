@@ -0,0 +1,233 @@
+package soot.toolkits.scalar;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import soot.Body;
+import soot.BodyTransformer;
+import soot.G;
+import soot.Local;
+import soot.Pack;
+import soot.PackManager;
+import soot.Scene;
+import soot.SootClass;
+import soot.Transform;
+import soot.Unit;
+import soot.ValueBox;
+import soot.jimple.toolkits.base.Aggregator;
+import soot.jimple.toolkits.scalar.ConstantPropagatorAndFolder;
+import soot.jimple.toolkits.scalar.CopyPropagator;
+import soot.options.Options;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+
+
+/**
+ * JUnit test checking that the local defs and uses a BodyAnalysisManager
+ * keeps while the transformers of a pack edit a body through it are the
+ * ones computed from scratch afterwards, and that edits made around it,
+ * other transformers and the end of the pack drop them.
+ *
+ * The bodies are built without aggregation, copy propagation and dead
+ * assignment elimination, so the transformers below have work to do.
+ */
+public class BodyAnalysisManagerTest extends TestCase {
+
+    static class Program {
+	static int f;
+
+	static int copies(int a) {
+	    int b = a;
+	    int c = b;
+	    int d = c + 1;
+	    return d * c;
+	}
+
+	static int constants() {
+	    int x = 3;
+	    int y = x + 4;
+	    f = y;
+	    return y * x;
+	}
+
+	static int aggregate(int a, int b) {
+	    int t = a + b;
+	    int u = t * 2;
+	    f = u;
+	    return u + f;
+	}
+
+	static int trapped(int a) {
+	    try {
+		int b = a;
+		return 10 / b;
+	    } catch (ArithmeticException e) {
+		return a;
+	    }
+	}
+    }
+
+    private SootClass program;
+
+    public BodyAnalysisManagerTest(String name) {
+	super(name);
+    }
+
+    protected void setUp() {
+	G.reset();
+	Options.v().set_allow_phantom_refs(true);
+	Options.v().set_output_format(Options.output_format_none);
+	Options.v().set_soot_classpath(System.getProperty("java.class.path"));
+	Options.v().setPhaseOption("jb.a", "enabled:false");
+	Options.v().setPhaseOption("jb.cp", "enabled:false");
+	Options.v().setPhaseOption("jb.dae", "enabled:false");
+	Options.v().classes().add(Program.class.getName());
+	Scene.v().loadNecessaryClasses();
+	program = Scene.v().getSootClass(Program.class.getName());
+    }
+
+    protected void tearDown() {
+	G.reset();
+    }
+
+    private Body body(String name) {
+	return program.getMethodByName(name).retrieveActiveBody();
+    }
+
+    /** Checks that the defs and uses of the manager of b are those
+     * computed again from scratch. */
+    private static void assertUpToDate(Body b) {
+	LocalDefs defs = b.getAnalysisManager().getLocalDefs();
+	LocalUses uses = b.getAnalysisManager().getLocalUses();
+	ExceptionalUnitGraph g = new ExceptionalUnitGraph(b);
+	LocalDefs freshDefs = new SmartLocalDefs(g, new SimpleLiveLocals(g));
+	LocalUses freshUses = new SimpleLocalUses(g, freshDefs);
+
+	for (Iterator<Unit> it = b.getUnits().iterator(); it.hasNext(); ) {
+	    Unit u = it.next();
+	    assertEquals(u.toString(), new HashSet(freshUses.getUsesOf(u)),
+			 new HashSet(uses.getUsesOf(u)));
+	    for (Iterator boxIt = u.getUseBoxes().iterator(); boxIt.hasNext(); ) {
+		ValueBox box = (ValueBox) boxIt.next();
+		if (!(box.getValue() instanceof Local)) continue;
+		Local l = (Local) box.getValue();
+		List<Unit> ds = defs.getDefsOfAt(l, u);
+		assertNotNull(l + " at " + u, ds);
+		assertEquals(l + " at " + u,
+			     new HashSet<Unit>(freshDefs.getDefsOfAt(l, u)),
+			     new HashSet<Unit>(ds));
+	    }
+	}
+    }
+
+    private static int size(Body b) {
+	return b.getUnits().size();
+    }
+
+    /** Applies the given transformers to b, in the jtp pack. */
+    private static void applyInPack(Body b, BodyTransformer[] ts) {
+	Pack jtp = PackManager.v().getPack("jtp");
+	for (int i = 0; i < ts.length; i++) {
+	    Transform t = new Transform("jtp.t" + i, ts[i]);
+	    t.setDefaultOptions("enabled:true");
+	    jtp.add(t);
+	}
+	jtp.apply(b);
+    }
+
+    /** Records the analyses kept for the body, and checks them. */
+    static class Probe extends BodyTransformer {
+	BodyAnalysisManager analyses;
+	LocalDefs defs;
+	LocalUses uses;
+
+	protected void internalTransform(Body b, String phaseName, Map options) {
+	    analyses = b.getAnalysisManager();
+	    defs = analyses.getLocalDefs();
+	    uses = analyses.getLocalUses();
+	    assertUpToDate(b);
+	}
+
+	protected boolean keepsAnalyses() {
+	    return true;
+	}
+    }
+
+    /** Puts the value of a box of the last unit back in it, an edit the
+     * manager cannot see. */
+    static class BoxEditor extends BodyTransformer {
+	protected void internalTransform(Body b, String phaseName, Map options) {
+	    ValueBox box = (ValueBox) b.getUnits().getLast().getUseBoxes().get(0);
+	    box.setValue(box.getValue());
+	}
+    }
+
+    public void testCopiesPropagatedInPlace() {
+	Body b = body("copies");
+	Probe before = new Probe(), after = new Probe();
+	applyInPack(b, new BodyTransformer[] { before, CopyPropagator.v(), after });
+	assertSame(before.uses, after.uses);
+    }
+
+    public void testConstantsFoldedInPlace() {
+	Body b = body("constants");
+	Probe before = new Probe(), after = new Probe();
+	applyInPack(b, new BodyTransformer[] {
+	    before, ConstantPropagatorAndFolder.v(), after });
+	assertSame(before.defs, after.defs);
+    }
+
+    public void testAggregatedInPlace() {
+	Body b = body("aggregate");
+	int size = size(b);
+	Probe before = new Probe(), after = new Probe();
+	applyInPack(b, new BodyTransformer[] { before, Aggregator.v(), after });
+	assertTrue(size(b) < size);
+	assertSame(before.uses, after.uses);
+    }
+
+    public void testTrappedUnitsComputedAgain() {
+	Body b = body("trapped");
+	Probe before = new Probe(), after = new Probe();
+	applyInPack(b, new BodyTransformer[] {
+	    before, CopyPropagator.v(), Aggregator.v(), after });
+	assertNotSame(before.uses, after.uses);
+    }
+
+    public void testOtherTransformersDropAnalyses() {
+	Body b = body("copies");
+	Probe before = new Probe(), after = new Probe();
+	applyInPack(b, new BodyTransformer[] { before, new BoxEditor(), after });
+	assertNotSame(before.analyses, after.analyses);
+    }
+
+    public void testReleasedAfterPack() {
+	Body b = body("copies");
+	Probe probe = new Probe();
+	applyInPack(b, new BodyTransformer[] { probe });
+	assertNotSame(probe.analyses, b.getAnalysisManager());
+
+	// outside a pack, a transformer does not keep them either
+	BodyAnalysisManager analyses = b.getAnalysisManager();
+	CopyPropagator.v().transform(b, "jop.cp");
+	assertNotSame(analyses, b.getAnalysisManager());
+    }
+
+    public void testOtherEditsDropAnalyses() {
+	Body b = body("copies");
+	BodyAnalysisManager analyses = b.getAnalysisManager();
+	LocalDefs defs = analyses.getLocalDefs();
+	assertSame(defs, analyses.getLocalDefs());
+
+	b.getUnits().removeFirst();
+	LocalDefs after = analyses.getLocalDefs();
+	assertNotSame(defs, after);
+	assertUpToDate(b);
+
+	// edits of another body leave them alone
+	body("constants").getUnits().removeFirst();
+	assertSame(after, analyses.getLocalDefs());
+    }
+}
@@ -0,0 +1,207 @@
+package soot.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import soot.G;
+import soot.IntType;
+import soot.RefType;
+import soot.Scene;
+import soot.SootField;
+import soot.SootMethod;
+import soot.Type;
+import soot.VoidType;
+
+
+/**
+ * JUnit stress test checking that StringNumberer (and the ArrayNumberer
+ * it is built on) hands out unique, dense numbers when several threads
+ * intern and number strings at the same time, and that the type, method
+ * and field numberers of the Scene do the same when several threads make
+ * types, methods and fields.
+ */
+public class StringNumberer_concurrency_Test extends TestCase {
+
+    private static final int THREADS = 8;
+    private static final int STRINGS = 20000;
+    private static final int MEMBERS = 5000;
+
+    public StringNumberer_concurrency_Test(String name) {
+	super(name);
+    }
+
+    protected void tearDown() {
+	G.reset();
+    }
+
+    /** Work done by each of THREADS threads. */
+    private static abstract class Job {
+	abstract void run(int id);
+    }
+
+    private static void runConcurrently(final Job job)
+	throws InterruptedException {
+	List<Thread> threads = new ArrayList<Thread>();
+	for (int t = 0; t < THREADS; t++) {
+	    final int id = t;
+	    threads.add(new Thread() {
+		    public void run() {
+			job.run(id);
+		    }
+		});
+	}
+	for (Thread thread : threads)
+	    thread.start();
+	for (Thread thread : threads)
+	    thread.join();
+    }
+
+    /** Checks that the objects numbered by numberer since it held before
+     * objects are exactly the given ones, numbered densely. */
+    private static void assertNumberedDensely(ArrayNumberer numberer,
+					      int before,
+					      List<? extends Numberable> objects) {
+	assertEquals(before + objects.size(), numberer.size());
+	Set<Integer> numbers = new HashSet<Integer>();
+	for (Numberable o : objects) {
+	    int n = o.getNumber();
+	    assertTrue(n > before && n <= before + objects.size());
+	    assertTrue(numbers.add(new Integer(n)));
+	    assertSame(o, numberer.get((long) n));
+	}
+    }
+
+    /**
+     * Every thread interns the same strings, each starting at a different
+     * offset and half of them backwards, and remembers what it got back.
+     */
+    private NumberedString[][] internConcurrently(final StringNumberer numberer)
+	throws InterruptedException {
+	final NumberedString[][] results = new NumberedString[THREADS][STRINGS];
+	List<Thread> threads = new ArrayList<Thread>();
+	for (int t = 0; t < THREADS; t++) {
+	    final int id = t;
+	    Thread thread = new Thread() {
+		    public void run() {
+			for (int i = 0; i < STRINGS; i++) {
+			    int k = (i + id * (STRINGS / THREADS)) % STRINGS;
+			    if (id % 2 == 1) k = STRINGS - 1 - k;
+			    results[id][k] = numberer.findOrAdd("sig" + k);
+			}
+		    }
+		};
+	    threads.add(thread);
+	}
+	for (Thread thread : threads)
+	    thread.start();
+	for (Thread thread : threads)
+	    thread.join();
+	return results;
+    }
+
+    public void testSameStringGetsSameObject() throws InterruptedException {
+	StringNumberer numberer = new StringNumberer();
+	NumberedString[][] results = internConcurrently(numberer);
+	for (int k = 0; k < STRINGS; k++) {
+	    NumberedString first = results[0][k];
+	    assertEquals("sig" + k, first.getString());
+	    for (int t = 1; t < THREADS; t++)
+		assertSame(first, results[t][k]);
+	}
+    }
+
+    public void testNumbersAreDense() throws InterruptedException {
+	StringNumberer numberer = new StringNumberer();
+	NumberedString[][] results = internConcurrently(numberer);
+	assertEquals(STRINGS, numberer.size());
+
+	Set<Integer> numbers = new HashSet<Integer>();
+	for (int k = 0; k < STRINGS; k++) {
+	    int n = results[0][k].getNumber();
+	    assertTrue(n >= 1 && n <= STRINGS);
+	    assertTrue(numbers.add(new Integer(n)));
+	    assertSame(results[0][k], numberer.get((long) n));
+	}
+
+	int count = 0;
+	for (NumberedString s : numberer)
+	    assertEquals(++count, s.getNumber());
+	assertEquals(STRINGS, count);
+    }
+
+    public void testRefTypesInternedOnce() throws InterruptedException {
+	G.reset();
+	ArrayNumberer numberer = Scene.v().getTypeNumberer();
+	final RefType[][] results = new RefType[THREADS][MEMBERS];
+	int before = numberer.size();
+	runConcurrently(new Job() {
+		void run(int id) {
+		    for (int i = 0; i < MEMBERS; i++) {
+			int k = (i + id * (MEMBERS / THREADS)) % MEMBERS;
+			if (id % 2 == 1) k = MEMBERS - 1 - k;
+			results[id][k] = RefType.v("p.C" + k);
+		    }
+		}
+	    });
+
+	List<RefType> types = new ArrayList<RefType>();
+	for (int k = 0; k < MEMBERS; k++) {
+	    assertEquals("p.C" + k, results[0][k].getClassName());
+	    for (int t = 1; t < THREADS; t++)
+		assertSame(results[0][k], results[t][k]);
+	    types.add(results[0][k]);
+	}
+	assertNumberedDensely(numberer, before, types);
+    }
+
+    public void testMethodsNumberedDensely() throws InterruptedException {
+	G.reset();
+	ArrayNumberer numberer = Scene.v().getMethodNumberer();
+	final Type ret = VoidType.v();
+	final List<Type> params = new ArrayList<Type>();
+	params.add(IntType.v());
+	final SootMethod[][] results = new SootMethod[THREADS][MEMBERS];
+	int before = numberer.size();
+	runConcurrently(new Job() {
+		void run(int id) {
+		    // all threads make methods of the same subsignatures
+		    for (int i = 0; i < MEMBERS; i++)
+			results[id][i] = new SootMethod("m" + i, params, ret);
+		}
+	    });
+
+	List<SootMethod> methods = new ArrayList<SootMethod>();
+	for (int i = 0; i < MEMBERS; i++) {
+	    for (int t = 0; t < THREADS; t++) {
+		methods.add(results[t][i]);
+		assertSame(results[0][i].getNumberedSubSignature(),
+			   results[t][i].getNumberedSubSignature());
+	    }
+	}
+	assertNumberedDensely(numberer, before, methods);
+    }
+
+    public void testFieldsNumberedDensely() throws InterruptedException {
+	G.reset();
+	ArrayNumberer numberer = Scene.v().getFieldNumberer();
+	final Type type = RefType.v("java.lang.Object");
+	final SootField[][] results = new SootField[THREADS][MEMBERS];
+	int before = numberer.size();
+	runConcurrently(new Job() {
+		void run(int id) {
+		    for (int i = 0; i < MEMBERS; i++)
+			results[id][i] = new SootField("f" + i, type);
+		}
+	    });
+
+	List<SootField> fields = new ArrayList<SootField>();
+	for (SootField[] row : results) {
+	    for (SootField f : row)
+		fields.add(f);
+	}
+	assertNumberedDensely(numberer, before, fields);
+    }
+}